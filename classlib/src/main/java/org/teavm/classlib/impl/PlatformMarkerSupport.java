@@ -65,12 +65,14 @@ public class PlatformMarkerSupport implements ClassHolderTransformer {
         for (BasicBlock block : program.getBasicBlocks()) {
             for (Instruction instruction : block) {
                 Variable receiver;
+                boolean matches;
                 if (instruction instanceof InvokeInstruction) {
                     MethodReference methodRef = ((InvokeInstruction) instruction).getMethod();
                     MethodReader method = innerSource.resolve(methodRef);
                     if (method == null || !isMarker(method)) {
                         continue;
                     }
+                    matches = matchesTags(method);
                     if (!method.hasModifier(ElementModifier.STATIC)) {
                         diagnostics.error(new CallLocation(containingMethod, instruction.getLocation()),
                                 "Method '{{m0}}' is marked with '{{c1}}' and should be static",
@@ -90,6 +92,7 @@ public class PlatformMarkerSupport implements ClassHolderTransformer {
                     if (field == null || !isMarker(field)) {
                         continue;
                     }
+                    matches = matchesTags(field);
                     if (!field.hasModifier(ElementModifier.STATIC)) {
                         diagnostics.error(new CallLocation(containingMethod, instruction.getLocation()),
                                 "Field '{{f0}}' is marked with '{{c1}}' and should be static",
@@ -111,11 +114,11 @@ public class PlatformMarkerSupport implements ClassHolderTransformer {
                 if (receiver == null) {
                     instruction.delete();
                 } else {
-                    IntegerConstantInstruction trueResult = new IntegerConstantInstruction();
-                    trueResult.setReceiver(receiver);
-                    trueResult.setConstant(1);
-                    trueResult.setLocation(instruction.getLocation());
-                    instruction.replace(trueResult);
+                    IntegerConstantInstruction result = new IntegerConstantInstruction();
+                    result.setReceiver(receiver);
+                    result.setConstant(matches ? 1 : 0);
+                    result.setLocation(instruction.getLocation());
+                    instruction.replace(result);
                 }
             }
         }
@@ -131,10 +134,11 @@ public class PlatformMarkerSupport implements ClassHolderTransformer {
     }
 
     private boolean isMarker(MemberReader member) {
+        return member.getAnnotations().get(PlatformMarker.class.getName()) != null;
+    }
+
+    private boolean matchesTags(MemberReader member) {
         AnnotationReader annot = member.getAnnotations().get(PlatformMarker.class.getName());
-        if (annot == null) {
-            return false;
-        }
         AnnotationValue value = annot.getValue("value");
         if (value == null) {
             return true;
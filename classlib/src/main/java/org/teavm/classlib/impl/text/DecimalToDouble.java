@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.impl.text;
+
+import java.math.BigInteger;
+
+/**
+ * <p>Converts decimal numbers to the closest <code>double</code> value, ties are broken towards
+ * the even value, as required by {@link Double#parseDouble(String)}.</p>
+ *
+ * <p>Numbers that have at most 15 significant digits and a small exponent are converted by a single
+ * floating point operation, which is exact (see W. D. Clinger, "How to read floating point numbers
+ * accurately"). Other numbers are divided using big integers, so the result is exact regardless
+ * of the number of digits.</p>
+ */
+public final class DecimalToDouble {
+    private static final int MAX_FAST_DIGITS = 15;
+    private static final int MAX_FAST_EXPONENT = 22;
+    private static final double[] POWERS_OF_TEN = new double[MAX_FAST_EXPONENT + 1];
+    private static final int MIN_EXPONENT = -1022;
+    private static final int MAX_EXPONENT = 1023;
+    private static final int MANTISSA_BITS = 53;
+    private static final int HALF_SUBNORMAL_SCALE = 537;
+
+    static {
+        double power = 1;
+        for (int i = 0; i < POWERS_OF_TEN.length; ++i) {
+            POWERS_OF_TEN[i] = power;
+            power *= 10;
+        }
+    }
+
+    private DecimalToDouble() {
+    }
+
+    /**
+     * Converts decimal number <code>digits &times; 10<sup>exponent</sup></code> to <code>double</code>.
+     *
+     * @param digits decimal digits without leading zeros.
+     * @param digitCount number of digits.
+     * @param exponent decimal exponent.
+     */
+    public static double toDouble(char[] digits, int digitCount, int exponent) {
+        while (digitCount > 0 && digits[digitCount - 1] == '0') {
+            --digitCount;
+            ++exponent;
+        }
+        if (digitCount == 0 || digitCount + exponent < -324) {
+            return 0;
+        }
+        if (digitCount + exponent > 310) {
+            return Double.POSITIVE_INFINITY;
+        }
+
+        if (digitCount <= MAX_FAST_DIGITS && Math.abs(exponent) <= MAX_FAST_EXPONENT) {
+            long mantissa = 0;
+            for (int i = 0; i < digitCount; ++i) {
+                mantissa = mantissa * 10 + (digits[i] - '0');
+            }
+            return exponent >= 0 ? mantissa * POWERS_OF_TEN[exponent] : mantissa / POWERS_OF_TEN[-exponent];
+        }
+
+        BigInteger numerator = new BigInteger(new String(digits, 0, digitCount));
+        BigInteger denominator = BigInteger.ONE;
+        if (exponent >= 0) {
+            numerator = numerator.multiply(BigInteger.TEN.pow(exponent));
+        } else {
+            denominator = BigInteger.TEN.pow(-exponent);
+        }
+
+        // Scale the quotient so that it has 55 or 56 bits, i.e. mantissa, round bit and at least one more bit
+        int shift = MANTISSA_BITS + 2 - (numerator.bitLength() - denominator.bitLength());
+        if (shift > 0) {
+            numerator = numerator.shiftLeft(shift);
+        } else {
+            denominator = denominator.shiftLeft(-shift);
+        }
+        BigInteger[] quotientAndRemainder = numerator.divideAndRemainder(denominator);
+        long quotient = quotientAndRemainder[0].longValue();
+        boolean sticky = quotientAndRemainder[1].signum() != 0;
+
+        int quotientBits = 64 - Long.numberOfLeadingZeros(quotient);
+        int binaryExponent = quotientBits - 1 - shift;
+        if (binaryExponent > MAX_EXPONENT) {
+            return Double.POSITIVE_INFINITY;
+        }
+        int keptBits = MANTISSA_BITS;
+        if (binaryExponent < MIN_EXPONENT) {
+            keptBits -= MIN_EXPONENT - binaryExponent;
+            if (keptBits < 0) {
+                return 0;
+            }
+        }
+
+        int droppedBits = quotientBits - keptBits;
+        long mantissa = quotient >>> droppedBits;
+        long remainder = quotient & ((1L << droppedBits) - 1);
+        long half = 1L << (droppedBits - 1);
+        if (remainder > half || remainder == half && (sticky || (mantissa & 1) != 0)) {
+            ++mantissa;
+            if (mantissa == 1L << MANTISSA_BITS) {
+                mantissa >>>= 1;
+                ++droppedBits;
+                if (++binaryExponent > MAX_EXPONENT) {
+                    return Double.POSITIVE_INFINITY;
+                }
+            }
+        }
+        return scale(mantissa, droppedBits - shift);
+    }
+
+    private static double scale(long mantissa, int binaryExponent) {
+        if (binaryExponent >= MIN_EXPONENT) {
+            return mantissa * powerOfTwo(binaryExponent);
+        }
+        // 2^binaryExponent is not representable, but the result is, so scale in two exact steps
+        return mantissa * powerOfTwo(binaryExponent + HALF_SUBNORMAL_SCALE) * powerOfTwo(-HALF_SUBNORMAL_SCALE);
+    }
+
+    private static double powerOfTwo(int n) {
+        double result = 1;
+        double factor = n >= 0 ? 2 : 0.5;
+        n = Math.abs(n);
+        while (n != 0) {
+            if (n % 2 != 0) {
+                result *= factor;
+            }
+            n /= 2;
+            if (n != 0) {
+                factor *= factor;
+            }
+        }
+        return result;
+    }
+}
@@ -80,9 +80,20 @@ public final class DateTimeZoneProvider {
             return null;
         }
 
-        List<Score> zones = new ArrayList<>();
         long time = System.currentTimeMillis();
         int offset = -getNativeOffset(System.currentTimeMillis());
+
+        // Browser may tell time zone identifier directly. In this case only one time zone gets decoded,
+        // otherwise all time zones are compared against offsets reported by browser.
+        String nativeId = getNativeTimeZoneId();
+        if (nativeId != null && getTimeZoneResource(nativeId) != null) {
+            DateTimeZone tz = getTimeZone(nativeId);
+            if (tz.getOffset(time) / 60_000 == offset) {
+                return tz;
+            }
+        }
+
+        List<Score> zones = new ArrayList<>();
         for (String id : getIds()) {
             DateTimeZone tz = getTimeZone(id);
             if (tz instanceof AliasDateTimeZone) {
@@ -191,6 +202,10 @@ public final class DateTimeZoneProvider {
     @JSBody(params = "instant", script = "return new Date(instant).getTimezoneOffset();")
     private static native int getNativeOffset(double instant);
 
+    @JSBody(script = "try { return Intl.DateTimeFormat().resolvedOptions().timeZone || null; } "
+            + "catch (e) { return null; }")
+    private static native String getNativeTimeZoneId();
+
     @MetadataProvider(TimeZoneGenerator.class)
     private static native ResourceMap<ResourceMap<TimeZoneResource>> getResource();
 }
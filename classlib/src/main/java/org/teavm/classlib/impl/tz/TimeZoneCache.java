@@ -36,27 +36,20 @@ public class TimeZoneCache {
 
     public Map<String, StorableDateTimeZone> read(InputStream input) throws IOException {
         Map<String, StorableDateTimeZone> result = new HashMap<>();
-        BufferedReader reader = new BufferedReader(new InputStreamReader(input, "UTF-8"));
-        List<String> aliasLines = new ArrayList<>();
-        while (true) {
-            String line = reader.readLine();
-            if (line == null || line.isEmpty()) {
-                break;
-            }
-            int index = line.indexOf(' ');
-            String id = line.substring(0, index);
-            String data = line.substring(index + 1);
+        List<String> aliasIds = new ArrayList<>();
+        Map<String, String> dataMap = readData(input);
+        for (Map.Entry<String, String> entry : dataMap.entrySet()) {
+            String id = entry.getKey();
+            String data = entry.getValue();
             CharFlow flow = new CharFlow(data.toCharArray());
             if (Base46.decodeUnsigned(flow) == StorableDateTimeZone.ALIAS) {
-                aliasLines.add(line);
+                aliasIds.add(id);
             } else {
                 result.put(id, StorableDateTimeZone.read(id, data));
             }
         }
-        for (String aliasLine : aliasLines) {
-            int index = aliasLine.indexOf(' ');
-            String id = aliasLine.substring(0, index);
-            String data = aliasLine.substring(index + 1);
+        for (String id : aliasIds) {
+            String data = dataMap.get(id);
             CharFlow flow = new CharFlow(data.toCharArray());
             Base46.decode(flow);
             result.put(id, result.get(data.substring(flow.pointer)));
@@ -64,6 +57,24 @@ public class TimeZoneCache {
         return result;
     }
 
+    /**
+     * Reads encoded time zones without decoding them, so that they can be passed to the generated code as is.
+     * Aliases are kept as aliases.
+     */
+    public Map<String, String> readData(InputStream input) throws IOException {
+        Map<String, String> result = new LinkedHashMap<>();
+        BufferedReader reader = new BufferedReader(new InputStreamReader(input, "UTF-8"));
+        while (true) {
+            String line = reader.readLine();
+            if (line == null || line.isEmpty()) {
+                break;
+            }
+            int index = line.indexOf(' ');
+            result.put(line.substring(0, index), line.substring(index + 1));
+        }
+        return result;
+    }
+
     public static void main(String[] args) throws IOException {
         ZoneInfoCompiler compiler = new ZoneInfoCompiler();
         TimeZoneGenerator.compile(compiler, TimeZoneCache.class.getClassLoader());
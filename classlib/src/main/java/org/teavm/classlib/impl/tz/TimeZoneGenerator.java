@@ -20,7 +20,8 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
-import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
 import java.util.zip.ZipEntry;
 import java.util.zip.ZipInputStream;
 import org.teavm.model.MethodReference;
@@ -68,21 +69,25 @@ public class TimeZoneGenerator implements MetadataGenerator {
     public ResourceMap<ResourceMap<TimeZoneResource>> generateMetadata(
             MetadataGeneratorContext context, MethodReference method) {
         ResourceMap<ResourceMap<TimeZoneResource>> result = context.createResourceMap();
-        ZoneInfoCompiler compiler = new ZoneInfoCompiler();
-        Collection<StorableDateTimeZone> zones;
+        Map<String, String> zones;
         try (InputStream input = context.getClassLoader().getResourceAsStream("org/teavm/classlib/impl/tz/cache")) {
             if (input != null) {
-                TimeZoneCache cache = new TimeZoneCache();
-                zones = cache.read(new BufferedInputStream(input)).values();
+                zones = new TimeZoneCache().readData(new BufferedInputStream(input));
             } else {
+                ZoneInfoCompiler compiler = new ZoneInfoCompiler();
                 compile(compiler, context.getClassLoader());
-                zones = compiler.compile().values();
+                zones = new LinkedHashMap<>();
+                for (Map.Entry<String, StorableDateTimeZone> entry : compiler.compile().entrySet()) {
+                    StringBuilder data = new StringBuilder();
+                    entry.getValue().write(data);
+                    zones.put(entry.getKey(), data.toString());
+                }
             }
         } catch (IOException e) {
             throw new RuntimeException("Error generating time zones", e);
         }
-        for (StorableDateTimeZone tz : zones) {
-            String id = tz.getID();
+        for (Map.Entry<String, String> entry : zones.entrySet()) {
+            String id = entry.getKey();
             int sepIndex = id.indexOf('/');
             String areaName;
             String locationName;
@@ -100,9 +105,7 @@ public class TimeZoneGenerator implements MetadataGenerator {
             }
 
             TimeZoneResource tzRes = context.createResource(TimeZoneResource.class);
-            StringBuilder data = new StringBuilder();
-            tz.write(data);
-            tzRes.setData(data.toString());
+            tzRes.setData(entry.getValue());
             area.put(locationName, tzRes);
         }
 
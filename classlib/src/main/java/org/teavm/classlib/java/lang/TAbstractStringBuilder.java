@@ -15,29 +15,13 @@
  */
 package org.teavm.classlib.java.lang;
 
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.classlib.impl.text.DoubleToDecimal;
 import org.teavm.classlib.java.io.TSerializable;
 import org.teavm.classlib.java.util.TArrays;
+import org.teavm.jso.JSBody;
 
 class TAbstractStringBuilder extends TObject implements TSerializable, TCharSequence {
-    private static float[] powersOfTen = { 1E1f, 1E2f, 1E4f, 1E8f, 1E16f, 1E32f };
-    private static double[] doublePowersOfTen = { 1E1, 1E2, 1E4, 1E8, 1E16, 1E32, 1E64, 1E128, 1E256 };
-    private static float[] negPowersOfTen = { 1E-1f, 1E-2f, 1E-4f, 1E-8f, 1E-16f, 1E-32f };
-    private static double[] negDoublePowersOfTen = { 1E-1, 1E-2, 1E-4, 1E-8, 1E-16, 1E-32,
-            1E-64, 1E-128, 1E-256 };
-    private static int[] intPowersOfTen = { 1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000,
-            1000000000 };
-    private static long[] longPowersOfTen = { 1, 10, 100, 1000, 10000, 100000, 1000000, 10000000, 100000000,
-            1000000000, 10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
-            1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L };
-    private static final long[] longLogPowersOfTen = { 1, 10, 100, 10000, 100000000, 10000000000000000L, };
-    private static final int FLOAT_DECIMAL_PRECISION = 7;
-    private static final int DOUBLE_DECIMAL_PRECISION = 16;
-    private static final float FLOAT_DECIMAL_FACTOR = 1E6f;
-    private static final double DOUBLE_DECIMAL_FACTOR = 1E15;
-    private static final int FLOAT_MAX_EXPONENT = 38;
-    private static final int DOUBLE_MAX_EXPONENT = 308;
-    private static final int FLOAT_MAX_POS = 1000000;
-    private static final long DOUBLE_MAX_POS = 1000000000000000L;
     char[] buffer;
     private int length;
 
@@ -190,14 +174,12 @@ class TAbstractStringBuilder extends TObject implements TSerializable, TCharSequ
 
     protected TAbstractStringBuilder insert(int target, float value) {
         if (value == 0) {
-            insertSpace(target, target + 3);
-            buffer[target++] = '0';
-            buffer[target++] = '.';
-            buffer[target++] = '0';
-            return this;
-        } else if (value == -0) {
-            insertSpace(target, target + 4);
-            buffer[target++] = '-';
+            if (1 / value > 0) {
+                insertSpace(target, target + 3);
+            } else {
+                insertSpace(target, target + 4);
+                buffer[target++] = '-';
+            }
             buffer[target++] = '0';
             buffer[target++] = '.';
             buffer[target++] = '0';
@@ -225,122 +207,15 @@ class TAbstractStringBuilder extends TObject implements TSerializable, TCharSequ
             buffer[target++] = 'y';
             return this;
         }
-        // Get absolute value
-        boolean negative = false;
-        int sz = 1; // Decimal point always included
-        if (value < 0) {
-            negative = true;
-            value = -value;
-            ++sz; // including '-' sign of mantissa
-        }
-
-        // Split into decimal mantissa and decimal exponent
-        int exp = 0;
-        int mantissa = 0;
-        int intPart = 1;
-        int digits = 0;
-        if (value >= 1) {
-            int bit = 32;
-            exp = 0;
-            float digit = 1;
-            for (int i = powersOfTen.length - 1; i >= 0; --i) {
-                if ((exp | bit) <= FLOAT_MAX_EXPONENT && powersOfTen[i] * digit <= value) {
-                    digit *= powersOfTen[i];
-                    exp |= bit;
-                }
-                bit >>= 1;
-            }
-            mantissa = (int) ((value / (digit / FLOAT_DECIMAL_FACTOR)) + 0.5f);
-        } else {
-            int bit = 32;
-            exp = 0;
-            float digit = 1;
-            for (int i = negPowersOfTen.length - 1; i >= 0; --i) {
-                if ((exp | bit) <= 38 && negPowersOfTen[i] * digit * 10 > value) {
-                    digit *= negPowersOfTen[i];
-                    exp |= bit;
-                }
-                bit >>= 1;
-            }
-            exp = -exp;
-            mantissa = (int) (((value * FLOAT_MAX_POS) / digit) + 0.5f);
-
-            while (mantissa >= 10000000) {
-                mantissa /= 10;
-                exp--;
-            }
-        }
-
-        // Remove trailing zeros
-        digits = FLOAT_DECIMAL_PRECISION;
-        int zeros = trailingDecimalZeros(mantissa);
-        if (zeros > 0) {
-            digits -= zeros;
-        }
-
-        // Handle special case of exponent close to 0
-        if (exp < 7 && exp >= -3) {
-            if (exp >= 0) {
-                intPart = exp + 1;
-                digits = Math.max(digits, intPart + 1);
-                exp = 0;
-            } else if (exp < 0) {
-                mantissa /= intPowersOfTen[-exp];
-                digits -= exp;
-                exp = 0;
-            }
-        }
-
-        // Extend buffer to store exponent
-        if (exp != 0) {
-            sz += 2;
-            if (exp <= -10 || exp >= 10) {
-                ++sz;
-            }
-            if (exp < 0) {
-                ++sz;
-            }
-        }
-
-        if (exp != 0 && digits == intPart) {
-            digits++;
-        }
-        sz += digits;
-
-        // Print mantissa
-        insertSpace(target, target + sz);
+        boolean negative = value < 0;
         if (negative) {
-            buffer[target++] = '-';
-        }
-        int pos = FLOAT_MAX_POS;
-        for (int i = 0; i < digits; ++i) {
-            int intDigit;
-            if (pos > 0) {
-                intDigit = mantissa / pos;
-                mantissa %= pos;
-            } else {
-                intDigit = 0;
-            }
-            buffer[target++] = (char) ('0' + intDigit);
-            if (--intPart == 0) {
-                buffer[target++] = '.';
-            }
-            pos /= 10;
-        }
-
-        // Print exponent
-        if (exp != 0) {
-            buffer[target++] = 'E';
-            if (exp < 0) {
-                exp = -exp;
-                buffer[target++] = '-';
-            }
-            if (exp >= 10) {
-                buffer[target++] = (char) ('0' + exp / 10);
-            }
-            buffer[target++] = (char) ('0' + exp % 10);
+            value = -value;
         }
-        return this;
+        char[] digits = new char[DoubleToDecimal.MAX_DIGITS];
+        int decimal = PlatformDetector.isJavaScript()
+                ? parseExponential(toShortestExponential(value), digits)
+                : DoubleToDecimal.toDecimal(value, digits);
+        return insertDecimal(target, negative, digits, decimal & 31, decimal >> 5);
     }
 
     protected TAbstractStringBuilder append(double value) {
@@ -349,14 +224,12 @@ class TAbstractStringBuilder extends TObject implements TSerializable, TCharSequ
 
     protected TAbstractStringBuilder insert(int target, double value) {
         if (value == 0) {
-            insertSpace(target, target + 3);
-            buffer[target++] = '0';
-            buffer[target++] = '.';
-            buffer[target++] = '0';
-            return this;
-        } else if (value == -0) {
-            insertSpace(target, target + 4);
-            buffer[target++] = '-';
+            if (1 / value > 0) {
+                insertSpace(target, target + 3);
+            } else {
+                insertSpace(target, target + 4);
+                buffer[target++] = '-';
+            }
             buffer[target++] = '0';
             buffer[target++] = '.';
             buffer[target++] = '0';
@@ -384,168 +257,139 @@ class TAbstractStringBuilder extends TObject implements TSerializable, TCharSequ
             buffer[target++] = 'y';
             return this;
         }
-        // Get absolute value
-        boolean negative = false;
-        int sz = 1; // Decimal point always included
-        if (value < 0) {
-            negative = true;
+        boolean negative = value < 0;
+        if (negative) {
             value = -value;
-            ++sz; // including '-' sign of mantissa
         }
-
-        // Split into decimal mantissa and decimal exponent
-        int exp = 0;
-        long mantissa = 0;
-        int intPart = 1;
-        int digits = 0;
-        if (value >= 1) {
-            int bit = 256;
-            exp = 0;
-            double digit = 1;
-            for (int i = doublePowersOfTen.length - 1; i >= 0; --i) {
-                if ((exp | bit) <= DOUBLE_MAX_EXPONENT && doublePowersOfTen[i] * digit <= value) {
-                    digit *= doublePowersOfTen[i];
-                    exp |= bit;
-                }
-                bit >>= 1;
-            }
-            mantissa = (long) (((value / digit) * DOUBLE_DECIMAL_FACTOR) + 0.5);
+        char[] digits = new char[DoubleToDecimal.MAX_DIGITS];
+        int decimal = PlatformDetector.isJavaScript()
+                ? parseExponential(toShortestExponential(value), digits)
+                : DoubleToDecimal.toDecimal(value, digits);
+        return insertDecimal(target, negative, digits, decimal & 31, decimal >> 5);
+    }
+
+    /**
+     * Inserts decimal number {@code 0.d<sub>1</sub>d<sub>2</sub>...d<sub>count</sub> * 10^exp} in the format of
+     * {@link Double#toString(double)}: plain notation for values from {@code 10^-3} to {@code 10^7},
+     * computerized scientific notation otherwise.
+     */
+    private TAbstractStringBuilder insertDecimal(int target, boolean negative, char[] digits, int count, int exp) {
+        int sz = negative ? 1 : 0;
+        boolean plain = exp >= -2 && exp <= 7;
+        int sciExp = exp - 1;
+        if (plain) {
+            sz += exp > 0 ? exp + 1 + Math.max(count - exp, 1) : 2 - exp + count;
         } else {
-            int bit = 256;
-            exp = 0;
-            double digit = 1;
-            for (int i = negDoublePowersOfTen.length - 1; i >= 0; --i) {
-                if ((exp | bit) <= DOUBLE_MAX_EXPONENT && negDoublePowersOfTen[i] * digit * 10 > value) {
-                    digit *= negDoublePowersOfTen[i];
-                    exp |= bit;
-                }
-                bit >>= 1;
-            }
-            exp = -exp;
-            mantissa = (long) (((value * DOUBLE_MAX_POS) / digit) + 0.5);
-
-            while (mantissa >= 10000000000000000L) {
-                mantissa /= 10;
-                exp--;
-            }
-        }
-
-        // Remove trailing zeros
-        digits = DOUBLE_DECIMAL_PRECISION;
-        int zeros = trailingDecimalZeros(mantissa);
-        if (zeros > 0) {
-            digits -= zeros;
-        }
-
-        // Handle special case of exponent close to 0
-        if (exp < 7 && exp >= -3) {
-            if (exp >= 0) {
-                intPart = exp + 1;
-                digits = Math.max(digits, intPart + 1);
-                exp = 0;
-            } else if (exp < 0) {
-                mantissa /= longPowersOfTen[-exp];
-                digits -= exp;
-                exp = 0;
-            }
-        }
-
-        // Extend buffer to store exponent
-        if (exp != 0) {
-            sz += 2;
-            if (exp <= -10 || exp >= 10) {
-                ++sz;
-            }
-            if (exp <= -100 || exp >= 100) {
-                ++sz;
+            sz += 2 + Math.max(count - 1, 1) + 1;
+            if (sciExp < 0) {
+                sz++;
             }
-            if (exp < 0) {
-                ++sz;
-            }
-        }
-
-        if (exp != 0 && digits == intPart) {
-            digits++;
+            int absExp = Math.abs(sciExp);
+            sz += absExp >= 100 ? 3 : absExp >= 10 ? 2 : 1;
         }
-        sz += digits;
 
-        // Print mantissa
         insertSpace(target, target + sz);
         if (negative) {
             buffer[target++] = '-';
         }
-        long pos = DOUBLE_MAX_POS;
-        for (int i = 0; i < digits; ++i) {
-            int intDigit;
-            if (pos > 0) {
-                intDigit = (int) (mantissa / pos);
-                mantissa %= pos;
+        if (plain && exp > 0) {
+            for (int i = 0; i < exp; ++i) {
+                buffer[target++] = i < count ? digits[i] : '0';
+            }
+            buffer[target++] = '.';
+            if (count > exp) {
+                for (int i = exp; i < count; ++i) {
+                    buffer[target++] = digits[i];
+                }
             } else {
-                intDigit = 0;
+                buffer[target++] = '0';
             }
-            buffer[target++] = (char) ('0' + intDigit);
-            if (--intPart == 0) {
-                buffer[target++] = '.';
+        } else if (plain) {
+            buffer[target++] = '0';
+            buffer[target++] = '.';
+            for (int i = exp; i < 0; ++i) {
+                buffer[target++] = '0';
+            }
+            for (int i = 0; i < count; ++i) {
+                buffer[target++] = digits[i];
+            }
+        } else {
+            buffer[target++] = digits[0];
+            buffer[target++] = '.';
+            if (count > 1) {
+                for (int i = 1; i < count; ++i) {
+                    buffer[target++] = digits[i];
+                }
+            } else {
+                buffer[target++] = '0';
             }
-            pos /= 10;
-        }
-
-        // Print exponent
-        if (exp != 0) {
             buffer[target++] = 'E';
-            if (exp < 0) {
-                exp = -exp;
+            if (sciExp < 0) {
+                sciExp = -sciExp;
                 buffer[target++] = '-';
             }
-            if (exp >= 100) {
-                buffer[target++] = (char) ('0' + exp / 100);
-                exp %= 100;
-                buffer[target++] = (char) ('0' + exp / 10);
-            } else if (exp >= 10) {
-                buffer[target++] = (char) ('0' + exp / 10);
+            if (sciExp >= 100) {
+                buffer[target++] = (char) ('0' + sciExp / 100);
+                sciExp %= 100;
+                buffer[target++] = (char) ('0' + sciExp / 10);
+            } else if (sciExp >= 10) {
+                buffer[target++] = (char) ('0' + sciExp / 10);
             }
-            buffer[target++] = (char) ('0' + exp % 10);
+            buffer[target++] = (char) ('0' + sciExp % 10);
         }
         return this;
     }
 
-    private static int trailingDecimalZeros(int n) {
-        if (n % 1000000000 == 0) {
-            return 9;
-        }
-        int result = 0;
-        int zeros = 1;
-        if (n % 100000000 == 0) {
-            result |= 8;
-            zeros *= 100000000;
-        }
-        if (n % (zeros * 10000) == 0) {
-            result |= 4;
-            zeros *= 10000;
+    /**
+     * Parses the result of JavaScript's {@code Number.prototype.toExponential}, which looks like
+     * {@code 1.2345e+2}, into digits without trailing zeros and decimal exponent.
+     *
+     * @return the same value as {@link DoubleToDecimal#toDecimal(double, char[])}
+     */
+    private static int parseExponential(String string, char[] digits) {
+        int count = 0;
+        int index = 0;
+        while (true) {
+            char c = string.charAt(index++);
+            if (c == 'e') {
+                break;
+            }
+            if (c != '.') {
+                digits[count++] = c;
+            }
         }
-        if (n % (zeros * 100) == 0) {
-            result |= 2;
-            zeros *= 100;
+        while (count > 1 && digits[count - 1] == '0') {
+            count--;
         }
-        if (n % (zeros * 10) == 0) {
-            result |= 1;
+        boolean negativeExp = string.charAt(index++) == '-';
+        int exp = 0;
+        while (index < string.length()) {
+            exp = exp * 10 + (string.charAt(index++) - '0');
         }
-        return result;
-    }
-
-    private static int trailingDecimalZeros(long n) {
-        long zeros = 1;
-        int result = 0;
-        int bit = 16;
-        for (int i = longLogPowersOfTen.length - 1; i >= 0; --i) {
-            if (n % (zeros * longLogPowersOfTen[i]) == 0) {
-                result |= bit;
-                zeros *= longLogPowersOfTen[i];
-            }
-            bit >>>= 1;
+        if (negativeExp) {
+            exp = -exp;
         }
-        return result;
-    }
+        return ((exp + 1) << 5) | count;
+    }
+
+    /**
+     * Uses the shortest digits that JavaScript engine produces for a number. A single digit is replaced with
+     * the closest two digits, as {@link DoubleToDecimal} does.
+     */
+    @JSBody(params = "v", script = "var s = v.toExponential();"
+            + "return s.charAt(1) === '.' ? s : v.toExponential(1);")
+    private static native String toShortestExponential(double v);
+
+    /**
+     * JavaScript does not know about {@code float}, so looks for the shortest number of digits that is parsed
+     * back to the same {@code float}, starting from two.
+     */
+    @JSBody(params = "v", script = "for (var p = 1; p < 8; ++p) {"
+                + "var s = v.toExponential(p);"
+                + "if (Math.fround(parseFloat(s)) === v) { return s; }"
+            + "}"
+            + "return v.toExponential(8);")
+    private static native String toShortestExponential(float v);
 
     protected TAbstractStringBuilder append(char c) {
         return insert(length, c);
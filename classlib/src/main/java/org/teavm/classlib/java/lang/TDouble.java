@@ -15,6 +15,8 @@
  */
 package org.teavm.classlib.java.lang;
 
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.classlib.impl.text.DecimalToDouble;
 import org.teavm.interop.Import;
 import org.teavm.jso.JSBody;
 
@@ -74,100 +76,112 @@ public class TDouble extends TNumber implements TComparable<TDouble> {
     public static double parseDouble(TString string) throws TNumberFormatException {
         // TODO: parse infinite and different radix
         string = string.trim();
-        boolean negative = false;
+        if (!isDecimal(string)) {
+            throw new TNumberFormatException();
+        }
+        if (PlatformDetector.isJavaScript()) {
+            return parseFloat((String) (Object) string);
+        }
+
         int index = 0;
-        if (string.charAt(index) == '-') {
-            ++index;
-            negative = true;
-        } else if (string.charAt(index) == '+') {
+        boolean negative = false;
+        if (string.charAt(index) == '-' || string.charAt(index) == '+') {
+            negative = string.charAt(index) == '-';
             ++index;
         }
-        char c = string.charAt(index);
-
-        long mantissa = 0;
+        char[] digits = new char[string.length()];
+        int digitCount = 0;
         int exp = 0;
-        if (c != '.') {
-            if (c < '0' || c > '9') {
-                throw new TNumberFormatException();
-            }
-            while (string.charAt(index) == '0') {
-                if (++index == string.length()) {
-                    return 0;
-                }
-            }
-            while (index < string.length()) {
-                c = string.charAt(index);
-                if (c < '0' || c > '9') {
-                    break;
+        boolean fraction = false;
+        while (index < string.length()) {
+            char c = string.charAt(index++);
+            if (c == '.') {
+                fraction = true;
+            } else if (c == 'e' || c == 'E') {
+                exp += parseExponent(string, index);
+                break;
+            } else {
+                if (digitCount > 0 || c != '0') {
+                    digits[digitCount++] = c;
                 }
-                if (mantissa < 1E17) {
-                    mantissa = mantissa * 10 + (c - '0');
-                } else {
-                    ++exp;
+                if (fraction) {
+                    --exp;
                 }
-                ++index;
             }
         }
-        if (index < string.length() && string.charAt(index) == '.') {
+        double result = DecimalToDouble.toDouble(digits, digitCount, exp);
+        return !negative ? result : -result;
+    }
+
+    private static int parseExponent(TString string, int index) {
+        boolean negative = false;
+        if (string.charAt(index) == '-' || string.charAt(index) == '+') {
+            negative = string.charAt(index) == '-';
             ++index;
-            boolean hasOneDigit = false;
-            while (index < string.length()) {
-                c = string.charAt(index);
-                if (c < '0' || c > '9') {
-                    break;
-                }
-                if (mantissa < 1E17) {
-                    mantissa = mantissa * 10 + (c - '0');
-                    --exp;
-                }
-                ++index;
-                hasOneDigit = true;
-            }
-            if (!hasOneDigit) {
-                throw new TNumberFormatException();
-            }
         }
-        if (index < string.length()) {
-            c = string.charAt(index);
-            if (c != 'e' && c != 'E') {
-                throw new TNumberFormatException();
+        int exp = 0;
+        while (index < string.length()) {
+            exp = 10 * exp + (string.charAt(index++) - '0');
+            if (exp > 100000) {
+                // Far beyond the range of double, but small enough to add number of digits without overflow
+                exp = 100000;
             }
+        }
+        return !negative ? exp : -exp;
+    }
+
+    /**
+     * Checks syntax of a decimal number. It's necessary on JavaScript, since {@code parseFloat}
+     * ignores trailing garbage and accepts things like {@code Infinity}.
+     */
+    private static boolean isDecimal(TString string) {
+        int index = 0;
+        int length = string.length();
+        if (index < length && (string.charAt(index) == '-' || string.charAt(index) == '+')) {
             ++index;
-            boolean negativeExp = false;
-            if (string.charAt(index) == '-') {
-                ++index;
-                negativeExp = true;
-            } else if (string.charAt(index) == '+') {
-                ++index;
+        }
+        int start = index;
+        index = skipDigits(string, index);
+        boolean hasDigits = index > start;
+        if (index < length && string.charAt(index) == '.') {
+            start = ++index;
+            index = skipDigits(string, index);
+            if (index == start) {
+                return false;
             }
-            int numExp = 0;
-            boolean hasOneDigit = false;
-            while (index < string.length()) {
-                c = string.charAt(index);
-                if (c < '0' || c > '9') {
-                    break;
-                }
-                numExp = 10 * numExp + (c - '0');
-                hasOneDigit = true;
+            hasDigits = true;
+        }
+        if (!hasDigits) {
+            return false;
+        }
+        if (index < length && (string.charAt(index) == 'e' || string.charAt(index) == 'E')) {
+            ++index;
+            if (index < length && (string.charAt(index) == '-' || string.charAt(index) == '+')) {
                 ++index;
             }
-            if (!hasOneDigit) {
-                throw new TNumberFormatException();
-            }
-            if (negativeExp) {
-                numExp = -numExp;
+            start = index;
+            index = skipDigits(string, index);
+            if (index == start) {
+                return false;
             }
-            exp += numExp;
         }
-        if (exp > 308 || exp == 308 && mantissa > 17976931348623157L) {
-            return !negative ? POSITIVE_INFINITY : NEGATIVE_INFINITY;
-        }
-        if (negative) {
-            mantissa = -mantissa;
+        return index == length;
+    }
+
+    private static int skipDigits(TString string, int index) {
+        while (index < string.length()) {
+            char c = string.charAt(index);
+            if (c < '0' || c > '9') {
+                break;
+            }
+            ++index;
         }
-        return mantissa * decimalExponent(exp);
+        return index;
     }
 
+    @JSBody(params = "string", script = "return parseFloat(string);")
+    private static native double parseFloat(String string);
+
     public static double decimalExponent(int n) {
         double d;
         if (n < 0) {
@@ -520,11 +520,15 @@ public class TString extends TObject implements TSerializable, TComparable<TStri
             return false;
         }
         TString str = (TString) other;
-        if (str.length() != length()) {
+        char[] otherCharacters = str.characters;
+        if (otherCharacters.length != characters.length) {
             return false;
         }
-        for (int i = 0; i < str.length(); ++i) {
-            if (charAt(i) != str.charAt(i)) {
+        if (hashCode != 0 && str.hashCode != 0 && hashCode != str.hashCode) {
+            return false;
+        }
+        for (int i = 0; i < otherCharacters.length; ++i) {
+            if (characters[i] != otherCharacters[i]) {
                 return false;
             }
         }
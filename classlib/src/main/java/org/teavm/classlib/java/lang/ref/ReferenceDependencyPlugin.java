@@ -0,0 +1,47 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.ref;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import org.teavm.dependency.DependencyAgent;
+import org.teavm.dependency.DependencyPlugin;
+import org.teavm.dependency.MethodDependency;
+import org.teavm.model.CallLocation;
+import org.teavm.model.MethodReference;
+
+/**
+ * Referents and reference objects may come from JavaScript or from GC, so dependency analyzer can't
+ * infer their types. This plugin tells that {@link TReference#get()} returns objects passed to constructors
+ * of references, and {@link TReferenceQueue} returns constructed references.
+ */
+public class ReferenceDependencyPlugin implements DependencyPlugin {
+    private static final MethodReference CONSTRUCTOR = new MethodReference(Reference.class, "<init>",
+            Object.class, ReferenceQueue.class, void.class);
+
+    @Override
+    public void methodReached(DependencyAgent agent, MethodDependency method, CallLocation location) {
+        MethodDependency constructor = agent.linkMethod(CONSTRUCTOR, location);
+        switch (method.getMethod().getName()) {
+            case "get":
+                constructor.getVariable(1).connect(method.getResult());
+                break;
+            case "poll":
+                constructor.getVariable(0).connect(method.getResult());
+                break;
+        }
+    }
+}
@@ -15,26 +15,133 @@
  */
 package org.teavm.classlib.java.lang.ref;
 
+import org.teavm.classlib.PlatformDetector;
 import org.teavm.classlib.java.lang.TObject;
+import org.teavm.dependency.PluggableDependency;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSObject;
+import org.teavm.platform.Platform;
+import org.teavm.platform.PlatformObject;
+import org.teavm.runtime.ReferenceHolder;
 
 /**
+ * <p>Base class of reference objects.</p>
+ *
+ * <p>In JavaScript, weak references are backed by <code>WeakRef</code> and get enqueued by
+ * <code>FinalizationRegistry</code>. In environments that don't support these APIs, as well as for soft
+ * references (since JavaScript engines don't report memory pressure), referents are held strongly.
+ * In WebAssembly and C referents are held by {@link ReferenceHolder} and are processed by GC.</p>
  *
  * @author Alexey Andreev
  * @param <T> type of an object to which this reference points.
  */
 public abstract class TReference<T> extends TObject {
+    static final int ACTIVE = 0;
+    static final int ENQUEUED = 1;
+    static final int DEQUEUED = 2;
+    private static JSObject registry;
+    private T value;
+    private JSObject weakRef;
+    private ReferenceHolder holder;
+    TReferenceQueue<? super T> queue;
+    TReference<?> next;
+    int state;
+
+    TReference(T referent, TReferenceQueue<? super T> queue) {
+        this.queue = queue;
+        if (referent == null) {
+            return;
+        }
+        boolean soft = this instanceof TSoftReference;
+        if (PlatformDetector.isLowLevel()) {
+            holder = new ReferenceHolder(this, referent, soft, queue != null);
+        } else if (!soft && isWeakRefSupported()) {
+            PlatformObject platformReferent = Platform.getPlatformObject(referent);
+            weakRef = createWeakRef(platformReferent);
+            if (queue != null) {
+                if (registry == null) {
+                    registry = createRegistry(TReference::referentCollected);
+                }
+                register(registry, platformReferent, Platform.getPlatformObject(this));
+            }
+        } else {
+            value = referent;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    @PluggableDependency(ReferenceDependencyPlugin.class)
     public T get() {
-        return null;
+        if (PlatformDetector.isLowLevel()) {
+            return holder != null ? (T) holder.getReferent() : null;
+        }
+        if (weakRef != null) {
+            Object referent = deref(weakRef);
+            return (T) referent;
+        }
+        return value;
     }
 
     public void clear() {
+        if (PlatformDetector.isLowLevel()) {
+            if (holder != null) {
+                holder.clear();
+            }
+            return;
+        }
+        if (weakRef != null && queue != null) {
+            unregister(registry, Platform.getPlatformObject(this));
+        }
+        weakRef = null;
+        value = null;
     }
 
     public boolean isEnqueued() {
-        return false;
+        return state == ENQUEUED;
     }
 
     public boolean enqueue() {
-        return false;
+        return queue != null && queue.enqueue(this);
+    }
+
+    static void enqueuePending() {
+        if (!PlatformDetector.isLowLevel()) {
+            return;
+        }
+        for (ReferenceHolder holder = ReferenceHolder.takePending(); holder != null;
+                holder = holder.getNextPending()) {
+            TReference<?> reference = (TReference<?>) holder.getOwner();
+            if (reference.queue != null) {
+                reference.queue.enqueue(reference);
+            }
+        }
+    }
+
+    private static void referentCollected(PlatformObject platformReference) {
+        Object object = platformReference;
+        TReference<?> reference = (TReference<?>) object;
+        reference.weakRef = null;
+        if (reference.queue != null) {
+            reference.queue.enqueue(reference);
+        }
     }
+
+    @JSBody(script = "return typeof WeakRef !== 'undefined' && typeof FinalizationRegistry !== 'undefined';")
+    private static native boolean isWeakRefSupported();
+
+    @JSBody(params = "referent", script = "return new WeakRef(referent);")
+    private static native JSObject createWeakRef(PlatformObject referent);
+
+    @JSBody(params = "weakRef", script = "var result = weakRef.deref(); return result !== undefined ? result : null;")
+    private static native PlatformObject deref(JSObject weakRef);
+
+    @JSBody(params = "callback", script = "return new FinalizationRegistry(callback);")
+    private static native JSObject createRegistry(CollectionCallback callback);
+
+    @JSBody(params = { "registry", "referent", "reference" },
+            script = "registry.register(referent, reference, reference);")
+    private static native void register(JSObject registry, PlatformObject referent, PlatformObject reference);
+
+    @JSBody(params = { "registry", "reference" }, script = "registry.unregister(reference);")
+    private static native void unregister(JSObject registry, PlatformObject reference);
 }
@@ -15,13 +15,95 @@
  */
 package org.teavm.classlib.java.lang.ref;
 
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.dependency.PluggableDependency;
+
 /**
  *
  * @author Alexey Andreev
  * @param <T>
  */
 public class TReferenceQueue<T> {
-    public TReference<T> poll() {
-        return null;
+    private TReference<? extends T> first;
+    private TReference<? extends T> last;
+
+    @PluggableDependency(ReferenceDependencyPlugin.class)
+    public TReference<? extends T> poll() {
+        TReference.enqueuePending();
+        TReference<? extends T> result = first;
+        if (result == null) {
+            return null;
+        }
+        first = takeNext(result);
+        if (first == null) {
+            last = null;
+        }
+        result.state = TReference.DEQUEUED;
+        return result;
+    }
+
+    /**
+     * Waits for a reference to be enqueued. Since WebAssembly and C have only one thread,
+     * on these platforms this method does not wait and behaves like {@link #poll()}.
+     */
+    public TReference<? extends T> remove(long timeout) throws InterruptedException {
+        if (timeout < 0) {
+            throw new IllegalArgumentException();
+        }
+        TReference<? extends T> result = poll();
+        if (result != null || PlatformDetector.isLowLevel()) {
+            return result;
+        }
+        long deadline = timeout > 0 ? System.currentTimeMillis() + timeout : 0;
+        synchronized (this) {
+            while (true) {
+                result = poll();
+                if (result != null) {
+                    return result;
+                }
+                if (timeout == 0) {
+                    wait();
+                } else {
+                    long remaining = deadline - System.currentTimeMillis();
+                    if (remaining <= 0) {
+                        return null;
+                    }
+                    wait(remaining);
+                }
+            }
+        }
+    }
+
+    public TReference<? extends T> remove() throws InterruptedException {
+        return remove(0);
+    }
+
+    @SuppressWarnings("unchecked")
+    boolean enqueue(TReference<?> reference) {
+        if (reference.state != TReference.ACTIVE) {
+            return false;
+        }
+        reference.state = TReference.ENQUEUED;
+        reference.next = null;
+        TReference<? extends T> typedReference = (TReference<? extends T>) reference;
+        if (last == null) {
+            first = typedReference;
+        } else {
+            last.next = typedReference;
+        }
+        last = typedReference;
+        if (!PlatformDetector.isLowLevel()) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+        return true;
+    }
+
+    @SuppressWarnings("unchecked")
+    private TReference<? extends T> takeNext(TReference<? extends T> reference) {
+        TReference<? extends T> next = (TReference<? extends T>) reference.next;
+        reference.next = null;
+        return next;
     }
 }
@@ -16,23 +16,11 @@
 package org.teavm.classlib.java.lang.ref;
 
 public class TSoftReference<T> extends TReference<T> {
-    private T value;
-
     public TSoftReference(T value) {
-        this.value = value;
-    }
-
-    public TSoftReference(T value, @SuppressWarnings("unused") TReferenceQueue<T> queue) {
-        this.value = value;
-    }
-
-    @Override
-    public T get() {
-        return value;
+        super(value, null);
     }
 
-    @Override
-    public void clear() {
-        value = null;
+    public TSoftReference(T value, TReferenceQueue<? super T> queue) {
+        super(value, queue);
     }
 }
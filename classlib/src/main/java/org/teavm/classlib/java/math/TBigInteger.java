@@ -1130,9 +1130,14 @@ public class TBigInteger extends Number implements Comparable<TBigInteger>, Seri
             return new TBigInteger[] { ZERO, this };
         }
         int thisSign = sign;
+        int quotientSign = thisSign == divisorSign ? 1 : -1;
+        if (TDivision.useBurnikelZiegler(thisLen, divisorLen)) {
+            TBigInteger[] result = TDivision.divideAndRemainderBurnikelZiegler(this, divisor);
+            return new TBigInteger[] { quotientSign < 0 ? result[0].negate() : result[0],
+                    thisSign < 0 ? result[1].negate() : result[1] };
+        }
         int quotientLength = thisLen - divisorLen + 1;
         int remainderLength = divisorLen;
-        int quotientSign = thisSign == divisorSign ? 1 : -1;
         int[] quotientDigits = new int[quotientLength];
         int[] remainderDigits = TDivision.divide(quotientDigits, quotientLength, thisDigits, thisLen, divisorDigits,
                 divisorLen);
@@ -1180,9 +1185,13 @@ public class TBigInteger extends Number implements Comparable<TBigInteger>, Seri
         if (cmp == LESS) {
             return ZERO;
         }
+        int resSign = thisSign == divisorSign ? 1 : -1;
+        if (TDivision.useBurnikelZiegler(thisLen, divisorLen)) {
+            TBigInteger quotient = TDivision.divideAndRemainderBurnikelZiegler(this, divisor)[0];
+            return resSign < 0 ? quotient.negate() : quotient;
+        }
         int resLength = thisLen - divisorLen + 1;
         int[] resDigits = new int[resLength];
-        int resSign = thisSign == divisorSign ? 1 : -1;
         if (divisorLen == 1) {
             TDivision.divideArrayByInt(resDigits, digits, thisLen, divisor.digits[0]);
         } else {
@@ -1216,6 +1225,10 @@ public class TBigInteger extends Number implements Comparable<TBigInteger>, Seri
                 divisor.digits, thisLen)) == LESS) {
             return this;
         }
+        if (TDivision.useBurnikelZiegler(thisLen, divisorLen)) {
+            TBigInteger remainder = TDivision.divideAndRemainderBurnikelZiegler(this, divisor)[1];
+            return sign < 0 ? remainder.negate() : remainder;
+        }
         int resLength = divisorLen;
         int[] resDigits = new int[resLength];
         if (resLength == 1) {
@@ -15,6 +15,8 @@
  */
 package org.teavm.classlib.java.math;
 
+import org.teavm.classlib.PlatformDetector;
+
 /**
  * Static library that provides all operations related with division and modular
  * arithmetic to {@link TBigInteger}. Some methods are provided in both mutable
@@ -37,9 +39,145 @@ package org.teavm.classlib.java.math;
  * </ul>
  */
 class TDivision {
+    /**
+     * Minimal divisor length in digits (number of {@code int} elements) for Burnikel-Ziegler division.
+     */
+    static final int BURNIKEL_ZIEGLER_THRESHOLD = 80;
+
+    /**
+     * Minimal difference between dividend and divisor lengths for Burnikel-Ziegler division.
+     */
+    static final int BURNIKEL_ZIEGLER_OFFSET = 40;
+
     private TDivision() {
     }
 
+    /**
+     * Tells whether {@link #divideAndRemainderBurnikelZiegler(TBigInteger, TBigInteger)} is expected to outperform
+     * {@link #divide(int[], int, int[], int, int[], int)} for operands of the given lengths.
+     */
+    static boolean useBurnikelZiegler(int aLength, int bLength) {
+        return bLength >= BURNIKEL_ZIEGLER_THRESHOLD && aLength - bLength >= BURNIKEL_ZIEGLER_OFFSET;
+    }
+
+    /**
+     * Divides magnitudes of {@code a} and {@code b} with the recursive algorithm of C. Burnikel and J. Ziegler,
+     * "Fast Recursive Division". The divisor is split into {@code m = 2^k} blocks small enough to be divided by
+     * {@link #divide(int[], int, int[], int, int[], int)}, and the dividend is divided block by block,
+     * each step being a division of a 2n-digit number by an n-digit number.
+     *
+     * @return an array of the form {@code [|a| / |b|, |a| % |b|]}
+     */
+    static TBigInteger[] divideAndRemainderBurnikelZiegler(TBigInteger a, TBigInteger b) {
+        a = a.abs();
+        b = b.abs();
+        int s = b.numberLength;
+        int m = 1 << (32 - Integer.numberOfLeadingZeros(s / BURNIKEL_ZIEGLER_THRESHOLD));
+        int n = (s + m - 1) / m * m;
+        int blockBits = n << 5;
+
+        // Normalize, so that the divisor occupies exactly n digits and its highest bit is set
+        int sigma = Math.max(0, blockBits - b.bitLength());
+        b = b.shiftLeft(sigma);
+        a = a.shiftLeft(sigma);
+
+        // Number of n-digit blocks in the dividend, keeping the highest block below the divisor
+        int t = Math.max((a.bitLength() + blockBits) / blockBits, 2);
+        TBigInteger z = digitRange(a, (t - 2) * n, 2 * n);
+        TBigInteger quotient = TBigInteger.ZERO;
+        for (int i = t - 2; i > 0; i--) {
+            TBigInteger[] qr = divide2n1n(z, b, n);
+            z = qr[1].shiftLeft(blockBits).add(digitRange(a, (i - 1) * n, n));
+            quotient = quotient.add(qr[0].shiftLeft(i * blockBits));
+        }
+        TBigInteger[] qr = divide2n1n(z, b, n);
+        quotient = quotient.add(qr[0]);
+        return new TBigInteger[] { quotient, qr[1].shiftRight(sigma) };
+    }
+
+    /**
+     * Divides a 2n-digit number {@code a} by a normalized n-digit number {@code b}, requiring
+     * {@code a < b * 2^(32n)}.
+     */
+    private static TBigInteger[] divide2n1n(TBigInteger a, TBigInteger b, int n) {
+        if ((n & 1) != 0 || n < BURNIKEL_ZIEGLER_THRESHOLD) {
+            return divideAndRemainderKnuth(a, b);
+        }
+        int half = n / 2;
+        TBigInteger[] qr1 = divide3n2n(a.shiftRight(half << 5), b, half);
+        TBigInteger[] qr2 = divide3n2n(qr1[1].shiftLeft(half << 5).add(digitRange(a, 0, half)), b, half);
+        return new TBigInteger[] { qr1[0].shiftLeft(half << 5).add(qr2[0]), qr2[1] };
+    }
+
+    /**
+     * Divides a 3n-digit number {@code a} by a normalized 2n-digit number {@code b}, requiring
+     * {@code a < b * 2^(32n)}.
+     */
+    private static TBigInteger[] divide3n2n(TBigInteger a, TBigInteger b, int n) {
+        int shift = n << 5;
+        TBigInteger a12 = a.shiftRight(shift);
+        TBigInteger a1 = a12.shiftRight(shift);
+        TBigInteger b1 = b.shiftRight(shift);
+        TBigInteger b2 = digitRange(b, 0, n);
+
+        TBigInteger q;
+        TBigInteger r1;
+        if (a1.compareTo(b1) < 0) {
+            TBigInteger[] qr = divide2n1n(a12, b1, n);
+            q = qr[0];
+            r1 = qr[1];
+        } else {
+            // q = 2^(32n) - 1, r1 = a12 - q * b1
+            q = TBigInteger.ONE.shiftLeft(shift).subtract(TBigInteger.ONE);
+            r1 = a12.subtract(b1.shiftLeft(shift)).add(b1);
+        }
+
+        TBigInteger r = r1.shiftLeft(shift).add(digitRange(a, 0, n)).subtract(q.multiply(b2));
+        while (r.sign < 0) {
+            r = r.add(b);
+            q = q.subtract(TBigInteger.ONE);
+        }
+        return new TBigInteger[] { q, r };
+    }
+
+    /**
+     * Divides non-negative {@code a} by positive {@code b} with Knuth's algorithm.
+     */
+    private static TBigInteger[] divideAndRemainderKnuth(TBigInteger a, TBigInteger b) {
+        int aLen = a.numberLength;
+        int bLen = b.numberLength;
+        int cmp = aLen != bLen ? (aLen > bLen ? 1 : -1) : TElementary.compareArrays(a.digits, b.digits, aLen);
+        if (cmp < 0) {
+            return new TBigInteger[] { TBigInteger.ZERO, a };
+        }
+        if (bLen == 1) {
+            return divideAndRemainderByInteger(a, b.digits[0], 1);
+        }
+        int quotientLength = aLen - bLen + 1;
+        int[] quotientDigits = new int[quotientLength];
+        int[] remainderDigits = divide(quotientDigits, quotientLength, a.digits, aLen, b.digits, bLen);
+        TBigInteger quotient = new TBigInteger(1, quotientLength, quotientDigits);
+        TBigInteger remainder = new TBigInteger(1, bLen, remainderDigits);
+        quotient.cutOffLeadingZeroes();
+        remainder.cutOffLeadingZeroes();
+        return new TBigInteger[] { quotient, remainder };
+    }
+
+    /**
+     * Returns the non-negative number formed by {@code count} digits of {@code val} starting at {@code from}.
+     */
+    private static TBigInteger digitRange(TBigInteger val, int from, int count) {
+        int to = Math.min(val.numberLength, from + count);
+        if (from >= to) {
+            return TBigInteger.ZERO;
+        }
+        int[] rangeDigits = new int[to - from];
+        System.arraycopy(val.digits, from, rangeDigits, 0, rangeDigits.length);
+        TBigInteger result = new TBigInteger(1, rangeDigits.length, rangeDigits);
+        result.cutOffLeadingZeroes();
+        return result;
+    }
+
     /**
      * Divides the array 'a' by the array 'b' and gets the quotient and the
      * remainder. Implements the Knuth's division algorithm. See D. Knuth, The
@@ -356,6 +494,9 @@ class TDivision {
      * @return the carry element of subtraction
      */
     static int multiplyAndSubtract(int[] a, int start, int[] b, int bLen, int c) {
+        if (PlatformDetector.isJavaScript()) {
+            return multiplyAndSubtractWithoutLong(a, start, b, bLen, c);
+        }
         long carry0 = 0;
         long carry1 = 0;
 
@@ -372,6 +513,47 @@ class TDivision {
         return (int) (carry1 >> 32); // -1 or 0
     }
 
+    /**
+     * Same as {@link #multiplyAndSubtract(int[], int, int[], int, int)}, but computes the products on 16-bit
+     * halves of the digits, so that it does not need {@code long} arithmetic, which is emulated in JavaScript.
+     */
+    private static int multiplyAndSubtractWithoutLong(int[] a, int start, int[] b, int bLen, int c) {
+        int cLo = c & 0xFFFF;
+        int cHi = c >>> 16;
+        int carry = 0;
+        int borrow = 0;
+        for (int i = 0; i <= bLen; i++) {
+            int product;
+            if (i < bLen) {
+                int digit = b[i];
+                int digitLo = digit & 0xFFFF;
+                int digitHi = digit >>> 16;
+                int lowProduct = cLo * digitLo;
+                int cross1 = cLo * digitHi;
+                int cross2 = cHi * digitLo;
+                int low = (lowProduct & 0xFFFF) + (carry & 0xFFFF);
+                int middle = (lowProduct >>> 16) + (cross1 & 0xFFFF) + (cross2 & 0xFFFF) + (carry >>> 16)
+                        + (low >>> 16);
+                product = (middle << 16) | (low & 0xFFFF);
+                carry = cHi * digitHi + (cross1 >>> 16) + (cross2 >>> 16) + (middle >>> 16);
+            } else {
+                product = carry;
+            }
+            int minuend = a[start + i];
+            int difference = minuend - product;
+            int nextBorrow = (minuend ^ Integer.MIN_VALUE) < (product ^ Integer.MIN_VALUE) ? 1 : 0;
+            if (borrow != 0) {
+                if (difference == 0) {
+                    nextBorrow = 1;
+                }
+                difference--;
+            }
+            a[start + i] = difference;
+            borrow = nextBorrow;
+        }
+        return -borrow;
+    }
+
     /**
      *
      * @param op1
@@ -828,15 +1010,10 @@ class TDivision {
         long outerCarry = 0;
 
         for (int i = 0; i < modulusLen; i++) {
-            long innnerCarry = 0;
-            int m = (int) TMultiplication.unsignedMultAddAdd(res[i], n2, 0, 0);
-            for (int j = 0; j < modulusLen; j++) {
-                innnerCarry = TMultiplication.unsignedMultAddAdd(m, modulusDigits[j], res[i + j], (int) innnerCarry);
-                res[i + j] = (int) innnerCarry;
-                innnerCarry >>>= 32;
-            }
+            int m = res[i] * n2;
+            int innerCarry = TMultiplication.multiplyAddRow(res, i, modulusDigits, 0, modulusLen, m);
 
-            outerCarry += (res[i + modulusLen] & 0xFFFFFFFFL) + innnerCarry;
+            outerCarry += (res[i + modulusLen] & 0xFFFFFFFFL) + (innerCarry & 0xFFFFFFFFL);
             res[i + modulusLen] = (int) outerCarry;
             outerCarry >>>= 32;
         }
@@ -15,6 +15,8 @@
  */
 package org.teavm.classlib.java.math;
 
+import org.teavm.classlib.PlatformDetector;
+
 /**
  * Static library that provides all multiplication of {@link TBigInteger} methods.
  */
@@ -30,6 +32,12 @@ class TMultiplication {
      */
     static final int whenUseKaratsuba = 63; // an heuristic value
 
+    /**
+     * Break point in digits (number of {@code int} elements)
+     * between Toom-Cook 3-way and Karatsuba multiply.
+     */
+    static final int whenUseToomCook = 240; // an heuristic value
+
     /**
      * An array with powers of ten that fit in the type {@code int}.
      * ({@code 10^0,10^1,...,10^9})
@@ -59,6 +67,8 @@ class TMultiplication {
      */
     static final TBigInteger[] bigFivePows = new TBigInteger[32];
 
+    private static final TBigInteger THREE = TBigInteger.valueOf(3);
+
     static {
         int i;
         long fivePow = 1L;
@@ -79,6 +89,9 @@ class TMultiplication {
      * @see TBigInteger#multiply(TBigInteger)
      */
     static TBigInteger multiply(TBigInteger x, TBigInteger y) {
+        if (x.numberLength >= whenUseToomCook && y.numberLength >= whenUseToomCook) {
+            return toomCook3(x, y);
+        }
         return karatsuba(x, y);
     }
 
@@ -120,9 +133,9 @@ class TMultiplication {
         TBigInteger lowerOp1 = op1.subtract(upperOp1.shiftLeft(ndiv2));
         TBigInteger lowerOp2 = op2.subtract(upperOp2.shiftLeft(ndiv2));
 
-        TBigInteger upper = karatsuba(upperOp1, upperOp2);
-        TBigInteger lower = karatsuba(lowerOp1, lowerOp2);
-        TBigInteger middle = karatsuba(upperOp1.subtract(lowerOp1), lowerOp2.subtract(upperOp2));
+        TBigInteger upper = multiply(upperOp1, upperOp2);
+        TBigInteger lower = multiply(lowerOp1, lowerOp2);
+        TBigInteger middle = multiply(upperOp1.subtract(lowerOp1), lowerOp2.subtract(upperOp2));
         middle = middle.add(upper).add(lower);
         middle = middle.shiftLeft(ndiv2);
         upper = upper.shiftLeft(ndiv2 << 1);
@@ -130,6 +143,75 @@ class TMultiplication {
         return upper.add(middle).add(lower);
     }
 
+    /**
+     * Performs the multiplication with the Toom-Cook 3-way algorithm, using the evaluation points
+     * {@code 0, 1, -1, 2, infinity} and the interpolation sequence of M. Bodrato for these points.
+     * Both factors are split into three slices of {@code k} digits:
+     *<tt>
+     *             u = u<sub>2</sub> * B<sup>2</sup> + u<sub>1</sub> * B + u<sub>0</sub><br>
+     *             v = v<sub>2</sub> * B<sup>2</sup> + v<sub>1</sub> * B + v<sub>0</sub><br>
+     *</tt>
+     * For instance, {@code u} is evaluated at point 2 as <tt>4u<sub>2</sub> + 2u<sub>1</sub> + u<sub>0</sub></tt>.
+     * The five point-wise products are computed by {@link #multiply(TBigInteger, TBigInteger)}, so they
+     * recurse into Toom-Cook, Karatsuba or the schoolbook algorithm depending on their size.
+     *
+     * @param op1 first factor of the product
+     * @param op2 second factor of the product
+     * @return {@code op1 * op2}
+     * @see #multiply(TBigInteger, TBigInteger)
+     */
+    static TBigInteger toomCook3(TBigInteger op1, TBigInteger op2) {
+        int k = (Math.max(op1.numberLength, op2.numberLength) + 2) / 3;
+
+        TBigInteger u0 = slice(op1, 0, k);
+        TBigInteger u1 = slice(op1, k, k);
+        TBigInteger u2 = slice(op1, 2 * k, op1.numberLength);
+        TBigInteger v0 = slice(op2, 0, k);
+        TBigInteger v1 = slice(op2, k, k);
+        TBigInteger v2 = slice(op2, 2 * k, op2.numberLength);
+
+        // Evaluation
+        TBigInteger p0 = multiply(u0, v0);
+        TBigInteger su = u2.add(u0);
+        TBigInteger sv = v2.add(v0);
+        TBigInteger pm1 = multiply(su.subtract(u1), sv.subtract(v1));
+        su = su.add(u1);
+        sv = sv.add(v1);
+        TBigInteger p1 = multiply(su, sv);
+        TBigInteger pm2 = multiply(su.add(u2).shiftLeft(1).subtract(u0), sv.add(v2).shiftLeft(1).subtract(v0));
+        TBigInteger pInf = multiply(u2, v2);
+
+        // Interpolation, all the divisions below are exact
+        TBigInteger r3 = pm2.subtract(pm1).divide(THREE);
+        TBigInteger r1 = p1.subtract(pm1).shiftRight(1);
+        TBigInteger r2 = p1.subtract(p0);
+        r3 = r3.subtract(r2).shiftRight(1);
+        r2 = r2.subtract(r1).subtract(pInf);
+        r3 = r3.subtract(pInf.shiftLeft(1));
+        r1 = r1.subtract(r3);
+
+        // Recomposition
+        int shift = k << 5;
+        TBigInteger result = pInf.shiftLeft(shift).add(r3).shiftLeft(shift).add(r2).shiftLeft(shift)
+                .add(r1).shiftLeft(shift).add(p0);
+        return op1.sign != op2.sign ? result.negate() : result;
+    }
+
+    /**
+     * Returns the magnitude of {@code count} digits of {@code val} starting at digit {@code from}.
+     */
+    private static TBigInteger slice(TBigInteger val, int from, int count) {
+        int to = Math.min(val.numberLength, from + count);
+        if (from >= to) {
+            return TBigInteger.ZERO;
+        }
+        int[] sliceDigits = new int[to - from];
+        System.arraycopy(val.digits, from, sliceDigits, 0, sliceDigits.length);
+        TBigInteger result = new TBigInteger(1, sliceDigits.length, sliceDigits);
+        result.cutOffLeadingZeroes();
+        return result;
+    }
+
     /**
      * Multiplies two BigIntegers.
      * Implements traditional scholar algorithm described by Knuth.
@@ -263,15 +345,51 @@ class TMultiplication {
         }
 
         for (int i = 0; i < aLen; i++) {
-            long carry = 0;
-            int aI = a[i];
-            for (int j = 0; j < bLen; j++) {
-               carry = unsignedMultAddAdd(aI, b[j], t[i + j], (int) carry);
-               t[i + j] = (int) carry;
-               carry >>>= 32;
-             }
-             t[i + bLen] = (int) carry;
+            t[i + bLen] = multiplyAddRow(t, i, b, 0, bLen, a[i]);
+        }
+    }
+
+    /**
+     * Adds {@code b[bOffset..bOffset + len) * factor} to {@code t[tOffset..tOffset + len)}.
+     * @return the carry out of the highest digit
+     */
+    static int multiplyAddRow(int[] t, int tOffset, int[] b, int bOffset, int len, int factor) {
+        if (PlatformDetector.isJavaScript()) {
+            return multiplyAddRowWithoutLong(t, tOffset, b, bOffset, len, factor);
+        }
+        long carry = 0;
+        for (int j = 0; j < len; j++) {
+            carry = unsignedMultAddAdd(factor, b[bOffset + j], t[tOffset + j], (int) carry);
+            t[tOffset + j] = (int) carry;
+            carry >>>= 32;
         }
+        return (int) carry;
+    }
+
+    /**
+     * Same as {@link #multiplyAddRow(int[], int, int[], int, int, int)}, but splits the digits into 16-bit halves
+     * so that every intermediate value fits {@code int}. JavaScript has no native 64-bit integers, and this
+     * is considerably faster than emulated {@code long} arithmetic there.
+     */
+    private static int multiplyAddRowWithoutLong(int[] t, int tOffset, int[] b, int bOffset, int len, int factor) {
+        int factorLo = factor & 0xFFFF;
+        int factorHi = factor >>> 16;
+        int carry = 0;
+        for (int j = 0; j < len; j++) {
+            int digit = b[bOffset + j];
+            int digitLo = digit & 0xFFFF;
+            int digitHi = digit >>> 16;
+            int addend = t[tOffset + j];
+            int lowProduct = factorLo * digitLo;
+            int cross1 = factorLo * digitHi;
+            int cross2 = factorHi * digitLo;
+            int low = (lowProduct & 0xFFFF) + (addend & 0xFFFF) + (carry & 0xFFFF);
+            int middle = (lowProduct >>> 16) + (cross1 & 0xFFFF) + (cross2 & 0xFFFF) + (addend >>> 16)
+                    + (carry >>> 16) + (low >>> 16);
+            t[tOffset + j] = (middle << 16) | (low & 0xFFFF);
+            carry = factorHi * digitHi + (cross1 >>> 16) + (cross2 >>> 16) + (middle >>> 16);
+        }
+        return carry;
     }
 
     /**
@@ -283,6 +401,12 @@ class TMultiplication {
      * @return the top digit of production
      */
     private static int multiplyByInt(int[] res, int[] a, final int aSize, final int factor) {
+        if (PlatformDetector.isJavaScript()) {
+            if (res != a) {
+                System.arraycopy(a, 0, res, 0, aSize);
+            }
+            return multiplyRowInPlace(res, aSize, factor);
+        }
         long carry = 0;
         for (int i = 0; i < aSize; i++) {
             carry = unsignedMultAddAdd(a[i], factor, (int) carry, 0);
@@ -292,6 +416,29 @@ class TMultiplication {
         return (int) carry;
     }
 
+    /**
+     * Multiplies {@code a[0..aSize)} by {@code factor} in place without {@code long} arithmetic.
+     * @return the top digit of production
+     * @see #multiplyAddRowWithoutLong(int[], int, int[], int, int, int)
+     */
+    private static int multiplyRowInPlace(int[] a, int aSize, int factor) {
+        int factorLo = factor & 0xFFFF;
+        int factorHi = factor >>> 16;
+        int carry = 0;
+        for (int i = 0; i < aSize; i++) {
+            int digit = a[i];
+            int digitLo = digit & 0xFFFF;
+            int digitHi = digit >>> 16;
+            int lowProduct = factorLo * digitLo;
+            int cross1 = factorLo * digitHi;
+            int cross2 = factorHi * digitLo;
+            int low = (lowProduct & 0xFFFF) + (carry & 0xFFFF);
+            int middle = (lowProduct >>> 16) + (cross1 & 0xFFFF) + (cross2 & 0xFFFF) + (carry >>> 16) + (low >>> 16);
+            a[i] = (middle << 16) | (low & 0xFFFF);
+            carry = factorHi * digitHi + (cross1 >>> 16) + (cross2 >>> 16) + (middle >>> 16);
+        }
+        return carry;
+    }
 
     /**
      * Multiplies an array of integers by an integer value.
@@ -365,21 +512,26 @@ class TMultiplication {
      *  @param aLen The length of the number to square.
      */
     static int[] square(int[] a, int aLen, int[] res) {
-        long carry;
-
         for (int i = 0; i < aLen; i++) {
-            carry = 0;
-            for (int j = i + 1; j < aLen; j++) {
-                carry = unsignedMultAddAdd(a[i], a[j], res[i + j], (int) carry);
-                res[i + j] = (int) carry;
-                carry >>>= 32;
-            }
-            res[i + aLen] = (int) carry;
+            res[i + aLen] = multiplyAddRow(res, 2 * i + 1, a, i + 1, aLen - i - 1, a[i]);
         }
 
         TBitLevel.shiftLeftOneBit(res, res, aLen << 1);
 
-        carry = 0;
+        if (PlatformDetector.isJavaScript()) {
+            for (int i = 0; i < aLen; i++) {
+                int index = 2 * i;
+                int high = multiplyAddRow(res, index, a, i, 1, a[i]);
+                for (int j = index + 1; high != 0 && j < res.length; j++) {
+                    int sum = res[j] + high;
+                    high = (sum ^ Integer.MIN_VALUE) < (high ^ Integer.MIN_VALUE) ? 1 : 0;
+                    res[j] = sum;
+                }
+            }
+            return res;
+        }
+
+        long carry = 0;
         for (int i = 0, index = 0; i < aLen; i++, index++) {
             carry = unsignedMultAddAdd(a[i], a[i], res[index], (int) carry);
             res[index] = (int) carry;
@@ -15,9 +15,25 @@
  */
 package org.teavm.classlib.java.nio;
 
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.interop.Address;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.typedarrays.DataView;
+import org.teavm.platform.Platform;
+import org.teavm.platform.PlatformObject;
+
+/**
+ * <p>Byte buffer backed by a byte array.</p>
+ *
+ * <p>Multi-byte values are accessed by a single operation where a target allows it. In JavaScript
+ * they are read and written via <code>DataView</code> over the array's <code>ArrayBuffer</code>. In WebAssembly and
+ * C, where arrays live in linear memory and are never moved by GC, they are loaded and stored directly,
+ * in native (little-endian) byte order.</p>
+ */
 class TByteBufferImpl extends TByteBuffer {
     private boolean direct;
     private boolean readOnly;
+    private DataView dataView;
 
     public TByteBufferImpl(int capacity, boolean direct) {
         this(0, capacity, new byte[capacity], 0, capacity, direct, false);
@@ -32,17 +48,23 @@ class TByteBufferImpl extends TByteBuffer {
 
     @Override
     public TByteBuffer slice() {
-        return new TByteBufferImpl(position, limit - position,  array, 0, limit - position, direct, readOnly);
+        return shareView(new TByteBufferImpl(position, limit - position,  array, 0, limit - position, direct,
+                readOnly));
     }
 
     @Override
     public TByteBuffer duplicate() {
-        return new TByteBufferImpl(start, capacity, array, position, limit, direct, readOnly);
+        return shareView(new TByteBufferImpl(start, capacity, array, position, limit, direct, readOnly));
     }
 
     @Override
     public TByteBuffer asReadOnlyBuffer() {
-        return new TByteBufferImpl(start, capacity, array, position, limit, direct, true);
+        return shareView(new TByteBufferImpl(start, capacity, array, position, limit, direct, true));
+    }
+
+    private TByteBufferImpl shareView(TByteBufferImpl buffer) {
+        buffer.dataView = dataView;
+        return buffer;
     }
 
     @Override
@@ -119,14 +141,9 @@ class TByteBufferImpl extends TByteBuffer {
         if (position + 1 >= limit) {
             throw new TBufferUnderflowException();
         }
-        int a = array[start + position] & 0xFF;
-        int b = array[start + position + 1] & 0xFF;
+        char result = (char) loadShort(start + position, order == TByteOrder.LITTLE_ENDIAN);
         position += 2;
-        if (order == TByteOrder.BIG_ENDIAN) {
-            return (char) ((a << 8) | b);
-        } else {
-            return (char) ((b << 8) | a);
-        }
+        return result;
     }
 
     @Override
@@ -137,13 +154,8 @@ class TByteBufferImpl extends TByteBuffer {
         if (position + 1 >= limit) {
             throw new TBufferOverflowException();
         }
-        if (order == TByteOrder.BIG_ENDIAN) {
-            array[start + position++] = (byte) (value >> 8);
-            array[start + position++] = (byte) value;
-        } else {
-            array[start + position++] = (byte) value;
-            array[start + position++] = (byte) (value >> 8);
-        }
+        storeShort(start + position, (short) value, order == TByteOrder.LITTLE_ENDIAN);
+        position += 2;
         return this;
     }
 
@@ -152,13 +164,7 @@ class TByteBufferImpl extends TByteBuffer {
         if (index < 0 || index + 1 >= limit) {
             throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 1) + ")");
         }
-        int a = array[start + index] & 0xFF;
-        int b = array[start + index + 1] & 0xFF;
-        if (order == TByteOrder.BIG_ENDIAN) {
-            return (char) ((a << 8) | b);
-        } else {
-            return (char) ((b << 8) | a);
-        }
+        return (char) loadShort(start + index, order == TByteOrder.LITTLE_ENDIAN);
     }
 
     @Override
@@ -169,13 +175,7 @@ class TByteBufferImpl extends TByteBuffer {
         if (index < 0 || index + 1 >= limit) {
             throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 1) + ")");
         }
-        if (order == TByteOrder.BIG_ENDIAN) {
-            array[start + index] = (byte) (value >> 8);
-            array[start + index + 1] = (byte) value;
-        } else {
-            array[start + index] = (byte) value;
-            array[start + index + 1] = (byte) (value >> 8);
-        }
+        storeShort(start + index, (short) value, order == TByteOrder.LITTLE_ENDIAN);
         return this;
     }
 
@@ -194,14 +194,9 @@ class TByteBufferImpl extends TByteBuffer {
         if (position + 1 >= limit) {
             throw new TBufferUnderflowException();
         }
-        int a = array[start + position] & 0xFF;
-        int b = array[start + position + 1] & 0xFF;
+        short result = loadShort(start + position, order == TByteOrder.LITTLE_ENDIAN);
         position += 2;
-        if (order == TByteOrder.BIG_ENDIAN) {
-            return (short) ((a << 8) | b);
-        } else {
-            return (short) ((b << 8) | a);
-        }
+        return result;
     }
 
     @Override
@@ -212,13 +207,8 @@ class TByteBufferImpl extends TByteBuffer {
         if (position + 1 >= limit) {
             throw new TBufferOverflowException();
         }
-        if (order == TByteOrder.BIG_ENDIAN) {
-            array[start + position++] = (byte) (value >> 8);
-            array[start + position++] = (byte) value;
-        } else {
-            array[start + position++] = (byte) value;
-            array[start + position++] = (byte) (value >> 8);
-        }
+        storeShort(start + position, value, order == TByteOrder.LITTLE_ENDIAN);
+        position += 2;
         return this;
     }
 
@@ -227,13 +217,7 @@ class TByteBufferImpl extends TByteBuffer {
         if (index < 0 || index + 1 >= limit) {
             throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 1) + ")");
         }
-        int a = array[start + index] & 0xFF;
-        int b = array[start + index + 1] & 0xFF;
-        if (order == TByteOrder.BIG_ENDIAN) {
-            return (short) ((a << 8) | b);
-        } else {
-            return (short) ((b << 8) | a);
-        }
+        return loadShort(start + index, order == TByteOrder.LITTLE_ENDIAN);
     }
 
     @Override
@@ -244,13 +228,7 @@ class TByteBufferImpl extends TByteBuffer {
         if (index < 0 || index + 1 >= limit) {
             throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 1) + ")");
         }
-        if (order == TByteOrder.BIG_ENDIAN) {
-            array[start + index] = (byte) (value >> 8);
-            array[start + index + 1] = (byte) value;
-        } else {
-            array[start + index] = (byte) value;
-            array[start + index + 1] = (byte) (value >> 8);
-        }
+        storeShort(start + index, value, order == TByteOrder.LITTLE_ENDIAN);
         return this;
     }
 
@@ -269,16 +247,9 @@ class TByteBufferImpl extends TByteBuffer {
         if (position + 3 >= limit) {
             throw new TBufferUnderflowException();
         }
-        int a = array[start + position] & 0xFF;
-        int b = array[start + position + 1] & 0xFF;
-        int c = array[start + position + 2] & 0xFF;
-        int d = array[start + position + 3] & 0xFF;
+        int result = loadInt(start + position, order == TByteOrder.LITTLE_ENDIAN);
         position += 4;
-        if (order == TByteOrder.BIG_ENDIAN) {
-            return (a << 24) | (b << 16) | (c << 8) | d;
-        } else {
-            return (d << 24) | (c << 16) | (b << 8) | a;
-        }
+        return result;
     }
 
     @Override
@@ -289,17 +260,8 @@ class TByteBufferImpl extends TByteBuffer {
         if (position + 3 >= limit) {
             throw new TBufferOverflowException();
         }
-        if (order == TByteOrder.BIG_ENDIAN) {
-            array[start + position++] = (byte) (value >> 24);
-            array[start + position++] = (byte) (value >> 16);
-            array[start + position++] = (byte) (value >> 8);
-            array[start + position++] = (byte) value;
-        } else {
-            array[start + position++] = (byte) value;
-            array[start + position++] = (byte) (value >> 8);
-            array[start + position++] = (byte) (value >> 16);
-            array[start + position++] = (byte) (value >> 24);
-        }
+        storeInt(start + position, value, order == TByteOrder.LITTLE_ENDIAN);
+        position += 4;
         return this;
     }
 
@@ -308,15 +270,7 @@ class TByteBufferImpl extends TByteBuffer {
         if (index < 0 || index + 3 >= limit) {
             throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 3) + ")");
         }
-        int a = array[start + index] & 0xFF;
-        int b = array[start + index + 1] & 0xFF;
-        int c = array[start + index + 2] & 0xFF;
-        int d = array[start + index + 3] & 0xFF;
-        if (order == TByteOrder.BIG_ENDIAN) {
-            return (a << 24) | (b << 16) | (c << 8) | d;
-        } else {
-            return (d << 24) | (c << 16) | (b << 8) | a;
-        }
+        return loadInt(start + index, order == TByteOrder.LITTLE_ENDIAN);
     }
 
     @Override
@@ -327,17 +281,7 @@ class TByteBufferImpl extends TByteBuffer {
         if (index < 0 || index + 3 >= limit) {
             throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 3) + ")");
         }
-        if (order == TByteOrder.BIG_ENDIAN) {
-            array[start + index] = (byte) (value >> 24);
-            array[start + index + 1] = (byte) (value >> 16);
-            array[start + index + 2] = (byte) (value >> 8);
-            array[start + index + 3] = (byte) value;
-        } else {
-            array[start + index] = (byte) value;
-            array[start + index + 1] = (byte) (value >> 8);
-            array[start + index + 2] = (byte) (value >> 16);
-            array[start + index + 3] = (byte) (value >> 24);
-        }
+        storeInt(start + index, value, order == TByteOrder.LITTLE_ENDIAN);
         return this;
     }
 
@@ -356,20 +300,9 @@ class TByteBufferImpl extends TByteBuffer {
         if (position + 7 >= limit) {
             throw new TBufferUnderflowException();
         }
-        long a = array[start + position] & 0xFF;
-        long b = array[start + position + 1] & 0xFF;
-        long c = array[start + position + 2] & 0xFF;
-        long d = array[start + position + 3] & 0xFF;
-        long e = array[start + position + 4] & 0xFF;
-        long f = array[start + position + 5] & 0xFF;
-        long g = array[start + position + 6] & 0xFF;
-        long h = array[start + position + 7] & 0xFF;
+        long result = loadLong(start + position, order == TByteOrder.LITTLE_ENDIAN);
         position += 8;
-        if (order == TByteOrder.BIG_ENDIAN) {
-            return (a << 56) | (b << 48) | (c << 40) | (d << 32) | (e << 24) | (f << 16) | (g << 8) | h;
-        } else {
-            return (h << 56) | (g << 48) | (f << 40) | (e << 32) | (d << 24) | (c << 16) | (b << 8) | a;
-        }
+        return result;
     }
 
     @Override
@@ -380,25 +313,8 @@ class TByteBufferImpl extends TByteBuffer {
         if (position + 7 >= limit) {
             throw new TBufferOverflowException();
         }
-        if (order == TByteOrder.BIG_ENDIAN) {
-            array[start + position++] = (byte) (value >> 56);
-            array[start + position++] = (byte) (value >> 48);
-            array[start + position++] = (byte) (value >> 40);
-            array[start + position++] = (byte) (value >> 32);
-            array[start + position++] = (byte) (value >> 24);
-            array[start + position++] = (byte) (value >> 16);
-            array[start + position++] = (byte) (value >> 8);
-            array[start + position++] = (byte) value;
-        } else {
-            array[start + position++] = (byte) value;
-            array[start + position++] = (byte) (value >> 8);
-            array[start + position++] = (byte) (value >> 16);
-            array[start + position++] = (byte) (value >> 24);
-            array[start + position++] = (byte) (value >> 32);
-            array[start + position++] = (byte) (value >> 40);
-            array[start + position++] = (byte) (value >> 48);
-            array[start + position++] = (byte) (value >> 56);
-        }
+        storeLong(start + position, value, order == TByteOrder.LITTLE_ENDIAN);
+        position += 8;
         return this;
     }
 
@@ -407,20 +323,7 @@ class TByteBufferImpl extends TByteBuffer {
         if (index < 0 || index + 7 >= limit) {
             throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 7) + ")");
         }
-        long a = array[start + index] & 0xFF;
-        long b = array[start + index + 1] & 0xFF;
-        long c = array[start + index + 2] & 0xFF;
-        long d = array[start + index + 3] & 0xFF;
-        long e = array[start + index + 4] & 0xFF;
-        long f = array[start + index + 5] & 0xFF;
-        long g = array[start + index + 6] & 0xFF;
-        long h = array[start + index + 7] & 0xFF;
-        position += 8;
-        if (order == TByteOrder.BIG_ENDIAN) {
-            return (a << 56) | (b << 48) | (c << 40) | (d << 32) | (e << 24) | (f << 16) | (g << 8) | h;
-        } else {
-            return (h << 56) | (g << 48) | (f << 40) | (e << 32) | (d << 24) | (c << 16) | (b << 8) | a;
-        }
+        return loadLong(start + index, order == TByteOrder.LITTLE_ENDIAN);
     }
 
     @Override
@@ -428,28 +331,96 @@ class TByteBufferImpl extends TByteBuffer {
         if (readOnly) {
             throw new TReadOnlyBufferException();
         }
+        if (index < 0 || index + 7 >= limit) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 7) + ")");
+        }
+        storeLong(start + index, value, order == TByteOrder.LITTLE_ENDIAN);
+        return this;
+    }
+
+    @Override
+    public float getFloat() {
+        if (position + 3 >= limit) {
+            throw new TBufferUnderflowException();
+        }
+        float result = loadFloat(start + position, order == TByteOrder.LITTLE_ENDIAN);
+        position += 4;
+        return result;
+    }
+
+    @Override
+    public TByteBuffer putFloat(float value) {
+        if (readOnly) {
+            throw new TReadOnlyBufferException();
+        }
+        if (position + 3 >= limit) {
+            throw new TBufferOverflowException();
+        }
+        storeFloat(start + position, value, order == TByteOrder.LITTLE_ENDIAN);
+        position += 4;
+        return this;
+    }
+
+    @Override
+    public float getFloat(int index) {
         if (index < 0 || index + 3 >= limit) {
             throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 3) + ")");
         }
-        if (order == TByteOrder.BIG_ENDIAN) {
-            array[start + index + 0] = (byte) (value >> 56);
-            array[start + index + 1] = (byte) (value >> 48);
-            array[start + index + 2] = (byte) (value >> 40);
-            array[start + index + 3] = (byte) (value >> 32);
-            array[start + index + 4] = (byte) (value >> 24);
-            array[start + index + 5] = (byte) (value >> 16);
-            array[start + index + 6] = (byte) (value >> 8);
-            array[start + index + 7] = (byte) value;
-        } else {
-            array[start + index + 0] = (byte) value;
-            array[start + index + 1] = (byte) (value >> 8);
-            array[start + index + 2] = (byte) (value >> 16);
-            array[start + index + 3] = (byte) (value >> 24);
-            array[start + index + 4] = (byte) (value >> 24);
-            array[start + index + 5] = (byte) (value >> 24);
-            array[start + index + 6] = (byte) (value >> 24);
-            array[start + index + 7] = (byte) (value >> 24);
+        return loadFloat(start + index, order == TByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public TByteBuffer putFloat(int index, float value) {
+        if (readOnly) {
+            throw new TReadOnlyBufferException();
+        }
+        if (index < 0 || index + 3 >= limit) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 3) + ")");
         }
+        storeFloat(start + index, value, order == TByteOrder.LITTLE_ENDIAN);
+        return this;
+    }
+
+    @Override
+    public double getDouble() {
+        if (position + 7 >= limit) {
+            throw new TBufferUnderflowException();
+        }
+        double result = loadDouble(start + position, order == TByteOrder.LITTLE_ENDIAN);
+        position += 8;
+        return result;
+    }
+
+    @Override
+    public TByteBuffer putDouble(double value) {
+        if (readOnly) {
+            throw new TReadOnlyBufferException();
+        }
+        if (position + 7 >= limit) {
+            throw new TBufferOverflowException();
+        }
+        storeDouble(start + position, value, order == TByteOrder.LITTLE_ENDIAN);
+        position += 8;
+        return this;
+    }
+
+    @Override
+    public double getDouble(int index) {
+        if (index < 0 || index + 7 >= limit) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 7) + ")");
+        }
+        return loadDouble(start + index, order == TByteOrder.LITTLE_ENDIAN);
+    }
+
+    @Override
+    public TByteBuffer putDouble(int index, double value) {
+        if (readOnly) {
+            throw new TReadOnlyBufferException();
+        }
+        if (index < 0 || index + 7 >= limit) {
+            throw new IndexOutOfBoundsException("Index " + index + " is outside of range [0;" + (limit - 7) + ")");
+        }
+        storeDouble(start + index, value, order == TByteOrder.LITTLE_ENDIAN);
         return this;
     }
 
@@ -466,7 +437,7 @@ class TByteBufferImpl extends TByteBuffer {
     @Override
     public TFloatBuffer asFloatBuffer() {
         int sz = remaining() / 4;
-        if (order == TByteOrder.LITTLE_ENDIAN) {
+        if (order == TByteOrder.BIG_ENDIAN) {
             return new TFloatBufferOverByteBufferBigEndian(start + position, sz, this, 0, sz, isReadOnly());
         } else {
             return new TFloatBufferOverByteBufferLittleEndian(start + position, sz, this, 0, sz, isReadOnly());
@@ -481,4 +452,145 @@ class TByteBufferImpl extends TByteBuffer {
         result.byteOrder = order;
         return result;
     }
+
+    short loadShort(int index, boolean littleEndian) {
+        if (PlatformDetector.isLowLevel()) {
+            short value = Address.ofData(array).add(index).getShort();
+            return littleEndian ? value : Short.reverseBytes(value);
+        } else if (PlatformDetector.isJavaScript()) {
+            return dataView().getInt16(index, littleEndian);
+        }
+        int a = array[index] & 0xFF;
+        int b = array[index + 1] & 0xFF;
+        return littleEndian ? (short) ((b << 8) | a) : (short) ((a << 8) | b);
+    }
+
+    void storeShort(int index, short value, boolean littleEndian) {
+        if (PlatformDetector.isLowLevel()) {
+            Address.ofData(array).add(index).putShort(littleEndian ? value : Short.reverseBytes(value));
+            return;
+        } else if (PlatformDetector.isJavaScript()) {
+            dataView().setInt16(index, value, littleEndian);
+            return;
+        }
+        if (littleEndian) {
+            array[index] = (byte) value;
+            array[index + 1] = (byte) (value >> 8);
+        } else {
+            array[index] = (byte) (value >> 8);
+            array[index + 1] = (byte) value;
+        }
+    }
+
+    int loadInt(int index, boolean littleEndian) {
+        if (PlatformDetector.isLowLevel()) {
+            int value = Address.ofData(array).add(index).getInt();
+            return littleEndian ? value : Integer.reverseBytes(value);
+        } else if (PlatformDetector.isJavaScript()) {
+            return dataView().getInt32(index, littleEndian);
+        }
+        int a = array[index] & 0xFF;
+        int b = array[index + 1] & 0xFF;
+        int c = array[index + 2] & 0xFF;
+        int d = array[index + 3] & 0xFF;
+        if (littleEndian) {
+            return (d << 24) | (c << 16) | (b << 8) | a;
+        } else {
+            return (a << 24) | (b << 16) | (c << 8) | d;
+        }
+    }
+
+    void storeInt(int index, int value, boolean littleEndian) {
+        if (PlatformDetector.isLowLevel()) {
+            Address.ofData(array).add(index).putInt(littleEndian ? value : Integer.reverseBytes(value));
+            return;
+        } else if (PlatformDetector.isJavaScript()) {
+            dataView().setInt32(index, value, littleEndian);
+            return;
+        }
+        if (littleEndian) {
+            array[index] = (byte) value;
+            array[index + 1] = (byte) (value >> 8);
+            array[index + 2] = (byte) (value >> 16);
+            array[index + 3] = (byte) (value >> 24);
+        } else {
+            array[index] = (byte) (value >> 24);
+            array[index + 1] = (byte) (value >> 16);
+            array[index + 2] = (byte) (value >> 8);
+            array[index + 3] = (byte) value;
+        }
+    }
+
+    long loadLong(int index, boolean littleEndian) {
+        if (PlatformDetector.isLowLevel()) {
+            long value = Address.ofData(array).add(index).getLong();
+            return littleEndian ? value : Long.reverseBytes(value);
+        }
+        // Outside of low-level targets long is not a machine type, so compose it of two int halves
+        int low;
+        int high;
+        if (littleEndian) {
+            low = loadInt(index, true);
+            high = loadInt(index + 4, true);
+        } else {
+            high = loadInt(index, false);
+            low = loadInt(index + 4, false);
+        }
+        return ((long) high << 32) | (low & 0xFFFFFFFFL);
+    }
+
+    void storeLong(int index, long value, boolean littleEndian) {
+        if (PlatformDetector.isLowLevel()) {
+            Address.ofData(array).add(index).putLong(littleEndian ? value : Long.reverseBytes(value));
+            return;
+        }
+        if (littleEndian) {
+            storeInt(index, (int) value, true);
+            storeInt(index + 4, (int) (value >>> 32), true);
+        } else {
+            storeInt(index, (int) (value >>> 32), false);
+            storeInt(index + 4, (int) value, false);
+        }
+    }
+
+    float loadFloat(int index, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            return dataView().getFloat32(index, littleEndian);
+        }
+        return Float.intBitsToFloat(loadInt(index, littleEndian));
+    }
+
+    void storeFloat(int index, float value, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            dataView().setFloat32(index, value, littleEndian);
+            return;
+        }
+        storeInt(index, Float.floatToRawIntBits(value), littleEndian);
+    }
+
+    double loadDouble(int index, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            return dataView().getFloat64(index, littleEndian);
+        }
+        return Double.longBitsToDouble(loadLong(index, littleEndian));
+    }
+
+    void storeDouble(int index, double value, boolean littleEndian) {
+        if (PlatformDetector.isJavaScript()) {
+            dataView().setFloat64(index, value, littleEndian);
+            return;
+        }
+        storeLong(index, Double.doubleToRawLongBits(value), littleEndian);
+    }
+
+    private DataView dataView() {
+        if (dataView == null) {
+            dataView = createDataView(Platform.getPlatformObject(array));
+        }
+        return dataView;
+    }
+
+    @JSBody(params = "array", script = "var data = array.data;"
+            + "return new DataView(data.buffer, data.byteOffset, data.byteLength);")
+    private static native DataView createDataView(PlatformObject array);
 }
@@ -23,15 +23,12 @@ class TCharBufferOverByteBufferBigEndian extends TCharBufferOverByteBuffer {
 
     @Override
     char getChar(int index) {
-        int value = ((byteByffer.array[start + index * 2] & 0xFF) << 8)
-                | (byteByffer.array[start + index * 2 + 1] & 0xFF);
-        return (char) value;
+        return (char) byteByffer.loadShort(start + index * 2, false);
     }
 
     @Override
     void putChar(int index, char value) {
-        byteByffer.array[start + index * 2] = (byte) (value >> 8);
-        byteByffer.array[start + index * 2 + 1] = (byte) value;
+        byteByffer.storeShort(start + index * 2, (short) value, false);
     }
 
     @Override
@@ -42,6 +39,6 @@ class TCharBufferOverByteBufferBigEndian extends TCharBufferOverByteBuffer {
 
     @Override
     public TByteOrder order() {
-        return TByteOrder.LITTLE_ENDIAN;
+        return TByteOrder.BIG_ENDIAN;
     }
 }
@@ -23,20 +23,17 @@ class TCharBufferOverByteBufferLittleEndian extends TCharBufferOverByteBuffer {
 
     @Override
     char getChar(int index) {
-        int value = ((byteByffer.array[start + index * 2 + 1] & 0xFF) << 8)
-                | (byteByffer.array[start + index * 2] & 0xFF);
-        return (char) value;
+        return (char) byteByffer.loadShort(start + index * 2, true);
     }
 
     @Override
     void putChar(int index, char value) {
-        byteByffer.array[start + index * 2] = (byte) value;
-        byteByffer.array[start + index * 2 + 1] = (byte) (value >> 8);
+        byteByffer.storeShort(start + index * 2, (short) value, true);
     }
 
     @Override
     public TByteOrder order() {
-        return TByteOrder.BIG_ENDIAN;
+        return TByteOrder.LITTLE_ENDIAN;
     }
 
     @Override
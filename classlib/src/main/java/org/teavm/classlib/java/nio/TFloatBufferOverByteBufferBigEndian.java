@@ -29,20 +29,12 @@ class TFloatBufferOverByteBufferBigEndian extends TFloatBufferOverByteBuffer {
 
     @Override
     float getElement(int index) {
-        int value = (byteByffer.array[start + index * 4] & 0xFF)
-                | ((byteByffer.array[start + index * 4 + 1] & 0xFF) << 8)
-                | ((byteByffer.array[start + index * 4 + 2] & 0xFF) << 16)
-                | ((byteByffer.array[start + index * 4 + 3] & 0xFF) << 24);
-        return Float.intBitsToFloat(value);
+        return byteByffer.loadFloat(start + index * 4, false);
     }
 
     @Override
     void putElement(int index, float f) {
-        int value = Float.floatToIntBits(f);
-        byteByffer.array[start + index * 4] = (byte) value;
-        byteByffer.array[start + index * 4 + 1] = (byte) (value >> 8);
-        byteByffer.array[start + index * 4 + 2] = (byte) (value >> 16);
-        byteByffer.array[start + index * 4 + 3] = (byte) (value >> 24);
+        byteByffer.storeFloat(start + index * 4, f, false);
     }
 
     @Override
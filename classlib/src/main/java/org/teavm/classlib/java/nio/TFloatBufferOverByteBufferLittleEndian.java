@@ -29,20 +29,12 @@ class TFloatBufferOverByteBufferLittleEndian extends TFloatBufferOverByteBuffer
 
     @Override
     float getElement(int index) {
-        int value = ((byteByffer.array[start + index * 4] & 0xFF) << 24)
-                | ((byteByffer.array[start + index * 4 + 1] & 0xFF) << 16)
-                | ((byteByffer.array[start + index * 4 + 2] & 0xFF) << 8)
-                | (byteByffer.array[start + index * 4 + 3] & 0xFF);
-        return Float.intBitsToFloat(value);
+        return byteByffer.loadFloat(start + index * 4, true);
     }
 
     @Override
     void putElement(int index, float f) {
-        int value = Float.floatToIntBits(f);
-        byteByffer.array[start + index * 4] = (byte) (value >> 24);
-        byteByffer.array[start + index * 4 + 1] = (byte) (value >> 16);
-        byteByffer.array[start + index * 4 + 2] = (byte) (value >> 8);
-        byteByffer.array[start + index * 4 + 3] = (byte) value;
+        byteByffer.storeFloat(start + index * 4, f, true);
     }
 
     @Override
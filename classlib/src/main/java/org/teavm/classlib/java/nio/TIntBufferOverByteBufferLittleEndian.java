@@ -29,18 +29,12 @@ class TIntBufferOverByteBufferLittleEndian extends TIntBufferOverByteBuffer {
 
     @Override
     int getElement(int index) {
-        return (byteByffer.array[start + index * 4] & 0xFF)
-                | ((byteByffer.array[start + index * 4 + 1] & 0xFF) << 8)
-                | ((byteByffer.array[start + index * 4 + 2] & 0xFF) << 16)
-                | ((byteByffer.array[start + index * 4 + 3] & 0xFF) << 24);
+        return byteByffer.loadInt(start + index * 4, true);
     }
 
     @Override
     void putElement(int index, int value) {
-        byteByffer.array[start + index * 4] = (byte) value;
-        byteByffer.array[start + index * 4 + 1] = (byte) (value >> 8);
-        byteByffer.array[start + index * 4 + 2] = (byte) (value >> 16);
-        byteByffer.array[start + index * 4 + 3] = (byte) (value >> 24);
+        byteByffer.storeInt(start + index * 4, value, true);
     }
 
     @Override
@@ -29,15 +29,12 @@ class TShortBufferOverByteBufferBigEndian extends TShortBufferOverByteBuffer {
 
     @Override
     short getElement(int index) {
-        int value = ((byteByffer.array[start + index * 2] & 0xFF) << 8)
-                | (byteByffer.array[start + index * 2 + 1] & 0xFF);
-        return (short) value;
+        return byteByffer.loadShort(start + index * 2, false);
     }
 
     @Override
     void putElement(int index, short value) {
-        byteByffer.array[start + index * 2] = (byte) (value >> 8);
-        byteByffer.array[start + index * 2 + 1] = (byte) value;
+        byteByffer.storeShort(start + index * 2, value, false);
     }
 
     @Override
@@ -29,15 +29,12 @@ class TShortBufferOverByteBufferLittleEndian extends TShortBufferOverByteBuffer
 
     @Override
     short getElement(int index) {
-        int value = (byteByffer.array[start + index * 2] & 0xFF)
-                | ((byteByffer.array[start + index * 2 + 1] & 0xFF) << 8);
-        return (short) value;
+        return byteByffer.loadShort(start + index * 2, true);
     }
 
     @Override
     void putElement(int index, short value) {
-        byteByffer.array[start + index * 2] = (byte) value;
-        byteByffer.array[start + index * 2 + 1] = (byte) (value >> 8);
+        byteByffer.storeShort(start + index * 2, value, true);
     }
 
     @Override
@@ -37,6 +37,7 @@ public class TDecimalFormat extends TNumberFormat {
     private static final double[] POWM10_FRAC_ARRAY = { 1E-1, 1E-2, 1E-4, 1E-8, 1E-16, 1E-32, 1E-64, 1E-128, 1E-256 };
     private static final int DOUBLE_MAX_EXPONENT = 308;
     private static final long MAX_LONG_DIV_10 = Long.MAX_VALUE / 10;
+    private static final FormatField[] NO_FIELDS = {};
     TDecimalFormatSymbols symbols;
     FormatField[] positivePrefix = {};
     FormatField[] negativePrefix = { new TextField("-") };
@@ -63,9 +64,7 @@ public class TDecimalFormat extends TNumberFormat {
     }
 
     public void applyPattern(String pattern) {
-        TDecimalFormatParser parser = new TDecimalFormatParser();
-        parser.parse(pattern);
-        parser.apply(this);
+        TDecimalFormatParser.parsePattern(pattern).apply(this);
         this.pattern = pattern;
     }
 
@@ -853,7 +852,7 @@ public class TDecimalFormat extends TNumberFormat {
             }
         } else {
             fieldsToText(negativeSuffix != null ? negativeSuffix
-                    : positiveSuffix != null ? positiveSuffix : new FormatField[0], buffer);
+                    : positiveSuffix != null ? positiveSuffix : NO_FIELDS, buffer);
         }
     }
 
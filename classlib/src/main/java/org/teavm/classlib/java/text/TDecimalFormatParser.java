@@ -16,10 +16,14 @@
 package org.teavm.classlib.java.text;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.teavm.classlib.java.text.TDecimalFormat.FormatField;
 
 class TDecimalFormatParser {
+    private static final int CACHE_LIMIT = 256;
+    private static Map<String, TDecimalFormatParser> cache;
     private FormatField[] positivePrefix;
     private FormatField[] positiveSuffix;
     private FormatField[] negativePrefix;
@@ -35,6 +39,26 @@ class TDecimalFormatParser {
     private int index;
     private int multiplier;
 
+    /**
+     * Returns parser that holds the result of parsing of the given pattern. Parsed patterns don't depend on locale
+     * and never change after parsing, so they are shared between all formats that use the same pattern.
+     */
+    static TDecimalFormatParser parsePattern(String pattern) {
+        if (cache == null) {
+            cache = new HashMap<>();
+        }
+        TDecimalFormatParser parser = cache.get(pattern);
+        if (parser == null) {
+            parser = new TDecimalFormatParser();
+            parser.parse(pattern);
+            if (cache.size() >= CACHE_LIMIT) {
+                cache.clear();
+            }
+            cache.put(pattern, parser);
+        }
+        return parser;
+    }
+
     public void parse(String string) {
         groupSize = 0;
         minimumFracLength = 0;
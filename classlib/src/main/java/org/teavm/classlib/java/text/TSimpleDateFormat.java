@@ -21,12 +21,15 @@ import org.teavm.classlib.java.util.TCalendar;
 import org.teavm.classlib.java.util.TDate;
 import org.teavm.classlib.java.util.TGregorianCalendar;
 import org.teavm.classlib.java.util.TLocale;
+import org.teavm.classlib.java.util.TTimeZone;
 
 public class TSimpleDateFormat extends TDateFormat {
     private TDateFormatSymbols dateFormatSymbols;
     private TDateFormatElement[] elements;
     private String pattern;
     private TLocale locale;
+    private boolean localeSymbols;
+    private TCalendar formatCalendar;
 
     public TSimpleDateFormat() {
         this(getDefaultPattern());
@@ -42,8 +45,10 @@ public class TSimpleDateFormat extends TDateFormat {
     }
 
     public TSimpleDateFormat(String pattern, TLocale locale) {
-        this(pattern, new TDateFormatSymbols(locale));
+        dateFormatSymbols = new TDateFormatSymbols(locale);
         this.locale = locale;
+        localeSymbols = true;
+        applyPattern(pattern);
     }
 
     public TSimpleDateFormat(String pattern, TDateFormatSymbols dateFormatSymbols) {
@@ -54,9 +59,15 @@ public class TSimpleDateFormat extends TDateFormat {
 
     @Override
     public StringBuffer format(TDate date, StringBuffer buffer, TFieldPosition field) {
-        TCalendar calendar = new TGregorianCalendar(locale);
+        if (formatCalendar == null) {
+            formatCalendar = new TGregorianCalendar(locale);
+        }
+        TCalendar calendar = formatCalendar;
+        TTimeZone timeZone = this.calendar.getTimeZone();
+        if (calendar.getTimeZone() != timeZone) {
+            calendar.setTimeZone(timeZone);
+        }
         calendar.setTime(date);
-        calendar.setTimeZone(this.calendar.getTimeZone());
         for (TDateFormatElement element : elements) {
             element.format(calendar, buffer);
         }
@@ -69,6 +80,10 @@ public class TSimpleDateFormat extends TDateFormat {
     }
 
     private void reparsePattern() {
+        if (localeSymbols) {
+            elements = TSimpleDatePatternParser.parsePattern(pattern, locale);
+            return;
+        }
         TSimpleDatePatternParser parser = new TSimpleDatePatternParser(dateFormatSymbols, locale);
         parser.parsePattern(pattern);
         elements = parser.getElements().toArray(new TDateFormatElement[0]);
@@ -96,6 +111,7 @@ public class TSimpleDateFormat extends TDateFormat {
         TSimpleDateFormat copy = (TSimpleDateFormat) super.clone();
         copy.dateFormatSymbols = (TDateFormatSymbols) dateFormatSymbols.clone();
         copy.elements = elements.clone();
+        copy.formatCalendar = null;
         return copy;
     }
 
@@ -105,6 +121,7 @@ public class TSimpleDateFormat extends TDateFormat {
 
     public void setDateFormatSymbols(TDateFormatSymbols newFormatSymbols) {
         dateFormatSymbols = (TDateFormatSymbols) newFormatSymbols.clone();
+        localeSymbols = false;
         reparsePattern();
     }
 
@@ -16,11 +16,15 @@
 package org.teavm.classlib.java.text;
 
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.teavm.classlib.java.util.TCalendar;
 import org.teavm.classlib.java.util.TLocale;
 
 class TSimpleDatePatternParser {
+    private static final int CACHE_LIMIT = 64;
+    private static Map<TLocale, Map<String, TDateFormatElement[]>> cache;
     private TDateFormatSymbols symbols;
     private TLocale locale;
     private List<TDateFormatElement> elements = new ArrayList<>();
@@ -32,6 +36,32 @@ class TSimpleDatePatternParser {
         this.locale = locale;
     }
 
+    /**
+     * Parses pattern against default symbols of the given locale. Elements don't change after they are created,
+     * so the same array is returned for every format that uses the same pattern and locale.
+     */
+    static TDateFormatElement[] parsePattern(String pattern, TLocale locale) {
+        if (cache == null) {
+            cache = new HashMap<>();
+        }
+        Map<String, TDateFormatElement[]> localeCache = cache.get(locale);
+        if (localeCache == null) {
+            localeCache = new HashMap<>();
+            cache.put(locale, localeCache);
+        }
+        TDateFormatElement[] elements = localeCache.get(pattern);
+        if (elements == null) {
+            TSimpleDatePatternParser parser = new TSimpleDatePatternParser(new TDateFormatSymbols(locale), locale);
+            parser.parsePattern(pattern);
+            elements = parser.getElements().toArray(new TDateFormatElement[0]);
+            if (localeCache.size() >= CACHE_LIMIT) {
+                localeCache.clear();
+            }
+            localeCache.put(pattern, elements);
+        }
+        return elements;
+    }
+
     public List<TDateFormatElement> getElements() {
         return elements;
     }
@@ -0,0 +1,1124 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util;
+
+/**
+ * <p>Dual-pivot quicksort for arrays of primitives. Sorts in place without allocating temporary arrays
+ * and falls back to insertion sort on short ranges.</p>
+ *
+ * <p>Floating-point values are ordered as by {@link Double#compare(double, double)}: NaNs go last and
+ * <code>-0.0</code> goes before <code>0.0</code>.</p>
+ */
+final class TDualPivotQuicksort {
+    private static final int INSERTION_SORT_THRESHOLD = 47;
+
+    private TDualPivotQuicksort() {
+    }
+
+    static void sort(int[] a, int fromIndex, int toIndex) {
+        sortRange(a, fromIndex, toIndex - 1);
+    }
+
+    private static void sortRange(int[] a, int left, int right) {
+        while (true) {
+            int length = right - left + 1;
+            if (length < INSERTION_SORT_THRESHOLD) {
+                insertionSort(a, left, right);
+                return;
+            }
+
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, seventh);
+
+            if (a[e1] == a[e2] || a[e2] == a[e3] || a[e3] == a[e4] || a[e4] == a[e5]) {
+                // Many equal elements, partition into three parts around a single pivot
+                int pivot = a[e3];
+                int less = left;
+                int great = right;
+                for (int k = less; k <= great; ++k) {
+                    int ak = a[k];
+                    if (ak == pivot) {
+                        continue;
+                    }
+                    if (ak < pivot) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else {
+                        while (a[great] > pivot) {
+                            --great;
+                        }
+                        if (a[great] < pivot) {
+                            a[k] = a[less];
+                            a[less++] = a[great];
+                        } else {
+                            a[k] = pivot;
+                        }
+                        a[great--] = ak;
+                    }
+                }
+                sortRange(a, left, less - 1);
+                left = great + 1;
+                continue;
+            }
+
+            int pivot1 = a[e2];
+            int pivot2 = a[e4];
+            a[e2] = a[left];
+            a[e4] = a[right];
+            int less = left + 1;
+            int great = right - 1;
+            outer:
+            for (int k = less; k <= great; ++k) {
+                int ak = a[k];
+                if (ak < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = ak;
+                } else if (ak > pivot2) {
+                    while (a[great] > pivot2) {
+                        if (great-- == k) {
+                            break outer;
+                        }
+                    }
+                    if (a[great] < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = a[great];
+                    } else {
+                        a[k] = a[great];
+                    }
+                    a[great--] = ak;
+                }
+            }
+            a[left] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[right] = a[great + 1];
+            a[great + 1] = pivot2;
+
+            sortRange(a, left, less - 2);
+            sortRange(a, great + 2, right);
+
+            if (less < e1 && e5 < great) {
+                // Central part is too large, move elements equal to pivots out of it
+                while (a[less] == pivot1) {
+                    ++less;
+                }
+                while (a[great] == pivot2) {
+                    --great;
+                }
+                outer:
+                for (int k = less; k <= great; ++k) {
+                    int ak = a[k];
+                    if (ak == pivot1) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else if (ak == pivot2) {
+                        while (a[great] == pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] == pivot1) {
+                            a[k] = a[less];
+                            a[less++] = pivot1;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great--] = ak;
+                    }
+                }
+            }
+            left = less;
+            right = great;
+        }
+    }
+
+    private static void sortSamples(int[] a, int first, int step) {
+        int last = first + 4 * step;
+        for (int i = first + step; i <= last; i += step) {
+            int ai = a[i];
+            int j = i - step;
+            while (j >= first && ai < a[j]) {
+                a[j + step] = a[j];
+                j -= step;
+            }
+            a[j + step] = ai;
+        }
+    }
+
+    private static void insertionSort(int[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            int ai = a[i];
+            int j = i - 1;
+            while (j >= left && ai < a[j]) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = ai;
+        }
+    }
+
+    static void sort(long[] a, int fromIndex, int toIndex) {
+        sortRange(a, fromIndex, toIndex - 1);
+    }
+
+    private static void sortRange(long[] a, int left, int right) {
+        while (true) {
+            int length = right - left + 1;
+            if (length < INSERTION_SORT_THRESHOLD) {
+                insertionSort(a, left, right);
+                return;
+            }
+
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, seventh);
+
+            if (a[e1] == a[e2] || a[e2] == a[e3] || a[e3] == a[e4] || a[e4] == a[e5]) {
+                // Many equal elements, partition into three parts around a single pivot
+                long pivot = a[e3];
+                int less = left;
+                int great = right;
+                for (int k = less; k <= great; ++k) {
+                    long ak = a[k];
+                    if (ak == pivot) {
+                        continue;
+                    }
+                    if (ak < pivot) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else {
+                        while (a[great] > pivot) {
+                            --great;
+                        }
+                        if (a[great] < pivot) {
+                            a[k] = a[less];
+                            a[less++] = a[great];
+                        } else {
+                            a[k] = pivot;
+                        }
+                        a[great--] = ak;
+                    }
+                }
+                sortRange(a, left, less - 1);
+                left = great + 1;
+                continue;
+            }
+
+            long pivot1 = a[e2];
+            long pivot2 = a[e4];
+            a[e2] = a[left];
+            a[e4] = a[right];
+            int less = left + 1;
+            int great = right - 1;
+            outer:
+            for (int k = less; k <= great; ++k) {
+                long ak = a[k];
+                if (ak < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = ak;
+                } else if (ak > pivot2) {
+                    while (a[great] > pivot2) {
+                        if (great-- == k) {
+                            break outer;
+                        }
+                    }
+                    if (a[great] < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = a[great];
+                    } else {
+                        a[k] = a[great];
+                    }
+                    a[great--] = ak;
+                }
+            }
+            a[left] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[right] = a[great + 1];
+            a[great + 1] = pivot2;
+
+            sortRange(a, left, less - 2);
+            sortRange(a, great + 2, right);
+
+            if (less < e1 && e5 < great) {
+                // Central part is too large, move elements equal to pivots out of it
+                while (a[less] == pivot1) {
+                    ++less;
+                }
+                while (a[great] == pivot2) {
+                    --great;
+                }
+                outer:
+                for (int k = less; k <= great; ++k) {
+                    long ak = a[k];
+                    if (ak == pivot1) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else if (ak == pivot2) {
+                        while (a[great] == pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] == pivot1) {
+                            a[k] = a[less];
+                            a[less++] = pivot1;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great--] = ak;
+                    }
+                }
+            }
+            left = less;
+            right = great;
+        }
+    }
+
+    private static void sortSamples(long[] a, int first, int step) {
+        int last = first + 4 * step;
+        for (int i = first + step; i <= last; i += step) {
+            long ai = a[i];
+            int j = i - step;
+            while (j >= first && ai < a[j]) {
+                a[j + step] = a[j];
+                j -= step;
+            }
+            a[j + step] = ai;
+        }
+    }
+
+    private static void insertionSort(long[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            long ai = a[i];
+            int j = i - 1;
+            while (j >= left && ai < a[j]) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = ai;
+        }
+    }
+
+    static void sort(short[] a, int fromIndex, int toIndex) {
+        sortRange(a, fromIndex, toIndex - 1);
+    }
+
+    private static void sortRange(short[] a, int left, int right) {
+        while (true) {
+            int length = right - left + 1;
+            if (length < INSERTION_SORT_THRESHOLD) {
+                insertionSort(a, left, right);
+                return;
+            }
+
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, seventh);
+
+            if (a[e1] == a[e2] || a[e2] == a[e3] || a[e3] == a[e4] || a[e4] == a[e5]) {
+                // Many equal elements, partition into three parts around a single pivot
+                short pivot = a[e3];
+                int less = left;
+                int great = right;
+                for (int k = less; k <= great; ++k) {
+                    short ak = a[k];
+                    if (ak == pivot) {
+                        continue;
+                    }
+                    if (ak < pivot) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else {
+                        while (a[great] > pivot) {
+                            --great;
+                        }
+                        if (a[great] < pivot) {
+                            a[k] = a[less];
+                            a[less++] = a[great];
+                        } else {
+                            a[k] = pivot;
+                        }
+                        a[great--] = ak;
+                    }
+                }
+                sortRange(a, left, less - 1);
+                left = great + 1;
+                continue;
+            }
+
+            short pivot1 = a[e2];
+            short pivot2 = a[e4];
+            a[e2] = a[left];
+            a[e4] = a[right];
+            int less = left + 1;
+            int great = right - 1;
+            outer:
+            for (int k = less; k <= great; ++k) {
+                short ak = a[k];
+                if (ak < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = ak;
+                } else if (ak > pivot2) {
+                    while (a[great] > pivot2) {
+                        if (great-- == k) {
+                            break outer;
+                        }
+                    }
+                    if (a[great] < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = a[great];
+                    } else {
+                        a[k] = a[great];
+                    }
+                    a[great--] = ak;
+                }
+            }
+            a[left] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[right] = a[great + 1];
+            a[great + 1] = pivot2;
+
+            sortRange(a, left, less - 2);
+            sortRange(a, great + 2, right);
+
+            if (less < e1 && e5 < great) {
+                // Central part is too large, move elements equal to pivots out of it
+                while (a[less] == pivot1) {
+                    ++less;
+                }
+                while (a[great] == pivot2) {
+                    --great;
+                }
+                outer:
+                for (int k = less; k <= great; ++k) {
+                    short ak = a[k];
+                    if (ak == pivot1) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else if (ak == pivot2) {
+                        while (a[great] == pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] == pivot1) {
+                            a[k] = a[less];
+                            a[less++] = pivot1;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great--] = ak;
+                    }
+                }
+            }
+            left = less;
+            right = great;
+        }
+    }
+
+    private static void sortSamples(short[] a, int first, int step) {
+        int last = first + 4 * step;
+        for (int i = first + step; i <= last; i += step) {
+            short ai = a[i];
+            int j = i - step;
+            while (j >= first && ai < a[j]) {
+                a[j + step] = a[j];
+                j -= step;
+            }
+            a[j + step] = ai;
+        }
+    }
+
+    private static void insertionSort(short[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            short ai = a[i];
+            int j = i - 1;
+            while (j >= left && ai < a[j]) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = ai;
+        }
+    }
+
+    static void sort(char[] a, int fromIndex, int toIndex) {
+        sortRange(a, fromIndex, toIndex - 1);
+    }
+
+    private static void sortRange(char[] a, int left, int right) {
+        while (true) {
+            int length = right - left + 1;
+            if (length < INSERTION_SORT_THRESHOLD) {
+                insertionSort(a, left, right);
+                return;
+            }
+
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, seventh);
+
+            if (a[e1] == a[e2] || a[e2] == a[e3] || a[e3] == a[e4] || a[e4] == a[e5]) {
+                // Many equal elements, partition into three parts around a single pivot
+                char pivot = a[e3];
+                int less = left;
+                int great = right;
+                for (int k = less; k <= great; ++k) {
+                    char ak = a[k];
+                    if (ak == pivot) {
+                        continue;
+                    }
+                    if (ak < pivot) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else {
+                        while (a[great] > pivot) {
+                            --great;
+                        }
+                        if (a[great] < pivot) {
+                            a[k] = a[less];
+                            a[less++] = a[great];
+                        } else {
+                            a[k] = pivot;
+                        }
+                        a[great--] = ak;
+                    }
+                }
+                sortRange(a, left, less - 1);
+                left = great + 1;
+                continue;
+            }
+
+            char pivot1 = a[e2];
+            char pivot2 = a[e4];
+            a[e2] = a[left];
+            a[e4] = a[right];
+            int less = left + 1;
+            int great = right - 1;
+            outer:
+            for (int k = less; k <= great; ++k) {
+                char ak = a[k];
+                if (ak < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = ak;
+                } else if (ak > pivot2) {
+                    while (a[great] > pivot2) {
+                        if (great-- == k) {
+                            break outer;
+                        }
+                    }
+                    if (a[great] < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = a[great];
+                    } else {
+                        a[k] = a[great];
+                    }
+                    a[great--] = ak;
+                }
+            }
+            a[left] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[right] = a[great + 1];
+            a[great + 1] = pivot2;
+
+            sortRange(a, left, less - 2);
+            sortRange(a, great + 2, right);
+
+            if (less < e1 && e5 < great) {
+                // Central part is too large, move elements equal to pivots out of it
+                while (a[less] == pivot1) {
+                    ++less;
+                }
+                while (a[great] == pivot2) {
+                    --great;
+                }
+                outer:
+                for (int k = less; k <= great; ++k) {
+                    char ak = a[k];
+                    if (ak == pivot1) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else if (ak == pivot2) {
+                        while (a[great] == pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] == pivot1) {
+                            a[k] = a[less];
+                            a[less++] = pivot1;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great--] = ak;
+                    }
+                }
+            }
+            left = less;
+            right = great;
+        }
+    }
+
+    private static void sortSamples(char[] a, int first, int step) {
+        int last = first + 4 * step;
+        for (int i = first + step; i <= last; i += step) {
+            char ai = a[i];
+            int j = i - step;
+            while (j >= first && ai < a[j]) {
+                a[j + step] = a[j];
+                j -= step;
+            }
+            a[j + step] = ai;
+        }
+    }
+
+    private static void insertionSort(char[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            char ai = a[i];
+            int j = i - 1;
+            while (j >= left && ai < a[j]) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = ai;
+        }
+    }
+
+    static void sort(byte[] a, int fromIndex, int toIndex) {
+        sortRange(a, fromIndex, toIndex - 1);
+    }
+
+    private static void sortRange(byte[] a, int left, int right) {
+        while (true) {
+            int length = right - left + 1;
+            if (length < INSERTION_SORT_THRESHOLD) {
+                insertionSort(a, left, right);
+                return;
+            }
+
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, seventh);
+
+            if (a[e1] == a[e2] || a[e2] == a[e3] || a[e3] == a[e4] || a[e4] == a[e5]) {
+                // Many equal elements, partition into three parts around a single pivot
+                byte pivot = a[e3];
+                int less = left;
+                int great = right;
+                for (int k = less; k <= great; ++k) {
+                    byte ak = a[k];
+                    if (ak == pivot) {
+                        continue;
+                    }
+                    if (ak < pivot) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else {
+                        while (a[great] > pivot) {
+                            --great;
+                        }
+                        if (a[great] < pivot) {
+                            a[k] = a[less];
+                            a[less++] = a[great];
+                        } else {
+                            a[k] = pivot;
+                        }
+                        a[great--] = ak;
+                    }
+                }
+                sortRange(a, left, less - 1);
+                left = great + 1;
+                continue;
+            }
+
+            byte pivot1 = a[e2];
+            byte pivot2 = a[e4];
+            a[e2] = a[left];
+            a[e4] = a[right];
+            int less = left + 1;
+            int great = right - 1;
+            outer:
+            for (int k = less; k <= great; ++k) {
+                byte ak = a[k];
+                if (ak < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = ak;
+                } else if (ak > pivot2) {
+                    while (a[great] > pivot2) {
+                        if (great-- == k) {
+                            break outer;
+                        }
+                    }
+                    if (a[great] < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = a[great];
+                    } else {
+                        a[k] = a[great];
+                    }
+                    a[great--] = ak;
+                }
+            }
+            a[left] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[right] = a[great + 1];
+            a[great + 1] = pivot2;
+
+            sortRange(a, left, less - 2);
+            sortRange(a, great + 2, right);
+
+            if (less < e1 && e5 < great) {
+                // Central part is too large, move elements equal to pivots out of it
+                while (a[less] == pivot1) {
+                    ++less;
+                }
+                while (a[great] == pivot2) {
+                    --great;
+                }
+                outer:
+                for (int k = less; k <= great; ++k) {
+                    byte ak = a[k];
+                    if (ak == pivot1) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else if (ak == pivot2) {
+                        while (a[great] == pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] == pivot1) {
+                            a[k] = a[less];
+                            a[less++] = pivot1;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great--] = ak;
+                    }
+                }
+            }
+            left = less;
+            right = great;
+        }
+    }
+
+    private static void sortSamples(byte[] a, int first, int step) {
+        int last = first + 4 * step;
+        for (int i = first + step; i <= last; i += step) {
+            byte ai = a[i];
+            int j = i - step;
+            while (j >= first && ai < a[j]) {
+                a[j + step] = a[j];
+                j -= step;
+            }
+            a[j + step] = ai;
+        }
+    }
+
+    private static void insertionSort(byte[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            byte ai = a[i];
+            int j = i - 1;
+            while (j >= left && ai < a[j]) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = ai;
+        }
+    }
+
+    static void sort(float[] a, int fromIndex, int toIndex) {
+        // Operators can't tell NaN and -0.0 apart from other values. Move NaNs to the end, where they belong,
+        // and replace -0.0 with 0.0, restoring them in the beginning of zero run after sorting
+        int right = toIndex - 1;
+        while (right >= fromIndex && a[right] != a[right]) {
+            --right;
+        }
+        int negativeZeros = 0;
+        for (int k = right; k >= fromIndex; --k) {
+            float ak = a[k];
+            if (ak != ak) {
+                a[k] = a[right];
+                a[right--] = ak;
+            } else if (ak == 0 && 1 / ak < 0) {
+                a[k] = 0.0f;
+                ++negativeZeros;
+            }
+        }
+        sortRange(a, fromIndex, right);
+        if (negativeZeros > 0) {
+            restoreNegativeZeros(a, fromIndex, right, negativeZeros);
+        }
+    }
+
+    private static void sortRange(float[] a, int left, int right) {
+        while (true) {
+            int length = right - left + 1;
+            if (length < INSERTION_SORT_THRESHOLD) {
+                insertionSort(a, left, right);
+                return;
+            }
+
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, seventh);
+
+            if (a[e1] == a[e2] || a[e2] == a[e3] || a[e3] == a[e4] || a[e4] == a[e5]) {
+                // Many equal elements, partition into three parts around a single pivot
+                float pivot = a[e3];
+                int less = left;
+                int great = right;
+                for (int k = less; k <= great; ++k) {
+                    float ak = a[k];
+                    if (ak == pivot) {
+                        continue;
+                    }
+                    if (ak < pivot) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else {
+                        while (a[great] > pivot) {
+                            --great;
+                        }
+                        if (a[great] < pivot) {
+                            a[k] = a[less];
+                            a[less++] = a[great];
+                        } else {
+                            a[k] = pivot;
+                        }
+                        a[great--] = ak;
+                    }
+                }
+                sortRange(a, left, less - 1);
+                left = great + 1;
+                continue;
+            }
+
+            float pivot1 = a[e2];
+            float pivot2 = a[e4];
+            a[e2] = a[left];
+            a[e4] = a[right];
+            int less = left + 1;
+            int great = right - 1;
+            outer:
+            for (int k = less; k <= great; ++k) {
+                float ak = a[k];
+                if (ak < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = ak;
+                } else if (ak > pivot2) {
+                    while (a[great] > pivot2) {
+                        if (great-- == k) {
+                            break outer;
+                        }
+                    }
+                    if (a[great] < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = a[great];
+                    } else {
+                        a[k] = a[great];
+                    }
+                    a[great--] = ak;
+                }
+            }
+            a[left] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[right] = a[great + 1];
+            a[great + 1] = pivot2;
+
+            sortRange(a, left, less - 2);
+            sortRange(a, great + 2, right);
+
+            if (less < e1 && e5 < great) {
+                // Central part is too large, move elements equal to pivots out of it
+                while (a[less] == pivot1) {
+                    ++less;
+                }
+                while (a[great] == pivot2) {
+                    --great;
+                }
+                outer:
+                for (int k = less; k <= great; ++k) {
+                    float ak = a[k];
+                    if (ak == pivot1) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else if (ak == pivot2) {
+                        while (a[great] == pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] == pivot1) {
+                            a[k] = a[less];
+                            a[less++] = pivot1;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great--] = ak;
+                    }
+                }
+            }
+            left = less;
+            right = great;
+        }
+    }
+
+    private static void sortSamples(float[] a, int first, int step) {
+        int last = first + 4 * step;
+        for (int i = first + step; i <= last; i += step) {
+            float ai = a[i];
+            int j = i - step;
+            while (j >= first && ai < a[j]) {
+                a[j + step] = a[j];
+                j -= step;
+            }
+            a[j + step] = ai;
+        }
+    }
+
+    private static void insertionSort(float[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            float ai = a[i];
+            int j = i - 1;
+            while (j >= left && ai < a[j]) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = ai;
+        }
+    }
+
+    private static void restoreNegativeZeros(float[] a, int left, int right, int count) {
+        int low = left;
+        int high = right + 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (a[middle] < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int k = low; k < low + count; ++k) {
+            a[k] = -0.0f;
+        }
+    }
+
+    static void sort(double[] a, int fromIndex, int toIndex) {
+        // Operators can't tell NaN and -0.0 apart from other values. Move NaNs to the end, where they belong,
+        // and replace -0.0 with 0.0, restoring them in the beginning of zero run after sorting
+        int right = toIndex - 1;
+        while (right >= fromIndex && a[right] != a[right]) {
+            --right;
+        }
+        int negativeZeros = 0;
+        for (int k = right; k >= fromIndex; --k) {
+            double ak = a[k];
+            if (ak != ak) {
+                a[k] = a[right];
+                a[right--] = ak;
+            } else if (ak == 0 && 1 / ak < 0) {
+                a[k] = 0.0;
+                ++negativeZeros;
+            }
+        }
+        sortRange(a, fromIndex, right);
+        if (negativeZeros > 0) {
+            restoreNegativeZeros(a, fromIndex, right, negativeZeros);
+        }
+    }
+
+    private static void sortRange(double[] a, int left, int right) {
+        while (true) {
+            int length = right - left + 1;
+            if (length < INSERTION_SORT_THRESHOLD) {
+                insertionSort(a, left, right);
+                return;
+            }
+
+            int seventh = (length >> 3) + (length >> 6) + 1;
+            int e3 = (left + right) >>> 1;
+            int e2 = e3 - seventh;
+            int e1 = e2 - seventh;
+            int e4 = e3 + seventh;
+            int e5 = e4 + seventh;
+            sortSamples(a, e1, seventh);
+
+            if (a[e1] == a[e2] || a[e2] == a[e3] || a[e3] == a[e4] || a[e4] == a[e5]) {
+                // Many equal elements, partition into three parts around a single pivot
+                double pivot = a[e3];
+                int less = left;
+                int great = right;
+                for (int k = less; k <= great; ++k) {
+                    double ak = a[k];
+                    if (ak == pivot) {
+                        continue;
+                    }
+                    if (ak < pivot) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else {
+                        while (a[great] > pivot) {
+                            --great;
+                        }
+                        if (a[great] < pivot) {
+                            a[k] = a[less];
+                            a[less++] = a[great];
+                        } else {
+                            a[k] = pivot;
+                        }
+                        a[great--] = ak;
+                    }
+                }
+                sortRange(a, left, less - 1);
+                left = great + 1;
+                continue;
+            }
+
+            double pivot1 = a[e2];
+            double pivot2 = a[e4];
+            a[e2] = a[left];
+            a[e4] = a[right];
+            int less = left + 1;
+            int great = right - 1;
+            outer:
+            for (int k = less; k <= great; ++k) {
+                double ak = a[k];
+                if (ak < pivot1) {
+                    a[k] = a[less];
+                    a[less++] = ak;
+                } else if (ak > pivot2) {
+                    while (a[great] > pivot2) {
+                        if (great-- == k) {
+                            break outer;
+                        }
+                    }
+                    if (a[great] < pivot1) {
+                        a[k] = a[less];
+                        a[less++] = a[great];
+                    } else {
+                        a[k] = a[great];
+                    }
+                    a[great--] = ak;
+                }
+            }
+            a[left] = a[less - 1];
+            a[less - 1] = pivot1;
+            a[right] = a[great + 1];
+            a[great + 1] = pivot2;
+
+            sortRange(a, left, less - 2);
+            sortRange(a, great + 2, right);
+
+            if (less < e1 && e5 < great) {
+                // Central part is too large, move elements equal to pivots out of it
+                while (a[less] == pivot1) {
+                    ++less;
+                }
+                while (a[great] == pivot2) {
+                    --great;
+                }
+                outer:
+                for (int k = less; k <= great; ++k) {
+                    double ak = a[k];
+                    if (ak == pivot1) {
+                        a[k] = a[less];
+                        a[less++] = ak;
+                    } else if (ak == pivot2) {
+                        while (a[great] == pivot2) {
+                            if (great-- == k) {
+                                break outer;
+                            }
+                        }
+                        if (a[great] == pivot1) {
+                            a[k] = a[less];
+                            a[less++] = pivot1;
+                        } else {
+                            a[k] = a[great];
+                        }
+                        a[great--] = ak;
+                    }
+                }
+            }
+            left = less;
+            right = great;
+        }
+    }
+
+    private static void sortSamples(double[] a, int first, int step) {
+        int last = first + 4 * step;
+        for (int i = first + step; i <= last; i += step) {
+            double ai = a[i];
+            int j = i - step;
+            while (j >= first && ai < a[j]) {
+                a[j + step] = a[j];
+                j -= step;
+            }
+            a[j + step] = ai;
+        }
+    }
+
+    private static void insertionSort(double[] a, int left, int right) {
+        for (int i = left + 1; i <= right; ++i) {
+            double ai = a[i];
+            int j = i - 1;
+            while (j >= left && ai < a[j]) {
+                a[j + 1] = a[j];
+                --j;
+            }
+            a[j + 1] = ai;
+        }
+    }
+
+    private static void restoreNegativeZeros(double[] a, int left, int right, int count) {
+        int low = left;
+        int high = right + 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (a[middle] < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        for (int k = low; k < low + count; ++k) {
+            a[k] = -0.0;
+        }
+    }
+}
@@ -38,67 +38,41 @@ import org.teavm.classlib.java.io.TSerializable;
 import org.teavm.classlib.java.lang.*;
 import org.teavm.interop.Rename;
 
+/**
+ * <p>Hash map with open addressing. Keys, values and hash codes are kept in parallel arrays indexed by slot,
+ * collisions are resolved by linear probing, and removal shifts the following run of entries back instead of
+ * leaving tombstones. Unlike a chained table, this needs no node object per mapping.</p>
+ *
+ * @param <K> type of keys.
+ * @param <V> type of values.
+ */
 public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TSerializable {
+    static final Object NULL_KEY = new Object();
+    private static final int DEFAULT_SIZE = 16;
+    private static final float MAX_LOAD_FACTOR = 0.75f;
     transient int elementCount;
-    transient HashEntry<K, V>[] elementData;
+    transient Object[] keys;
+    transient Object[] values;
+    transient int[] hashes;
+    transient int mask;
     transient int modCount;
-    private static final int DEFAULT_SIZE = 16;
     final float loadFactor;
     int threshold;
 
-    static class HashEntry<K, V> extends TMapEntry<K, V> {
-        final int origKeyHash;
-
-        HashEntry<K, V> next;
-
-        HashEntry(K theKey, int hash) {
-            super(theKey, null);
-            this.origKeyHash = hash;
-        }
-
-        HashEntry(K theKey, V theValue) {
-            super(theKey, theValue);
-            origKeyHash = theKey == null ? 0 : computeHashCode(theKey);
-        }
-
-        @Override
-        @SuppressWarnings("unchecked")
-        public Object clone() {
-            HashEntry<K, V> entry = (HashEntry<K, V>) super.clone();
-            if (next != null) {
-                entry.next = (HashEntry<K, V>) next.clone();
-            }
-            return entry;
-        }
-    }
-
-    private static class AbstractMapIterator<K, V>  {
-        private int position;
-        int expectedModCount;
-        HashEntry<K, V> futureEntry;
-        HashEntry<K, V> currentEntry;
-        HashEntry<K, V> prevEntry;
-
+    abstract static class AbstractMapIterator<K, V> {
         final THashMap<K, V> associatedMap;
+        int expectedModCount;
+        int remaining;
+        int current = -1;
 
         AbstractMapIterator(THashMap<K, V> hm) {
             associatedMap = hm;
             expectedModCount = hm.modCount;
-            futureEntry = null;
+            remaining = hm.elementCount;
         }
 
         public boolean hasNext() {
-            if (futureEntry != null) {
-                return true;
-            }
-            while (position < associatedMap.elementData.length) {
-                if (associatedMap.elementData[position] == null) {
-                    position++;
-                } else {
-                    return true;
-                }
-            }
-            return false;
+            return remaining > 0;
         }
 
         final void checkConcurrentMod() throws ConcurrentModificationException {
@@ -107,78 +81,221 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
             }
         }
 
-        final void makeNext() {
+        final int nextSlot() {
             checkConcurrentMod();
-            if (!hasNext()) {
+            if (remaining == 0) {
                 throw new TNoSuchElementException();
             }
-            if (futureEntry == null) {
-                currentEntry = associatedMap.elementData[position++];
-                futureEntry = currentEntry.next;
-                prevEntry = null;
-            } else {
-                if (currentEntry != null) {
-                    prevEntry = currentEntry;
-                }
-                currentEntry = futureEntry;
-                futureEntry = futureEntry.next;
-            }
+            remaining--;
+            current = advance();
+            return current;
         }
 
+        abstract int advance();
+
         public final void remove() {
             checkConcurrentMod();
-            if (currentEntry == null) {
+            if (current < 0) {
                 throw new TIllegalStateException();
             }
-            if (prevEntry == null) {
-                int index = currentEntry.origKeyHash & (associatedMap.elementData.length - 1);
-                associatedMap.elementData[index] = associatedMap.elementData[index].next;
-            } else {
-                prevEntry.next = currentEntry.next;
+            int slot = current;
+            current = -1;
+            removeSlot(slot);
+            expectedModCount = associatedMap.modCount;
+        }
+
+        void removeSlot(int slot) {
+            associatedMap.removeAt(slot, this);
+        }
+
+        void moved(int from, int to) {
+            // most iterators do not track positions
+        }
+    }
+
+    /**
+     * Walks the table from the last slot down to the first one. When removal through the iterator shifts an
+     * entry that was not visited yet across the end of the table into the visited part, its key is remembered
+     * and returned after the scan is over.
+     */
+    static class TableIterator<K, V> extends AbstractMapIterator<K, V> {
+        private int position;
+        private TArrayList<Object> wrapped;
+        private int wrappedIndex;
+        private boolean inWrapped;
+
+        TableIterator(THashMap<K, V> hm) {
+            super(hm);
+            position = hm.keys.length;
+        }
+
+        @Override
+        int advance() {
+            Object[] table = associatedMap.keys;
+            while (position > 0) {
+                --position;
+                if (table[position] != null) {
+                    return position;
+                }
             }
-            currentEntry = null;
-            expectedModCount++;
-            associatedMap.modCount++;
-            associatedMap.elementCount--;
+            inWrapped = true;
+            return associatedMap.findSlot(unmaskNull(wrapped.get(wrappedIndex++)));
+        }
 
+        @Override
+        void removeSlot(int slot) {
+            associatedMap.removeAt(slot, inWrapped ? null : this);
+        }
+
+        @Override
+        void moved(int from, int to) {
+            if (from < to) {
+                if (wrapped == null) {
+                    wrapped = new TArrayList<>();
+                }
+                wrapped.add(associatedMap.keys[to]);
+            }
         }
     }
 
+    static class EntryIterator<K, V> implements TIterator<TMap.Entry<K, V>> {
+        private final AbstractMapIterator<K, V> cursor;
 
-    private static class EntryIterator<K, V> extends AbstractMapIterator<K, V>
-            implements TIterator<TMap.Entry<K, V>> {
-        EntryIterator(THashMap<K, V> map) {
-            super(map);
+        EntryIterator(AbstractMapIterator<K, V> cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor.hasNext();
         }
 
         @Override
         public TMap.Entry<K, V> next() {
-            makeNext();
-            return currentEntry;
+            return cursor.associatedMap.entryAt(cursor.nextSlot());
+        }
+
+        @Override
+        public void remove() {
+            cursor.remove();
         }
     }
 
-    private static class KeyIterator<K, V> extends AbstractMapIterator<K, V> implements TIterator<K> {
-        KeyIterator(THashMap<K, V> map) {
-            super(map);
+    static class KeyIterator<K, V> implements TIterator<K> {
+        private final AbstractMapIterator<K, V> cursor;
+
+        KeyIterator(AbstractMapIterator<K, V> cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor.hasNext();
         }
 
         @Override
         public K next() {
-            makeNext();
-            return currentEntry.key;
+            return cursor.associatedMap.keyAt(cursor.nextSlot());
+        }
+
+        @Override
+        public void remove() {
+            cursor.remove();
         }
     }
 
-    private static class ValueIterator<K, V> extends AbstractMapIterator<K, V> implements TIterator<V> {
-        ValueIterator(THashMap<K, V> map) {
-            super(map);
+    static class ValueIterator<K, V> implements TIterator<V> {
+        private final AbstractMapIterator<K, V> cursor;
+
+        ValueIterator(AbstractMapIterator<K, V> cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor.hasNext();
         }
 
         @Override
         public V next() {
-            makeNext();
-            return currentEntry.value;
+            return cursor.associatedMap.valueAt(cursor.nextSlot());
+        }
+
+        @Override
+        public void remove() {
+            cursor.remove();
+        }
+    }
+
+    /**
+     * Entry that reads and writes through to the table. Slots move when other entries are removed or the table
+     * grows, so the entry looks its key up again whenever the remembered slot no longer holds it.
+     */
+    static class HashMapEntry<K, V> implements TMap.Entry<K, V> {
+        private final THashMap<K, V> map;
+        private final K key;
+        private V value;
+        private int slot;
+
+        HashMapEntry(THashMap<K, V> map, int slot) {
+            this.map = map;
+            this.slot = slot;
+            key = map.keyAt(slot);
+            value = map.valueAt(slot);
+        }
+
+        private boolean locate() {
+            Object[] table = map.keys;
+            if (slot >= 0 && slot < table.length && table[slot] == maskNull(key)) {
+                return true;
+            }
+            slot = map.findSlot(key);
+            return slot >= 0;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            if (locate()) {
+                value = map.valueAt(slot);
+            }
+            return value;
+        }
+
+        @Override
+        public V setValue(V object) {
+            V result = getValue();
+            if (locate()) {
+                map.values[slot] = object;
+            }
+            value = object;
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (this == object) {
+                return true;
+            }
+            if (!(object instanceof TMap.Entry)) {
+                return false;
+            }
+            TMap.Entry<?, ?> entry = (TMap.Entry<?, ?>) object;
+            return TObjects.equals(key, entry.getKey()) && TObjects.equals(getValue(), entry.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return TObjects.hashCode(key) ^ TObjects.hashCode(getValue());
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + getValue();
         }
     }
 
@@ -205,45 +322,38 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
 
         @Override
         public boolean remove(Object object) {
-            if (object instanceof TMap.Entry) {
-                TMap.Entry<?, ?> oEntry = (TMap.Entry<?, ?>) object;
-                TMap.Entry<K, V> entry = associatedMap.getEntry(oEntry.getKey());
-                if (valuesEq(entry, oEntry)) {
-                    associatedMap.removeEntry(entry);
-                    return true;
-                }
+            int slot = find(object);
+            if (slot < 0) {
+                return false;
             }
-            return false;
+            associatedMap.removeAt(slot, null);
+            return true;
         }
 
         @Override
         public boolean contains(Object object) {
-            if (object instanceof TMap.Entry) {
-                TMap.Entry<?, ?> oEntry = (TMap.Entry<?, ?>) object;
-                TMap.Entry<K, V> entry = associatedMap.getEntry(oEntry.getKey());
-                return valuesEq(entry, oEntry);
-            }
-            return false;
+            return find(object) >= 0;
         }
 
-        private static boolean valuesEq(TMap.Entry<?, ?> entry, TMap.Entry<?, ?> oEntry) {
-            return entry != null
-                    && (entry.getValue() == null
-                    ? oEntry.getValue() == null
-                    : areEqualValues(entry.getValue(), oEntry.getValue()));
+        private int find(Object object) {
+            if (!(object instanceof TMap.Entry)) {
+                return -1;
+            }
+            TMap.Entry<?, ?> entry = (TMap.Entry<?, ?>) object;
+            int slot = associatedMap.findSlot(entry.getKey());
+            if (slot < 0) {
+                return -1;
+            }
+            Object value = associatedMap.values[slot];
+            return (value == null ? entry.getValue() == null : areEqualValues(value, entry.getValue())) ? slot : -1;
         }
 
         @Override
         public TIterator<TMap.Entry<K, V>> iterator() {
-            return new EntryIterator<>(associatedMap);
+            return new EntryIterator<>(associatedMap.newIterator());
         }
     }
 
-    @SuppressWarnings("unchecked")
-    HashEntry<K, V>[] newElementArray(int s) {
-        return new HashEntry[s];
-    }
-
     public THashMap() {
         this(DEFAULT_SIZE);
     }
@@ -275,18 +385,16 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
      * @param capacity
      *            the initial capacity of this hash map.
      * @param loadFactor
-     *            the initial load factor.
+     *            the initial load factor. Values above 0.75 are treated as 0.75,
+     *            since linear probing degrades quickly on denser tables.
      * @throws IllegalArgumentException
      *                when the capacity is less than zero or the load factor is
      *                less or equal to zero.
      */
     public THashMap(int capacity, float loadFactor) {
         if (capacity >= 0 && loadFactor > 0) {
-            capacity = calculateCapacity(capacity);
-            elementCount = 0;
-            elementData = newElementArray(capacity);
             this.loadFactor = loadFactor;
-            computeThreshold();
+            allocate(calculateCapacity(capacity));
         } else {
             throw new TIllegalArgumentException();
         }
@@ -301,7 +409,8 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
     public void clear() {
         if (elementCount > 0) {
             elementCount = 0;
-            Arrays.fill(elementData, null);
+            Arrays.fill(keys, null);
+            Arrays.fill(values, null);
             modCount++;
         }
     }
@@ -311,46 +420,46 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
     public TObject clone0() {
         try {
             THashMap<K, V> map = (THashMap<K, V>) super.clone();
-            map.elementCount = 0;
-            map.elementData = newElementArray(elementData.length);
-            map.putAll(this);
-
+            map.keys = keys.clone();
+            map.values = values.clone();
+            map.hashes = hashes.clone();
+            map.copyLinks();
             return map;
         } catch (TCloneNotSupportedException e) {
             return null;
         }
     }
 
-    private void computeThreshold() {
-        threshold = (int) (elementData.length * loadFactor);
+    final void allocate(int length) {
+        keys = new Object[length];
+        values = new Object[length];
+        hashes = new int[length];
+        mask = length - 1;
+        threshold = thresholdFor(length);
+    }
+
+    private int thresholdFor(int length) {
+        return Math.min((int) (length * Math.min(loadFactor, MAX_LOAD_FACTOR)), length - 1);
     }
 
     @Override
     public boolean containsKey(Object key) {
-        HashEntry<K, V> m = getEntry(key);
-        return m != null;
+        return findSlot(key) >= 0;
     }
 
     @Override
     public boolean containsValue(Object value) {
+        Object[] table = keys;
         if (value != null) {
-            for (int i = 0; i < elementData.length; i++) {
-                HashEntry<K, V> entry = elementData[i];
-                while (entry != null) {
-                    if (areEqualValues(value, entry.value)) {
-                        return true;
-                    }
-                    entry = entry.next;
+            for (int i = 0; i < table.length; i++) {
+                if (table[i] != null && areEqualValues(value, values[i])) {
+                    return true;
                 }
             }
         } else {
-            for (int i = 0; i < elementData.length; i++) {
-                HashEntry<K, V> entry = elementData[i];
-                while (entry != null) {
-                    if (entry.value == null) {
-                        return true;
-                    }
-                    entry = entry.next;
+            for (int i = 0; i < table.length; i++) {
+                if (table[i] != null && values[i] == null) {
+                    return true;
                 }
             }
         }
@@ -364,40 +473,57 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
 
     @Override
     public V get(Object key) {
-        HashEntry<K, V> m = getEntry(key);
-        if (m != null) {
-            return m.value;
+        int slot = findSlot(key);
+        return slot >= 0 ? valueAt(slot) : null;
+    }
+
+    final int findSlot(Object key) {
+        int hash = computeHashCode(key);
+        Object[] table = keys;
+        int slot = hash & mask;
+        while (true) {
+            Object candidate = table[slot];
+            if (candidate == null) {
+                return -1;
+            }
+            if (hashes[slot] == hash && matches(key, candidate)) {
+                return slot;
+            }
+            slot = (slot + 1) & mask;
         }
-        return null;
     }
 
-    final HashEntry<K, V> getEntry(Object key) {
-        HashEntry<K, V> m;
+    private static boolean matches(Object key, Object candidate) {
         if (key == null) {
-            m = findNullKeyEntry();
-        } else {
-            int hash = computeHashCode(key);
-            int index = hash & (elementData.length - 1);
-            m = findNonNullKeyEntry(key, index, hash);
+            return candidate == NULL_KEY;
         }
-        return m;
+        return candidate != NULL_KEY && areEqualKeys(key, candidate);
     }
 
-    final HashEntry<K, V> findNonNullKeyEntry(Object key, int index, int keyHash) {
-        HashEntry<K, V> m = elementData[index];
-        while (m != null
-                && (m.origKeyHash != keyHash || !areEqualKeys(key, m.key))) {
-            m = m.next;
-        }
-        return m;
+    static Object maskNull(Object key) {
+        return key == null ? NULL_KEY : key;
     }
 
-    final HashEntry<K, V> findNullKeyEntry() {
-        HashEntry<K, V> m = elementData[0];
-        while (m != null && m.key != null) {
-            m = m.next;
-        }
-        return m;
+    static Object unmaskNull(Object key) {
+        return key == NULL_KEY ? null : key;
+    }
+
+    @SuppressWarnings("unchecked")
+    final K keyAt(int slot) {
+        return (K) unmaskNull(keys[slot]);
+    }
+
+    @SuppressWarnings("unchecked")
+    final V valueAt(int slot) {
+        return (V) values[slot];
+    }
+
+    final TMap.Entry<K, V> entryAt(int slot) {
+        return new HashMapEntry<>(this, slot);
+    }
+
+    AbstractMapIterator<K, V> newIterator() {
+        return new TableIterator<>(this);
     }
 
     @Override
@@ -419,11 +545,15 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
                     THashMap.this.clear();
                 }
                 @Override public boolean remove(Object key) {
-                    HashEntry<K, V> entry = THashMap.this.removeEntry(key);
-                    return entry != null;
+                    int slot = findSlot(key);
+                    if (slot < 0) {
+                        return false;
+                    }
+                    removeAt(slot, null);
+                    return true;
                 }
                 @Override public TIterator<K> iterator() {
-                    return new KeyIterator<>(THashMap.this);
+                    return new KeyIterator<>(newIterator());
                 }
             };
         }
@@ -436,46 +566,62 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
     }
 
     V putImpl(K key, V value) {
-        HashEntry<K, V> entry;
-        if (key == null) {
-            entry = findNullKeyEntry();
-            if (entry == null) {
-                modCount++;
-                entry = createHashedEntry(null, 0, 0);
-                if (++elementCount > threshold) {
-                    rehash();
-                }
-            }
-        } else {
-            int hash = computeHashCode(key);
-            int index = hash & (elementData.length - 1);
-            entry = findNonNullKeyEntry(key, index, hash);
-            if (entry == null) {
-                modCount++;
-                entry = createHashedEntry(key, index, hash);
-                if (++elementCount > threshold) {
-                    rehash();
-                }
+        int hash = computeHashCode(key);
+        Object[] table = keys;
+        int slot = hash & mask;
+        for (Object candidate = table[slot]; candidate != null; candidate = table[slot]) {
+            if (hashes[slot] == hash && matches(key, candidate)) {
+                V result = valueAt(slot);
+                values[slot] = value;
+                entryAccessed(slot);
+                return result;
             }
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = maskNull(key);
+        values[slot] = value;
+        hashes[slot] = hash;
+        modCount++;
+        entryAdded(slot);
+        if (++elementCount > threshold) {
+            rehash();
         }
+        return null;
+    }
 
-        V result = entry.value;
-        entry.value = value;
-        return result;
+    /**
+     * Puts an entry that is known to be absent into the first free slot of its probe sequence.
+     */
+    final int insert(Object key, Object value, int hash) {
+        Object[] table = keys;
+        int slot = hash & mask;
+        while (table[slot] != null) {
+            slot = (slot + 1) & mask;
+        }
+        table[slot] = key;
+        values[slot] = value;
+        hashes[slot] = hash;
+        return slot;
+    }
+
+    void entryAdded(int slot) {
+        // hook for TLinkedHashMap
     }
 
-    HashEntry<K, V> createEntry(K key, int index, V value) {
-        HashEntry<K, V> entry = new HashEntry<>(key, value);
-        entry.next = elementData[index];
-        elementData[index] = entry;
-        return entry;
+    void entryAccessed(int slot) {
+        // hook for TLinkedHashMap
     }
 
-    HashEntry<K, V> createHashedEntry(K key, int index, int hash) {
-        HashEntry<K, V> entry = new HashEntry<>(key, hash);
-        entry.next = elementData[index];
-        elementData[index] = entry;
-        return entry;
+    void entryRemoved(int slot) {
+        // hook for TLinkedHashMap
+    }
+
+    void entryMoved(int from, int to) {
+        // hook for TLinkedHashMap
+    }
+
+    void copyLinks() {
+        // hook for TLinkedHashMap
     }
 
     @Override
@@ -488,7 +634,11 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
     private void putAllImpl(TMap<? extends K, ? extends V> map) {
         int capacity = elementCount + map.size();
         if (capacity > threshold) {
-            rehash(capacity);
+            int length = keys.length;
+            while (capacity > thresholdFor(length) && length < 1 << 30) {
+                length <<= 1;
+            }
+            rehash(length);
         }
         for (TIterator<? extends TMap.Entry<? extends K, ? extends V>> iter = map.entrySet().iterator();
                 iter.hasNext();) {
@@ -497,84 +647,72 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
         }
     }
 
-    void rehash(int capacity) {
-        int length = calculateCapacity(capacity == 0 ? 1 : capacity << 1);
-
-        HashEntry<K, V>[] newData = newElementArray(length);
-        for (int i = 0; i < elementData.length; i++) {
-            HashEntry<K, V> entry = elementData[i];
-            elementData[i] = null;
-            while (entry != null) {
-                int index = entry.origKeyHash & (length - 1);
-                HashEntry<K, V> next = entry.next;
-                entry.next = newData[index];
-                newData[index] = entry;
-                entry = next;
+    /**
+     * Moves all entries to a table of the given length, which must be a power of two. Entries are inserted
+     * in the order they are stored, TLinkedHashMap overrides this to reinsert them in linked order.
+     */
+    void rehash(int length) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        allocate(length);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != null) {
+                insert(oldKeys[i], oldValues[i], oldHashes[i]);
             }
         }
-        elementData = newData;
-        computeThreshold();
     }
 
     void rehash() {
-        rehash(elementData.length);
+        rehash(keys.length << 1);
     }
 
     @Override
     public V remove(Object key) {
-        HashEntry<K, V> entry = removeEntry(key);
-        if (entry != null) {
-            return entry.value;
+        int slot = findSlot(key);
+        if (slot < 0) {
+            return null;
         }
-        return null;
+        V result = valueAt(slot);
+        removeAt(slot, null);
+        return result;
     }
 
-    final void removeEntry(HashEntry<K, V> entry) {
-        int index = entry.origKeyHash & (elementData.length - 1);
-        HashEntry<K, V> m = elementData[index];
-        if (m == entry) {
-            elementData[index] = entry.next;
-        } else {
-            while (m.next != entry) {
-                m = m.next;
-            }
-            m.next = entry.next;
-
-        }
+    /**
+     * Removes the entry in the given slot and closes the gap by moving back each following entry of the same
+     * cluster whose home slot does not lie between the gap and its current slot.
+     */
+    final void removeAt(int slot, AbstractMapIterator<K, V> iterator) {
+        entryRemoved(slot);
         modCount++;
         elementCount--;
-    }
-
-    final HashEntry<K, V> removeEntry(Object key) {
-        int index = 0;
-        HashEntry<K, V> entry;
-        HashEntry<K, V> last = null;
-        if (key != null) {
-            int hash = computeHashCode(key);
-            index = hash & (elementData.length - 1);
-            entry = elementData[index];
-            while (entry != null && !(entry.origKeyHash == hash && areEqualKeys(key, entry.key))) {
-                last = entry;
-                entry = entry.next;
+        Object[] table = keys;
+        int gap = slot;
+        while (true) {
+            int next = (gap + 1) & mask;
+            Object key;
+            while (true) {
+                key = table[next];
+                if (key == null) {
+                    table[gap] = null;
+                    values[gap] = null;
+                    return;
+                }
+                int home = hashes[next] & mask;
+                if (gap <= next ? gap >= home || home > next : gap >= home && home > next) {
+                    break;
+                }
+                next = (next + 1) & mask;
             }
-        } else {
-            entry = elementData[0];
-            while (entry != null && entry.key != null) {
-                last = entry;
-                entry = entry.next;
+            table[gap] = key;
+            values[gap] = values[next];
+            hashes[gap] = hashes[next];
+            entryMoved(next, gap);
+            if (iterator != null) {
+                iterator.moved(next, gap);
             }
+            gap = next;
         }
-        if (entry == null) {
-            return null;
-        }
-        if (last == null) {
-            elementData[index] = entry.next;
-        } else {
-            last.next = entry.next;
-        }
-        modCount++;
-        elementCount--;
-        return entry;
     }
 
     @Override
@@ -596,7 +734,7 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
                     THashMap.this.clear();
                 }
                 @Override public TIterator<V> iterator() {
-                    return new ValueIterator<>(THashMap.this);
+                    return new ValueIterator<>(newIterator());
                 }
             };
         }
@@ -604,7 +742,11 @@ public class THashMap<K, V> extends TAbstractMap<K, V> implements TCloneable, TS
     }
 
     static int computeHashCode(Object key) {
-        return key.hashCode();
+        if (key == null) {
+            return 0;
+        }
+        int hash = key.hashCode() * 0x9E3779B9;
+        return hash ^ (hash >>> 16);
     }
 
     static boolean areEqualKeys(Object key1, Object key2) {
@@ -31,454 +31,187 @@
  */
 package org.teavm.classlib.java.util;
 
-import org.teavm.classlib.java.lang.TIllegalStateException;
-
+/**
+ * <p>Hash map that remembers insertion or access order. Order is kept in two int arrays parallel to the
+ * table of {@link THashMap}, holding the previous and the next slot of each entry.</p>
+ *
+ * @param <K> type of keys.
+ * @param <V> type of values.
+ */
 public class TLinkedHashMap<K, V> extends THashMap<K, V> implements TMap<K, V> {
     private final boolean accessOrder;
 
-    transient private LinkedHashMapEntry<K, V> head;
-    transient private LinkedHashMapEntry<K, V> tail;
+    transient int[] before;
+    transient int[] after;
+    transient int head;
+    transient int tail;
 
     public TLinkedHashMap() {
         accessOrder = false;
-        head = null;
+        resetLinks();
     }
 
     public TLinkedHashMap(int s) {
         super(s);
         accessOrder = false;
-        head = null;
+        resetLinks();
     }
 
     public TLinkedHashMap(int s, float lf) {
         super(s, lf);
         accessOrder = false;
-        head = null;
-        tail = null;
+        resetLinks();
     }
 
     public TLinkedHashMap(int s, float lf, boolean order) {
         super(s, lf);
         accessOrder = order;
-        head = null;
-        tail = null;
+        resetLinks();
     }
 
     public TLinkedHashMap(TMap<? extends K, ? extends V> m) {
         accessOrder = false;
-        head = null;
-        tail = null;
+        resetLinks();
         putAll(m);
     }
 
-    private static class AbstractMapIterator<K, V>  {
-        int expectedModCount;
-        LinkedHashMapEntry<K, V>  futureEntry;
-        LinkedHashMapEntry<K, V>  currentEntry;
-        final TLinkedHashMap<K, V> associatedMap;
-
-        AbstractMapIterator(TLinkedHashMap<K, V> map) {
-            expectedModCount = map.modCount;
-            futureEntry = map.head;
-            associatedMap = map;
-        }
-
-        public boolean hasNext() {
-            return futureEntry != null;
-        }
-
-        final void checkConcurrentMod() throws TConcurrentModificationException {
-            if (expectedModCount != associatedMap.modCount) {
-                throw new TConcurrentModificationException();
-            }
-        }
-
-        final void makeNext() {
-            checkConcurrentMod();
-            if (!hasNext()) {
-                throw new TNoSuchElementException();
-            }
-            currentEntry = futureEntry;
-            futureEntry = futureEntry.chainForward;
-        }
-
-        public void remove() {
-            checkConcurrentMod();
-            if (currentEntry == null) {
-                throw new TIllegalStateException();
-            }
-            associatedMap.removeEntry(currentEntry);
-            LinkedHashMapEntry<K, V> lhme =  currentEntry;
-            LinkedHashMapEntry<K, V> p = lhme.chainBackward;
-            LinkedHashMapEntry<K, V> n = lhme.chainForward;
-            TLinkedHashMap<K, V> lhm = associatedMap;
-            if (p != null) {
-                p.chainForward = n;
-                if (n != null) {
-                    n.chainBackward = p;
-                } else {
-                    lhm.tail = p;
-                }
-            } else {
-                lhm.head = n;
-                if (n != null) {
-                    n.chainBackward = null;
-                } else {
-                    lhm.tail = null;
-                }
-            }
-            currentEntry = null;
-            expectedModCount++;
-        }
+    private void resetLinks() {
+        before = new int[keys.length];
+        after = new int[keys.length];
+        head = -1;
+        tail = -1;
     }
 
-    private static class EntryIterator<K, V> extends AbstractMapIterator<K, V> implements TIterator<Entry<K, V>> {
-        EntryIterator(TLinkedHashMap<K, V> map) {
-            super(map);
-        }
-
-        @Override
-        public Entry<K, V> next() {
-            makeNext();
-            return currentEntry;
-        }
-    }
+    static class LinkedIterator<K, V> extends AbstractMapIterator<K, V> {
+        private int next;
 
-    private static class KeyIterator<K, V> extends AbstractMapIterator<K, V> implements TIterator<K> {
-        KeyIterator(TLinkedHashMap<K, V> map) {
+        LinkedIterator(TLinkedHashMap<K, V> map) {
             super(map);
+            next = map.head;
         }
 
         @Override
-        public K next() {
-            makeNext();
-            return currentEntry.key;
-        }
-    }
-
-    private static class ValueIterator<K, V> extends AbstractMapIterator<K, V> implements TIterator<V> {
-        ValueIterator(TLinkedHashMap<K, V> map) {
-            super(map);
-        }
-
-        @Override
-        public V next() {
-            makeNext();
-            return currentEntry.value;
-        }
-    }
-
-    static final class LinkedHashMapEntrySet<K, V> extends HashMapEntrySet<K, V> {
-        public LinkedHashMapEntrySet(TLinkedHashMap<K, V> lhm) {
-            super(lhm);
+        int advance() {
+            int slot = next;
+            next = ((TLinkedHashMap<K, V>) associatedMap).after[slot];
+            return slot;
         }
 
         @Override
-        public TIterator<Entry<K, V>> iterator() {
-            return new EntryIterator<>((TLinkedHashMap<K, V>) hashMap());
-        }
-    }
-
-    static final class LinkedHashMapEntry<K, V> extends HashEntry<K, V> {
-        LinkedHashMapEntry<K, V> chainForward;
-        LinkedHashMapEntry<K, V> chainBackward;
-
-        LinkedHashMapEntry(K theKey, V theValue) {
-            super(theKey, theValue);
-            chainForward = null;
-            chainBackward = null;
-        }
-
-        LinkedHashMapEntry(K theKey, int hash) {
-            super(theKey, hash);
-            chainForward = null;
-            chainBackward = null;
-        }
-
-        @Override
-        @SuppressWarnings("unchecked")
-        public Object clone() {
-            LinkedHashMapEntry<K, V> entry = (LinkedHashMapEntry<K, V>) super.clone();
-            entry.chainBackward = chainBackward;
-            entry.chainForward = chainForward;
-            LinkedHashMapEntry<K, V> lnext = (LinkedHashMapEntry<K, V>) entry.next;
-            if (lnext != null) {
-                entry.next = (LinkedHashMapEntry<K, V>) lnext.clone();
-            }
-            return entry;
-        }
-    }
-
-    @Override
-    public boolean containsValue(Object value) {
-        LinkedHashMapEntry<K, V> entry = head;
-        if (null == value) {
-            while (null != entry) {
-                if (null == entry.value) {
-                    return true;
-                }
-                entry = entry.chainForward;
-            }
-        } else {
-            while (null != entry) {
-                if (value.equals(entry.value)) {
-                    return true;
-                }
-                entry = entry.chainForward;
+        void moved(int from, int to) {
+            if (next == from) {
+                next = to;
             }
         }
-        return false;
     }
 
     @Override
-    @SuppressWarnings("unchecked")
-    HashEntry<K, V>[] newElementArray(int s) {
-        return new LinkedHashMapEntry[s];
+    AbstractMapIterator<K, V> newIterator() {
+        return new LinkedIterator<>(this);
     }
 
     @Override
     public V get(Object key) {
-        LinkedHashMapEntry<K, V> m;
-        if (key == null) {
-            m = (LinkedHashMapEntry<K, V>) findNullKeyEntry();
-        } else {
-            int hash = key.hashCode();
-            int index = (hash & 0x7FFFFFFF) % elementData.length;
-            m = (LinkedHashMapEntry<K, V>) findNonNullKeyEntry(key, index, hash);
-        }
-        if (m == null) {
+        int slot = findSlot(key);
+        if (slot < 0) {
             return null;
         }
-        if (accessOrder && tail != m) {
-            LinkedHashMapEntry<K, V> p = m.chainBackward;
-            LinkedHashMapEntry<K, V> n = m.chainForward;
-            n.chainBackward = p;
-            if (p != null) {
-                p.chainForward = n;
-            } else {
-                head = n;
-            }
-            m.chainForward = null;
-            m.chainBackward = tail;
-            tail.chainForward = m;
-            tail = m;
-        }
-        return m.value;
-    }
-
-    @Override
-    HashEntry<K, V> createEntry(K key, int index, V value) {
-        LinkedHashMapEntry<K, V> m = new LinkedHashMapEntry<>(key, value);
-        m.next = elementData[index];
-        elementData[index] = m;
-        linkEntry(m);
-        return m;
-    }
-
-    @Override
-    HashEntry<K, V> createHashedEntry(K key, int index, int hash) {
-        LinkedHashMapEntry<K, V> m = new LinkedHashMapEntry<>(key, hash);
-        m.next = elementData[index];
-        elementData[index] = m;
-        linkEntry(m);
-        return m;
+        entryAccessed(slot);
+        return valueAt(slot);
     }
 
     @Override
     public V put(K key, V value) {
+        int oldCount = elementCount;
         V result = putImpl(key, value);
-
-        if (removeEldestEntry(head)) {
-            remove(head.key);
+        if (elementCount > oldCount && removeEldestEntry(entryAt(head))) {
+            remove(keyAt(head));
         }
-
         return result;
     }
 
     @Override
-    V putImpl(K key, V value) {
-        LinkedHashMapEntry<K, V> m;
-        if (elementCount == 0) {
-            head = null;
-            tail = null;
-        }
-        if (key == null) {
-            m = (LinkedHashMapEntry<K, V>) findNullKeyEntry();
-            if (m == null) {
-                modCount++;
-                // Check if we need to remove the oldest entry. The check
-                // includes accessOrder since an accessOrder LinkedHashMap does
-                // not record the oldest member in 'head'.
-                if (++elementCount > threshold) {
-                    rehash();
-                }
-                m = (LinkedHashMapEntry<K, V>) createHashedEntry(null, 0, 0);
-            } else {
-                linkEntry(m);
-            }
-        } else {
-            int hash = key.hashCode();
-            int index = (hash & 0x7FFFFFFF) % elementData.length;
-            m = (LinkedHashMapEntry<K, V>) findNonNullKeyEntry(key, index, hash);
-            if (m == null) {
-                modCount++;
-                if (++elementCount > threshold) {
-                    rehash();
-                    index = (hash & 0x7FFFFFFF) % elementData.length;
-                }
-                m = (LinkedHashMapEntry<K, V>) createHashedEntry(key, index, hash);
-            } else {
-                linkEntry(m);
-            }
-        }
-
-        V result = m.value;
-        m.value = value;
-        return result;
+    void entryAdded(int slot) {
+        linkLast(slot);
     }
 
-    void linkEntry(LinkedHashMapEntry<K, V> m) {
-        if (tail == m) {
-            return;
-        }
-
-        if (head == null) {
-            // Check if the map is empty
-            head = m;
-            tail = m;
-            return;
-        }
-
-        // we need to link the new entry into either the head or tail
-        // of the chain depending on if the LinkedHashMap is accessOrder or not
-        LinkedHashMapEntry<K, V> p = m.chainBackward;
-        LinkedHashMapEntry<K, V> n = m.chainForward;
-        if (p == null) {
-            if (n != null) {
-                // The entry must be the head but not the tail
-                if (accessOrder) {
-                    head = n;
-                    n.chainBackward = null;
-                    m.chainBackward = tail;
-                    m.chainForward = null;
-                    tail.chainForward = m;
-                    tail = m;
-                }
-            } else {
-                // This is a new entry
-                m.chainBackward = tail;
-                m.chainForward = null;
-                tail.chainForward = m;
-                tail = m;
-            }
-            return;
-        }
-
-        if (n == null) {
-            // The entry must be the tail so we can't get here
-            return;
-        }
-
-        // The entry is neither the head nor tail
-        if (accessOrder) {
-            p.chainForward = n;
-            n.chainBackward = p;
-            m.chainForward = null;
-            m.chainBackward = tail;
-            tail.chainForward = m;
-            tail = m;
+    @Override
+    void entryAccessed(int slot) {
+        if (accessOrder && tail != slot) {
+            unlink(slot);
+            linkLast(slot);
+            modCount++;
         }
     }
 
     @Override
-    public TSet<Entry<K, V>> entrySet() {
-        return new LinkedHashMapEntrySet<>(this);
+    void entryRemoved(int slot) {
+        unlink(slot);
     }
 
     @Override
-    public TSet<K> keySet() {
-        if (cachedKeySet == null) {
-            cachedKeySet = new TAbstractSet<K>() {
-                @Override
-                public boolean contains(Object object) {
-                    return containsKey(object);
-                }
-
-                @Override
-                public int size() {
-                    return TLinkedHashMap.this.size();
-                }
-
-                @Override
-                public void clear() {
-                    TLinkedHashMap.this.clear();
-                }
-
-                @Override
-                public boolean remove(Object key) {
-                    if (containsKey(key)) {
-                        TLinkedHashMap.this.remove(key);
-                        return true;
-                    }
-                    return false;
-                }
-
-                @Override
-                public TIterator<K> iterator() {
-                    return new KeyIterator<>(TLinkedHashMap.this);
-                }
-            };
+    void entryMoved(int from, int to) {
+        int p = before[from];
+        int n = after[from];
+        before[to] = p;
+        after[to] = n;
+        if (p >= 0) {
+            after[p] = to;
+        } else {
+            head = to;
+        }
+        if (n >= 0) {
+            before[n] = to;
+        } else {
+            tail = to;
         }
-        return cachedKeySet;
     }
 
     @Override
-    public TCollection<V> values() {
-        if (cachedValues == null) {
-            cachedValues = new TAbstractCollection<V>() {
-                @Override
-                public boolean contains(Object object) {
-                    return containsValue(object);
-                }
-
-                @Override
-                public int size() {
-                    return TLinkedHashMap.this.size();
-                }
-
-                @Override
-                public void clear() {
-                    TLinkedHashMap.this.clear();
-                }
-
-                @Override
-                public TIterator<V> iterator() {
-                    return new ValueIterator<>(TLinkedHashMap.this);
-                }
-            };
-        }
-        return cachedValues;
+    void copyLinks() {
+        before = before.clone();
+        after = after.clone();
     }
 
     @Override
-    public V remove(Object key) {
-        LinkedHashMapEntry<K, V> m = (LinkedHashMapEntry<K, V>) removeEntry(key);
-        if (m == null) {
-            return null;
+    void rehash(int length) {
+        Object[] oldKeys = keys;
+        Object[] oldValues = values;
+        int[] oldHashes = hashes;
+        int[] oldAfter = after;
+        int slot = head;
+        allocate(length);
+        resetLinks();
+        while (slot >= 0) {
+            linkLast(insert(oldKeys[slot], oldValues[slot], oldHashes[slot]));
+            slot = oldAfter[slot];
+        }
+    }
+
+    private void linkLast(int slot) {
+        before[slot] = tail;
+        after[slot] = -1;
+        if (tail >= 0) {
+            after[tail] = slot;
+        } else {
+            head = slot;
         }
-        LinkedHashMapEntry<K, V> p = m.chainBackward;
-        LinkedHashMapEntry<K, V> n = m.chainForward;
-        if (p != null) {
-            p.chainForward = n;
+        tail = slot;
+    }
+
+    private void unlink(int slot) {
+        int p = before[slot];
+        int n = after[slot];
+        if (p >= 0) {
+            after[p] = n;
         } else {
             head = n;
         }
-        if (n != null) {
-            n.chainBackward = p;
+        if (n >= 0) {
+            before[n] = p;
         } else {
             tail = p;
         }
-        return m.value;
     }
 
     protected boolean removeEldestEntry(@SuppressWarnings("unused") Entry<K, V> eldest) {
@@ -488,7 +221,7 @@ public class TLinkedHashMap<K, V> extends THashMap<K, V> implements TMap<K, V> {
     @Override
     public void clear() {
         super.clear();
-        head = null;
-        tail = null;
+        head = -1;
+        tail = -1;
     }
 }
@@ -0,0 +1,154 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.Objects;
+import org.teavm.classlib.java.lang.TInterruptedException;
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.util.TArrayList;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TIterator;
+import org.teavm.classlib.java.util.TList;
+
+public abstract class TAbstractExecutorService implements TExecutorService {
+    @Override
+    public <T> TFuture<T> submit(TCallable<T> task) {
+        return submitImpl(task);
+    }
+
+    @Override
+    public <T> TFuture<T> submit(TRunnable task, T result) {
+        Objects.requireNonNull(task);
+        return submitImpl(() -> {
+            task.run();
+            return result;
+        });
+    }
+
+    @Override
+    public TFuture<?> submit(TRunnable task) {
+        return submit(task, null);
+    }
+
+    private <T> TCompletableFuture<T> submitImpl(TCallable<T> task) {
+        Objects.requireNonNull(task);
+        TCompletableFuture<T> future = new TCompletableFuture<>();
+        execute(() -> {
+            if (future.isDone()) {
+                return;
+            }
+            try {
+                future.complete(task.call());
+            } catch (Throwable e) {
+                future.completeExceptionally(e);
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public <T> TList<TFuture<T>> invokeAll(TCollection<? extends TCallable<T>> tasks) throws TInterruptedException {
+        TList<TFuture<T>> futures = submitAll(tasks);
+        for (TIterator<TFuture<T>> iter = futures.iterator(); iter.hasNext();) {
+            try {
+                iter.next().get();
+            } catch (TExecutionException | TCancellationException e) {
+                // Result is reported by the future itself
+            }
+        }
+        return futures;
+    }
+
+    @Override
+    public <T> TList<TFuture<T>> invokeAll(TCollection<? extends TCallable<T>> tasks, long timeout, TTimeUnit unit)
+            throws TInterruptedException {
+        long timeLimit = System.currentTimeMillis() + unit.toMillis(timeout);
+        TList<TFuture<T>> futures = submitAll(tasks);
+        for (TIterator<TFuture<T>> iter = futures.iterator(); iter.hasNext();) {
+            TFuture<T> future = iter.next();
+            try {
+                future.get(Math.max(0, timeLimit - System.currentTimeMillis()), TTimeUnit.MILLISECONDS);
+            } catch (TExecutionException | TCancellationException e) {
+                // Result is reported by the future itself
+            } catch (TTimeoutException e) {
+                cancelAll(futures);
+                break;
+            }
+        }
+        return futures;
+    }
+
+    @Override
+    public <T> T invokeAny(TCollection<? extends TCallable<T>> tasks) throws TInterruptedException,
+            TExecutionException {
+        TCompletableFuture<T> any = anySuccessful(tasks);
+        try {
+            return any.get();
+        } finally {
+            any.cancel(false);
+        }
+    }
+
+    @Override
+    public <T> T invokeAny(TCollection<? extends TCallable<T>> tasks, long timeout, TTimeUnit unit)
+            throws TInterruptedException, TExecutionException, TTimeoutException {
+        TCompletableFuture<T> any = anySuccessful(tasks);
+        try {
+            return any.get(timeout, unit);
+        } finally {
+            any.cancel(false);
+        }
+    }
+
+    private <T> TList<TFuture<T>> submitAll(TCollection<? extends TCallable<T>> tasks) {
+        TList<TFuture<T>> futures = new TArrayList<>(tasks.size());
+        for (TIterator<? extends TCallable<T>> iter = tasks.iterator(); iter.hasNext();) {
+            futures.add(submitImpl(iter.next()));
+        }
+        return futures;
+    }
+
+    private <T> TCompletableFuture<T> anySuccessful(TCollection<? extends TCallable<T>> tasks) {
+        if (tasks.isEmpty()) {
+            throw new IllegalArgumentException();
+        }
+        TCompletableFuture<T> any = new TCompletableFuture<>();
+        TCompletableFuture<?>[] futures = new TCompletableFuture<?>[tasks.size()];
+        int index = 0;
+        for (TIterator<? extends TCallable<T>> iter = tasks.iterator(); iter.hasNext();) {
+            TCompletableFuture<T> future = submitImpl(iter.next());
+            future.thenAccept(any::complete);
+            futures[index++] = future;
+        }
+        TCompletableFuture.allOf(futures).whenComplete((result, e) -> {
+            if (e != null) {
+                any.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+            }
+        });
+        any.whenComplete((result, e) -> {
+            for (TCompletableFuture<?> future : futures) {
+                future.cancel(false);
+            }
+        });
+        return any;
+    }
+
+    private static void cancelAll(TList<? extends TFuture<?>> futures) {
+        for (TIterator<? extends TFuture<?>> iter = futures.iterator(); iter.hasNext();) {
+            iter.next().cancel(true);
+        }
+    }
+}
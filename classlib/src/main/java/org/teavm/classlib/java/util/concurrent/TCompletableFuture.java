@@ -0,0 +1,801 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.teavm.classlib.java.lang.TInterruptedException;
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.lang.TThread;
+import org.teavm.classlib.java.lang.TThreadInterruptHandler;
+import org.teavm.classlib.java.lang.TThrowable;
+import org.teavm.interop.Async;
+import org.teavm.platform.Platform;
+import org.teavm.platform.PlatformRunnable;
+import org.teavm.platform.async.AsyncCallback;
+
+/**
+ * <p>Future that can be completed explicitly and runs dependent actions on completion.</p>
+ *
+ * <p>Code never runs preemptively, so the state is kept in plain fields and dependents are invoked directly
+ * by the code that completes the future, without locks or atomic operations. Only {@link #get()},
+ * {@link #join()} and their variants suspend the current green thread until the future is done.</p>
+ *
+ * <p>Dependents often complete other futures. To keep long chains of dependents from overflowing the stack,
+ * futures completed while dependents of another future run on the same thread are queued, and their dependents
+ * run after the current ones.</p>
+ *
+ * @param <T> type of the result.
+ */
+public class TCompletableFuture<T> implements TFuture<T>, TCompletionStage<T> {
+    private static final Object NIL = new Object();
+    private static final Map<TThread, Queue<TCompletableFuture<?>>> completionQueues = new HashMap<>();
+    private Object result;
+    private Dependent first;
+    private Dependent last;
+
+    public TCompletableFuture() {
+    }
+
+    private TCompletableFuture(Object result) {
+        this.result = result;
+    }
+
+    public static <U> TCompletableFuture<U> supplyAsync(Supplier<U> supplier) {
+        return supplyAsync(supplier, defaultExecutor());
+    }
+
+    public static <U> TCompletableFuture<U> supplyAsync(Supplier<U> supplier, TExecutor executor) {
+        Objects.requireNonNull(supplier);
+        TCompletableFuture<U> future = new TCompletableFuture<>();
+        dispatch(Objects.requireNonNull(executor), future, () -> future.completeValue(supplier.get()));
+        return future;
+    }
+
+    public static TCompletableFuture<Void> runAsync(TRunnable runnable) {
+        return runAsync(runnable, defaultExecutor());
+    }
+
+    public static TCompletableFuture<Void> runAsync(TRunnable runnable, TExecutor executor) {
+        Objects.requireNonNull(runnable);
+        TCompletableFuture<Void> future = new TCompletableFuture<>();
+        dispatch(Objects.requireNonNull(executor), future, () -> {
+            runnable.run();
+            future.completeValue(null);
+        });
+        return future;
+    }
+
+    public static <U> TCompletableFuture<U> completedFuture(U value) {
+        return new TCompletableFuture<>(value != null ? value : NIL);
+    }
+
+    public static TCompletableFuture<Void> allOf(TCompletableFuture<?>... cfs) {
+        TCompletableFuture<Void> future = completedFuture(null);
+        for (TCompletableFuture<?> cf : cfs) {
+            future = future.biApply(null, cf, (a, b) -> null);
+        }
+        return future;
+    }
+
+    public static TCompletableFuture<Object> anyOf(TCompletableFuture<?>... cfs) {
+        TCompletableFuture<Object> future = new TCompletableFuture<>();
+        for (TCompletableFuture<?> cf : cfs) {
+            cf.whenDone(() -> future.completeRelay(cf.result));
+        }
+        return future;
+    }
+
+    private static TExecutor defaultExecutor() {
+        return TForkJoinPool.commonPool();
+    }
+
+    @Override
+    public boolean isDone() {
+        return result != null;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return result instanceof AltResult && ((AltResult) result).exception instanceof TCancellationException;
+    }
+
+    public boolean isCompletedExceptionally() {
+        return result instanceof AltResult;
+    }
+
+    @Override
+    public T get() throws TInterruptedException, TExecutionException {
+        while (result == null) {
+            waitForCompletion(0);
+        }
+        return reportGet();
+    }
+
+    @Override
+    public T get(long timeout, TTimeUnit unit) throws TInterruptedException, TExecutionException,
+            TTimeoutException {
+        if (result == null) {
+            long timeLimit = System.currentTimeMillis() + Math.max(1, unit.toMillis(timeout));
+            while (result == null) {
+                if (!waitForCompletion(timeLimit)) {
+                    throw new TTimeoutException();
+                }
+            }
+        }
+        return reportGet();
+    }
+
+    public T join() {
+        while (result == null) {
+            try {
+                waitForCompletion(0);
+            } catch (TInterruptedException e) {
+                // Java does not allow to interrupt join(), keep waiting
+            }
+        }
+        return reportJoin();
+    }
+
+    public T getNow(T valueIfAbsent) {
+        return result == null ? valueIfAbsent : reportJoin();
+    }
+
+    private T reportGet() throws TExecutionException {
+        Throwable exception = exception();
+        if (exception == null) {
+            return value();
+        }
+        if (exception instanceof TCancellationException) {
+            throw (TCancellationException) exception;
+        }
+        if (exception instanceof TCompletionException && exception.getCause() != null) {
+            exception = exception.getCause();
+        }
+        throw new TExecutionException((TThrowable) exception);
+    }
+
+    private T reportJoin() {
+        Throwable exception = exception();
+        if (exception == null) {
+            return value();
+        }
+        if (exception instanceof TCancellationException) {
+            throw (TCancellationException) exception;
+        }
+        if (exception instanceof TCompletionException) {
+            throw (TCompletionException) exception;
+        }
+        throw new TCompletionException((TThrowable) exception);
+    }
+
+    @SuppressWarnings("unchecked")
+    private T value() {
+        return result == NIL ? null : (T) result;
+    }
+
+    private Throwable exception() {
+        return result instanceof AltResult ? ((AltResult) result).exception : null;
+    }
+
+    public boolean complete(T value) {
+        return completeValue(value);
+    }
+
+    public boolean completeExceptionally(Throwable ex) {
+        return completeWith(new AltResult(Objects.requireNonNull(ex)));
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        boolean cancelled = completeWith(new AltResult(new TCancellationException()));
+        return cancelled || isCancelled();
+    }
+
+    public void obtrudeValue(T value) {
+        result = value != null ? value : NIL;
+        postComplete();
+    }
+
+    public void obtrudeException(Throwable ex) {
+        result = new AltResult(Objects.requireNonNull(ex));
+        postComplete();
+    }
+
+    public int getNumberOfDependents() {
+        int count = 0;
+        for (Dependent dependent = first; dependent != null; dependent = dependent.next) {
+            ++count;
+        }
+        return count;
+    }
+
+    private boolean completeValue(T value) {
+        return completeWith(value != null ? value : NIL);
+    }
+
+    private boolean completeThrowable(Throwable ex) {
+        return completeWith(new AltResult(wrap(ex)));
+    }
+
+    private boolean completeRelay(Object source) {
+        if (source instanceof AltResult) {
+            return completeThrowable(((AltResult) source).exception);
+        }
+        return completeWith(source);
+    }
+
+    private static Throwable wrap(Throwable ex) {
+        return ex instanceof TCompletionException ? ex : new TCompletionException((TThrowable) ex);
+    }
+
+    private boolean completeWith(Object value) {
+        if (result != null) {
+            return false;
+        }
+        result = value;
+        postComplete();
+        return true;
+    }
+
+    private void postComplete() {
+        if (first == null) {
+            return;
+        }
+        TThread thread = TThread.currentThread();
+        Queue<TCompletableFuture<?>> queue = completionQueues.get(thread);
+        if (queue != null) {
+            queue.add(this);
+            return;
+        }
+
+        queue = new ArrayDeque<>();
+        completionQueues.put(thread, queue);
+        try {
+            TCompletableFuture<?> future = this;
+            while (future != null) {
+                future.runDependents();
+                future = queue.poll();
+            }
+        } finally {
+            completionQueues.remove(thread);
+            // Only non-empty if a dependent has thrown an exception
+            while (!queue.isEmpty()) {
+                queue.remove().postComplete();
+            }
+        }
+    }
+
+    private void runDependents() {
+        while (first != null) {
+            Dependent dependent = first;
+            first = dependent.next;
+            if (first == null) {
+                last = null;
+            }
+            dependent.action.run();
+        }
+    }
+
+    private Dependent whenDone(Runnable action) {
+        if (result != null) {
+            action.run();
+            return null;
+        }
+        Dependent dependent = new Dependent(action);
+        if (last == null) {
+            first = dependent;
+        } else {
+            last.next = dependent;
+        }
+        last = dependent;
+        return dependent;
+    }
+
+    private void removeDependent(Dependent dependent) {
+        Dependent previous = null;
+        for (Dependent current = first; current != null; current = current.next) {
+            if (current == dependent) {
+                if (previous == null) {
+                    first = current.next;
+                } else {
+                    previous.next = current.next;
+                }
+                if (last == current) {
+                    last = previous;
+                }
+                return;
+            }
+            previous = current;
+        }
+    }
+
+    private static void dispatch(TExecutor executor, TCompletableFuture<?> target, Runnable task) {
+        Runnable guardedTask = () -> {
+            try {
+                task.run();
+            } catch (Throwable e) {
+                target.completeThrowable(e);
+            }
+        };
+        if (executor == null) {
+            guardedTask.run();
+        } else {
+            try {
+                executor.execute(guardedTask::run);
+            } catch (Throwable e) {
+                target.completeThrowable(e);
+            }
+        }
+    }
+
+    private <U> TCompletableFuture<U> uniApply(TExecutor executor, Function<? super T, ? extends U> fn) {
+        Objects.requireNonNull(fn);
+        TCompletableFuture<U> future = new TCompletableFuture<>();
+        whenDone(() -> {
+            Throwable exception = exception();
+            if (exception != null) {
+                future.completeThrowable(exception);
+            } else {
+                dispatch(executor, future, () -> future.completeValue(fn.apply(value())));
+            }
+        });
+        return future;
+    }
+
+    private <U, V> TCompletableFuture<V> biApply(TExecutor executor, TCompletionStage<? extends U> other,
+            BiFunction<? super T, ? super U, ? extends V> fn) {
+        Objects.requireNonNull(fn);
+        TCompletableFuture<? extends U> second = other.toCompletableFuture();
+        TCompletableFuture<V> future = new TCompletableFuture<>();
+        whenDone(() -> second.whenDone(() -> {
+            Throwable exception = exception();
+            if (exception == null) {
+                exception = second.exception();
+            }
+            if (exception != null) {
+                future.completeThrowable(exception);
+            } else {
+                dispatch(executor, future, () -> future.completeValue(fn.apply(value(), second.value())));
+            }
+        }));
+        return future;
+    }
+
+    private <U> TCompletableFuture<U> orApply(TExecutor executor, TCompletionStage<? extends T> other,
+            Function<? super T, U> fn) {
+        TCompletableFuture<? extends T> second = other.toCompletableFuture();
+        TCompletableFuture<T> either = new TCompletableFuture<>();
+        whenDone(() -> either.completeRelay(result));
+        second.whenDone(() -> either.completeRelay(second.result));
+        return either.uniApply(executor, fn);
+    }
+
+    private <U> TCompletableFuture<U> uniCompose(TExecutor executor,
+            Function<? super T, ? extends TCompletionStage<U>> fn) {
+        Objects.requireNonNull(fn);
+        TCompletableFuture<U> future = new TCompletableFuture<>();
+        whenDone(() -> {
+            Throwable exception = exception();
+            if (exception != null) {
+                future.completeThrowable(exception);
+            } else {
+                dispatch(executor, future, () -> {
+                    TCompletableFuture<U> next = fn.apply(value()).toCompletableFuture();
+                    next.whenDone(() -> future.completeRelay(next.result));
+                });
+            }
+        });
+        return future;
+    }
+
+    private TCompletableFuture<T> uniWhenComplete(TExecutor executor,
+            BiConsumer<? super T, ? super Throwable> action) {
+        Objects.requireNonNull(action);
+        TCompletableFuture<T> future = new TCompletableFuture<>();
+        whenDone(() -> dispatch(executor, future, () -> {
+            Throwable exception = exception();
+            try {
+                action.accept(exception == null ? value() : null, exception);
+            } catch (Throwable e) {
+                if (exception == null) {
+                    future.completeThrowable(e);
+                    return;
+                }
+            }
+            future.completeRelay(result);
+        }));
+        return future;
+    }
+
+    private <U> TCompletableFuture<U> uniHandle(TExecutor executor,
+            BiFunction<? super T, Throwable, ? extends U> fn) {
+        Objects.requireNonNull(fn);
+        TCompletableFuture<U> future = new TCompletableFuture<>();
+        whenDone(() -> dispatch(executor, future, () -> {
+            Throwable exception = exception();
+            future.completeValue(fn.apply(exception == null ? value() : null, exception));
+        }));
+        return future;
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenApply(Function<? super T, ? extends U> fn) {
+        return uniApply(null, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn) {
+        return uniApply(defaultExecutor(), fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenApplyAsync(Function<? super T, ? extends U> fn, TExecutor executor) {
+        return uniApply(Objects.requireNonNull(executor), fn);
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenAccept(Consumer<? super T> action) {
+        return uniApply(null, accepting(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action) {
+        return uniApply(defaultExecutor(), accepting(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenAcceptAsync(Consumer<? super T> action, TExecutor executor) {
+        return uniApply(Objects.requireNonNull(executor), accepting(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenRun(TRunnable action) {
+        return uniApply(null, running(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenRunAsync(TRunnable action) {
+        return uniApply(defaultExecutor(), running(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> thenRunAsync(TRunnable action, TExecutor executor) {
+        return uniApply(Objects.requireNonNull(executor), running(action));
+    }
+
+    @Override
+    public <U, V> TCompletableFuture<V> thenCombine(TCompletionStage<? extends U> other,
+            BiFunction<? super T, ? super U, ? extends V> fn) {
+        return biApply(null, other, fn);
+    }
+
+    @Override
+    public <U, V> TCompletableFuture<V> thenCombineAsync(TCompletionStage<? extends U> other,
+            BiFunction<? super T, ? super U, ? extends V> fn) {
+        return biApply(defaultExecutor(), other, fn);
+    }
+
+    @Override
+    public <U, V> TCompletableFuture<V> thenCombineAsync(TCompletionStage<? extends U> other,
+            BiFunction<? super T, ? super U, ? extends V> fn, TExecutor executor) {
+        return biApply(Objects.requireNonNull(executor), other, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<Void> thenAcceptBoth(TCompletionStage<? extends U> other,
+            BiConsumer<? super T, ? super U> action) {
+        return biApply(null, other, acceptingBoth(action));
+    }
+
+    @Override
+    public <U> TCompletableFuture<Void> thenAcceptBothAsync(TCompletionStage<? extends U> other,
+            BiConsumer<? super T, ? super U> action) {
+        return biApply(defaultExecutor(), other, acceptingBoth(action));
+    }
+
+    @Override
+    public <U> TCompletableFuture<Void> thenAcceptBothAsync(TCompletionStage<? extends U> other,
+            BiConsumer<? super T, ? super U> action, TExecutor executor) {
+        return biApply(Objects.requireNonNull(executor), other, acceptingBoth(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterBoth(TCompletionStage<?> other, TRunnable action) {
+        return biApply(null, other, runningAfterBoth(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterBothAsync(TCompletionStage<?> other, TRunnable action) {
+        return biApply(defaultExecutor(), other, runningAfterBoth(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> runAfterBothAsync(TCompletionStage<?> other, TRunnable action,
+            TExecutor executor) {
+        return biApply(Objects.requireNonNull(executor), other, runningAfterBoth(action));
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> applyToEither(TCompletionStage<? extends T> other, Function<? super T, U> fn) {
+        return orApply(null, other, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> applyToEitherAsync(TCompletionStage<? extends T> other,
+            Function<? super T, U> fn) {
+        return orApply(defaultExecutor(), other, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> applyToEitherAsync(TCompletionStage<? extends T> other,
+            Function<? super T, U> fn, TExecutor executor) {
+        return orApply(Objects.requireNonNull(executor), other, fn);
+    }
+
+    @Override
+    public TCompletableFuture<Void> acceptEither(TCompletionStage<? extends T> other, Consumer<? super T> action) {
+        return orApply(null, other, accepting(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> acceptEitherAsync(TCompletionStage<? extends T> other,
+            Consumer<? super T> action) {
+        return orApply(defaultExecutor(), other, accepting(action));
+    }
+
+    @Override
+    public TCompletableFuture<Void> acceptEitherAsync(TCompletionStage<? extends T> other,
+            Consumer<? super T> action, TExecutor executor) {
+        return orApply(Objects.requireNonNull(executor), other, accepting(action));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TCompletableFuture<Void> runAfterEither(TCompletionStage<?> other, TRunnable action) {
+        return orApply(null, (TCompletionStage<T>) other, running(action));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TCompletableFuture<Void> runAfterEitherAsync(TCompletionStage<?> other, TRunnable action) {
+        return orApply(defaultExecutor(), (TCompletionStage<T>) other, running(action));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public TCompletableFuture<Void> runAfterEitherAsync(TCompletionStage<?> other, TRunnable action,
+            TExecutor executor) {
+        return orApply(Objects.requireNonNull(executor), (TCompletionStage<T>) other, running(action));
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenCompose(Function<? super T, ? extends TCompletionStage<U>> fn) {
+        return uniCompose(null, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenComposeAsync(Function<? super T, ? extends TCompletionStage<U>> fn) {
+        return uniCompose(defaultExecutor(), fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> thenComposeAsync(Function<? super T, ? extends TCompletionStage<U>> fn,
+            TExecutor executor) {
+        return uniCompose(Objects.requireNonNull(executor), fn);
+    }
+
+    @Override
+    public TCompletableFuture<T> exceptionally(Function<Throwable, ? extends T> fn) {
+        Objects.requireNonNull(fn);
+        TCompletableFuture<T> future = new TCompletableFuture<>();
+        whenDone(() -> {
+            Throwable exception = exception();
+            if (exception == null) {
+                future.completeWith(result);
+            } else {
+                dispatch(null, future, () -> future.completeValue(fn.apply(exception)));
+            }
+        });
+        return future;
+    }
+
+    @Override
+    public TCompletableFuture<T> whenComplete(BiConsumer<? super T, ? super Throwable> action) {
+        return uniWhenComplete(null, action);
+    }
+
+    @Override
+    public TCompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action) {
+        return uniWhenComplete(defaultExecutor(), action);
+    }
+
+    @Override
+    public TCompletableFuture<T> whenCompleteAsync(BiConsumer<? super T, ? super Throwable> action,
+            TExecutor executor) {
+        return uniWhenComplete(Objects.requireNonNull(executor), action);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> handle(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return uniHandle(null, fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn) {
+        return uniHandle(defaultExecutor(), fn);
+    }
+
+    @Override
+    public <U> TCompletableFuture<U> handleAsync(BiFunction<? super T, Throwable, ? extends U> fn,
+            TExecutor executor) {
+        return uniHandle(Objects.requireNonNull(executor), fn);
+    }
+
+    @Override
+    public TCompletableFuture<T> toCompletableFuture() {
+        return this;
+    }
+
+    private static <T> Function<T, Void> accepting(Consumer<? super T> action) {
+        Objects.requireNonNull(action);
+        return value -> {
+            action.accept(value);
+            return null;
+        };
+    }
+
+    private static <T> Function<T, Void> running(TRunnable action) {
+        Objects.requireNonNull(action);
+        return value -> {
+            action.run();
+            return null;
+        };
+    }
+
+    private static <T, U> BiFunction<T, U, Void> acceptingBoth(BiConsumer<? super T, ? super U> action) {
+        Objects.requireNonNull(action);
+        return (a, b) -> {
+            action.accept(a, b);
+            return null;
+        };
+    }
+
+    private static <T, U> BiFunction<T, U, Void> runningAfterBoth(TRunnable action) {
+        Objects.requireNonNull(action);
+        return (a, b) -> {
+            action.run();
+            return null;
+        };
+    }
+
+    @Override
+    public String toString() {
+        String state;
+        if (result == null) {
+            int dependents = getNumberOfDependents();
+            state = dependents == 0 ? "[Not completed]" : "[Not completed, " + dependents + " dependents]";
+        } else if (result instanceof AltResult) {
+            state = "[Completed exceptionally]";
+        } else {
+            state = "[Completed normally]";
+        }
+        return super.toString() + state;
+    }
+
+    @Async
+    private native Boolean waitForCompletion(long timeLimit) throws TInterruptedException;
+
+    private void waitForCompletion(long timeLimit, AsyncCallback<Boolean> callback) {
+        WaitHandler handler = new WaitHandler(callback);
+        handler.future = this;
+        handler.dependent = whenDone(() -> {
+            if (!handler.complete) {
+                Platform.postpone(handler::changed);
+            }
+        });
+        if (timeLimit > 0) {
+            int timeout = Math.max(0, (int) (timeLimit - System.currentTimeMillis()));
+            handler.timerId = Platform.schedule(handler, timeout);
+        } else {
+            handler.timerId = -1;
+        }
+
+        TThread.currentThread().interruptHandler = handler;
+    }
+
+    static final class AltResult {
+        final Throwable exception;
+
+        AltResult(Throwable exception) {
+            this.exception = exception;
+        }
+    }
+
+    static final class Dependent {
+        final Runnable action;
+        Dependent next;
+
+        Dependent(Runnable action) {
+            this.action = action;
+        }
+    }
+
+    static class WaitHandler implements PlatformRunnable, TThreadInterruptHandler {
+        AsyncCallback<Boolean> callback;
+        boolean complete;
+        int timerId;
+        TCompletableFuture<?> future;
+        Dependent dependent;
+
+        WaitHandler(AsyncCallback<Boolean> callback) {
+            this.callback = callback;
+        }
+
+        @Override
+        public void run() {
+            if (complete()) {
+                return;
+            }
+            unlink();
+            callback.complete(false);
+        }
+
+        @Override
+        public void interrupted() {
+            if (complete()) {
+                return;
+            }
+            unlink();
+            callback.error(new TInterruptedException());
+        }
+
+        private void unlink() {
+            if (dependent != null) {
+                future.removeDependent(dependent);
+                dependent = null;
+            }
+        }
+
+        private boolean complete() {
+            if (complete) {
+                return true;
+            }
+            complete = true;
+            if (timerId >= 0) {
+                Platform.killSchedule(timerId);
+                timerId = -1;
+            }
+            TThread.currentThread().interruptHandler = null;
+            return false;
+        }
+
+        void changed() {
+            if (complete()) {
+                return;
+            }
+            callback.complete(true);
+        }
+    }
+}
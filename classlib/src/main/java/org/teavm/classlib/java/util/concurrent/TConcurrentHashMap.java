@@ -0,0 +1,731 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import org.teavm.classlib.java.io.TSerializable;
+import org.teavm.classlib.java.util.TAbstractCollection;
+import org.teavm.classlib.java.util.TAbstractMap;
+import org.teavm.classlib.java.util.TAbstractSet;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TIterator;
+import org.teavm.classlib.java.util.TMap;
+import org.teavm.classlib.java.util.TSet;
+
+/**
+ * <p>Hash map that can be modified while being iterated.</p>
+ *
+ * <p>Since no code runs in parallel with the current thread, neither locks nor atomic operations
+ * are required. Green threads only switch when a method suspends, and none of map methods do, except for callback
+ * functions passed to <code>compute</code>-like methods. So these methods look up the entry again after
+ * calling back.</p>
+ *
+ * <p>Iterators are weakly consistent: they traverse the table that was actual at the time of their creation.
+ * Table is never changed in place on resize, instead new entries are created for the new table.</p>
+ *
+ * @param <K> type of keys.
+ * @param <V> type of values.
+ */
+public class TConcurrentHashMap<K, V> extends TAbstractMap<K, V> implements TConcurrentMap<K, V>, TSerializable {
+    private static final int DEFAULT_CAPACITY = 16;
+    private static final int MAXIMUM_CAPACITY = 1 << 30;
+    private Node<K, V>[] table;
+    private int size;
+    private int threshold;
+    private KeySetView<K, V> keySet;
+    private TCollection<V> values;
+    private TSet<TMap.Entry<K, V>> entrySet;
+
+    public TConcurrentHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    public TConcurrentHashMap(int initialCapacity) {
+        this(initialCapacity, 0.75f, 1);
+    }
+
+    public TConcurrentHashMap(int initialCapacity, float loadFactor) {
+        this(initialCapacity, loadFactor, 1);
+    }
+
+    public TConcurrentHashMap(int initialCapacity, float loadFactor, int concurrencyLevel) {
+        if (initialCapacity < 0 || !(loadFactor > 0) || concurrencyLevel <= 0) {
+            throw new IllegalArgumentException();
+        }
+        int capacity = tableSizeFor((int) Math.min(MAXIMUM_CAPACITY, (long) (1 + initialCapacity / loadFactor)));
+        table = createTable(capacity);
+        threshold = capacity - (capacity >>> 2);
+    }
+
+    public TConcurrentHashMap(TMap<? extends K, ? extends V> m) {
+        this(Math.max(DEFAULT_CAPACITY, m.size()));
+        putAll(m);
+    }
+
+    private static int tableSizeFor(int capacity) {
+        int result = 1;
+        while (result < capacity && result < MAXIMUM_CAPACITY) {
+            result <<= 1;
+        }
+        return result;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K, V> Node<K, V>[] createTable(int capacity) {
+        return (Node<K, V>[]) new Node<?, ?>[capacity];
+    }
+
+    private static int spread(int hash) {
+        return hash ^ (hash >>> 16);
+    }
+
+    private Node<K, V> findNode(Object key) {
+        int hash = spread(key.hashCode());
+        Node<K, V>[] table = this.table;
+        for (Node<K, V> node = table[hash & (table.length - 1)]; node != null; node = node.next) {
+            if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                return node;
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public long mappingCount() {
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<K, V> node = findNode(key);
+        return node != null ? node.value : null;
+    }
+
+    @Override
+    public V getOrDefault(Object key, V defaultValue) {
+        Node<K, V> node = findNode(key);
+        return node != null ? node.value : defaultValue;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return findNode(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        Objects.requireNonNull(value);
+        for (Node<K, V> bucket : table) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                if (node.value == value || node.value.equals(value)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    public boolean contains(Object value) {
+        return containsValue(value);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return putImpl(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return putImpl(key, value, true);
+    }
+
+    private V putImpl(K key, V value, boolean onlyIfAbsent) {
+        Objects.requireNonNull(value);
+        int hash = spread(key.hashCode());
+        int index = hash & (table.length - 1);
+        for (Node<K, V> node = table[index]; node != null; node = node.next) {
+            if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                V oldValue = node.value;
+                if (!onlyIfAbsent) {
+                    node.value = value;
+                }
+                return oldValue;
+            }
+        }
+        addNode(hash, index, key, value);
+        return null;
+    }
+
+    private void addNode(int hash, int index, K key, V value) {
+        table[index] = new Node<>(hash, key, value, table[index]);
+        if (++size > threshold) {
+            resize();
+        }
+    }
+
+    private void resize() {
+        Node<K, V>[] oldTable = table;
+        if (oldTable.length >= MAXIMUM_CAPACITY) {
+            return;
+        }
+        int capacity = oldTable.length * 2;
+        Node<K, V>[] newTable = createTable(capacity);
+        for (Node<K, V> bucket : oldTable) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                int index = node.hash & (capacity - 1);
+                newTable[index] = new Node<>(node.hash, node.key, node.value, newTable[index]);
+            }
+        }
+        table = newTable;
+        threshold = capacity - (capacity >>> 2);
+    }
+
+    @Override
+    public void putAll(TMap<? extends K, ? extends V> m) {
+        for (TIterator<? extends TMap.Entry<? extends K, ? extends V>> iter = m.entrySet().iterator();
+                iter.hasNext();) {
+            TMap.Entry<? extends K, ? extends V> entry = iter.next();
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        return removeImpl(key, null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        Objects.requireNonNull(key);
+        return value != null && removeImpl(key, value) != null;
+    }
+
+    private V removeImpl(Object key, Object expectedValue) {
+        int hash = spread(key.hashCode());
+        int index = hash & (table.length - 1);
+        Node<K, V> previous = null;
+        for (Node<K, V> node = table[index]; node != null; node = node.next) {
+            if (node.hash == hash && (node.key == key || node.key.equals(key))) {
+                V oldValue = node.value;
+                if (expectedValue != null && expectedValue != oldValue && !expectedValue.equals(oldValue)) {
+                    return null;
+                }
+                if (previous == null) {
+                    table[index] = node.next;
+                } else {
+                    previous.next = node.next;
+                }
+                --size;
+                return oldValue;
+            }
+            previous = node;
+        }
+        return null;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        Node<K, V> node = findNode(key);
+        if (node == null || (node.value != oldValue && !node.value.equals(oldValue))) {
+            return false;
+        }
+        node.value = newValue;
+        return true;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+        Node<K, V> node = findNode(key);
+        if (node == null) {
+            return null;
+        }
+        V oldValue = node.value;
+        node.value = value;
+        return oldValue;
+    }
+
+    @Override
+    public void clear() {
+        table = createTable(table.length);
+        size = 0;
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        Node<K, V> node = findNode(key);
+        if (node != null) {
+            return node.value;
+        }
+        V value = mappingFunction.apply(key);
+        if (value == null) {
+            return null;
+        }
+        V existing = putIfAbsent(key, value);
+        return existing != null ? existing : value;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        Node<K, V> node = findNode(key);
+        if (node == null) {
+            return null;
+        }
+        V newValue = remappingFunction.apply(key, node.value);
+        return update(key, newValue);
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        V newValue = remappingFunction.apply(key, get(key));
+        return update(key, newValue);
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        Objects.requireNonNull(value);
+        V oldValue = get(key);
+        V newValue = oldValue == null ? value : remappingFunction.apply(oldValue, value);
+        return update(key, newValue);
+    }
+
+    private V update(K key, V newValue) {
+        if (newValue == null) {
+            remove(key);
+        } else {
+            put(key, newValue);
+        }
+        return newValue;
+    }
+
+    @Override
+    public void forEach(BiConsumer<? super K, ? super V> action) {
+        for (Node<K, V> bucket : table) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                action.accept(node.key, node.value);
+            }
+        }
+    }
+
+    @Override
+    public void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        for (Node<K, V> bucket : table) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                node.value = Objects.requireNonNull(function.apply(node.key, node.value));
+            }
+        }
+    }
+
+    public void forEach(long parallelismThreshold, BiConsumer<? super K, ? super V> action) {
+        forEach(action);
+    }
+
+    public <U> void forEach(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> transformer,
+            Consumer<? super U> action) {
+        for (Node<K, V> bucket : table) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                U value = transformer.apply(node.key, node.value);
+                if (value != null) {
+                    action.accept(value);
+                }
+            }
+        }
+    }
+
+    public void forEachKey(long parallelismThreshold, Consumer<? super K> action) {
+        for (Node<K, V> bucket : table) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                action.accept(node.key);
+            }
+        }
+    }
+
+    public void forEachValue(long parallelismThreshold, Consumer<? super V> action) {
+        for (Node<K, V> bucket : table) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                action.accept(node.value);
+            }
+        }
+    }
+
+    public void forEachEntry(long parallelismThreshold, Consumer<? super TMap.Entry<K, V>> action) {
+        for (Node<K, V> bucket : table) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                action.accept(new MapEntry<>(node.key, node.value, this));
+            }
+        }
+    }
+
+    public <U> U search(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> searchFunction) {
+        for (Node<K, V> bucket : table) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                U result = searchFunction.apply(node.key, node.value);
+                if (result != null) {
+                    return result;
+                }
+            }
+        }
+        return null;
+    }
+
+    public <U> U searchKeys(long parallelismThreshold, Function<? super K, ? extends U> searchFunction) {
+        return search(parallelismThreshold, (k, v) -> searchFunction.apply(k));
+    }
+
+    public <U> U searchValues(long parallelismThreshold, Function<? super V, ? extends U> searchFunction) {
+        return search(parallelismThreshold, (k, v) -> searchFunction.apply(v));
+    }
+
+    public <U> U reduce(long parallelismThreshold, BiFunction<? super K, ? super V, ? extends U> transformer,
+            BiFunction<? super U, ? super U, ? extends U> reducer) {
+        U result = null;
+        for (Node<K, V> bucket : table) {
+            for (Node<K, V> node = bucket; node != null; node = node.next) {
+                U value = transformer.apply(node.key, node.value);
+                if (value != null) {
+                    result = result == null ? value : reducer.apply(result, value);
+                }
+            }
+        }
+        return result;
+    }
+
+    public K reduceKeys(long parallelismThreshold, BiFunction<? super K, ? super K, ? extends K> reducer) {
+        return reduce(parallelismThreshold, (k, v) -> k, reducer);
+    }
+
+    public <U> U reduceKeys(long parallelismThreshold, Function<? super K, ? extends U> transformer,
+            BiFunction<? super U, ? super U, ? extends U> reducer) {
+        return reduce(parallelismThreshold, (k, v) -> transformer.apply(k), reducer);
+    }
+
+    public V reduceValues(long parallelismThreshold, BiFunction<? super V, ? super V, ? extends V> reducer) {
+        return reduce(parallelismThreshold, (k, v) -> v, reducer);
+    }
+
+    public <U> U reduceValues(long parallelismThreshold, Function<? super V, ? extends U> transformer,
+            BiFunction<? super U, ? super U, ? extends U> reducer) {
+        return reduce(parallelismThreshold, (k, v) -> transformer.apply(v), reducer);
+    }
+
+    @Override
+    public KeySetView<K, V> keySet() {
+        if (keySet == null) {
+            keySet = new KeySetView<>(this, null);
+        }
+        return keySet;
+    }
+
+    public KeySetView<K, V> keySet(V mappedValue) {
+        return new KeySetView<>(this, Objects.requireNonNull(mappedValue));
+    }
+
+    public static <K> KeySetView<K, Boolean> newKeySet() {
+        return new KeySetView<>(new TConcurrentHashMap<>(), Boolean.TRUE);
+    }
+
+    public static <K> KeySetView<K, Boolean> newKeySet(int initialCapacity) {
+        return new KeySetView<>(new TConcurrentHashMap<>(initialCapacity), Boolean.TRUE);
+    }
+
+    @Override
+    public TCollection<V> values() {
+        if (values == null) {
+            values = new Values();
+        }
+        return values;
+    }
+
+    @Override
+    public TSet<TMap.Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+        return entrySet;
+    }
+
+    static class Node<K, V> {
+        final int hash;
+        final K key;
+        V value;
+        Node<K, V> next;
+
+        Node(int hash, K key, V value, Node<K, V> next) {
+            this.hash = hash;
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+    }
+
+    static final class MapEntry<K, V> implements TMap.Entry<K, V> {
+        private final K key;
+        private V value;
+        private final TConcurrentHashMap<K, V> map;
+
+        MapEntry(K key, V value, TConcurrentHashMap<K, V> map) {
+            this.key = key;
+            this.value = value;
+            this.map = map;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V oldValue = this.value;
+            this.value = Objects.requireNonNull(value);
+            map.put(key, value);
+            return oldValue;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (!(obj instanceof TMap.Entry)) {
+                return false;
+            }
+            TMap.Entry<?, ?> other = (TMap.Entry<?, ?>) obj;
+            return key.equals(other.getKey()) && value.equals(other.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return key.hashCode() ^ value.hashCode();
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    abstract static class BaseIterator<K, V> {
+        final TConcurrentHashMap<K, V> map;
+        private final Node<K, V>[] table;
+        private int index;
+        private Node<K, V> next;
+        Node<K, V> last;
+
+        BaseIterator(TConcurrentHashMap<K, V> map) {
+            this.map = map;
+            table = map.table;
+            advance();
+        }
+
+        private void advance() {
+            if (next != null) {
+                next = next.next;
+            }
+            while (next == null && index < table.length) {
+                next = table[index++];
+            }
+        }
+
+        public final boolean hasNext() {
+            return next != null;
+        }
+
+        final Node<K, V> nextNode() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            last = next;
+            advance();
+            return last;
+        }
+
+        public final void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+            map.remove(last.key);
+            last = null;
+        }
+    }
+
+    static final class KeyIterator<K, V> extends BaseIterator<K, V> implements TIterator<K> {
+        KeyIterator(TConcurrentHashMap<K, V> map) {
+            super(map);
+        }
+
+        @Override
+        public K next() {
+            return nextNode().key;
+        }
+    }
+
+    static final class ValueIterator<K, V> extends BaseIterator<K, V> implements TIterator<V> {
+        ValueIterator(TConcurrentHashMap<K, V> map) {
+            super(map);
+        }
+
+        @Override
+        public V next() {
+            return nextNode().value;
+        }
+    }
+
+    static final class EntryIterator<K, V> extends BaseIterator<K, V> implements TIterator<TMap.Entry<K, V>> {
+        EntryIterator(TConcurrentHashMap<K, V> map) {
+            super(map);
+        }
+
+        @Override
+        public TMap.Entry<K, V> next() {
+            Node<K, V> node = nextNode();
+            return new MapEntry<>(node.key, node.value, map);
+        }
+    }
+
+    public static class KeySetView<K, V> extends TAbstractSet<K> implements TSerializable {
+        private final TConcurrentHashMap<K, V> map;
+        private final V value;
+
+        KeySetView(TConcurrentHashMap<K, V> map, V value) {
+            this.map = map;
+            this.value = value;
+        }
+
+        public TConcurrentHashMap<K, V> getMap() {
+            return map;
+        }
+
+        public V getMappedValue() {
+            return value;
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return map.remove(o) != null;
+        }
+
+        @Override
+        public boolean add(K e) {
+            if (value == null) {
+                throw new UnsupportedOperationException();
+            }
+            return map.putIfAbsent(e, value) == null;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public TIterator<K> iterator() {
+            return new KeyIterator<>(map);
+        }
+    }
+
+    class Values extends TAbstractCollection<V> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+            TConcurrentHashMap.this.clear();
+        }
+
+        @Override
+        public TIterator<V> iterator() {
+            return new ValueIterator<>(TConcurrentHashMap.this);
+        }
+    }
+
+    class EntrySet extends TAbstractSet<TMap.Entry<K, V>> {
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof TMap.Entry)) {
+                return false;
+            }
+            TMap.Entry<?, ?> entry = (TMap.Entry<?, ?>) o;
+            Object key = entry.getKey();
+            Object value = entry.getValue();
+            if (key == null || value == null) {
+                return false;
+            }
+            V actualValue = get(key);
+            return actualValue != null && (actualValue == value || actualValue.equals(value));
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof TMap.Entry)) {
+                return false;
+            }
+            TMap.Entry<?, ?> entry = (TMap.Entry<?, ?>) o;
+            Object key = entry.getKey();
+            return key != null && TConcurrentHashMap.this.remove(key, entry.getValue());
+        }
+
+        @Override
+        public void clear() {
+            TConcurrentHashMap.this.clear();
+        }
+
+        @Override
+        public TIterator<TMap.Entry<K, V>> iterator() {
+            return new EntryIterator<>(TConcurrentHashMap.this);
+        }
+    }
+}
@@ -0,0 +1,332 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.teavm.classlib.java.io.TSerializable;
+import org.teavm.classlib.java.util.TAbstractCollection;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TDeque;
+import org.teavm.classlib.java.util.TIterator;
+
+/**
+ * <p>Unbounded deque of doubly linked nodes with weakly consistent iterators. Removed nodes keep their links,
+ * so an iterator standing on a removed node still reaches the rest of the deque.</p>
+ *
+ * @param <E> type of elements.
+ */
+public class TConcurrentLinkedDeque<E> extends TAbstractCollection<E> implements TDeque<E>, TSerializable {
+    private Node<E> first;
+    private Node<E> last;
+    private int size;
+
+    public TConcurrentLinkedDeque() {
+    }
+
+    public TConcurrentLinkedDeque(TCollection<? extends E> c) {
+        addAll(c);
+    }
+
+    @Override
+    public void addFirst(E e) {
+        Node<E> node = new Node<>(Objects.requireNonNull(e));
+        node.next = first;
+        if (first == null) {
+            last = node;
+        } else {
+            first.previous = node;
+        }
+        first = node;
+        ++size;
+    }
+
+    @Override
+    public void addLast(E e) {
+        Node<E> node = new Node<>(Objects.requireNonNull(e));
+        node.previous = last;
+        if (last == null) {
+            first = node;
+        } else {
+            last.next = node;
+        }
+        last = node;
+        ++size;
+    }
+
+    @Override
+    public boolean offerFirst(E e) {
+        addFirst(e);
+        return true;
+    }
+
+    @Override
+    public boolean offerLast(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public E removeFirst() {
+        if (first == null) {
+            throw new NoSuchElementException();
+        }
+        return pollFirst();
+    }
+
+    @Override
+    public E removeLast() {
+        if (last == null) {
+            throw new NoSuchElementException();
+        }
+        return pollLast();
+    }
+
+    @Override
+    public E pollFirst() {
+        Node<E> node = first;
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.item;
+    }
+
+    @Override
+    public E pollLast() {
+        Node<E> node = last;
+        if (node == null) {
+            return null;
+        }
+        unlink(node);
+        return node.item;
+    }
+
+    @Override
+    public E getFirst() {
+        if (first == null) {
+            throw new NoSuchElementException();
+        }
+        return first.item;
+    }
+
+    @Override
+    public E getLast() {
+        if (last == null) {
+            throw new NoSuchElementException();
+        }
+        return last.item;
+    }
+
+    @Override
+    public E peekFirst() {
+        return first != null ? first.item : null;
+    }
+
+    @Override
+    public E peekLast() {
+        return last != null ? last.item : null;
+    }
+
+    @Override
+    public boolean removeFirstOccurrence(Object o) {
+        Objects.requireNonNull(o);
+        for (Node<E> node = first; node != null; node = node.next) {
+            if (o.equals(node.item)) {
+                unlink(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean removeLastOccurrence(Object o) {
+        Objects.requireNonNull(o);
+        for (Node<E> node = last; node != null; node = node.previous) {
+            if (o.equals(node.item)) {
+                unlink(node);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public void push(E e) {
+        addFirst(e);
+    }
+
+    @Override
+    public E pop() {
+        return removeFirst();
+    }
+
+    @Override
+    public boolean offer(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public boolean add(E e) {
+        addLast(e);
+        return true;
+    }
+
+    @Override
+    public E remove() {
+        return removeFirst();
+    }
+
+    @Override
+    public E poll() {
+        return pollFirst();
+    }
+
+    @Override
+    public E element() {
+        return getFirst();
+    }
+
+    @Override
+    public E peek() {
+        return peekFirst();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        return removeFirstOccurrence(o);
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        for (Node<E> node = first; node != null; node = node.next) {
+            if (o.equals(node.item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return first == null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        for (Node<E> node = first; node != null; node = node.next) {
+            node.removed = true;
+        }
+        first = null;
+        last = null;
+        size = 0;
+    }
+
+    private void unlink(Node<E> node) {
+        if (node.previous == null) {
+            first = node.next;
+        } else {
+            node.previous.next = node.next;
+        }
+        if (node.next == null) {
+            last = node.previous;
+        } else {
+            node.next.previous = node.previous;
+        }
+        node.removed = true;
+        --size;
+    }
+
+    @Override
+    public TIterator<E> iterator() {
+        return new NodeIterator(first, false);
+    }
+
+    @Override
+    public TIterator<E> descendingIterator() {
+        return new NodeIterator(last, true);
+    }
+
+    class NodeIterator implements TIterator<E> {
+        private Node<E> next;
+        private Node<E> lastReturned;
+        private boolean descending;
+
+        NodeIterator(Node<E> start, boolean descending) {
+            next = start;
+            this.descending = descending;
+        }
+
+        @Override
+        public boolean hasNext() {
+            skipRemoved();
+            return next != null;
+        }
+
+        @Override
+        public E next() {
+            skipRemoved();
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            lastReturned = next;
+            next = step(next);
+            return lastReturned.item;
+        }
+
+        private Node<E> step(Node<E> node) {
+            return descending ? node.previous : node.next;
+        }
+
+        private void skipRemoved() {
+            while (next != null && next.removed) {
+                next = step(next);
+            }
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+            if (!lastReturned.removed) {
+                unlink(lastReturned);
+            }
+            lastReturned = null;
+        }
+    }
+
+    static class Node<E> {
+        final E item;
+        Node<E> previous;
+        Node<E> next;
+        boolean removed;
+
+        Node(E item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,201 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.teavm.classlib.java.io.TSerializable;
+import org.teavm.classlib.java.util.TAbstractQueue;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TIterator;
+import org.teavm.classlib.java.util.TQueue;
+
+/**
+ * <p>Unbounded queue of linked nodes with weakly consistent iterators. Removed nodes keep their links,
+ * so an iterator standing on a removed node still reaches the rest of the queue.</p>
+ *
+ * @param <E> type of elements.
+ */
+public class TConcurrentLinkedQueue<E> extends TAbstractQueue<E> implements TQueue<E>, TSerializable {
+    private Node<E> head;
+    private Node<E> tail;
+    private int size;
+
+    public TConcurrentLinkedQueue() {
+    }
+
+    public TConcurrentLinkedQueue(TCollection<? extends E> c) {
+        addAll(c);
+    }
+
+    @Override
+    public boolean offer(E e) {
+        Node<E> node = new Node<>(Objects.requireNonNull(e));
+        if (tail == null) {
+            head = node;
+        } else {
+            tail.next = node;
+        }
+        tail = node;
+        ++size;
+        return true;
+    }
+
+    @Override
+    public boolean add(E e) {
+        return offer(e);
+    }
+
+    @Override
+    public E poll() {
+        Node<E> node = head;
+        if (node == null) {
+            return null;
+        }
+        unlink(node, null);
+        return node.item;
+    }
+
+    @Override
+    public E peek() {
+        return head != null ? head.item : null;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return head == null;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        if (o == null) {
+            return false;
+        }
+        for (Node<E> node = head; node != null; node = node.next) {
+            if (o.equals(node.item)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        if (o == null) {
+            return false;
+        }
+        Node<E> previous = null;
+        for (Node<E> node = head; node != null; node = node.next) {
+            if (o.equals(node.item)) {
+                unlink(node, previous);
+                return true;
+            }
+            previous = node;
+        }
+        return false;
+    }
+
+    @Override
+    public void clear() {
+        for (Node<E> node = head; node != null; node = node.next) {
+            node.removed = true;
+        }
+        head = null;
+        tail = null;
+        size = 0;
+    }
+
+    private void unlink(Node<E> node, Node<E> previous) {
+        if (previous == null) {
+            head = node.next;
+        } else {
+            previous.next = node.next;
+        }
+        if (tail == node) {
+            tail = previous;
+        }
+        node.removed = true;
+        --size;
+    }
+
+    @Override
+    public TIterator<E> iterator() {
+        return new TIterator<E>() {
+            private Node<E> next = head;
+            private Node<E> last;
+
+            @Override
+            public boolean hasNext() {
+                skipRemoved();
+                return next != null;
+            }
+
+            @Override
+            public E next() {
+                skipRemoved();
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+                last = next;
+                next = next.next;
+                return last.item;
+            }
+
+            private void skipRemoved() {
+                while (next != null && next.removed) {
+                    next = next.next;
+                }
+            }
+
+            @Override
+            public void remove() {
+                if (last == null) {
+                    throw new IllegalStateException();
+                }
+                if (!last.removed) {
+                    removeNode(last);
+                }
+                last = null;
+            }
+        };
+    }
+
+    private void removeNode(Node<E> target) {
+        Node<E> previous = null;
+        for (Node<E> node = head; node != null; node = node.next) {
+            if (node == target) {
+                unlink(node, previous);
+                return;
+            }
+            previous = node;
+        }
+    }
+
+    static class Node<E> {
+        final E item;
+        Node<E> next;
+        boolean removed;
+
+        Node(E item) {
+            this.item = item;
+        }
+    }
+}
@@ -0,0 +1,59 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import org.teavm.classlib.java.util.TIterator;
+import org.teavm.classlib.java.util.TMap;
+
+public interface TConcurrentMap<K, V> extends TMap<K, V> {
+    V putIfAbsent(K key, V value);
+
+    boolean remove(Object key, Object value);
+
+    @Override
+    boolean replace(K key, V oldValue, V newValue);
+
+    @Override
+    V replace(K key, V value);
+
+    default V getOrDefault(Object key, V defaultValue) {
+        V value = get(key);
+        return value != null ? value : defaultValue;
+    }
+
+    default void forEach(BiConsumer<? super K, ? super V> action) {
+        for (TIterator<TMap.Entry<K, V>> iter = entrySet().iterator(); iter.hasNext();) {
+            TMap.Entry<K, V> entry = iter.next();
+            action.accept(entry.getKey(), entry.getValue());
+        }
+    }
+
+    default void replaceAll(BiFunction<? super K, ? super V, ? extends V> function) {
+        for (TIterator<TMap.Entry<K, V>> iter = entrySet().iterator(); iter.hasNext();) {
+            TMap.Entry<K, V> entry = iter.next();
+            K key = entry.getKey();
+            V value = entry.getValue();
+            while (!replace(key, value, function.apply(key, value))) {
+                value = get(key);
+                if (value == null) {
+                    break;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.java.util.TNavigableMap;
+import org.teavm.classlib.java.util.TNavigableSet;
+
+public interface TConcurrentNavigableMap<K, V> extends TConcurrentMap<K, V>, TNavigableMap<K, V> {
+    @Override
+    TConcurrentNavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive);
+
+    @Override
+    TConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive);
+
+    @Override
+    TConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive);
+
+    @Override
+    TConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey);
+
+    @Override
+    TConcurrentNavigableMap<K, V> headMap(K toKey);
+
+    @Override
+    TConcurrentNavigableMap<K, V> tailMap(K fromKey);
+
+    @Override
+    TConcurrentNavigableMap<K, V> descendingMap();
+
+    @Override
+    TNavigableSet<K> navigableKeySet();
+
+    @Override
+    TNavigableSet<K> keySet();
+
+    @Override
+    TNavigableSet<K> descendingKeySet();
+}
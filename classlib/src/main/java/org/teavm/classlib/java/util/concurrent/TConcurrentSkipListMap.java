@@ -0,0 +1,739 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import org.teavm.classlib.java.io.TSerializable;
+import org.teavm.classlib.java.lang.TCloneable;
+import org.teavm.classlib.java.util.TAbstractCollection;
+import org.teavm.classlib.java.util.TAbstractMap;
+import org.teavm.classlib.java.util.TAbstractSet;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TCollections;
+import org.teavm.classlib.java.util.TComparator;
+import org.teavm.classlib.java.util.TIterator;
+import org.teavm.classlib.java.util.TMap;
+import org.teavm.classlib.java.util.TNavigableSet;
+import org.teavm.classlib.java.util.TSet;
+import org.teavm.classlib.java.util.TSortedMap;
+import org.teavm.classlib.java.util.TSortedSet;
+import org.teavm.classlib.java.util.TTreeMap;
+
+/**
+ * <p>Sorted concurrent map. Without preemptive threads a balanced tree gives the same guarantees as a skip list,
+ * so entries are kept in {@link TTreeMap}. Iterators find each next entry by key instead of walking tree nodes,
+ * which makes them weakly consistent: they tolerate any modification of the map and never throw
+ * {@link org.teavm.classlib.java.util.TConcurrentModificationException}.</p>
+ *
+ * <p>Sub-maps and the descending map are instances of this class that share the tree and restrict
+ * key range and direction.</p>
+ *
+ * @param <K> type of keys.
+ * @param <V> type of values.
+ */
+public class TConcurrentSkipListMap<K, V> extends TAbstractMap<K, V>
+        implements TConcurrentNavigableMap<K, V>, TCloneable, TSerializable {
+    private TTreeMap<K, V> tree;
+    private TComparator<? super K> comparator;
+    private TComparator<? super K> order;
+    private K lo;
+    private boolean loInclusive;
+    private K hi;
+    private boolean hiInclusive;
+    private boolean descending;
+    private KeySet<K, V> keySet;
+
+    public TConcurrentSkipListMap() {
+        this((TComparator<? super K>) null);
+    }
+
+    @SuppressWarnings("unchecked")
+    public TConcurrentSkipListMap(TComparator<? super K> comparator) {
+        this.comparator = comparator;
+        order = comparator != null ? comparator : (a, b) -> ((Comparable<Object>) a).compareTo(b);
+        tree = new TTreeMap<>(order);
+    }
+
+    public TConcurrentSkipListMap(TMap<? extends K, ? extends V> m) {
+        this();
+        putAll(m);
+    }
+
+    public TConcurrentSkipListMap(TSortedMap<K, ? extends V> m) {
+        this(m.comparator());
+        putAll(m);
+    }
+
+    private TConcurrentSkipListMap(TConcurrentSkipListMap<K, V> parent, K lo, boolean loInclusive,
+            K hi, boolean hiInclusive, boolean descending) {
+        tree = parent.tree;
+        comparator = parent.comparator;
+        order = parent.order;
+        this.lo = lo;
+        this.loInclusive = loInclusive;
+        this.hi = hi;
+        this.hiInclusive = hiInclusive;
+        this.descending = descending;
+    }
+
+    private int compare(K a, K b) {
+        return order.compare(a, b);
+    }
+
+    private boolean tooLow(K key) {
+        if (lo == null) {
+            return false;
+        }
+        int c = compare(key, lo);
+        return c < 0 || c == 0 && !loInclusive;
+    }
+
+    private boolean tooHigh(K key) {
+        if (hi == null) {
+            return false;
+        }
+        int c = compare(key, hi);
+        return c > 0 || c == 0 && !hiInclusive;
+    }
+
+    private boolean inRange(K key) {
+        return !tooLow(key) && !tooHigh(key);
+    }
+
+    private boolean isBounded() {
+        return lo != null || hi != null;
+    }
+
+    @SuppressWarnings("unchecked")
+    private K checkKey(Object key) {
+        Objects.requireNonNull(key);
+        return (K) key;
+    }
+
+    private TMap.Entry<K, V> absLowest() {
+        TMap.Entry<K, V> entry = lo == null ? tree.firstEntry()
+                : loInclusive ? tree.ceilingEntry(lo) : tree.higherEntry(lo);
+        return entry != null && !tooHigh(entry.getKey()) ? entry : null;
+    }
+
+    private TMap.Entry<K, V> absHighest() {
+        TMap.Entry<K, V> entry = hi == null ? tree.lastEntry()
+                : hiInclusive ? tree.floorEntry(hi) : tree.lowerEntry(hi);
+        return entry != null && !tooLow(entry.getKey()) ? entry : null;
+    }
+
+    private TMap.Entry<K, V> absCeiling(K key, boolean inclusive) {
+        if (tooLow(key)) {
+            return absLowest();
+        }
+        TMap.Entry<K, V> entry = inclusive ? tree.ceilingEntry(key) : tree.higherEntry(key);
+        return entry != null && !tooHigh(entry.getKey()) ? entry : null;
+    }
+
+    private TMap.Entry<K, V> absFloor(K key, boolean inclusive) {
+        if (tooHigh(key)) {
+            return absHighest();
+        }
+        TMap.Entry<K, V> entry = inclusive ? tree.floorEntry(key) : tree.lowerEntry(key);
+        return entry != null && !tooLow(entry.getKey()) ? entry : null;
+    }
+
+    private TMap.Entry<K, V> first() {
+        return descending ? absHighest() : absLowest();
+    }
+
+    private TMap.Entry<K, V> last() {
+        return descending ? absLowest() : absHighest();
+    }
+
+    private TMap.Entry<K, V> after(K key, boolean inclusive) {
+        return descending ? absFloor(key, inclusive) : absCeiling(key, inclusive);
+    }
+
+    private TMap.Entry<K, V> before(K key, boolean inclusive) {
+        return descending ? absCeiling(key, inclusive) : absFloor(key, inclusive);
+    }
+
+    private static <K, V> TMap.Entry<K, V> snapshot(TMap.Entry<K, V> entry) {
+        return entry != null ? new SimpleImmutableEntry<>(entry.getKey(), entry.getValue()) : null;
+    }
+
+    private static <K> K key(TMap.Entry<K, ?> entry) {
+        return entry != null ? entry.getKey() : null;
+    }
+
+    private static <K> K keyOrThrow(TMap.Entry<K, ?> entry) {
+        if (entry == null) {
+            throw new NoSuchElementException();
+        }
+        return entry.getKey();
+    }
+
+    @Override
+    public V get(Object key) {
+        K k = checkKey(key);
+        return inRange(k) ? tree.get(k) : null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        K k = checkKey(key);
+        return inRange(k) && tree.containsKey(k);
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        Objects.requireNonNull(value);
+        for (TMap.Entry<K, V> entry = absLowest(); entry != null; entry = absCeiling(entry.getKey(), false)) {
+            if (value.equals(entry.getValue())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        checkRange(key);
+        return tree.put(key, Objects.requireNonNull(value));
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        checkRange(key);
+        V old = tree.get(key);
+        if (old == null) {
+            tree.put(key, Objects.requireNonNull(value));
+        }
+        return old;
+    }
+
+    @Override
+    public V remove(Object key) {
+        K k = checkKey(key);
+        return inRange(k) ? tree.remove(k) : null;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        K k = checkKey(key);
+        if (value == null || !inRange(k) || !value.equals(tree.get(k))) {
+            return false;
+        }
+        tree.remove(k);
+        return true;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        checkKey(key);
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        if (!inRange(key) || !oldValue.equals(tree.get(key))) {
+            return false;
+        }
+        tree.put(key, newValue);
+        return true;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        checkKey(key);
+        Objects.requireNonNull(value);
+        if (!inRange(key) || !tree.containsKey(key)) {
+            return null;
+        }
+        return tree.put(key, value);
+    }
+
+    private void checkRange(K key) {
+        checkKey(key);
+        if (!inRange(key)) {
+            throw new IllegalArgumentException("Key out of range");
+        }
+    }
+
+    @Override
+    public int size() {
+        if (!isBounded()) {
+            return tree.size();
+        }
+        int size = 0;
+        for (TMap.Entry<K, V> entry = absLowest(); entry != null; entry = absCeiling(entry.getKey(), false)) {
+            ++size;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return absLowest() == null;
+    }
+
+    @Override
+    public void clear() {
+        if (!isBounded()) {
+            tree.clear();
+            return;
+        }
+        for (TMap.Entry<K, V> entry = absLowest(); entry != null; entry = absLowest()) {
+            tree.remove(entry.getKey());
+        }
+    }
+
+    @Override
+    public TComparator<? super K> comparator() {
+        if (!descending) {
+            return comparator;
+        }
+        return comparator != null ? TCollections.reverseOrder(comparator) : TCollections.reverseOrder();
+    }
+
+    @Override
+    public K firstKey() {
+        return keyOrThrow(first());
+    }
+
+    @Override
+    public K lastKey() {
+        return keyOrThrow(last());
+    }
+
+    @Override
+    public TMap.Entry<K, V> firstEntry() {
+        return snapshot(first());
+    }
+
+    @Override
+    public TMap.Entry<K, V> lastEntry() {
+        return snapshot(last());
+    }
+
+    @Override
+    public TMap.Entry<K, V> pollFirstEntry() {
+        TMap.Entry<K, V> entry = snapshot(first());
+        if (entry != null) {
+            tree.remove(entry.getKey());
+        }
+        return entry;
+    }
+
+    @Override
+    public TMap.Entry<K, V> pollLastEntry() {
+        TMap.Entry<K, V> entry = snapshot(last());
+        if (entry != null) {
+            tree.remove(entry.getKey());
+        }
+        return entry;
+    }
+
+    @Override
+    public TMap.Entry<K, V> lowerEntry(K key) {
+        return snapshot(before(checkKey(key), false));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return key(before(checkKey(key), false));
+    }
+
+    @Override
+    public TMap.Entry<K, V> floorEntry(K key) {
+        return snapshot(before(checkKey(key), true));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return key(before(checkKey(key), true));
+    }
+
+    @Override
+    public TMap.Entry<K, V> ceilingEntry(K key) {
+        return snapshot(after(checkKey(key), true));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return key(after(checkKey(key), true));
+    }
+
+    @Override
+    public TMap.Entry<K, V> higherEntry(K key) {
+        return snapshot(after(checkKey(key), false));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return key(after(checkKey(key), false));
+    }
+
+    @Override
+    public TConcurrentNavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        checkKey(fromKey);
+        checkKey(toKey);
+        if (descending) {
+            return descendingView(toKey, toInclusive, fromKey, fromInclusive);
+        }
+        return view(fromKey, fromInclusive, toKey, toInclusive);
+    }
+
+    @Override
+    public TConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        checkKey(toKey);
+        if (descending) {
+            return descendingView(toKey, inclusive, hi, hiInclusive);
+        }
+        return view(lo, loInclusive, toKey, inclusive);
+    }
+
+    @Override
+    public TConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        checkKey(fromKey);
+        if (descending) {
+            return descendingView(lo, loInclusive, fromKey, inclusive);
+        }
+        return view(fromKey, inclusive, hi, hiInclusive);
+    }
+
+    @Override
+    public TConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public TConcurrentNavigableMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public TConcurrentNavigableMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    @Override
+    public TConcurrentNavigableMap<K, V> descendingMap() {
+        return new TConcurrentSkipListMap<>(this, lo, loInclusive, hi, hiInclusive, !descending);
+    }
+
+    private TConcurrentSkipListMap<K, V> view(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return createView(from, fromInclusive, to, toInclusive, false);
+    }
+
+    private TConcurrentSkipListMap<K, V> descendingView(K from, boolean fromInclusive, K to, boolean toInclusive) {
+        return createView(from, fromInclusive, to, toInclusive, true);
+    }
+
+    private TConcurrentSkipListMap<K, V> createView(K from, boolean fromInclusive, K to, boolean toInclusive,
+            boolean descending) {
+        if (from != null && to != null && compare(from, to) > 0) {
+            throw new IllegalArgumentException("Lower bound is greater than upper bound");
+        }
+        if (from != null && !withinBounds(from, fromInclusive) || to != null && !withinBounds(to, toInclusive)) {
+            throw new IllegalArgumentException("Key out of range");
+        }
+        return new TConcurrentSkipListMap<>(this, from, fromInclusive, to, toInclusive, descending);
+    }
+
+    private boolean withinBounds(K key, boolean inclusive) {
+        if (lo != null) {
+            int c = compare(key, lo);
+            if (c < 0 || c == 0 && !loInclusive && inclusive) {
+                return false;
+            }
+        }
+        if (hi != null) {
+            int c = compare(key, hi);
+            if (c > 0 || c == 0 && !hiInclusive && inclusive) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public TNavigableSet<K> navigableKeySet() {
+        if (keySet == null) {
+            keySet = new KeySet<>(this);
+        }
+        return keySet;
+    }
+
+    @Override
+    public TNavigableSet<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public TNavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public TCollection<V> values() {
+        return new TAbstractCollection<V>() {
+            @Override
+            public TIterator<V> iterator() {
+                return new EntryIterator<V>() {
+                    @Override
+                    V get(TMap.Entry<K, V> entry) {
+                        return entry.getValue();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return TConcurrentSkipListMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return TConcurrentSkipListMap.this.isEmpty();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                return containsValue(o);
+            }
+
+            @Override
+            public void clear() {
+                TConcurrentSkipListMap.this.clear();
+            }
+        };
+    }
+
+    @Override
+    public TSet<TMap.Entry<K, V>> entrySet() {
+        return new TAbstractSet<TMap.Entry<K, V>>() {
+            @Override
+            public TIterator<TMap.Entry<K, V>> iterator() {
+                return new EntryIterator<TMap.Entry<K, V>>() {
+                    @Override
+                    TMap.Entry<K, V> get(TMap.Entry<K, V> entry) {
+                        return snapshot(entry);
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return TConcurrentSkipListMap.this.size();
+            }
+
+            @Override
+            public boolean isEmpty() {
+                return TConcurrentSkipListMap.this.isEmpty();
+            }
+
+            @Override
+            public boolean contains(Object o) {
+                if (!(o instanceof TMap.Entry)) {
+                    return false;
+                }
+                TMap.Entry<?, ?> entry = (TMap.Entry<?, ?>) o;
+                V value = get(entry.getKey());
+                return value != null && value.equals(entry.getValue());
+            }
+
+            @Override
+            public boolean remove(Object o) {
+                if (!(o instanceof TMap.Entry)) {
+                    return false;
+                }
+                TMap.Entry<?, ?> entry = (TMap.Entry<?, ?>) o;
+                return TConcurrentSkipListMap.this.remove(entry.getKey(), entry.getValue());
+            }
+
+            @Override
+            public void clear() {
+                TConcurrentSkipListMap.this.clear();
+            }
+        };
+    }
+
+    TIterator<K> keyIterator() {
+        return new EntryIterator<K>() {
+            @Override
+            K get(TMap.Entry<K, V> entry) {
+                return entry.getKey();
+            }
+        };
+    }
+
+    @Override
+    public Object clone() {
+        TConcurrentSkipListMap<K, V> copy = new TConcurrentSkipListMap<>(comparator);
+        copy.putAll(this);
+        return copy;
+    }
+
+    abstract class EntryIterator<T> implements TIterator<T> {
+        private TMap.Entry<K, V> next = first();
+        private K lastKey;
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public T next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            TMap.Entry<K, V> entry = next;
+            lastKey = entry.getKey();
+            next = after(lastKey, false);
+            return get(entry);
+        }
+
+        abstract T get(TMap.Entry<K, V> entry);
+
+        @Override
+        public void remove() {
+            if (lastKey == null) {
+                throw new IllegalStateException();
+            }
+            tree.remove(lastKey);
+            lastKey = null;
+        }
+    }
+
+    static final class KeySet<K, V> extends TAbstractSet<K> implements TNavigableSet<K> {
+        private final TConcurrentSkipListMap<K, V> map;
+
+        KeySet(TConcurrentSkipListMap<K, V> map) {
+            this.map = map;
+        }
+
+        @Override
+        public TIterator<K> iterator() {
+            return map.keyIterator();
+        }
+
+        @Override
+        public int size() {
+            return map.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return map.isEmpty();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return map.containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return map.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            map.clear();
+        }
+
+        @Override
+        public TComparator<? super K> comparator() {
+            return map.comparator();
+        }
+
+        @Override
+        public K first() {
+            return map.firstKey();
+        }
+
+        @Override
+        public K last() {
+            return map.lastKey();
+        }
+
+        @Override
+        public K lower(K e) {
+            return map.lowerKey(e);
+        }
+
+        @Override
+        public K floor(K e) {
+            return map.floorKey(e);
+        }
+
+        @Override
+        public K ceiling(K e) {
+            return map.ceilingKey(e);
+        }
+
+        @Override
+        public K higher(K e) {
+            return map.higherKey(e);
+        }
+
+        @Override
+        public K pollFirst() {
+            return key(map.pollFirstEntry());
+        }
+
+        @Override
+        public K pollLast() {
+            return key(map.pollLastEntry());
+        }
+
+        @Override
+        public TNavigableSet<K> descendingSet() {
+            return map.descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public TIterator<K> descendingIterator() {
+            return descendingSet().iterator();
+        }
+
+        @Override
+        public TNavigableSet<K> subSet(K fromElement, boolean fromInclusive, K toElement, boolean toInclusive) {
+            return map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+        }
+
+        @Override
+        public TNavigableSet<K> headSet(K toElement, boolean inclusive) {
+            return map.headMap(toElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public TNavigableSet<K> tailSet(K fromElement, boolean inclusive) {
+            return map.tailMap(fromElement, inclusive).navigableKeySet();
+        }
+
+        @Override
+        public TSortedSet<K> subSet(K fromElement, K toElement) {
+            return subSet(fromElement, true, toElement, false);
+        }
+
+        @Override
+        public TSortedSet<K> headSet(K toElement) {
+            return headSet(toElement, false);
+        }
+
+        @Override
+        public TSortedSet<K> tailSet(K fromElement) {
+            return tailSet(fromElement, true);
+        }
+    }
+}
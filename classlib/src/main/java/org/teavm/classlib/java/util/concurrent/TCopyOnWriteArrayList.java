@@ -0,0 +1,397 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import org.teavm.classlib.java.io.TSerializable;
+import org.teavm.classlib.java.lang.TCloneable;
+import org.teavm.classlib.java.util.TAbstractList;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TComparator;
+import org.teavm.classlib.java.util.TIterator;
+import org.teavm.classlib.java.util.TListIterator;
+import org.teavm.classlib.java.util.TObjects;
+import org.teavm.classlib.java.util.TRandomAccess;
+import org.teavm.classlib.java.util.function.TUnaryOperator;
+
+/**
+ * <p>List that replaces its backing array on every modification. Iterators work over the array that was
+ * current when they were created, so they never fail and never see later changes.</p>
+ *
+ * @param <E> type of elements.
+ */
+public class TCopyOnWriteArrayList<E> extends TAbstractList<E> implements TRandomAccess, TCloneable, TSerializable {
+    private Object[] array;
+
+    public TCopyOnWriteArrayList() {
+        array = new Object[0];
+    }
+
+    public TCopyOnWriteArrayList(TCollection<? extends E> c) {
+        array = c.toArray();
+    }
+
+    public TCopyOnWriteArrayList(E[] toCopyIn) {
+        array = Arrays.copyOf(toCopyIn, toCopyIn.length, Object[].class);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E get(int index) {
+        checkIndex(index, array.length);
+        return (E) array[index];
+    }
+
+    @Override
+    public int size() {
+        return array.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return array.length == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return indexOf(o, array, 0, array.length) >= 0;
+    }
+
+    @Override
+    public int indexOf(Object o) {
+        return indexOf(o, array, 0, array.length);
+    }
+
+    public int indexOf(E e, int index) {
+        return indexOf(e, array, index, array.length);
+    }
+
+    @Override
+    public int lastIndexOf(Object o) {
+        return lastIndexOf(o, array, array.length - 1);
+    }
+
+    public int lastIndexOf(E e, int index) {
+        return lastIndexOf(e, array, index);
+    }
+
+    private static int indexOf(Object o, Object[] elements, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            if (TObjects.equals(o, elements[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static int lastIndexOf(Object o, Object[] elements, int from) {
+        for (int i = from; i >= 0; --i) {
+            if (TObjects.equals(o, elements[i])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    @Override
+    public Object[] toArray() {
+        return array.clone();
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E set(int index, E element) {
+        Object[] elements = array;
+        checkIndex(index, elements.length);
+        E old = (E) elements[index];
+        if (old != element) {
+            elements = elements.clone();
+            elements[index] = element;
+            setArray(elements);
+        }
+        return old;
+    }
+
+    @Override
+    public boolean add(E e) {
+        Object[] elements = array;
+        Object[] newElements = Arrays.copyOf(elements, elements.length + 1);
+        newElements[elements.length] = e;
+        setArray(newElements);
+        return true;
+    }
+
+    @Override
+    public void add(int index, E element) {
+        Object[] elements = array;
+        if (index < 0 || index > elements.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        Object[] newElements = new Object[elements.length + 1];
+        System.arraycopy(elements, 0, newElements, 0, index);
+        newElements[index] = element;
+        System.arraycopy(elements, index, newElements, index + 1, elements.length - index);
+        setArray(newElements);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public E remove(int index) {
+        Object[] elements = array;
+        checkIndex(index, elements.length);
+        E old = (E) elements[index];
+        setArray(removeAt(elements, index));
+        return old;
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        Object[] elements = array;
+        int index = indexOf(o, elements, 0, elements.length);
+        if (index < 0) {
+            return false;
+        }
+        setArray(removeAt(elements, index));
+        return true;
+    }
+
+    private static Object[] removeAt(Object[] elements, int index) {
+        Object[] newElements = new Object[elements.length - 1];
+        System.arraycopy(elements, 0, newElements, 0, index);
+        System.arraycopy(elements, index + 1, newElements, index, elements.length - index - 1);
+        return newElements;
+    }
+
+    @Override
+    protected void removeRange(int fromIndex, int toIndex) {
+        Object[] elements = array;
+        if (fromIndex < 0 || toIndex > elements.length || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException();
+        }
+        Object[] newElements = new Object[elements.length - (toIndex - fromIndex)];
+        System.arraycopy(elements, 0, newElements, 0, fromIndex);
+        System.arraycopy(elements, toIndex, newElements, fromIndex, elements.length - toIndex);
+        setArray(newElements);
+    }
+
+    public boolean addIfAbsent(E e) {
+        Object[] elements = array;
+        if (indexOf(e, elements, 0, elements.length) >= 0) {
+            return false;
+        }
+        Object[] newElements = Arrays.copyOf(elements, elements.length + 1);
+        newElements[elements.length] = e;
+        setArray(newElements);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(TCollection<? extends E> c) {
+        Object[] added = c.toArray();
+        if (added.length == 0) {
+            return false;
+        }
+        Object[] elements = array;
+        Object[] newElements = Arrays.copyOf(elements, elements.length + added.length);
+        System.arraycopy(added, 0, newElements, elements.length, added.length);
+        setArray(newElements);
+        return true;
+    }
+
+    @Override
+    public boolean addAll(int index, TCollection<? extends E> c) {
+        Object[] elements = array;
+        if (index < 0 || index > elements.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        Object[] added = c.toArray();
+        if (added.length == 0) {
+            return false;
+        }
+        Object[] newElements = new Object[elements.length + added.length];
+        System.arraycopy(elements, 0, newElements, 0, index);
+        System.arraycopy(added, 0, newElements, index, added.length);
+        System.arraycopy(elements, index, newElements, index + added.length, elements.length - index);
+        setArray(newElements);
+        return true;
+    }
+
+    public int addAllAbsent(TCollection<? extends E> c) {
+        Object[] added = c.toArray();
+        Object[] elements = array;
+        Object[] newElements = Arrays.copyOf(elements, elements.length + added.length);
+        int size = elements.length;
+        for (Object e : added) {
+            if (indexOf(e, newElements, 0, size) < 0) {
+                newElements[size++] = e;
+            }
+        }
+        if (size > elements.length) {
+            setArray(Arrays.copyOf(newElements, size));
+        }
+        return size - elements.length;
+    }
+
+    @Override
+    public boolean removeAll(TCollection<?> c) {
+        return retain(c, false);
+    }
+
+    @Override
+    public boolean retainAll(TCollection<?> c) {
+        return retain(c, true);
+    }
+
+    private boolean retain(TCollection<?> c, boolean keep) {
+        Object[] elements = array;
+        Object[] newElements = new Object[elements.length];
+        int size = 0;
+        for (Object e : elements) {
+            if (c.contains(e) == keep) {
+                newElements[size++] = e;
+            }
+        }
+        if (size == elements.length) {
+            return false;
+        }
+        setArray(Arrays.copyOf(newElements, size));
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        setArray(new Object[0]);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void replaceAll(TUnaryOperator<E> operator) {
+        Object[] newElements = array.clone();
+        for (int i = 0; i < newElements.length; ++i) {
+            newElements[i] = operator.apply((E) newElements[i]);
+        }
+        setArray(newElements);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public void sort(TComparator<? super E> c) {
+        Object[] newElements = array.clone();
+        Arrays.sort(newElements, (a, b) -> c.compare((E) a, (E) b));
+        setArray(newElements);
+    }
+
+    @Override
+    public TIterator<E> iterator() {
+        return new SnapshotIterator<>(array, 0);
+    }
+
+    @Override
+    public TListIterator<E> listIterator() {
+        return new SnapshotIterator<>(array, 0);
+    }
+
+    @Override
+    public TListIterator<E> listIterator(int index) {
+        Object[] elements = array;
+        if (index < 0 || index > elements.length) {
+            throw new IndexOutOfBoundsException();
+        }
+        return new SnapshotIterator<>(elements, index);
+    }
+
+    @Override
+    public Object clone() {
+        TCopyOnWriteArrayList<E> copy = new TCopyOnWriteArrayList<>();
+        copy.array = array;
+        return copy;
+    }
+
+    private void setArray(Object[] elements) {
+        array = elements;
+        ++modCount;
+    }
+
+    private static void checkIndex(int index, int size) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException();
+        }
+    }
+
+    static class SnapshotIterator<E> implements TListIterator<E> {
+        private final Object[] snapshot;
+        private int cursor;
+
+        SnapshotIterator(Object[] snapshot, int cursor) {
+            this.snapshot = snapshot;
+            this.cursor = cursor;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return cursor < snapshot.length;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E next() {
+            if (cursor >= snapshot.length) {
+                throw new NoSuchElementException();
+            }
+            return (E) snapshot[cursor++];
+        }
+
+        @Override
+        public boolean hasPrevious() {
+            return cursor > 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E previous() {
+            if (cursor <= 0) {
+                throw new NoSuchElementException();
+            }
+            return (E) snapshot[--cursor];
+        }
+
+        @Override
+        public int nextIndex() {
+            return cursor;
+        }
+
+        @Override
+        public int previousIndex() {
+            return cursor - 1;
+        }
+
+        @Override
+        public void remove() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void set(E e) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void add(E e) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,148 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import java.util.Objects;
+import org.teavm.classlib.java.lang.TInterruptedException;
+import org.teavm.classlib.java.lang.TRunnable;
+import org.teavm.classlib.java.util.TArrayList;
+import org.teavm.classlib.java.util.TList;
+
+/**
+ * <p>Executor that starts every submitted task in a new green thread. There is a single real thread,
+ * so the reported parallelism is always 1, and {@link TForkJoinTask#fork()} computes a task immediately
+ * instead of putting it into a work-stealing queue.</p>
+ */
+public class TForkJoinPool extends TAbstractExecutorService {
+    private static TForkJoinPool common;
+    private boolean shutdown;
+    private int activeCount;
+    private TCompletableFuture<Void> termination = new TCompletableFuture<>();
+
+    public TForkJoinPool() {
+    }
+
+    public TForkJoinPool(int parallelism) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException();
+        }
+    }
+
+    public static TForkJoinPool commonPool() {
+        if (common == null) {
+            common = new TForkJoinPool();
+        }
+        return common;
+    }
+
+    public static int getCommonPoolParallelism() {
+        return 1;
+    }
+
+    public int getParallelism() {
+        return 1;
+    }
+
+    public int getPoolSize() {
+        return activeCount;
+    }
+
+    public int getActiveThreadCount() {
+        return activeCount;
+    }
+
+    public int getRunningThreadCount() {
+        return activeCount;
+    }
+
+    public boolean isQuiescent() {
+        return activeCount == 0;
+    }
+
+    @Override
+    public void execute(TRunnable task) {
+        Objects.requireNonNull(task);
+        if (shutdown) {
+            throw new TRejectedExecutionException();
+        }
+        ++activeCount;
+        new Thread(() -> {
+            try {
+                task.run();
+            } finally {
+                if (--activeCount == 0 && shutdown) {
+                    termination.complete(null);
+                }
+            }
+        }).start();
+    }
+
+    public void execute(TForkJoinTask<?> task) {
+        execute((TRunnable) task::quietlyInvoke);
+    }
+
+    public <T> TForkJoinTask<T> submit(TForkJoinTask<T> task) {
+        execute(task);
+        return task;
+    }
+
+    public <T> T invoke(TForkJoinTask<T> task) {
+        return task.invoke();
+    }
+
+    @Override
+    public void shutdown() {
+        if (this == common || shutdown) {
+            return;
+        }
+        shutdown = true;
+        if (activeCount == 0) {
+            termination.complete(null);
+        }
+    }
+
+    @Override
+    public TList<TRunnable> shutdownNow() {
+        shutdown();
+        return new TArrayList<>();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return shutdown;
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return termination.isDone();
+    }
+
+    public boolean isTerminating() {
+        return shutdown && !termination.isDone();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TTimeUnit unit) throws TInterruptedException {
+        try {
+            termination.get(timeout, unit);
+            return true;
+        } catch (TTimeoutException e) {
+            return false;
+        } catch (TExecutionException e) {
+            return true;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import org.teavm.classlib.java.io.TSerializable;
+import org.teavm.classlib.java.lang.TInterruptedException;
+import org.teavm.classlib.java.util.TCollection;
+import org.teavm.classlib.java.util.TIterator;
+
+public abstract class TForkJoinTask<V> implements TFuture<V>, TSerializable {
+    private TCompletableFuture<Void> completion = new TCompletableFuture<>();
+    private boolean started;
+    private Throwable exception;
+
+    public abstract V getRawResult();
+
+    protected abstract void setRawResult(V value);
+
+    protected abstract boolean exec();
+
+    public final TForkJoinTask<V> fork() {
+        start();
+        return this;
+    }
+
+    public final V join() {
+        quietlyJoin();
+        reportException();
+        return getRawResult();
+    }
+
+    public final V invoke() {
+        return join();
+    }
+
+    public final void quietlyJoin() {
+        start();
+        if (!completion.isDone()) {
+            try {
+                completion.get();
+            } catch (TInterruptedException | TExecutionException | TCancellationException e) {
+                // Reported by join
+            }
+        }
+    }
+
+    public final void quietlyInvoke() {
+        quietlyJoin();
+    }
+
+    private void start() {
+        if (started) {
+            return;
+        }
+        started = true;
+        try {
+            if (exec()) {
+                completion.complete(null);
+            }
+        } catch (Throwable e) {
+            fail(e);
+        }
+    }
+
+    private void reportException() {
+        Throwable e = getException();
+        if (e != null) {
+            TForkJoinTask.<RuntimeException>throwUnchecked(e);
+        }
+    }
+
+    /**
+     * Throws exception of the task as is, even a checked one, like Java does.
+     */
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> void throwUnchecked(Throwable e) throws E {
+        throw (E) e;
+    }
+
+    public static void invokeAll(TForkJoinTask<?> t1, TForkJoinTask<?> t2) {
+        t2.fork();
+        t1.invoke();
+        t2.join();
+    }
+
+    public static void invokeAll(TForkJoinTask<?>... tasks) {
+        for (TForkJoinTask<?> task : tasks) {
+            task.fork();
+        }
+        for (TForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    public static <T extends TForkJoinTask<?>> TCollection<T> invokeAll(TCollection<T> tasks) {
+        for (TIterator<T> iter = tasks.iterator(); iter.hasNext();) {
+            iter.next().fork();
+        }
+        for (TIterator<T> iter = tasks.iterator(); iter.hasNext();) {
+            iter.next().join();
+        }
+        return tasks;
+    }
+
+    @Override
+    public V get() throws TInterruptedException, TExecutionException {
+        start();
+        completion.get();
+        return getRawResult();
+    }
+
+    @Override
+    public V get(long timeout, TTimeUnit unit) throws TInterruptedException, TExecutionException,
+            TTimeoutException {
+        start();
+        completion.get(timeout, unit);
+        return getRawResult();
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        started = true;
+        return completion.cancel(mayInterruptIfRunning);
+    }
+
+    @Override
+    public final boolean isDone() {
+        return completion.isDone();
+    }
+
+    @Override
+    public final boolean isCancelled() {
+        return completion.isCancelled();
+    }
+
+    public final boolean isCompletedAbnormally() {
+        return completion.isCompletedExceptionally();
+    }
+
+    public final boolean isCompletedNormally() {
+        return completion.isDone() && !completion.isCompletedExceptionally();
+    }
+
+    public final Throwable getException() {
+        if (isCancelled()) {
+            return new TCancellationException();
+        }
+        return exception;
+    }
+
+    public void complete(V value) {
+        started = true;
+        setRawResult(value);
+        completion.complete(null);
+    }
+
+    public void completeExceptionally(Throwable ex) {
+        fail(ex instanceof RuntimeException || ex instanceof Error ? ex : new RuntimeException(ex));
+    }
+
+    private void fail(Throwable ex) {
+        started = true;
+        if (!completion.isDone()) {
+            exception = ex;
+            completion.completeExceptionally(ex);
+        }
+    }
+
+    public void reinitialize() {
+        completion = new TCompletableFuture<>();
+        started = false;
+        exception = null;
+    }
+}
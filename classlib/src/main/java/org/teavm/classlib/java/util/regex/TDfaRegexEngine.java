@@ -0,0 +1,495 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Matches patterns without backtracking. The pattern is compiled to a program of a Pike VM, which is executed
+ * as a DFA whose states are built on demand. A state is the list of program threads alive at the current
+ * position, ordered by priority, so the DFA reports the same match as the backtracking interpreter.</p>
+ *
+ * <p>Search runs forward to find the end of the leftmost match, then the reversed pattern is run backward
+ * from that end to find its start. Groups are not tracked. Input never contains surrogates, so every character
+ * is a code point.</p>
+ */
+final class TDfaRegexEngine extends TRegexEngine {
+    private static final int CHARS = 0;
+    private static final int SPLIT = 1;
+    private static final int JUMP = 2;
+    private static final int MATCH = 3;
+    private static final int MATCH_AT_END = 4;
+    private static final int MAX_PROGRAM_SIZE = 10000;
+    private static final int MAX_CACHED_STATES = 2000;
+    private final boolean startAnchor;
+    private final boolean endAnchor;
+    private final int[] boundaries;
+    private final int[] asciiClasses = new int[128];
+    private final Program program;
+    private final Program reverseProgram;
+    private Automaton searchAutomaton;
+    private Automaton anchoredAutomaton;
+    private Automaton matchAutomaton;
+    private Automaton reverseAutomaton;
+
+    private TDfaRegexEngine(TRegexParser parser) {
+        startAnchor = parser.startAnchor;
+        endAnchor = parser.endAnchor;
+
+        List<int[]> sets = new ArrayList<>();
+        parser.root.collectBoundaries(sets);
+        int[] points = new int[16];
+        int pointCount = 0;
+        for (int[] ranges : sets) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (pointCount + 2 > points.length) {
+                    points = Arrays.copyOf(points, points.length * 2);
+                }
+                points[pointCount++] = ranges[i];
+                points[pointCount++] = ranges[i + 1] + 1;
+            }
+        }
+        Arrays.sort(points, 0, pointCount);
+        int unique = 0;
+        for (int i = 0; i < pointCount; ++i) {
+            if (unique == 0 || points[unique - 1] != points[i]) {
+                points[unique++] = points[i];
+            }
+        }
+        boundaries = Arrays.copyOf(points, unique);
+        for (int i = 0; i < asciiClasses.length; ++i) {
+            asciiClasses[i] = lookupClass(i);
+        }
+
+        int endOp = endAnchor ? MATCH_AT_END : MATCH;
+        program = new Program(parser.root, endOp);
+        reverseProgram = new Program(parser.root.reverse(), MATCH);
+    }
+
+    static TDfaRegexEngine create(TRegexParser parser) {
+        try {
+            return new TDfaRegexEngine(parser);
+        } catch (TRegexParser.UnsupportedSyntaxException e) {
+            return null;
+        }
+    }
+
+    @Override
+    Object convertInput(String input) {
+        return input;
+    }
+
+    @Override
+    boolean find(Object input, int from, int[] bounds) {
+        String string = (String) input;
+        if (startAnchor && from > 0) {
+            return false;
+        }
+        Automaton automaton;
+        if (startAnchor) {
+            if (anchoredAutomaton == null) {
+                anchoredAutomaton = new Automaton(program, false, false);
+            }
+            automaton = anchoredAutomaton;
+        } else {
+            if (searchAutomaton == null) {
+                searchAutomaton = new Automaton(program, true, false);
+            }
+            automaton = searchAutomaton;
+        }
+        int end = searchForward(automaton, string, from);
+        if (end < 0) {
+            return false;
+        }
+        bounds[0] = startAnchor ? from : searchBackward(string, from, end);
+        bounds[1] = end;
+        return true;
+    }
+
+    @Override
+    boolean lookingAt(Object input, int[] bounds) {
+        if (anchoredAutomaton == null) {
+            anchoredAutomaton = new Automaton(program, false, false);
+        }
+        int end = searchForward(anchoredAutomaton, (String) input, 0);
+        if (end < 0) {
+            return false;
+        }
+        bounds[0] = 0;
+        bounds[1] = end;
+        return true;
+    }
+
+    @Override
+    boolean matches(Object input, int[] bounds) {
+        if (matchAutomaton == null) {
+            matchAutomaton = new Automaton(program, false, true);
+        }
+        String string = (String) input;
+        State state = matchAutomaton.initial();
+        int index = 0;
+        while (index < string.length()) {
+            if (state.isDead()) {
+                return false;
+            }
+            state = matchAutomaton.next(state, classOf(string.charAt(index++)));
+        }
+        if (!state.match) {
+            return false;
+        }
+        bounds[0] = 0;
+        bounds[1] = string.length();
+        return true;
+    }
+
+    @Override
+    boolean reportsGroups() {
+        return false;
+    }
+
+    private int searchForward(Automaton automaton, String string, int from) {
+        int length = string.length();
+
+        // Whether $ matches depends on the characters after it, so the last positions are simulated exactly
+        int exactFrom = endAnchor ? length - 2 : Integer.MAX_VALUE;
+        int index = from;
+        State state = index >= exactFrom ? automaton.exactInitial(isEndOfLine(string, index)) : automaton.initial();
+        int result = state.match ? index : -1;
+        while (index < length && !state.isDead()) {
+            int charClass = classOf(string.charAt(index++));
+            state = index >= exactFrom
+                    ? automaton.exactNext(state, charClass, isEndOfLine(string, index))
+                    : automaton.next(state, charClass);
+            if (state.match) {
+                result = index;
+            }
+        }
+        return result;
+    }
+
+    private int searchBackward(String string, int from, int end) {
+        if (reverseAutomaton == null) {
+            reverseAutomaton = new Automaton(reverseProgram, false, true);
+        }
+        State state = reverseAutomaton.initial();
+        int result = state.match ? end : -1;
+        int index = end;
+        while (index > from && !state.isDead()) {
+            state = reverseAutomaton.next(state, classOf(string.charAt(--index)));
+            if (state.match) {
+                result = index;
+            }
+        }
+        return result;
+    }
+
+    private static boolean isEndOfLine(String string, int index) {
+        switch (string.length() - index) {
+            case 0:
+                return true;
+            case 1: {
+                char c = string.charAt(index);
+                return c == '\n' || c == '\r' || c == '\u0085' || c == ' ' || c == ' ';
+            }
+            case 2:
+                return string.charAt(index) == '\r' && string.charAt(index + 1) == '\n';
+            default:
+                return false;
+        }
+    }
+
+    private int classOf(int codePoint) {
+        return codePoint < asciiClasses.length ? asciiClasses[codePoint] : lookupClass(codePoint);
+    }
+
+    private int lookupClass(int codePoint) {
+        int index = Arrays.binarySearch(boundaries, codePoint);
+        return index >= 0 ? index + 1 : -index - 1;
+    }
+
+    private int representative(int charClass) {
+        return charClass == 0 ? 0 : boundaries[charClass - 1];
+    }
+
+    final class Program {
+        int[] ops = new int[16];
+        int[] first = new int[16];
+        int[] second = new int[16];
+        int size;
+        boolean[][] sets;
+        private Map<TRegexNode.CharSet, Integer> setIndexes = new HashMap<>();
+        private List<boolean[]> setList = new ArrayList<>();
+
+        Program(TRegexNode root, int endOp) {
+            compile(root);
+            emit(endOp, 0, 0);
+            sets = setList.toArray(new boolean[0][]);
+            setIndexes = null;
+            setList = null;
+        }
+
+        private void compile(TRegexNode node) {
+            if (node instanceof TRegexNode.CharSet) {
+                emit(CHARS, setIndex((TRegexNode.CharSet) node), 0);
+            } else if (node instanceof TRegexNode.Sequence) {
+                for (TRegexNode item : ((TRegexNode.Sequence) node).items) {
+                    compile(item);
+                }
+            } else if (node instanceof TRegexNode.Alternation) {
+                List<TRegexNode> alternatives = ((TRegexNode.Alternation) node).alternatives;
+                int[] jumps = new int[alternatives.size() - 1];
+                for (int i = 0; i < jumps.length; ++i) {
+                    int split = emit(SPLIT, 0, 0);
+                    first[split] = size;
+                    compile(alternatives.get(i));
+                    jumps[i] = emit(JUMP, 0, 0);
+                    second[split] = size;
+                }
+                compile(alternatives.get(jumps.length));
+                for (int jump : jumps) {
+                    first[jump] = size;
+                }
+            } else if (node instanceof TRegexNode.Group) {
+                compile(((TRegexNode.Group) node).body);
+            } else if (node instanceof TRegexNode.Repeat) {
+                compileRepeat((TRegexNode.Repeat) node);
+            }
+        }
+
+        private void compileRepeat(TRegexNode.Repeat repeat) {
+            for (int i = 0; i < repeat.min; ++i) {
+                compile(repeat.body);
+            }
+            if (repeat.max < 0) {
+                int split = emit(SPLIT, 0, 0);
+                compile(repeat.body);
+                emit(JUMP, split, 0);
+                setSplitTargets(split, split + 1, size, repeat.greedy);
+            } else if (repeat.max > repeat.min) {
+                int[] splits = new int[repeat.max - repeat.min];
+                for (int i = 0; i < splits.length; ++i) {
+                    splits[i] = emit(SPLIT, 0, 0);
+                    compile(repeat.body);
+                }
+                for (int split : splits) {
+                    setSplitTargets(split, split + 1, size, repeat.greedy);
+                }
+            }
+        }
+
+        private void setSplitTargets(int split, int body, int exit, boolean greedy) {
+            first[split] = greedy ? body : exit;
+            second[split] = greedy ? exit : body;
+        }
+
+        private int setIndex(TRegexNode.CharSet set) {
+            Integer index = setIndexes.get(set);
+            if (index == null) {
+                boolean[] membership = new boolean[boundaries.length + 1];
+                for (int i = 0; i < membership.length; ++i) {
+                    membership[i] = set.contains(representative(i));
+                }
+                index = setList.size();
+                setList.add(membership);
+                setIndexes.put(set, index);
+            }
+            return index;
+        }
+
+        private int emit(int op, int firstArg, int secondArg) {
+            if (size == ops.length) {
+                if (size >= MAX_PROGRAM_SIZE) {
+                    throw new TRegexParser.UnsupportedSyntaxException();
+                }
+                ops = Arrays.copyOf(ops, size * 2);
+                first = Arrays.copyOf(first, size * 2);
+                second = Arrays.copyOf(second, size * 2);
+            }
+            ops[size] = op;
+            first[size] = firstArg;
+            second[size] = secondArg;
+            return size++;
+        }
+    }
+
+    /**
+     * <p>Lazily built DFA over the program. In the leftmost-first mode threads with lower priority than a thread
+     * that reached the match are discarded. In the longest mode threads are kept as a sorted set and every
+     * match instruction counts.</p>
+     *
+     * <p>Search automaton restarts the program at every position until the first match is found.</p>
+     */
+    final class Automaton {
+        private final Program program;
+        private final boolean search;
+        private final boolean longest;
+        private final Map<State, State> states = new HashMap<>();
+        private State initial;
+        private final int[] kernel;
+        private final int[] threads;
+        private final int[] stack;
+        private final int[] visited;
+        private int visitMark;
+
+        Automaton(Program program, boolean search, boolean longest) {
+            this.program = program;
+            this.search = search;
+            this.longest = longest;
+            kernel = new int[program.size + 1];
+            threads = new int[program.size];
+            stack = new int[program.size * 2 + 1];
+            visited = new int[program.size];
+        }
+
+        State initial() {
+            if (initial == null) {
+                initial = exactInitial(false);
+                states.put(initial, initial);
+            }
+            return initial;
+        }
+
+        State exactInitial(boolean endOfLine) {
+            kernel[0] = 0;
+            return closure(1, search, endOfLine);
+        }
+
+        State next(State state, int charClass) {
+            State result = state.next[charClass];
+            if (result == null) {
+                result = closure(step(state, charClass), state.loop, false);
+                State existing = states.get(result);
+                if (existing != null) {
+                    result = existing;
+                } else {
+                    if (states.size() >= MAX_CACHED_STATES) {
+                        states.clear();
+                        initial = null;
+                    }
+                    states.put(result, result);
+                }
+                state.next[charClass] = result;
+            }
+            return result;
+        }
+
+        State exactNext(State state, int charClass, boolean endOfLine) {
+            return closure(step(state, charClass), state.loop, endOfLine);
+        }
+
+        private int step(State state, int charClass) {
+            int size = 0;
+            for (int pc : state.threads) {
+                if (program.sets[program.first[pc]][charClass]) {
+                    kernel[size++] = pc + 1;
+                }
+            }
+            if (state.loop) {
+                kernel[size++] = 0;
+            }
+            return size;
+        }
+
+        private State closure(int kernelSize, boolean loop, boolean endOfLine) {
+            if (++visitMark == Integer.MAX_VALUE) {
+                Arrays.fill(visited, 0);
+                visitMark = 1;
+            }
+            int count = 0;
+            boolean match = false;
+            outer:
+            for (int i = 0; i < kernelSize; ++i) {
+                int top = 0;
+                stack[top++] = kernel[i];
+                while (top > 0) {
+                    int pc = stack[--top];
+                    if (visited[pc] == visitMark) {
+                        continue;
+                    }
+                    visited[pc] = visitMark;
+                    switch (program.ops[pc]) {
+                        case CHARS:
+                            threads[count++] = pc;
+                            break;
+                        case JUMP:
+                            stack[top++] = program.first[pc];
+                            break;
+                        case SPLIT:
+                            stack[top++] = program.second[pc];
+                            stack[top++] = program.first[pc];
+                            break;
+                        default:
+                            if (program.ops[pc] == MATCH || endOfLine || longest) {
+                                match = true;
+                                if (!longest) {
+                                    loop = false;
+                                    break outer;
+                                }
+                            }
+                            break;
+                    }
+                }
+            }
+            int[] result = Arrays.copyOf(threads, count);
+            if (longest) {
+                Arrays.sort(result);
+            }
+            return new State(result, loop, match, boundaries.length + 1);
+        }
+    }
+
+    static final class State {
+        final int[] threads;
+        final boolean loop;
+        final boolean match;
+        final State[] next;
+        private final int hash;
+
+        State(int[] threads, boolean loop, boolean match, int classCount) {
+            this.threads = threads;
+            this.loop = loop;
+            this.match = match;
+            next = new State[classCount];
+            hash = Arrays.hashCode(threads) * 4 + (loop ? 2 : 0) + (match ? 1 : 0);
+        }
+
+        boolean isDead() {
+            return threads.length == 0 && !loop;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof State)) {
+                return false;
+            }
+            State other = (State) obj;
+            return hash == other.hash && loop == other.loop && match == other.match
+                    && Arrays.equals(threads, other.threads);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -68,6 +68,12 @@ public final class TMatcher implements TMatchResult {
 
     static final int MODE_MATCH = 1 << 1;
 
+    private static final int ENGINE_FIND = 1;
+
+    private static final int ENGINE_LOOKING_AT = 2;
+
+    private static final int ENGINE_MATCHES = 3;
+
     private TPattern pat;
 
     private TAbstractSet start;
@@ -90,6 +96,21 @@ public final class TMatcher implements TMatchResult {
 
     private ArrayList<Object> replacementParts;
 
+    // engine that replaces the interpreter when the whole input is matched
+    private TRegexEngine engine;
+
+    private Object engineInput;
+
+    private boolean engineInputPrepared;
+
+    private int[] engineBounds;
+
+    // engine does not compute hitEnd and requireEnd, so the interpreter repeats its last operation on demand
+    // without touching the match result
+    private int replayOperation;
+
+    private int replayStart;
+
     /**
      * Appends a literal part of the input plus a replacement for the current
      * match to a given {@link StringBuffer}. The literal part is exactly the
@@ -229,6 +250,9 @@ public final class TMatcher implements TMatchResult {
         appendPos = 0;
         replacement = null;
         matchResult.previousMatch = -1;
+        engineInput = null;
+        engineInputPrepared = false;
+        replayOperation = 0;
         return this;
     }
 
@@ -253,6 +277,7 @@ public final class TMatcher implements TMatchResult {
         matchResult.reset(null, start, end);
         appendPos = 0;
         replacement = null;
+        replayOperation = 0;
 
         return this;
     }
@@ -364,7 +389,14 @@ public final class TMatcher implements TMatchResult {
         if (start < 0 || start > stringLength) {
             throw new IndexOutOfBoundsException(String.valueOf(start));
         }
+        if (canUseEngine()) {
+            return matchWithEngine(ENGINE_FIND, start);
+        }
+        return interpretFind(start);
+    }
 
+    private boolean interpretFind(int start) {
+        replayOperation = 0;
         start = findAt(start);
         if (start >= 0 && matchResult.isValid()) {
             matchResult.finalizeMatch();
@@ -450,6 +482,9 @@ public final class TMatcher implements TMatchResult {
      *         region.
      */
     public boolean matches() {
+        if (canUseEngine() && (engine.reportsGroups() || groupCount() == 0)) {
+            return matchWithEngine(ENGINE_MATCHES, leftBound);
+        }
         return lookingAt(leftBound, TMatcher.MODE_MATCH);
     }
 
@@ -513,10 +548,14 @@ public final class TMatcher implements TMatchResult {
      * @return true if (and only if) the {@code Pattern} matches.
      */
     public boolean lookingAt() {
+        if (canUseEngine() && (engine.reportsGroups() || groupCount() == 0)) {
+            return matchWithEngine(ENGINE_LOOKING_AT, leftBound);
+        }
         return lookingAt(leftBound, TMatcher.MODE_FIND);
     }
 
     private boolean lookingAt(int startIndex, int mode) {
+        replayOperation = 0;
         matchResult.reset();
         matchResult.setMode(mode);
         matchResult.setStartIndex(startIndex);
@@ -655,6 +694,7 @@ public final class TMatcher implements TMatchResult {
      *         into an unsuccessful one.
      */
     public boolean requireEnd() {
+        replay();
         return matchResult.requireEnd;
     }
 
@@ -664,9 +704,86 @@ public final class TMatcher implements TMatchResult {
      * @return true if (and only if) the last match hit the end of the input.
      */
     public boolean hitEnd() {
+        replay();
         return matchResult.hitEnd;
     }
 
+    private boolean canUseEngine() {
+        if (engine == null || leftBound != 0 || rightBound != string.length()) {
+            return false;
+        }
+        if (!engineInputPrepared) {
+            engineInput = engine.prepare(string);
+            engineInputPrepared = true;
+        }
+        return engineInput != null;
+    }
+
+    private boolean matchWithEngine(int operation, int startIndex) {
+        int mode = operation == ENGINE_MATCHES ? TMatcher.MODE_MATCH : TMatcher.MODE_FIND;
+        matchResult.reset();
+        matchResult.setMode(mode);
+        matchResult.setStartIndex(startIndex);
+        boolean found;
+        switch (operation) {
+            case ENGINE_FIND:
+                found = engine.find(engineInput, startIndex, engineBounds);
+                break;
+            case ENGINE_LOOKING_AT:
+                found = engine.lookingAt(engineInput, engineBounds);
+                break;
+            default:
+                found = engine.matches(engineInput, engineBounds);
+                break;
+        }
+        if (!found) {
+            if (operation == ENGINE_FIND) {
+                matchResult.hitEnd = true;
+                matchResult.startIndex = -1;
+            }
+        } else if (matchResult.groupCount() > 0 && !engine.reportsGroups()) {
+            // engine knows where the match starts, the interpreter only has to fill groups
+            if (findAt(engineBounds[0]) != engineBounds[0] || !matchResult.isValid()
+                    || matchResult.getEnd(0) != engineBounds[1]) {
+                return interpretFind(startIndex);
+            }
+            matchResult.finalizeMatch();
+            matchResult.startIndex = startIndex;
+        } else {
+            int groupCount = engine.reportsGroups() ? matchResult.groupCount() : 0;
+            for (int i = 0; i <= groupCount; ++i) {
+                matchResult.setStart(i, engineBounds[i * 2]);
+                matchResult.setEnd(i, engineBounds[i * 2 + 1]);
+            }
+            matchResult.setValid();
+            matchResult.finalizeMatch();
+        }
+        replayOperation = operation;
+        replayStart = startIndex;
+        return found;
+    }
+
+    private void replay() {
+        if (replayOperation == 0) {
+            return;
+        }
+        TMatchResultImpl result = new TMatchResultImpl(string, leftBound, rightBound, pat.groupCount(),
+                pat.compCount(), pat.consCount());
+        result.setStartIndex(replayStart);
+        if (replayOperation == ENGINE_FIND) {
+            result.setMode(TMatcher.MODE_FIND);
+            if (start.find(replayStart, string, result) < 0) {
+                result.hitEnd = true;
+            }
+        } else {
+            result.setMode(replayOperation == ENGINE_MATCHES ? TMatcher.MODE_MATCH : TMatcher.MODE_FIND);
+            start.matches(replayStart, string, result);
+        }
+        matchResult.hitEnd |= result.hitEnd;
+        matchResult.requireEnd |= result.requireEnd;
+        replayOperation = 0;
+    }
+
     /**
      * Sets a new pattern for the {@code Matcher}. Results of a previous find
      * get lost. The next attempt to find an occurrence of the {@link TPattern}
@@ -687,6 +804,7 @@ public final class TMatcher implements TMatchResult {
         this.start = pattern.start;
         matchResult = new TMatchResultImpl(this.string, leftBound, rightBound, pattern.groupCount(),
                 pattern.compCount(), pattern.consCount());
+        initEngine(pattern);
         matchResult.setStartIndex(startIndex);
         matchResult.setMode(mode);
         return this;
@@ -700,6 +818,15 @@ public final class TMatcher implements TMatchResult {
         this.rightBound = string.length();
         matchResult = new TMatchResultImpl(cs, leftBound, rightBound, pat.groupCount(), pat.compCount(),
                 pat.consCount());
+        initEngine(pat);
+    }
+
+    private void initEngine(TPattern pattern) {
+        engine = pattern.engine;
+        engineInput = null;
+        engineInputPrepared = false;
+        engineBounds = engine != null ? new int[(pattern.groupCount() + 1) * 2] : null;
+        replayOperation = 0;
     }
 
     @Override
@@ -0,0 +1,117 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.regex;
+
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.core.JSString;
+import org.teavm.platform.Platform;
+import org.teavm.platform.PlatformObject;
+
+/**
+ * Delegates matching to JavaScript <code>RegExp</code>. The pattern is translated so that <code>.</code> and
+ * <code>$</code> keep their Java meaning; bounds of groups are taken from match indices when the browser
+ * supports them.
+ */
+final class TNativeRegexEngine extends TRegexEngine {
+    private static final String END_OF_LINE = "(?=(?:\\r\\n|[\\n\\r\\u0085\\u2028\\u2029])?$)";
+    private final JSObject searchRegex;
+    private final JSObject stickyRegex;
+    private final JSObject matchRegex;
+    private final boolean reportsGroups;
+
+    private TNativeRegexEngine(JSObject searchRegex, JSObject stickyRegex, JSObject matchRegex,
+            boolean reportsGroups) {
+        this.searchRegex = searchRegex;
+        this.stickyRegex = stickyRegex;
+        this.matchRegex = matchRegex;
+        this.reportsGroups = reportsGroups;
+    }
+
+    static TNativeRegexEngine create(TRegexParser parser) {
+        StringBuilder sb = new StringBuilder();
+        if (parser.startAnchor) {
+            sb.append('^');
+        }
+        parser.root.toJavaScript(sb);
+        if (parser.endAnchor) {
+            sb.append(END_OF_LINE);
+        }
+        String source = sb.toString();
+
+        // Match indices are slower, so they are only requested when there are groups
+        boolean indices = parser.groupCount > 0 && !parser.groupsInRepeat && supportsIndices();
+        String flags = indices ? "du" : "u";
+        JSObject searchRegex = createRegex(source, flags + "g");
+        JSObject stickyRegex = createRegex(source, flags + "y");
+        JSObject matchRegex = createRegex("(?:" + source + ")$", flags + "y");
+        if (searchRegex == null || stickyRegex == null || matchRegex == null) {
+            return null;
+        }
+        return new TNativeRegexEngine(searchRegex, stickyRegex, matchRegex, parser.groupCount == 0 || indices);
+    }
+
+    @Override
+    Object convertInput(String input) {
+        return JSString.valueOf(input);
+    }
+
+    @Override
+    boolean find(Object input, int from, int[] bounds) {
+        return exec(searchRegex, (JSObject) input, from, Platform.getPlatformObject(bounds));
+    }
+
+    @Override
+    boolean lookingAt(Object input, int[] bounds) {
+        return exec(stickyRegex, (JSObject) input, 0, Platform.getPlatformObject(bounds));
+    }
+
+    @Override
+    boolean matches(Object input, int[] bounds) {
+        return exec(matchRegex, (JSObject) input, 0, Platform.getPlatformObject(bounds));
+    }
+
+    @Override
+    boolean reportsGroups() {
+        return reportsGroups;
+    }
+
+    @JSBody(params = { "source", "flags" }, script = "try { return new RegExp(source, flags); } "
+            + "catch (e) { return null; }")
+    private static native JSObject createRegex(String source, String flags);
+
+    @JSBody(script = "try { return new RegExp('', 'd').hasIndices === true; } catch (e) { return false; }")
+    private static native boolean supportsIndices();
+
+    @JSBody(params = { "regex", "string", "from", "bounds" }, script = ""
+            + "regex.lastIndex = from;"
+            + "var match = regex.exec(string);"
+            + "if (match === null) { return false; }"
+            + "var data = bounds.data;"
+            + "var indices = match.indices;"
+            + "if (indices) {"
+            + "for (var i = 0; i < indices.length; ++i) {"
+            + "var range = indices[i];"
+            + "data[i * 2] = range ? range[0] : -1;"
+            + "data[i * 2 + 1] = range ? range[1] : -1;"
+            + "}"
+            + "} else {"
+            + "data[0] = match.index;"
+            + "data[1] = match.index + match[0].length;"
+            + "}"
+            + "return true;")
+    private static native boolean exec(JSObject regex, JSObject string, int from, PlatformObject bounds);
+}
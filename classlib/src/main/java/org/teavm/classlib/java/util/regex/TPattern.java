@@ -165,6 +165,11 @@ public final class TPattern implements Serializable {
 
     transient TAbstractSet start;
 
+    /*
+     * Faster matcher used instead of the interpreter when the pattern allows, may be null
+     */
+    transient TRegexEngine engine;
+
     /**
      * Returns a {@link TMatcher} for the {@code Pattern} and a given input. The
      * {@code Matcher} can be used to match the {@code Pattern} against the
@@ -340,6 +345,7 @@ public final class TPattern implements Serializable {
             throw new TPatternSyntaxException("", lexemes.toString(), lexemes.getIndex());
         }
         finalizeCompile();
+        engine = TRegexEngine.create(pattern, flags, globalGroupIndex);
         return this;
     }
 
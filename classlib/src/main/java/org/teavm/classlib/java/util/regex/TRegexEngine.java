@@ -0,0 +1,67 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.regex;
+
+import org.teavm.classlib.PlatformDetector;
+
+/**
+ * <p>Fast path for patterns that {@link TRegexParser} understands. On JavaScript matching is delegated to the
+ * native <code>RegExp</code>, on other platforms patterns are compiled to a lazily built DFA. Engines only
+ * work on the whole input, so {@link TMatcher} falls back to the interpreter for regions.</p>
+ *
+ * <p>All methods fill <code>bounds</code> with the start and the end of the match. When {@link #reportsGroups()}
+ * returns <code>true</code>, bounds of the groups follow, otherwise the caller has to compute them itself.</p>
+ */
+abstract class TRegexEngine {
+    /**
+     * Creates engine for the given pattern or returns <code>null</code> if the pattern should be interpreted.
+     */
+    static TRegexEngine create(String pattern, int flags, int groupCount) {
+        TRegexParser parser = new TRegexParser(pattern, flags);
+        if (!parser.parse() || parser.groupCount != groupCount) {
+            return null;
+        }
+        if (PlatformDetector.isJavaScript()) {
+            return TNativeRegexEngine.create(parser);
+        }
+        return TDfaRegexEngine.create(parser);
+    }
+
+    /**
+     * Converts input to the representation the engine works with. Returns <code>null</code> when the input
+     * contains surrogates, since the interpreter does not always treat surrogate pairs as a single character.
+     * Matcher caches the result until input changes.
+     */
+    Object prepare(CharSequence input) {
+        String string = input.toString();
+        for (int i = 0; i < string.length(); ++i) {
+            if (Character.isSurrogate(string.charAt(i))) {
+                return null;
+            }
+        }
+        return convertInput(string);
+    }
+
+    abstract Object convertInput(String input);
+
+    abstract boolean find(Object input, int from, int[] bounds);
+
+    abstract boolean lookingAt(Object input, int[] bounds);
+
+    abstract boolean matches(Object input, int[] bounds);
+
+    abstract boolean reportsGroups();
+}
@@ -0,0 +1,370 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.regex;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Syntax tree of a pattern that {@link TRegexParser} understood. Only constructs whose meaning is the same
+ * for the interpreter, for the DFA and for JavaScript <code>RegExp</code> are represented here.
+ */
+abstract class TRegexNode {
+    static final int MAX_CODE_POINT = 0x10FFFF;
+
+    abstract boolean isNullable();
+
+    abstract boolean hasGroups();
+
+    abstract void toJavaScript(StringBuilder sb);
+
+    /**
+     * Returns node that matches the same strings reversed. Groups are dropped.
+     */
+    abstract TRegexNode reverse();
+
+    void collectBoundaries(List<int[]> sets) {
+        // only character sets have boundaries
+    }
+
+    static final class CharSet extends TRegexNode {
+        /** Sorted, non-overlapping and non-adjacent pairs of inclusive bounds. */
+        final int[] ranges;
+
+        CharSet(int[] ranges) {
+            this.ranges = ranges;
+        }
+
+        boolean contains(int codePoint) {
+            for (int i = 0; i < ranges.length; i += 2) {
+                if (codePoint < ranges[i]) {
+                    return false;
+                }
+                if (codePoint <= ranges[i + 1]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean isNullable() {
+            return false;
+        }
+
+        @Override
+        boolean hasGroups() {
+            return false;
+        }
+
+        @Override
+        void toJavaScript(StringBuilder sb) {
+            if (ranges.length == 2 && ranges[0] == ranges[1]) {
+                appendJsChar(sb, ranges[0]);
+                return;
+            }
+            sb.append('[');
+            for (int i = 0; i < ranges.length; i += 2) {
+                appendJsChar(sb, ranges[i]);
+                if (ranges[i + 1] != ranges[i]) {
+                    sb.append('-');
+                    appendJsChar(sb, ranges[i + 1]);
+                }
+            }
+            sb.append(']');
+        }
+
+        private static void appendJsChar(StringBuilder sb, int codePoint) {
+            if (codePoint < 128 && Character.isLetterOrDigit((char) codePoint)) {
+                sb.append((char) codePoint);
+            } else {
+                sb.append("\\u{").append(Integer.toHexString(codePoint)).append('}');
+            }
+        }
+
+        @Override
+        TRegexNode reverse() {
+            return this;
+        }
+
+        @Override
+        void collectBoundaries(List<int[]> sets) {
+            sets.add(ranges);
+        }
+    }
+
+    static final class Sequence extends TRegexNode {
+        final List<TRegexNode> items;
+
+        Sequence(List<TRegexNode> items) {
+            this.items = items;
+        }
+
+        @Override
+        boolean isNullable() {
+            for (TRegexNode item : items) {
+                if (!item.isNullable()) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        @Override
+        boolean hasGroups() {
+            for (TRegexNode item : items) {
+                if (item.hasGroups()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        void toJavaScript(StringBuilder sb) {
+            for (TRegexNode item : items) {
+                if (item instanceof Alternation) {
+                    sb.append("(?:");
+                    item.toJavaScript(sb);
+                    sb.append(')');
+                } else {
+                    item.toJavaScript(sb);
+                }
+            }
+        }
+
+        @Override
+        TRegexNode reverse() {
+            List<TRegexNode> reversed = new ArrayList<>(items.size());
+            for (int i = items.size() - 1; i >= 0; --i) {
+                reversed.add(items.get(i).reverse());
+            }
+            return new Sequence(reversed);
+        }
+
+        @Override
+        void collectBoundaries(List<int[]> sets) {
+            for (TRegexNode item : items) {
+                item.collectBoundaries(sets);
+            }
+        }
+    }
+
+    static final class Alternation extends TRegexNode {
+        final List<TRegexNode> alternatives;
+
+        Alternation(List<TRegexNode> alternatives) {
+            this.alternatives = alternatives;
+        }
+
+        @Override
+        boolean isNullable() {
+            for (TRegexNode alternative : alternatives) {
+                if (alternative.isNullable()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        boolean hasGroups() {
+            for (TRegexNode alternative : alternatives) {
+                if (alternative.hasGroups()) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        @Override
+        void toJavaScript(StringBuilder sb) {
+            for (int i = 0; i < alternatives.size(); ++i) {
+                if (i > 0) {
+                    sb.append('|');
+                }
+                alternatives.get(i).toJavaScript(sb);
+            }
+        }
+
+        @Override
+        TRegexNode reverse() {
+            List<TRegexNode> reversed = new ArrayList<>(alternatives.size());
+            for (TRegexNode alternative : alternatives) {
+                reversed.add(alternative.reverse());
+            }
+            return new Alternation(reversed);
+        }
+
+        @Override
+        void collectBoundaries(List<int[]> sets) {
+            for (TRegexNode alternative : alternatives) {
+                alternative.collectBoundaries(sets);
+            }
+        }
+    }
+
+    static final class Repeat extends TRegexNode {
+        final TRegexNode body;
+        final int min;
+        /** Upper bound or -1 when unbounded. */
+        final int max;
+        final boolean greedy;
+
+        Repeat(TRegexNode body, int min, int max, boolean greedy) {
+            this.body = body;
+            this.min = min;
+            this.max = max;
+            this.greedy = greedy;
+        }
+
+        @Override
+        boolean isNullable() {
+            return min == 0 || body.isNullable();
+        }
+
+        @Override
+        boolean hasGroups() {
+            return body.hasGroups();
+        }
+
+        @Override
+        void toJavaScript(StringBuilder sb) {
+            if (body instanceof CharSet || body instanceof Group) {
+                body.toJavaScript(sb);
+            } else {
+                sb.append("(?:");
+                body.toJavaScript(sb);
+                sb.append(')');
+            }
+            if (min == 0 && max == -1) {
+                sb.append('*');
+            } else if (min == 1 && max == -1) {
+                sb.append('+');
+            } else if (min == 0 && max == 1) {
+                sb.append('?');
+            } else {
+                sb.append('{').append(min);
+                if (max != min) {
+                    sb.append(',');
+                    if (max >= 0) {
+                        sb.append(max);
+                    }
+                }
+                sb.append('}');
+            }
+            if (!greedy) {
+                sb.append('?');
+            }
+        }
+
+        @Override
+        TRegexNode reverse() {
+            return new Repeat(body.reverse(), min, max, greedy);
+        }
+
+        @Override
+        void collectBoundaries(List<int[]> sets) {
+            body.collectBoundaries(sets);
+        }
+    }
+
+    static final class Group extends TRegexNode {
+        final TRegexNode body;
+
+        Group(TRegexNode body) {
+            this.body = body;
+        }
+
+        @Override
+        boolean isNullable() {
+            return body.isNullable();
+        }
+
+        @Override
+        boolean hasGroups() {
+            return true;
+        }
+
+        @Override
+        void toJavaScript(StringBuilder sb) {
+            sb.append('(');
+            body.toJavaScript(sb);
+            sb.append(')');
+        }
+
+        @Override
+        TRegexNode reverse() {
+            return body.reverse();
+        }
+
+        @Override
+        void collectBoundaries(List<int[]> sets) {
+            body.collectBoundaries(sets);
+        }
+    }
+
+    static int[] union(int[] a, int[] b) {
+        int[] all = new int[a.length + b.length];
+        System.arraycopy(a, 0, all, 0, a.length);
+        System.arraycopy(b, 0, all, a.length, b.length);
+        return normalize(all, all.length);
+    }
+
+    static int[] complement(int[] ranges) {
+        int[] result = new int[ranges.length + 2];
+        int size = 0;
+        int next = 0;
+        for (int i = 0; i < ranges.length; i += 2) {
+            if (ranges[i] > next) {
+                result[size++] = next;
+                result[size++] = ranges[i] - 1;
+            }
+            next = ranges[i + 1] + 1;
+        }
+        if (next <= MAX_CODE_POINT) {
+            result[size++] = next;
+            result[size++] = MAX_CODE_POINT;
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Sorts pairs of bounds and merges the ones that overlap or touch.
+     */
+    static int[] normalize(int[] ranges, int length) {
+        int count = length / 2;
+        long[] packed = new long[count];
+        for (int i = 0; i < count; ++i) {
+            packed[i] = ((long) ranges[i * 2] << 32) | ranges[i * 2 + 1];
+        }
+        Arrays.sort(packed);
+        int[] result = new int[length];
+        int size = 0;
+        for (long range : packed) {
+            int from = (int) (range >>> 32);
+            int to = (int) range;
+            if (size > 0 && from <= result[size - 1] + 1) {
+                result[size - 1] = Math.max(result[size - 1], to);
+            } else {
+                result[size++] = from;
+                result[size++] = to;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+}
@@ -0,0 +1,440 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.regex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * <p>Parses the subset of pattern syntax that can be matched by {@link TRegexEngine}: literals, <code>.</code>,
+ * character classes without nesting and intersection, <code>\d \s \w</code> and their negations, groups,
+ * alternation, greedy and reluctant quantifiers, <code>\Q...\E</code>, <code>^</code> at the very beginning and
+ * <code>$</code> at the very end of the pattern. Supported flags are {@link TPattern#DOTALL},
+ * {@link TPattern#UNIX_LINES} and {@link TPattern#LITERAL}.</p>
+ *
+ * <p>Anything else, including constructs whose meaning differs between this implementation and
+ * JavaScript, makes {@link #parse()} return <code>false</code>, and the pattern is left to the interpreter.
+ * The pattern is expected to be already validated by {@link TPattern}.</p>
+ */
+final class TRegexParser {
+    private static final int MAX_REPEAT = 1000;
+    private static final int[] DIGIT = { '0', '9' };
+    private static final int[] SPACE = { 9, 13, ' ', ' ' };
+    private static final int[] WORD = { '0', '9', 'A', 'Z', '_', '_', 'a', 'z' };
+    private static final int[] LINE_TERMINATORS = { '\n', '\n', '\r', '\r', 0x85, 0x85, 0x2028, 0x2029 };
+    private static final int[] UNIX_LINE_TERMINATORS = { '\n', '\n' };
+    private final String pattern;
+    private final int flags;
+    private int index;
+    private int depth;
+    TRegexNode root;
+    boolean startAnchor;
+    boolean endAnchor;
+    int groupCount;
+    boolean groupsInRepeat;
+
+    TRegexParser(String pattern, int flags) {
+        this.pattern = pattern;
+        this.flags = flags;
+    }
+
+    boolean parse() {
+        if ((flags & ~(TPattern.DOTALL | TPattern.UNIX_LINES | TPattern.LITERAL)) != 0) {
+            return false;
+        }
+        try {
+            if ((flags & TPattern.LITERAL) != 0) {
+                List<TRegexNode> items = new ArrayList<>();
+                while (index < pattern.length()) {
+                    items.add(single(nextCodePoint()));
+                }
+                root = new TRegexNode.Sequence(items);
+                return true;
+            }
+            if (index < pattern.length() && pattern.charAt(index) == '^') {
+                startAnchor = true;
+                index++;
+            }
+            root = parseAlternation();
+            if (index < pattern.length()) {
+                return false;
+            }
+            if ((startAnchor || endAnchor) && root instanceof TRegexNode.Alternation) {
+                return false;
+            }
+            return true;
+        } catch (UnsupportedSyntaxException e) {
+            return false;
+        }
+    }
+
+    private TRegexNode parseAlternation() {
+        TRegexNode first = parseSequence();
+        if (index == pattern.length() || pattern.charAt(index) != '|') {
+            return first;
+        }
+        List<TRegexNode> alternatives = new ArrayList<>();
+        alternatives.add(first);
+        while (index < pattern.length() && pattern.charAt(index) == '|') {
+            index++;
+            alternatives.add(parseSequence());
+        }
+        return new TRegexNode.Alternation(alternatives);
+    }
+
+    private TRegexNode parseSequence() {
+        List<TRegexNode> items = new ArrayList<>();
+        while (index < pattern.length()) {
+            char c = pattern.charAt(index);
+            if (c == '|' || c == ')') {
+                break;
+            }
+            if (c == '$' && depth == 0 && index == pattern.length() - 1) {
+                if ((flags & TPattern.UNIX_LINES) != 0) {
+                    unsupported();
+                }
+                endAnchor = true;
+                index++;
+                break;
+            }
+            if (c == '\\' && index + 1 < pattern.length() && pattern.charAt(index + 1) == 'Q') {
+                parseQuotation(items);
+                continue;
+            }
+            items.add(parseQuantifier(parseAtom()));
+        }
+        return items.size() == 1 ? items.get(0) : new TRegexNode.Sequence(items);
+    }
+
+    private void parseQuotation(List<TRegexNode> items) {
+        index += 2;
+        int end = pattern.indexOf("\\E", index);
+        if (end < 0) {
+            end = pattern.length();
+        }
+        while (index < end) {
+            items.add(single(nextCodePoint()));
+        }
+        index = Math.min(end + 2, pattern.length());
+    }
+
+    private TRegexNode parseQuantifier(TRegexNode atom) {
+        if (index == pattern.length()) {
+            return atom;
+        }
+        int min;
+        int max;
+        switch (pattern.charAt(index)) {
+            case '*':
+                min = 0;
+                max = -1;
+                index++;
+                break;
+            case '+':
+                min = 1;
+                max = -1;
+                index++;
+                break;
+            case '?':
+                min = 0;
+                max = 1;
+                index++;
+                break;
+            case '{': {
+                // counted repetition of groups is not always handled by the interpreter the way Java does
+                if (!(atom instanceof TRegexNode.CharSet)) {
+                    unsupported();
+                }
+                index++;
+                min = parseNumber();
+                max = min;
+                if (index < pattern.length() && pattern.charAt(index) == ',') {
+                    index++;
+                    max = index < pattern.length() && pattern.charAt(index) == '}' ? -1 : parseNumber();
+                }
+                expect('}');
+                if (max >= 0 && max < min) {
+                    unsupported();
+                }
+                break;
+            }
+            default:
+                return atom;
+        }
+        boolean greedy = true;
+        if (index < pattern.length()) {
+            char c = pattern.charAt(index);
+            if (c == '?') {
+                // reluctant braces are interpreted differently from other reluctant quantifiers
+                if (pattern.charAt(index - 1) == '}') {
+                    unsupported();
+                }
+                greedy = false;
+                index++;
+            } else if (c == '+') {
+                unsupported();
+            }
+        }
+        if (index < pattern.length() && "*+?{".indexOf(pattern.charAt(index)) >= 0) {
+            unsupported();
+        }
+
+        // JavaScript rejects empty iterations beyond the minimum count, the interpreter does not
+        if (min != max && atom.isNullable()) {
+            unsupported();
+        }
+        if (max != 1 && atom.hasGroups()) {
+            groupsInRepeat = true;
+        }
+        return new TRegexNode.Repeat(atom, min, max, greedy);
+    }
+
+    private int parseNumber() {
+        int start = index;
+        int result = 0;
+        while (index < pattern.length() && pattern.charAt(index) >= '0' && pattern.charAt(index) <= '9') {
+            result = result * 10 + (pattern.charAt(index++) - '0');
+            if (result > MAX_REPEAT) {
+                unsupported();
+            }
+        }
+        if (index == start) {
+            unsupported();
+        }
+        return result;
+    }
+
+    private TRegexNode parseAtom() {
+        char c = pattern.charAt(index);
+        switch (c) {
+            case '(': {
+                index++;
+                boolean capturing = true;
+                if (index < pattern.length() && pattern.charAt(index) == '?') {
+                    if (index + 1 < pattern.length() && pattern.charAt(index + 1) == ':') {
+                        capturing = false;
+                        index += 2;
+                    } else {
+                        unsupported();
+                    }
+                }
+                if (capturing) {
+                    groupCount++;
+                }
+                depth++;
+                TRegexNode body = parseAlternation();
+                depth--;
+                expect(')');
+                return capturing ? new TRegexNode.Group(body) : body;
+            }
+            case '.':
+                index++;
+                if ((flags & TPattern.DOTALL) != 0) {
+                    return new TRegexNode.CharSet(new int[] { 0, TRegexNode.MAX_CODE_POINT });
+                }
+                return new TRegexNode.CharSet(TRegexNode.complement((flags & TPattern.UNIX_LINES) != 0
+                        ? UNIX_LINE_TERMINATORS : LINE_TERMINATORS));
+            case '[':
+                index++;
+                return new TRegexNode.CharSet(parseClass());
+            case '\\': {
+                index++;
+                int[] predefined = parsePredefinedClass();
+                if (predefined != null) {
+                    return new TRegexNode.CharSet(predefined);
+                }
+                return single(parseEscape());
+            }
+            case '^':
+            case '$':
+            case '*':
+            case '+':
+            case '?':
+            case '{':
+                unsupported();
+                return null;
+            default:
+                return single(nextCodePoint());
+        }
+    }
+
+    private int[] parseClass() {
+        boolean negative = false;
+        if (index < pattern.length() && pattern.charAt(index) == '^') {
+            negative = true;
+            index++;
+        }
+        if (index < pattern.length() && pattern.charAt(index) == ']') {
+            unsupported();
+        }
+        int[] ranges = new int[0];
+        while (true) {
+            if (index == pattern.length()) {
+                unsupported();
+            }
+            char c = pattern.charAt(index);
+            if (c == ']') {
+                index++;
+                break;
+            }
+            if (c == '[' || c == '&' && index + 1 < pattern.length() && pattern.charAt(index + 1) == '&') {
+                unsupported();
+            }
+            int from;
+            if (c == '\\') {
+                index++;
+                int[] predefined = parsePredefinedClass();
+                if (predefined != null) {
+                    if (index < pattern.length() && pattern.charAt(index) == '-'
+                            && index + 1 < pattern.length() && pattern.charAt(index + 1) != ']') {
+                        unsupported();
+                    }
+                    ranges = TRegexNode.union(ranges, predefined);
+                    continue;
+                }
+                from = parseEscape();
+            } else {
+                from = nextCodePoint();
+            }
+            int to = from;
+            if (index + 1 < pattern.length() && pattern.charAt(index) == '-' && pattern.charAt(index + 1) != ']') {
+                index++;
+                c = pattern.charAt(index);
+                if (c == '[') {
+                    unsupported();
+                }
+                if (c == '\\') {
+                    index++;
+                    to = parseEscape();
+                } else {
+                    to = nextCodePoint();
+                }
+                if (to < from) {
+                    unsupported();
+                }
+            }
+            checkNotSurrogate(from);
+            checkNotSurrogate(to);
+            ranges = TRegexNode.union(ranges, new int[] { from, to });
+        }
+        return negative ? TRegexNode.complement(ranges) : ranges;
+    }
+
+    private int[] parsePredefinedClass() {
+        if (index == pattern.length()) {
+            unsupported();
+        }
+        int[] ranges;
+        switch (pattern.charAt(index)) {
+            case 'd':
+            case 'D':
+                ranges = DIGIT;
+                break;
+            case 's':
+            case 'S':
+                ranges = SPACE;
+                break;
+            case 'w':
+            case 'W':
+                ranges = WORD;
+                break;
+            default:
+                return null;
+        }
+        boolean negative = Character.isUpperCase(pattern.charAt(index));
+        index++;
+        return negative ? TRegexNode.complement(ranges) : ranges;
+    }
+
+    private int parseEscape() {
+        if (index == pattern.length()) {
+            unsupported();
+        }
+        char c = pattern.charAt(index++);
+        switch (c) {
+            case 't':
+                return '\t';
+            case 'n':
+                return '\n';
+            case 'r':
+                return '\r';
+            case 'f':
+                return '\f';
+            case 'a':
+                return 7;
+            case 'e':
+                return 27;
+            case 'x':
+                return parseHex(2);
+            case 'u':
+                return parseHex(4);
+            default:
+                if (c < 128 && Character.isLetterOrDigit(c)) {
+                    unsupported();
+                }
+                index--;
+                return nextCodePoint();
+        }
+    }
+
+    private int parseHex(int length) {
+        if (index + length > pattern.length()) {
+            unsupported();
+        }
+        int result = 0;
+        for (int i = 0; i < length; ++i) {
+            int digit = Character.digit(pattern.charAt(index++), 16);
+            if (digit < 0) {
+                unsupported();
+            }
+            result = result * 16 + digit;
+        }
+        checkNotSurrogate(result);
+        return result;
+    }
+
+    private int nextCodePoint() {
+        int codePoint = pattern.codePointAt(index);
+        index += Character.charCount(codePoint);
+        checkNotSurrogate(codePoint);
+        return codePoint;
+    }
+
+    private static TRegexNode single(int codePoint) {
+        return new TRegexNode.CharSet(new int[] { codePoint, codePoint });
+    }
+
+    private void expect(char c) {
+        if (index == pattern.length() || pattern.charAt(index) != c) {
+            unsupported();
+        }
+        index++;
+    }
+
+    private static void checkNotSurrogate(int codePoint) {
+        // the interpreter treats lone surrogates in patterns specially
+        if (codePoint >= Character.MIN_SURROGATE && codePoint <= Character.MAX_SURROGATE) {
+            unsupported();
+        }
+    }
+
+    private static void unsupported() {
+        throw new UnsupportedSyntaxException();
+    }
+
+    static class UnsupportedSyntaxException extends RuntimeException {
+    }
+}
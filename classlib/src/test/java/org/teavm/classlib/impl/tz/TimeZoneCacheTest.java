@@ -0,0 +1,68 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.impl.tz;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.Test;
+
+public class TimeZoneCacheTest {
+    private static final int ONE_HOUR = 3600000;
+
+    @Test
+    public void readsDataAsIs() throws IOException {
+        byte[] data = writeZones();
+        Map<String, String> zones = new TimeZoneCache().readData(new ByteArrayInputStream(data));
+
+        assertEquals(Arrays.asList("Etc/Alias", "Etc/Plus3", "Etc/Minus5"), Arrays.asList(
+                zones.keySet().toArray()));
+        FixedDateTimeZone plus3 = new FixedDateTimeZone("Etc/Plus3", 3 * ONE_HOUR, 3 * ONE_HOUR);
+        assertEquals(encode(plus3), zones.get("Etc/Plus3"));
+        assertEquals(encode(new AliasDateTimeZone("Etc/Alias", plus3)), zones.get("Etc/Alias"));
+    }
+
+    @Test
+    public void resolvesAliases() throws IOException {
+        byte[] data = writeZones();
+        Map<String, StorableDateTimeZone> zones = new TimeZoneCache().read(new ByteArrayInputStream(data));
+
+        assertEquals(3, zones.size());
+        StorableDateTimeZone plus3 = zones.get("Etc/Plus3");
+        assertEquals("Etc/Plus3", plus3.getID());
+        assertEquals(3 * ONE_HOUR, plus3.getOffset(0));
+        assertEquals(-5 * ONE_HOUR, zones.get("Etc/Minus5").getOffset(0));
+        assertSame(plus3, zones.get("Etc/Alias"));
+    }
+
+    private static byte[] writeZones() throws IOException {
+        FixedDateTimeZone plus3 = new FixedDateTimeZone("Etc/Plus3", 3 * ONE_HOUR, 3 * ONE_HOUR);
+        FixedDateTimeZone minus5 = new FixedDateTimeZone("Etc/Minus5", -5 * ONE_HOUR, -5 * ONE_HOUR);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new TimeZoneCache().write(output, Arrays.asList(new AliasDateTimeZone("Etc/Alias", plus3), plus3, minus5));
+        return output.toByteArray();
+    }
+
+    private static String encode(StorableDateTimeZone timeZone) {
+        StringBuilder sb = new StringBuilder();
+        timeZone.write(sb);
+        return sb.toString();
+    }
+}
@@ -102,11 +102,16 @@ public class CTarget implements TeaVMTarget {
     private ClassInitializerTransformer classInitializerTransformer;
     private ShadowStackTransformer shadowStackTransformer;
     private int minHeapSize = 32 * 1024 * 1024;
+    private boolean gcStatisticsCollected;
 
     public void setMinHeapSize(int minHeapSize) {
         this.minHeapSize = minHeapSize;
     }
 
+    public void setGCStatisticsCollected(boolean gcStatisticsCollected) {
+        this.gcStatisticsCollected = gcStatisticsCollected;
+    }
+
     @Override
     public List<ClassHolderTransformer> getTransformers() {
         List<ClassHolderTransformer> transformers = new ArrayList<>();
@@ -399,6 +404,9 @@ public class CTarget implements TeaVMTarget {
 
     @Override
     public String[] getPlatformTags() {
+        if (gcStatisticsCollected) {
+            return new String[] { PlatformMarkers.C, PlatformMarkers.WEBASSEMBLY, PlatformMarkers.GC_STATISTICS };
+        }
         return new String[] { PlatformMarkers.C, PlatformMarkers.WEBASSEMBLY };
     }
 }
@@ -16,8 +16,10 @@
 package org.teavm.backend.c.intrinsic;
 
 import org.teavm.ast.InvocationExpr;
+import org.teavm.backend.c.generate.CodeWriter;
 import org.teavm.interop.Address;
 import org.teavm.model.MethodReference;
+import org.teavm.model.ValueType;
 
 public class AddressIntrinsic implements Intrinsic {
     @Override
@@ -33,6 +35,7 @@ public class AddressIntrinsic implements Intrinsic {
             case "toLong":
             case "toStructure":
             case "ofObject":
+            case "ofData":
 
             case "getByte":
             case "getShort":
@@ -85,6 +88,13 @@ public class AddressIntrinsic implements Intrinsic {
             case "ofObject":
                 context.emit(invocation.getArguments().get(0));
                 break;
+            case "ofData": {
+                ValueType itemType = ((ValueType.Array) invocation.getMethod().parameterType(0)).getItemType();
+                context.writer().print("ARRAY_DATA(");
+                context.emit(invocation.getArguments().get(0));
+                context.writer().print(", ").print(CodeWriter.strictTypeAsString(itemType)).print(")");
+                break;
+            }
 
             case "getByte":
                 context.writer().print("((int32_t) *(int8_t*) ");
@@ -0,0 +1,29 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript;
+
+public enum JSModuleType {
+    /**
+     * Generated code is a plain script that declares entry points as global variables.
+     */
+    NONE,
+
+    /**
+     * Generated code is an ES2015 module that exports entry points. Runtime should be merged
+     * into the module, since the module can't expose its functions to a separate runtime script.
+     */
+    ES2015
+}
@@ -57,6 +57,7 @@ import org.teavm.model.ClassHolder;
 import org.teavm.model.ClassHolderTransformer;
 import org.teavm.model.ClassReaderSource;
 import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldReference;
 import org.teavm.model.ListableClassHolderSource;
 import org.teavm.model.ListableClassReaderSource;
 import org.teavm.model.MethodHolder;
@@ -85,6 +86,8 @@ import org.teavm.vm.spi.TeaVMHostExtension;
 public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
     private TeaVMTargetController controller;
     private boolean minifying = true;
+    private JSModuleType moduleType = JSModuleType.NONE;
+    private boolean flatObjectLayout;
     private final Map<MethodReference, Generator> methodGenerators = new HashMap<>();
     private final Map<MethodReference, Injector> methodInjectors = new HashMap<>();
     private final List<Function<ProviderContext, Generator>> generatorProviders = new ArrayList<>();
@@ -157,6 +160,34 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         this.minifying = minifying;
     }
 
+    public JSModuleType getModuleType() {
+        return moduleType;
+    }
+
+    /**
+     * Specifies what kind of module generated code represents.
+     *
+     * @see JSModuleType
+     * @param moduleType module type.
+     */
+    public void setModuleType(JSModuleType moduleType) {
+        this.moduleType = moduleType;
+    }
+
+    public boolean isFlatObjectLayout() {
+        return flatObjectLayout;
+    }
+
+    /**
+     * Specifies whether constructors should initialize all fields of an object, including inherited ones,
+     * instead of delegating to constructors of superclasses.
+     *
+     * @param flatObjectLayout whether TeaVM should produce flat constructors.
+     */
+    public void setFlatObjectLayout(boolean flatObjectLayout) {
+        this.flatObjectLayout = flatObjectLayout;
+    }
+
     public MethodNodeCache getAstCache() {
         return astCache;
     }
@@ -189,8 +220,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
                 ValueType.object("org.teavm.platform.PlatformClass"), ValueType.parse(Class.class)), null).use();
         dependencyAnalyzer.linkMethod(new MethodReference(String.class, "<init>", char[].class, void.class),
                 null).use();
-        dependencyAnalyzer.linkMethod(new MethodReference(String.class, "getChars", int.class, int.class, char[].class,
-                int.class, void.class), null).use();
+        dependencyAnalyzer.linkField(new FieldReference(String.class.getName(), "characters"), null);
 
         MethodDependency internDep = dependencyAnalyzer.linkMethod(new MethodReference(String.class, "intern",
                 String.class), null);
@@ -259,6 +289,7 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
                 controller.getDiagnostics(), renderingContext);
         renderer.setProperties(controller.getProperties());
         renderer.setMinifying(minifying);
+        renderer.setFlatObjectLayout(flatObjectLayout);
         if (debugEmitter != null) {
             for (String className : classes.getClassNames()) {
                 ClassHolder cls = classes.get(className);
@@ -293,6 +324,9 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
                 sourceWriter.append(naming.getFullNameFor(ref));
                 sourceWriter.append(";").newLine();
             }
+            if (moduleType == JSModuleType.ES2015) {
+                renderModuleExports(sourceWriter);
+            }
             for (RendererListener listener : rendererListeners) {
                 listener.complete();
             }
@@ -301,6 +335,22 @@ public class JavaScriptTarget implements TeaVMTarget, TeaVMJavaScriptHost {
         }
     }
 
+    private void renderModuleExports(SourceWriter writer) throws IOException {
+        if (controller.getEntryPoints().isEmpty()) {
+            return;
+        }
+        writer.append("export").ws().append("{").ws();
+        boolean first = true;
+        for (String name : controller.getEntryPoints().keySet()) {
+            if (!first) {
+                writer.append(",").ws();
+            }
+            first = false;
+            writer.append(name);
+        }
+        writer.ws().append("};").newLine();
+    }
+
     private List<ClassNode> modelToAst(ListableClassHolderSource classes) {
         AsyncMethodFinder asyncFinder = new AsyncMethodFinder(controller.getDependencyInfo().getCallGraph(),
                 controller.getDiagnostics());
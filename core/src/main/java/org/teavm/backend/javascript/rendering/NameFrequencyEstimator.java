@@ -44,6 +44,7 @@ import org.teavm.backend.javascript.codegen.NameFrequencyConsumer;
 import org.teavm.model.ClassReader;
 import org.teavm.model.ClassReaderSource;
 import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldReader;
 import org.teavm.model.FieldReference;
 import org.teavm.model.MethodDescriptor;
 import org.teavm.model.MethodReader;
@@ -56,6 +57,7 @@ class NameFrequencyEstimator extends RecursiveVisitor implements MethodNodeVisit
     private boolean async;
     private final Set<MethodReference> injectedMethods;
     private final Set<MethodReference> asyncFamilyMethods;
+    private boolean flatObjectLayout;
 
     NameFrequencyEstimator(NameFrequencyConsumer consumer, ClassReaderSource classSource,
             Set<MethodReference> injectedMethods, Set<MethodReference> asyncFamilyMethods) {
@@ -65,6 +67,10 @@ class NameFrequencyEstimator extends RecursiveVisitor implements MethodNodeVisit
         this.asyncFamilyMethods = asyncFamilyMethods;
     }
 
+    public void setFlatObjectLayout(boolean flatObjectLayout) {
+        this.flatObjectLayout = flatObjectLayout;
+    }
+
     public void estimate(ClassNode cls) {
         // Declaration
         consumer.consume(cls.getName());
@@ -77,6 +83,22 @@ class NameFrequencyEstimator extends RecursiveVisitor implements MethodNodeVisit
                 consumer.consume(cls.getName());
             }
         }
+        if (flatObjectLayout) {
+            // Constructor initializes fields of all superclasses
+            String ancestorName = cls.getParentName();
+            while (ancestorName != null) {
+                ClassReader ancestor = classSource.get(ancestorName);
+                if (ancestor == null) {
+                    break;
+                }
+                for (FieldReader field : ancestor.getFields()) {
+                    if (!field.hasModifier(ElementModifier.STATIC)) {
+                        consumer.consume(field.getReference());
+                    }
+                }
+                ancestorName = ancestor.getParent();
+            }
+        }
 
         // Methods
         MethodReader clinit = classSource.get(cls.getName()).getMethod(
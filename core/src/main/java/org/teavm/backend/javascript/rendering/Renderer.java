@@ -17,6 +17,7 @@ package org.teavm.backend.javascript.rendering;
 
 import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
@@ -43,6 +44,7 @@ import org.teavm.diagnostics.Diagnostics;
 import org.teavm.model.ClassReader;
 import org.teavm.model.ClassReaderSource;
 import org.teavm.model.ElementModifier;
+import org.teavm.model.FieldReader;
 import org.teavm.model.FieldReference;
 import org.teavm.model.ListableClassReaderSource;
 import org.teavm.model.MethodDescriptor;
@@ -52,11 +54,13 @@ import org.teavm.model.ValueType;
 import org.teavm.vm.RenderingException;
 
 public class Renderer implements RenderingManager {
+    private static final FieldReference STRING_CHARACTERS = new FieldReference(String.class.getName(), "characters");
     private final NamingStrategy naming;
     private final SourceWriter writer;
     private final ListableClassReaderSource classSource;
     private final ClassLoader classLoader;
     private boolean minifying;
+    private boolean flatObjectLayout;
     private final Properties properties = new Properties();
     private final ServiceRepository services;
     private DebugInformationEmitter debugEmitter = new DummyDebugInformationEmitter();
@@ -98,6 +102,21 @@ public class Renderer implements RenderingManager {
         this.minifying = minifying;
     }
 
+    public boolean isFlatObjectLayout() {
+        return flatObjectLayout;
+    }
+
+    /**
+     * Specifies whether constructor of each class should initialize fields of the whole class hierarchy
+     * by itself instead of calling constructor of superclass. Objects get the same set of properties
+     * in the same order, but without a chain of calls, which engines don't always inline.
+     *
+     * @param flatObjectLayout whether constructors should be flattened.
+     */
+    public void setFlatObjectLayout(boolean flatObjectLayout) {
+        this.flatObjectLayout = flatObjectLayout;
+    }
+
     @Override
     public ListableClassReaderSource getClassSource() {
         return classSource;
@@ -191,7 +210,6 @@ public class Renderer implements RenderingManager {
     }
 
     private void renderRuntimeString() throws IOException {
-        MethodReference stringCons = new MethodReference(String.class, "<init>", char[].class, void.class);
         writer.append("function $rt_str(str) {").indent().softNewLine();
         writer.append("if (str === null) {").indent().softNewLine();
         writer.append("return null;").softNewLine();
@@ -201,25 +219,31 @@ public class Renderer implements RenderingManager {
         writer.append("for (var i = 0; i < str.length; i = (i + 1) | 0) {").indent().softNewLine();
         writer.append("charsBuffer[i] = str.charCodeAt(i) & 0xFFFF;").softNewLine();
         writer.outdent().append("}").softNewLine();
-        writer.append("return ").append(naming.getNameForInit(stringCons)).append("(characters);").softNewLine();
+        writer.append("var result = new ").appendClass("java.lang.String").append("();").softNewLine();
+        writer.append("result.").appendField(STRING_CHARACTERS).append(" = characters;").softNewLine();
+        writer.append("result.$str$ = str;").softNewLine();
+        writer.append("return result;").softNewLine();
         writer.outdent().append("}").newLine();
     }
 
     private void renderRuntimeUnwrapString() throws IOException {
-        MethodReference stringLen = new MethodReference(String.class, "length", int.class);
-        MethodReference getChars = new MethodReference(String.class, "getChars", int.class, int.class,
-                char[].class, int.class, void.class);
         writer.append("function $rt_ustr(str) {").indent().softNewLine();
         writer.append("if (str === null) {").indent().softNewLine();
         writer.append("return null;").softNewLine();
         writer.outdent().append("}").softNewLine();
-        writer.append("var result = \"\";").softNewLine();
-        writer.append("var sz = ").appendMethodBody(stringLen).append("(str);").softNewLine();
-        writer.append("var array = $rt_createCharArray(sz);").softNewLine();
-        writer.appendMethodBody(getChars).append("(str, 0, sz, array, 0);").softNewLine();
-        writer.append("for (var i = 0; i < sz; i = (i + 1) | 0) {").indent().softNewLine();
-        writer.append("result += String.fromCharCode(array.data[i]);").softNewLine();
+        writer.append("var result = str.$str$;").softNewLine();
+        writer.append("if (result !== null) {").indent().softNewLine();
+        writer.append("return result;").softNewLine();
         writer.outdent().append("}").softNewLine();
+        writer.append("var chars = str.").appendField(STRING_CHARACTERS).append(".data;").softNewLine();
+        writer.append("var sz = chars.length;").softNewLine();
+        writer.append("result = \"\";").softNewLine();
+        writer.append("for (var i = 0; i < sz; i = (i + 4096) | 0) {").indent().softNewLine();
+        writer.append("var end = Math.min(sz, (i + 4096) | 0);").softNewLine();
+        writer.append("result += String.fromCharCode.apply(null, chars.subarray ? chars.subarray(i, end) "
+                + ": chars.slice(i, end));").softNewLine();
+        writer.outdent().append("}").softNewLine();
+        writer.append("str.$str$ = result;").softNewLine();
         writer.append("return result;").softNewLine();
         writer.outdent().append("}").newLine();
     }
@@ -277,6 +301,7 @@ public class Renderer implements RenderingManager {
             NamingOrderer orderer = new NamingOrderer();
             NameFrequencyEstimator estimator = new NameFrequencyEstimator(orderer, classSource, asyncMethods,
                     asyncFamilyMethods);
+            estimator.setFlatObjectLayout(flatObjectLayout);
             for (ClassNode cls : classes) {
                 estimator.estimate(cls);
             }
@@ -312,13 +337,37 @@ public class Renderer implements RenderingManager {
                     nonStaticFields.add(field);
                 }
             }
-            if (nonStaticFields.size() > 1) {
+            List<ClassReader> ancestors = flatObjectLayout && cls.getParentName() != null
+                    ? getAncestors(cls.getParentName())
+                    : Collections.emptyList();
+            int assignmentCount = nonStaticFields.size();
+            for (ClassReader ancestor : ancestors) {
+                assignmentCount += getInstanceFields(ancestor).size();
+                if (ancestor.getName().equals("java.lang.Object")) {
+                    assignmentCount++;
+                }
+            }
+            if (assignmentCount > 1) {
                 thisAliased = true;
                 writer.append("var a").ws().append("=").ws().append("this;").ws();
             }
-            if (cls.getParentName() != null) {
-                writer.appendClass(cls.getParentName()).append(".call(").append(thisAliased ? "a" : "this")
-                        .append(");").softNewLine();
+            String self = thisAliased ? "a" : "this";
+            if (flatObjectLayout) {
+                for (ClassReader ancestor : ancestors) {
+                    for (FieldReader field : getInstanceFields(ancestor)) {
+                        Object value = field.getInitialValue();
+                        if (value == null) {
+                            value = getDefaultValue(field.getType());
+                        }
+                        writer.append(self).append(".").appendField(field.getReference()).ws()
+                                .append("=").ws().append(context.constantToString(value)).append(";").softNewLine();
+                    }
+                    if (ancestor.getName().equals("java.lang.Object")) {
+                        writer.append(self).append(".$id$").ws().append('=').ws().append("0;").softNewLine();
+                    }
+                }
+            } else if (cls.getParentName() != null) {
+                writer.appendClass(cls.getParentName()).append(".call(").append(self).append(");").softNewLine();
             }
             for (FieldNode field : nonStaticFields) {
                 Object value = field.getInitialValue();
@@ -334,6 +383,9 @@ public class Renderer implements RenderingManager {
             if (cls.getName().equals("java.lang.Object")) {
                 writer.append("this.$id$").ws().append('=').ws().append("0;").softNewLine();
             }
+            if (cls.getName().equals("java.lang.String")) {
+                writer.append(self).append(".$str$").ws().append('=').ws().append("null;").softNewLine();
+            }
 
             writer.outdent().append("}").newLine();
 
@@ -358,6 +410,30 @@ public class Renderer implements RenderingManager {
         }
     }
 
+    private List<ClassReader> getAncestors(String className) {
+        List<ClassReader> ancestors = new ArrayList<>();
+        while (className != null) {
+            ClassReader cls = classSource.get(className);
+            if (cls == null) {
+                break;
+            }
+            ancestors.add(cls);
+            className = cls.getParent();
+        }
+        Collections.reverse(ancestors);
+        return ancestors;
+    }
+
+    private static List<FieldReader> getInstanceFields(ClassReader cls) {
+        List<FieldReader> fields = new ArrayList<>();
+        for (FieldReader field : cls.getFields()) {
+            if (!field.hasModifier(ElementModifier.STATIC)) {
+                fields.add(field);
+            }
+        }
+        return fields;
+    }
+
     private void renderMethodBodies(ClassNode cls) throws RenderingException {
         debugEmitter.emitClass(cls.getName());
         try {
@@ -0,0 +1,260 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Splits JavaScript runtime (<code>runtime.js</code>) into top-level units (function declarations,
+ * variable declarations, prototype assignments and so forth) and renders only those units that are
+ * reachable from a given set of identifiers.</p>
+ *
+ * <p>Each unit is owned by names it declares or assigns at top level. A unit is rendered when any of its
+ * owners is reachable. Names referenced by a rendered unit become reachable as well.
+ * Units that neither declare nor assign anything (like <code>"use strict"</code> or comments)
+ * are always rendered.</p>
+ */
+public class RuntimeRenderer {
+    public static final String RUNTIME_RESOURCE = "org/teavm/backend/javascript/runtime.js";
+    private static final Pattern DECLARATION = Pattern.compile("^(?:function\\s+|var\\s+)([\\w$]+)");
+    private static final Pattern ASSIGNMENT = Pattern.compile("^\\s*([\\w$]+)(?:\\.[\\w$]+)*\\s*=[^=]");
+
+    private final List<Unit> units = new ArrayList<>();
+    private final Map<String, List<Unit>> unitsByOwner = new HashMap<>();
+    private final Set<String> reachableNames = new HashSet<>();
+    private final Set<Unit> reachableUnits = new HashSet<>();
+    private final Queue<String> queue = new ArrayDeque<>();
+
+    public RuntimeRenderer(Reader reader) throws IOException {
+        parse(new BufferedReader(reader));
+    }
+
+    public static RuntimeRenderer load(ClassLoader classLoader) throws IOException {
+        try (InputStream input = classLoader.getResourceAsStream(RUNTIME_RESOURCE)) {
+            if (input == null) {
+                throw new IOException("Resource not found: " + RUNTIME_RESOURCE);
+            }
+            return new RuntimeRenderer(new InputStreamReader(input, StandardCharsets.UTF_8));
+        }
+    }
+
+    private void parse(BufferedReader reader) throws IOException {
+        Unit current = null;
+        boolean inComment = false;
+        List<String> pendingComments = new ArrayList<>();
+        while (true) {
+            String line = reader.readLine();
+            if (line == null) {
+                break;
+            }
+            if (!inComment && line.startsWith("//")) {
+                pendingComments.add(line);
+                continue;
+            }
+            if (!inComment && isUnitStart(line)) {
+                current = new Unit();
+                current.lines.addAll(pendingComments);
+                current.firstCodeLine = pendingComments.size();
+                pendingComments.clear();
+                units.add(current);
+                Matcher matcher = DECLARATION.matcher(line);
+                if (matcher.find()) {
+                    current.owners.add(matcher.group(1));
+                }
+                inComment = line.startsWith("/*");
+            } else if (current == null) {
+                continue;
+            }
+            if (inComment && line.contains("*/")) {
+                inComment = false;
+            }
+            current.lines.add(line);
+        }
+        if (current != null) {
+            current.lines.addAll(pendingComments);
+        }
+
+        for (Unit unit : units) {
+            if (unit.owners.isEmpty()) {
+                collectAssignedNames(unit);
+            }
+            for (String owner : unit.owners) {
+                unitsByOwner.computeIfAbsent(owner, k -> new ArrayList<>()).add(unit);
+            }
+            for (String line : unit.lines) {
+                collectIdentifiers(line, unit.references);
+            }
+        }
+
+        for (Unit unit : units) {
+            if (unit.owners.isEmpty()) {
+                markReachable(unit);
+            }
+        }
+        propagate();
+    }
+
+    private static void collectAssignedNames(Unit unit) {
+        Matcher matcher = ASSIGNMENT.matcher(unit.lines.get(unit.firstCodeLine));
+        if (matcher.find()) {
+            unit.owners.add(matcher.group(1));
+            return;
+        }
+
+        // Unit is a statement like `if (...) { a = ...; } else { a = ...; }`,
+        // consider names assigned directly within its blocks
+        int depth = 0;
+        for (String line : unit.lines) {
+            if (depth == 1) {
+                matcher = ASSIGNMENT.matcher(line);
+                if (matcher.find()) {
+                    unit.owners.add(matcher.group(1));
+                }
+            }
+            for (int i = 0; i < line.length(); ++i) {
+                char c = line.charAt(i);
+                if (c == '{') {
+                    depth++;
+                } else if (c == '}') {
+                    depth--;
+                }
+            }
+        }
+    }
+
+    private static boolean isUnitStart(String line) {
+        if (line.isEmpty()) {
+            return false;
+        }
+        char c = line.charAt(0);
+        return !Character.isWhitespace(c) && c != '}' && c != ')';
+    }
+
+    public Set<String> getDeclaredNames() {
+        return unitsByOwner.keySet();
+    }
+
+    public boolean isReachable(String name) {
+        return reachableNames.contains(name);
+    }
+
+    public void addRoot(String name) {
+        if (unitsByOwner.containsKey(name) && reachableNames.add(name)) {
+            queue.add(name);
+            propagate();
+        }
+    }
+
+    public void addRootsWithPrefix(String prefix) {
+        for (String name : unitsByOwner.keySet().toArray(new String[0])) {
+            if (name.startsWith(prefix)) {
+                addRoot(name);
+            }
+        }
+    }
+
+    /**
+     * Marks as reachable all runtime names mentioned by the given code.
+     *
+     * @param code generated JavaScript code that is going to be run together with the runtime.
+     */
+    public void addRoots(CharSequence code) {
+        Set<String> identifiers = new HashSet<>();
+        collectIdentifiers(code, identifiers);
+        for (String identifier : identifiers) {
+            addRoot(identifier);
+        }
+    }
+
+    private void propagate() {
+        while (!queue.isEmpty()) {
+            String name = queue.remove();
+            for (Unit unit : unitsByOwner.get(name)) {
+                markReachable(unit);
+            }
+        }
+    }
+
+    private void markReachable(Unit unit) {
+        if (!reachableUnits.add(unit)) {
+            return;
+        }
+        for (String owner : unit.owners) {
+            if (reachableNames.add(owner)) {
+                queue.add(owner);
+            }
+        }
+        for (String reference : unit.references) {
+            if (unitsByOwner.containsKey(reference) && reachableNames.add(reference)) {
+                queue.add(reference);
+            }
+        }
+    }
+
+    public void render(Writer writer) throws IOException {
+        for (Unit unit : units) {
+            if (reachableUnits.contains(unit)) {
+                for (String line : unit.lines) {
+                    writer.write(line);
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+
+    private static void collectIdentifiers(CharSequence text, Set<String> identifiers) {
+        int i = 0;
+        int length = text.length();
+        while (i < length) {
+            char c = text.charAt(i);
+            if (Character.isJavaIdentifierStart(c)) {
+                int start = i++;
+                while (i < length && Character.isJavaIdentifierPart(text.charAt(i))) {
+                    ++i;
+                }
+                if (start == 0 || text.charAt(start - 1) != '.') {
+                    identifiers.add(text.subSequence(start, i).toString());
+                }
+            } else {
+                ++i;
+            }
+        }
+    }
+
+    static class Unit {
+        final List<String> lines = new ArrayList<>();
+        final Set<String> owners = new LinkedHashSet<>();
+        final Set<String> references = new HashSet<>();
+        int firstCodeLine;
+    }
+}
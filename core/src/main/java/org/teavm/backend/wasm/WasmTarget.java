@@ -138,6 +138,7 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
     private WasmBinaryVersion version = WasmBinaryVersion.V_0x1;
     private List<WasmIntrinsicFactory> additionalIntrinsics = new ArrayList<>();
     private int minHeapSize;
+    private boolean gcStatisticsCollected;
 
     @Override
     public void setController(TeaVMTargetController controller) {
@@ -214,6 +215,10 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
         this.minHeapSize = minHeapSize;
     }
 
+    public void setGCStatisticsCollected(boolean gcStatisticsCollected) {
+        this.gcStatisticsCollected = gcStatisticsCollected;
+    }
+
     @Override
     public void contributeDependencies(DependencyAnalyzer dependencyAnalyzer) {
         for (Class<?> type : Arrays.asList(int.class, long.class, float.class, double.class)) {
@@ -740,6 +745,10 @@ public class WasmTarget implements TeaVMTarget, TeaVMWasmHost {
 
     @Override
     public String[] getPlatformTags() {
+        if (gcStatisticsCollected) {
+            return new String[] { PlatformMarkers.WEBASSEMBLY, PlatformMarkers.LOW_LEVEL,
+                    PlatformMarkers.GC_STATISTICS };
+        }
         return new String[] { PlatformMarkers.WEBASSEMBLY, PlatformMarkers.LOW_LEVEL };
     }
 }
\ No newline at end of file
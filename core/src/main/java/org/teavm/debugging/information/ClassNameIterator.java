@@ -15,30 +15,34 @@
  */
 package org.teavm.debugging.information;
 
+import org.teavm.common.RecordArray;
+
 public class ClassNameIterator {
     private DebugInformation debugInformation;
+    private RecordArray classMapping;
     private int index;
 
     ClassNameIterator(DebugInformation debugInformation) {
         this.debugInformation = debugInformation;
+        classMapping = debugInformation.getClassMapping();
     }
 
     public boolean isEndReached() {
-        return index < debugInformation.classMapping.size();
+        return index < classMapping.size();
     }
 
     public GeneratedLocation getLocation() {
         if (isEndReached()) {
             throw new IllegalStateException("End already reached");
         }
-        return DebugInformation.key(debugInformation.classMapping.get(index));
+        return DebugInformation.key(classMapping.get(index));
     }
 
     public int getClassNameId() {
         if (isEndReached()) {
             throw new IllegalStateException("End already reached");
         }
-        return debugInformation.classMapping.get(index).get(2);
+        return classMapping.get(index).get(2);
     }
 
     public String getClassName() {
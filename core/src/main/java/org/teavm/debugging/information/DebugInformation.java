@@ -16,6 +16,9 @@
 package org.teavm.debugging.information;
 
 import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
 import org.teavm.common.IntegerArray;
 import org.teavm.common.RecordArray;
@@ -49,6 +52,10 @@ public class DebugInformation {
     List<ClassMetadata> classesMetadata;
     RecordArray methodEntrances;
     MethodTree methodTree;
+    IndexedDebugInformationReader index;
+    BitSet loadedVariableMappings;
+    BitSet loadedControlFlowGraphs;
+    BitSet loadedFileDescriptions;
 
     public String[] getFilesNames() {
         return fileNames.clone();
@@ -140,7 +147,7 @@ public class DebugInformation {
         if (fileIndex == null) {
             return Collections.emptyList();
         }
-        RecordArray description = fileIndex >= 0 ? fileDescriptions[fileIndex] : null;
+        RecordArray description = fileIndex >= 0 ? getFileDescription(fileIndex) : null;
         if (description == null) {
             return Collections.emptyList();
         }
@@ -170,18 +177,19 @@ public class DebugInformation {
     }
 
     public SourceLocation getSourceLocation(GeneratedLocation generatedLocation) {
-        String fileName = componentByKey(fileMapping, fileNames, generatedLocation);
+        String fileName = componentByKey(getFileMapping(), fileNames, generatedLocation);
+        RecordArray lineMapping = getLineMapping();
         int lineNumberIndex = indexByKey(lineMapping, generatedLocation);
         int lineNumber = lineNumberIndex >= 0 ? lineMapping.get(lineNumberIndex).get(2) : -1;
         return new SourceLocation(fileName, lineNumber);
     }
 
     public MethodReference getMethodAt(GeneratedLocation generatedLocation) {
-        String className = componentByKey(classMapping, classNames, generatedLocation);
+        String className = componentByKey(getClassMapping(), classNames, generatedLocation);
         if (className == null) {
             return null;
         }
-        String method = componentByKey(methodMapping, methods, generatedLocation);
+        String method = componentByKey(getMethodMapping(), methods, generatedLocation);
         if (method == null) {
             return null;
         }
@@ -201,7 +209,7 @@ public class DebugInformation {
         if (varIndex == null) {
             return new String[0];
         }
-        RecordArray mapping = variableMappings[varIndex];
+        RecordArray mapping = getVariableMapping(varIndex);
         if (mapping == null) {
             return new String[0];
         }
@@ -226,7 +234,7 @@ public class DebugInformation {
         if (fileIndex == null) {
             return null;
         }
-        RecordArray cfg = controlFlowGraphs[fileIndex];
+        RecordArray cfg = getControlFlowGraph(fileIndex);
         if (cfg == null) {
             return null;
         }
@@ -271,12 +279,12 @@ public class DebugInformation {
     }
 
     public DebuggerCallSite getCallSite(GeneratedLocation location) {
-        int keyIndex = indexByKey(callSiteMapping, location);
+        int keyIndex = indexByKey(getCallSiteMapping(), location);
         return keyIndex >= 0 ? getCallSite(keyIndex) : null;
     }
 
     private DebuggerCallSite getCallSite(int index) {
-        RecordArray.Record record = callSiteMapping.get(index);
+        RecordArray.Record record = getCallSiteMapping().get(index);
         int type = record.get(2);
         int method = record.get(3);
         switch (type) {
@@ -300,7 +308,7 @@ public class DebugInformation {
         if (index == null) {
             return new GeneratedLocation[0];
         }
-        int[] data = methodEntrances.get(index).getArray(0);
+        int[] data = getMethodEntrances().get(index).getArray(0);
         GeneratedLocation[] entrances = new GeneratedLocation[data.length / 2];
         for (int i = 0; i < entrances.length; ++i) {
             entrances[i] = new GeneratedLocation(data[i * 2], data[i * 2 + 1]);
@@ -313,6 +321,7 @@ public class DebugInformation {
         if (methodIndex == null) {
             return new MethodReference[0];
         }
+        MethodTree methodTree = getMethodTree();
         int start = methodTree.offsets[methodIndex];
         int end = methodTree.offsets[methodIndex + 1];
         MethodReference[] result = new MethodReference[end - start];
@@ -341,7 +350,7 @@ public class DebugInformation {
         if (fileIndex == null) {
             return new DebuggerCallSite[0];
         }
-        RecordArray mapping = lineCallSites[fileIndex];
+        RecordArray mapping = getLineCallSites()[fileIndex];
         if (location.getLine() >= mapping.size()) {
             return new DebuggerCallSite[0];
         }
@@ -354,10 +363,11 @@ public class DebugInformation {
     }
 
     public List<GeneratedLocation> getStatementStartLocations() {
-        return new LocationList(statementStartMapping);
+        return new LocationList(getStatementStartMapping());
     }
 
     public GeneratedLocation getStatementLocation(GeneratedLocation location) {
+        RecordArray statementStartMapping = getStatementStartMapping();
         int index = indexByKey(statementStartMapping, location);
         if (index < 0) {
             return new GeneratedLocation(0, 0);
@@ -367,6 +377,7 @@ public class DebugInformation {
     }
 
     public GeneratedLocation getNextStatementLocation(GeneratedLocation location) {
+        RecordArray statementStartMapping = getStatementStartMapping();
         int index = indexByKey(statementStartMapping, location);
         if (index >= statementStartMapping.size()) {
             return new GeneratedLocation(0, 0);
@@ -400,17 +411,141 @@ public class DebugInformation {
         new SourceMapsWriter(output).write(sourceFile, sourceRoot, this);
     }
 
+    /**
+     * Writes debug information in indexed format. Unlike {@link #write(OutputStream)}, this format allows
+     * to decode parts of debug information on demand, so that it's preferable for large programs.
+     */
+    public void writeIndexed(OutputStream output) throws IOException {
+        new IndexedDebugInformationWriter(output).write(this);
+    }
+
+    /**
+     * Reads debug information written either by {@link #write(OutputStream)} or by
+     * {@link #writeIndexed(OutputStream)}.
+     */
     public static DebugInformation read(InputStream input) throws IOException {
+        if (!input.markSupported()) {
+            input = new BufferedInputStream(input);
+        }
+        if (IndexedDebugInformationReader.isIndexed(input)) {
+            return new IndexedDebugInformationReader(IndexedDebugInformationReader.readFully(input)).read();
+        }
         DebugInformationReader reader = new DebugInformationReader(input);
         return reader.read();
     }
 
+    /**
+     * Reads debug information from a file. Indexed debug information is mapped into memory rather
+     * than read, so only those parts of it that are actually queried are ever decoded.
+     */
+    public static DebugInformation read(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            if (IndexedDebugInformationReader.isIndexed(buffer)) {
+                return new IndexedDebugInformationReader(buffer).read();
+            }
+        }
+        try (InputStream input = new BufferedInputStream(new FileInputStream(file))) {
+            return new DebugInformationReader(input).read();
+        }
+    }
+
     void rebuild() {
         rebuildMaps();
-        rebuildFileDescriptions();
-        rebuildEntrances();
-        rebuildMethodTree();
-        rebuildLineCallSites();
+    }
+
+    synchronized RecordArray getFileMapping() {
+        if (fileMapping == null) {
+            fileMapping = index.readMapping(IndexedDebugInformationReader.FILE_MAPPING);
+        }
+        return fileMapping;
+    }
+
+    synchronized RecordArray getLineMapping() {
+        if (lineMapping == null) {
+            lineMapping = index.readMapping(IndexedDebugInformationReader.LINE_MAPPING);
+        }
+        return lineMapping;
+    }
+
+    synchronized RecordArray getClassMapping() {
+        if (classMapping == null) {
+            classMapping = index.readMapping(IndexedDebugInformationReader.CLASS_MAPPING);
+        }
+        return classMapping;
+    }
+
+    synchronized RecordArray getMethodMapping() {
+        if (methodMapping == null) {
+            methodMapping = index.readMapping(IndexedDebugInformationReader.METHOD_MAPPING);
+        }
+        return methodMapping;
+    }
+
+    synchronized RecordArray getStatementStartMapping() {
+        if (statementStartMapping == null) {
+            statementStartMapping = index.readStatementStartMapping();
+        }
+        return statementStartMapping;
+    }
+
+    synchronized RecordArray getCallSiteMapping() {
+        if (callSiteMapping == null) {
+            callSiteMapping = index.readCallSiteMapping();
+        }
+        return callSiteMapping;
+    }
+
+    synchronized RecordArray getVariableMapping(int variableId) {
+        if (index != null && !loadedVariableMappings.get(variableId)) {
+            variableMappings[variableId] = index.readVariableMapping(variableId);
+            loadedVariableMappings.set(variableId);
+        }
+        return variableMappings[variableId];
+    }
+
+    synchronized RecordArray getControlFlowGraph(int fileId) {
+        if (index != null && !loadedControlFlowGraphs.get(fileId)) {
+            controlFlowGraphs[fileId] = index.readControlFlowGraph(fileId);
+            loadedControlFlowGraphs.set(fileId);
+        }
+        return controlFlowGraphs[fileId];
+    }
+
+    synchronized RecordArray getFileDescription(int fileId) {
+        if (fileDescriptions == null) {
+            if (index == null) {
+                rebuildFileDescriptions();
+            } else {
+                fileDescriptions = new RecordArray[fileNames.length];
+            }
+        }
+        if (index != null && !loadedFileDescriptions.get(fileId)) {
+            fileDescriptions[fileId] = index.readFileDescription(fileId);
+            loadedFileDescriptions.set(fileId);
+        }
+        return fileDescriptions[fileId];
+    }
+
+    private synchronized RecordArray getMethodEntrances() {
+        if (methodEntrances == null) {
+            rebuildEntrances();
+        }
+        return methodEntrances;
+    }
+
+    private synchronized MethodTree getMethodTree() {
+        if (methodTree == null) {
+            rebuildMethodTree();
+        }
+        return methodTree;
+    }
+
+    private synchronized RecordArray[] getLineCallSites() {
+        if (lineCallSites == null) {
+            rebuildLineCallSites();
+        }
+        return lineCallSites;
     }
 
     void rebuildMaps() {
@@ -464,6 +599,7 @@ public class DebugInformation {
         GeneratedLocation prevLocation = new GeneratedLocation(0, 0);
         MethodReference prevMethod = null;
         int prevMethodId = -1;
+        RecordArray lineMapping = getLineMapping();
         for (ExactMethodIterator iter = iterateOverExactMethods(); !iter.isEndReached(); iter.next()) {
             int id = iter.getExactMethodId();
             if (prevMethod != null) {
@@ -569,6 +705,9 @@ public class DebugInformation {
         for (int i = 0; i < lineCallSites.length; ++i) {
             builders[i] = new RecordArrayBuilder(0, 1);
         }
+        RecordArray callSiteMapping = getCallSiteMapping();
+        RecordArray lineMapping = getLineMapping();
+        RecordArray fileMapping = getFileMapping();
         for (int i = 0; i < callSiteMapping.size(); ++i) {
             RecordArray.Record callSiteRec = callSiteMapping.get(i);
             GeneratedLocation loc = key(callSiteRec);
@@ -63,7 +63,7 @@ class DebugInformationReader {
         return mappings;
     }
 
-    private List<DebugInformation.ClassMetadata> readClassesMetadata(int count) throws IOException {
+    List<DebugInformation.ClassMetadata> readClassesMetadata(int count) throws IOException {
         List<DebugInformation.ClassMetadata> classes = new ArrayList<>(count);
         for (int i = 0; i < count; ++i) {
             DebugInformation.ClassMetadata cls = new DebugInformation.ClassMetadata();
@@ -91,7 +91,7 @@ class DebugInformationReader {
         return cfgs;
     }
 
-    private RecordArray readCFG() throws IOException {
+    RecordArray readCFG() throws IOException {
         RecordArrayBuilder builder = new RecordArrayBuilder(1, 1);
         int size = readUnsignedNumber();
         for (int i = 0; i < size; ++i) {
@@ -134,13 +134,34 @@ class DebugInformationReader {
         return builder.build();
     }
 
+    RecordArray readLocationArrays() throws IOException {
+        RecordArrayBuilder builder = new RecordArrayBuilder(0, 1);
+        int size = readUnsignedNumber();
+        for (int i = 0; i < size; ++i) {
+            builder.add();
+        }
+        int[] sizes = readRle(size);
+        int lastLine = 0;
+        int lastColumn = 0;
+        for (int i = 0; i < size; ++i) {
+            RecordArrayBuilder.SubArray array = builder.get(i).getArray(0);
+            for (int j = 0; j < sizes[i]; ++j) {
+                lastLine += readNumber();
+                lastColumn += readNumber();
+                array.add(lastLine);
+                array.add(lastColumn);
+            }
+        }
+        return builder.build();
+    }
+
     private int processSign(int number) {
         boolean negative = (number & 1) != 0;
         number >>>= 1;
         return !negative ? number : -number;
     }
 
-    private RecordArray readMultiMapping() throws IOException {
+    RecordArray readMultiMapping() throws IOException {
         RecordArrayBuilder builder = readLinesAndColumns(2, 1);
         for (int i = 0; i < builder.size(); ++i) {
             int count = readUnsignedNumber();
@@ -154,18 +175,18 @@ class DebugInformationReader {
         return builder.build();
     }
 
-    private RecordArray readBooleanMapping() throws IOException {
+    RecordArray readBooleanMapping() throws IOException {
         RecordArrayBuilder builder = readLinesAndColumns(2, 0);
         return builder.build();
     }
 
-    private RecordArray readMapping() throws IOException {
+    RecordArray readMapping() throws IOException {
         RecordArrayBuilder builder = readLinesAndColumns(3, 0);
         readValues(builder);
         return builder.build();
     }
 
-    private RecordArray readCallSiteMapping() throws IOException {
+    RecordArray readCallSiteMapping() throws IOException {
         RecordArrayBuilder builder = readLinesAndColumns(4, 0);
         readValues(builder);
         readCallSites(builder);
@@ -250,7 +271,7 @@ class DebugInformationReader {
         return values;
     }
 
-    private String[] readStrings() throws IOException {
+    String[] readStrings() throws IOException {
         String[] array = new String[readUnsignedNumber()];
         for (int i = 0; i < array.length; ++i) {
             array[i] = readString();
@@ -258,7 +279,7 @@ class DebugInformationReader {
         return array;
     }
 
-    private long[] readExactMethods() throws IOException {
+    long[] readExactMethods() throws IOException {
         long[] result = new long[readUnsignedNumber()];
         int lastClass = 0;
         int lastMethod = 0;
@@ -41,12 +41,12 @@ class DebugInformationWriter {
         writeStringArray(debugInfo.variableNames);
         writeExactMethods(debugInfo.exactMethods);
 
-        writeMapping(debugInfo.fileMapping);
-        writeMapping(debugInfo.lineMapping);
-        writeMapping(debugInfo.classMapping);
-        writeMapping(debugInfo.methodMapping);
-        writeLinesAndColumns(debugInfo.statementStartMapping);
-        writeCallSiteMapping(debugInfo.callSiteMapping);
+        writeMapping(debugInfo.getFileMapping());
+        writeMapping(debugInfo.getLineMapping());
+        writeMapping(debugInfo.getClassMapping());
+        writeMapping(debugInfo.getMethodMapping());
+        writeLinesAndColumns(debugInfo.getStatementStartMapping());
+        writeCallSiteMapping(debugInfo.getCallSiteMapping());
         writeVariableMappings(debugInfo);
         writeClassMetadata(debugInfo.classesMetadata);
         writeCFGs(debugInfo);
@@ -55,8 +55,8 @@ class DebugInformationWriter {
     private void writeVariableMappings(DebugInformation debugInfo) throws IOException {
         int lastVar = 0;
         writeUnsignedNumber(nonNullVariableMappings(debugInfo));
-        for (int i = 0; i < debugInfo.variableMappings.length; ++i) {
-            RecordArray mapping = debugInfo.variableMappings[i];
+        for (int i = 0; i < debugInfo.variableNames.length; ++i) {
+            RecordArray mapping = debugInfo.getVariableMapping(i);
             if (mapping == null) {
                 continue;
             }
@@ -66,7 +66,7 @@ class DebugInformationWriter {
         }
     }
 
-    private void writeClassMetadata(List<ClassMetadata> classes) throws IOException {
+    void writeClassMetadata(List<ClassMetadata> classes) throws IOException {
         for (int i = 0; i < classes.size(); ++i) {
             ClassMetadata cls = classes.get(i);
             writeUnsignedNumber(cls.parentId != null ? cls.parentId + 1 : 0);
@@ -83,22 +83,22 @@ class DebugInformationWriter {
 
     private int nonNullVariableMappings(DebugInformation debugInfo) {
         int count = 0;
-        for (int i = 0; i < debugInfo.variableMappings.length; ++i) {
-            if (debugInfo.variableMappings[i] != null) {
+        for (int i = 0; i < debugInfo.variableNames.length; ++i) {
+            if (debugInfo.getVariableMapping(i) != null) {
                 ++count;
             }
         }
         return count;
     }
 
-    private void writeStringArray(String[] array) throws IOException {
+    void writeStringArray(String[] array) throws IOException {
         writeUnsignedNumber(array.length);
         for (int i = 0; i < array.length; ++i) {
             writeString(array[i]);
         }
     }
 
-    private void writeExactMethods(long[] array) throws IOException {
+    void writeExactMethods(long[] array) throws IOException {
         int lastClass = 0;
         int lastMethod = 0;
         writeUnsignedNumber(array.length);
@@ -113,7 +113,7 @@ class DebugInformationWriter {
         }
     }
 
-    private void writeMultiMapping(RecordArray mapping) throws IOException {
+    void writeMultiMapping(RecordArray mapping) throws IOException {
         writeLinesAndColumns(mapping);
         for (int i = 0; i < mapping.size(); ++i) {
             int[] array = mapping.get(i).getArray(0);
@@ -126,18 +126,18 @@ class DebugInformationWriter {
         }
     }
 
-    private void writeMapping(RecordArray mapping) throws IOException {
+    void writeMapping(RecordArray mapping) throws IOException {
         writeLinesAndColumns(mapping);
         writeRle(packValues(mapping));
     }
 
-    private void writeCallSiteMapping(RecordArray mapping) throws IOException {
+    void writeCallSiteMapping(RecordArray mapping) throws IOException {
         writeLinesAndColumns(mapping);
         writeRle(packValues(mapping));
         writeRle(packCallSites(mapping));
     }
 
-    private void writeLinesAndColumns(RecordArray mapping) throws IOException {
+    void writeLinesAndColumns(RecordArray mapping) throws IOException {
         writeUnsignedNumber(mapping.size());
         writeRle(packLines(mapping));
         writeRle(packColumns(mapping));
@@ -201,12 +201,12 @@ class DebugInformationWriter {
     }
 
     private void writeCFGs(DebugInformation debugInfo) throws IOException {
-        for (int i = 0; i < debugInfo.controlFlowGraphs.length; ++i) {
-            writeCFG(debugInfo.controlFlowGraphs[i]);
+        for (int i = 0; i < debugInfo.fileNames.length; ++i) {
+            writeCFG(debugInfo.getControlFlowGraph(i));
         }
     }
 
-    private void writeCFG(RecordArray mapping) throws IOException {
+    void writeCFG(RecordArray mapping) throws IOException {
         writeUnsignedNumber(mapping.size());
         writeRle(mapping.cut(0));
         IntegerArray sizes = new IntegerArray(1);
@@ -235,6 +235,26 @@ class DebugInformationWriter {
         writeRle(lines.getAll());
     }
 
+    void writeLocationArrays(RecordArray mapping) throws IOException {
+        writeUnsignedNumber(mapping.size());
+        int[] sizes = new int[mapping.size()];
+        for (int i = 0; i < sizes.length; ++i) {
+            sizes[i] = mapping.get(i).getArray(0).length / 2;
+        }
+        writeRle(sizes);
+        int lastLine = 0;
+        int lastColumn = 0;
+        for (int i = 0; i < sizes.length; ++i) {
+            int[] data = mapping.get(i).getArray(0);
+            for (int j = 0; j < data.length; j += 2) {
+                writeNumber(data[j] - lastLine);
+                writeNumber(data[j + 1] - lastColumn);
+                lastLine = data[j];
+                lastColumn = data[j + 1];
+            }
+        }
+    }
+
     private void writeNumber(int number) throws IOException {
         writeUnsignedNumber(convertToSigned(number));
     }
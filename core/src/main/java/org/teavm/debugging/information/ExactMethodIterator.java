@@ -21,6 +21,8 @@ import org.teavm.model.MethodReference;
 
 public class ExactMethodIterator {
     private DebugInformation debugInformation;
+    private RecordArray classMapping;
+    private RecordArray methodMapping;
     private GeneratedLocation location;
     private int classIndex;
     private int methodIndex;
@@ -29,21 +31,23 @@ public class ExactMethodIterator {
 
     ExactMethodIterator(DebugInformation debugInformation) {
         this.debugInformation = debugInformation;
+        classMapping = debugInformation.getClassMapping();
+        methodMapping = debugInformation.getMethodMapping();
         if (!isEndReached()) {
             read();
         }
     }
 
     public boolean isEndReached() {
-        return methodIndex >= debugInformation.methodMapping.size()
-                && classIndex >= debugInformation.classMapping.size();
+        return methodIndex >= methodMapping.size()
+                && classIndex >= classMapping.size();
     }
 
     private void read() {
-        if (classIndex < debugInformation.classMapping.size()
-                && methodIndex < debugInformation.methodMapping.size()) {
-            RecordArray.Record classRecord = debugInformation.classMapping.get(classIndex);
-            RecordArray.Record methodRecord = debugInformation.methodMapping.get(methodIndex);
+        if (classIndex < classMapping.size()
+                && methodIndex < methodMapping.size()) {
+            RecordArray.Record classRecord = classMapping.get(classIndex);
+            RecordArray.Record methodRecord = methodMapping.get(methodIndex);
             GeneratedLocation classLoc = DebugInformation.key(classRecord);
             GeneratedLocation methodLoc = DebugInformation.key(methodRecord);
             int cmp = classLoc.compareTo(methodLoc);
@@ -55,9 +59,9 @@ public class ExactMethodIterator {
                 nextClassRecord();
                 nextMethodRecord();
             }
-        } else if (classIndex < debugInformation.classMapping.size()) {
+        } else if (classIndex < classMapping.size()) {
             nextClassRecord();
-        } else if (methodIndex < debugInformation.methodMapping.size()) {
+        } else if (methodIndex < methodMapping.size()) {
             nextMethodRecord();
         } else {
             throw new IllegalStateException("End already reached");
@@ -65,13 +69,13 @@ public class ExactMethodIterator {
     }
 
     private void nextClassRecord() {
-        RecordArray.Record record = debugInformation.classMapping.get(classIndex++);
+        RecordArray.Record record = classMapping.get(classIndex++);
         classId = record.get(2);
         location = DebugInformation.key(record);
     }
 
     private void nextMethodRecord() {
-        RecordArray.Record record = debugInformation.methodMapping.get(methodIndex++);
+        RecordArray.Record record = methodMapping.get(methodIndex++);
         methodId = record.get(2);
         location = DebugInformation.key(record);
     }
@@ -15,30 +15,34 @@
  */
 package org.teavm.debugging.information;
 
+import org.teavm.common.RecordArray;
+
 public class FileNameIterator {
     private DebugInformation debugInformation;
+    private RecordArray fileMapping;
     private int index;
 
     FileNameIterator(DebugInformation debugInformation) {
         this.debugInformation = debugInformation;
+        fileMapping = debugInformation.getFileMapping();
     }
 
     public boolean isEndReached() {
-        return index < debugInformation.fileMapping.size();
+        return index < fileMapping.size();
     }
 
     public GeneratedLocation getLocation() {
         if (isEndReached()) {
             throw new IllegalStateException("End already reached");
         }
-        return DebugInformation.key(debugInformation.fileMapping.get(index));
+        return DebugInformation.key(fileMapping.get(index));
     }
 
     public int getFileNameId() {
         if (isEndReached()) {
             throw new IllegalStateException("End already reached");
         }
-        return debugInformation.fileMapping.get(index).get(2);
+        return fileMapping.get(index).get(2);
     }
 
     public String getFileName() {
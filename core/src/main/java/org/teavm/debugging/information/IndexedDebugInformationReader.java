@@ -0,0 +1,243 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.debugging.information;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.util.BitSet;
+import org.teavm.common.RecordArray;
+
+/**
+ * <p>Reads debug information in indexed format. The format starts with a header that contains
+ * a signature, a version and a table of sections, each section is encoded in the same way as
+ * corresponding part of non-indexed format. Sections are:</p>
+ *
+ * <ol>
+ *   <li>string tables, exact methods and class metadata, decoded immediately;</li>
+ *   <li>file, line, class, method, statement start and call site mappings, one section per mapping;</li>
+ *   <li>variable mappings, one section per variable name;</li>
+ *   <li>control flow graphs, one section per file;</li>
+ *   <li>generated locations of source lines, one section per file.</li>
+ * </ol>
+ *
+ * <p>All sections except the first one are decoded on first access.</p>
+ */
+class IndexedDebugInformationReader {
+    static final byte[] MAGIC = { (byte) 0xFF, 'T', 'D', 'I' };
+    static final int VERSION = 1;
+    static final int FILE_MAPPING = 1;
+    static final int LINE_MAPPING = 2;
+    static final int CLASS_MAPPING = 3;
+    static final int METHOD_MAPPING = 4;
+    static final int STATEMENT_START_MAPPING = 5;
+    static final int CALL_SITE_MAPPING = 6;
+    private static final int FIRST_VARIABLE_MAPPING = 7;
+    private ByteBuffer buffer;
+    private int[] offsets;
+    private int[] lengths;
+    private int variableCount;
+    private int fileCount;
+
+    IndexedDebugInformationReader(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    static int headerSize(int sectionCount) {
+        return MAGIC.length + 5 + sectionCount * 8;
+    }
+
+    static boolean isIndexed(ByteBuffer buffer) {
+        if (buffer.remaining() < MAGIC.length) {
+            return false;
+        }
+        for (int i = 0; i < MAGIC.length; ++i) {
+            if (buffer.get(buffer.position() + i) != MAGIC[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    static boolean isIndexed(InputStream input) throws IOException {
+        byte[] signature = new byte[MAGIC.length];
+        input.mark(signature.length);
+        int length = 0;
+        while (length < signature.length) {
+            int read = input.read(signature, length, signature.length - length);
+            if (read < 0) {
+                break;
+            }
+            length += read;
+        }
+        input.reset();
+        return length == signature.length && isIndexed(ByteBuffer.wrap(signature));
+    }
+
+    static ByteBuffer readFully(InputStream input) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        byte[] chunk = new byte[8192];
+        while (true) {
+            int read = input.read(chunk);
+            if (read < 0) {
+                break;
+            }
+            output.write(chunk, 0, read);
+        }
+        return ByteBuffer.wrap(output.toByteArray());
+    }
+
+    DebugInformation read() throws IOException {
+        buffer = buffer.slice();
+        if (!isIndexed(buffer) || buffer.remaining() < headerSize(0)) {
+            throw new IOException("Not an indexed debug information");
+        }
+        int version = buffer.get(MAGIC.length) & 0xFF;
+        if (version != VERSION) {
+            throw new IOException("Unsupported version of debug information: " + version);
+        }
+        int sectionCount = buffer.getInt(MAGIC.length + 1);
+        int size = buffer.limit();
+        if (sectionCount < FIRST_VARIABLE_MAPPING || sectionCount > (size - headerSize(0)) / 8) {
+            throw new IOException("Debug information is corrupted");
+        }
+        offsets = new int[sectionCount];
+        lengths = new int[sectionCount];
+        for (int i = 0; i < sectionCount; ++i) {
+            int offset = buffer.getInt(headerSize(i));
+            int length = buffer.getInt(headerSize(i) + 4);
+            if (offset < headerSize(sectionCount) || length < 0 || length > size - offset) {
+                throw new IOException("Debug information is corrupted");
+            }
+            offsets[i] = offset;
+            lengths[i] = length;
+        }
+
+        DebugInformation debugInfo = new DebugInformation();
+        DebugInformationReader reader = section(0);
+        debugInfo.fileNames = reader.readStrings();
+        debugInfo.classNames = reader.readStrings();
+        debugInfo.fields = reader.readStrings();
+        debugInfo.methods = reader.readStrings();
+        debugInfo.variableNames = reader.readStrings();
+        debugInfo.exactMethods = reader.readExactMethods();
+        debugInfo.classesMetadata = reader.readClassesMetadata(debugInfo.classNames.length);
+
+        variableCount = debugInfo.variableNames.length;
+        fileCount = debugInfo.fileNames.length;
+        if (sectionCount != FIRST_VARIABLE_MAPPING + variableCount + 2 * fileCount) {
+            throw new IOException("Debug information is corrupted");
+        }
+
+        debugInfo.variableMappings = new RecordArray[variableCount];
+        debugInfo.controlFlowGraphs = new RecordArray[fileCount];
+        debugInfo.loadedVariableMappings = new BitSet();
+        debugInfo.loadedControlFlowGraphs = new BitSet();
+        debugInfo.loadedFileDescriptions = new BitSet();
+        debugInfo.index = this;
+        debugInfo.rebuild();
+        return debugInfo;
+    }
+
+    RecordArray readMapping(int sectionIndex) {
+        try {
+            return section(sectionIndex).readMapping();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    RecordArray readStatementStartMapping() {
+        try {
+            return section(STATEMENT_START_MAPPING).readBooleanMapping();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    RecordArray readCallSiteMapping() {
+        try {
+            return section(CALL_SITE_MAPPING).readCallSiteMapping();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    RecordArray readVariableMapping(int variableId) {
+        int sectionIndex = FIRST_VARIABLE_MAPPING + variableId;
+        if (lengths[sectionIndex] == 0) {
+            return null;
+        }
+        try {
+            return section(sectionIndex).readMultiMapping();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    RecordArray readControlFlowGraph(int fileId) {
+        int sectionIndex = FIRST_VARIABLE_MAPPING + variableCount + fileId;
+        if (lengths[sectionIndex] == 0) {
+            return null;
+        }
+        try {
+            return section(sectionIndex).readCFG();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    RecordArray readFileDescription(int fileId) {
+        int sectionIndex = FIRST_VARIABLE_MAPPING + variableCount + fileCount + fileId;
+        try {
+            return section(sectionIndex).readLocationArrays();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private DebugInformationReader section(int index) {
+        ByteBuffer section = buffer.duplicate();
+        section.position(offsets[index]);
+        section.limit(offsets[index] + lengths[index]);
+        return new DebugInformationReader(new ByteBufferInputStream(section.slice()));
+    }
+
+    static class ByteBufferInputStream extends InputStream {
+        private ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            len = Math.min(len, buffer.remaining());
+            buffer.get(b, off, len);
+            return len;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.debugging.information;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import org.teavm.common.RecordArray;
+
+class IndexedDebugInformationWriter {
+    private OutputStream output;
+
+    IndexedDebugInformationWriter(OutputStream output) {
+        this.output = output;
+    }
+
+    void write(DebugInformation debugInfo) throws IOException {
+        List<byte[]> sections = new ArrayList<>();
+        sections.add(section(writer -> {
+            writer.writeStringArray(debugInfo.fileNames);
+            writer.writeStringArray(debugInfo.classNames);
+            writer.writeStringArray(debugInfo.fields);
+            writer.writeStringArray(debugInfo.methods);
+            writer.writeStringArray(debugInfo.variableNames);
+            writer.writeExactMethods(debugInfo.exactMethods);
+            writer.writeClassMetadata(debugInfo.classesMetadata);
+        }));
+        sections.add(section(writer -> writer.writeMapping(debugInfo.getFileMapping())));
+        sections.add(section(writer -> writer.writeMapping(debugInfo.getLineMapping())));
+        sections.add(section(writer -> writer.writeMapping(debugInfo.getClassMapping())));
+        sections.add(section(writer -> writer.writeMapping(debugInfo.getMethodMapping())));
+        sections.add(section(writer -> writer.writeLinesAndColumns(debugInfo.getStatementStartMapping())));
+        sections.add(section(writer -> writer.writeCallSiteMapping(debugInfo.getCallSiteMapping())));
+
+        for (int i = 0; i < debugInfo.variableNames.length; ++i) {
+            RecordArray mapping = debugInfo.getVariableMapping(i);
+            sections.add(mapping != null ? section(writer -> writer.writeMultiMapping(mapping)) : new byte[0]);
+        }
+        for (int i = 0; i < debugInfo.fileNames.length; ++i) {
+            RecordArray cfg = debugInfo.getControlFlowGraph(i);
+            sections.add(cfg != null ? section(writer -> writer.writeCFG(cfg)) : new byte[0]);
+        }
+        for (int i = 0; i < debugInfo.fileNames.length; ++i) {
+            RecordArray description = debugInfo.getFileDescription(i);
+            sections.add(section(writer -> writer.writeLocationArrays(description)));
+        }
+
+        DataOutputStream data = new DataOutputStream(output);
+        data.write(IndexedDebugInformationReader.MAGIC);
+        data.writeByte(IndexedDebugInformationReader.VERSION);
+        data.writeInt(sections.size());
+        int offset = IndexedDebugInformationReader.headerSize(sections.size());
+        for (byte[] section : sections) {
+            data.writeInt(offset);
+            data.writeInt(section.length);
+            offset += section.length;
+        }
+        for (byte[] section : sections) {
+            data.write(section);
+        }
+        data.flush();
+    }
+
+    private static byte[] section(SectionContent content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+        content.write(new DebugInformationWriter(new DataOutputStream(buffer)));
+        return buffer.toByteArray();
+    }
+
+    interface SectionContent {
+        void write(DebugInformationWriter writer) throws IOException;
+    }
+}
@@ -15,30 +15,34 @@
  */
 package org.teavm.debugging.information;
 
+import org.teavm.common.RecordArray;
+
 public class LineNumberIterator {
     private DebugInformation debugInformation;
+    private RecordArray lineMapping;
     private int index;
 
     LineNumberIterator(DebugInformation debugInformation) {
         this.debugInformation = debugInformation;
+        lineMapping = debugInformation.getLineMapping();
     }
 
     public boolean isEndReached() {
-        return index < debugInformation.lineMapping.size();
+        return index < lineMapping.size();
     }
 
     public GeneratedLocation getLocation() {
         if (isEndReached()) {
             throw new IllegalStateException("End already reached");
         }
-        return DebugInformation.key(debugInformation.lineMapping.get(index));
+        return DebugInformation.key(lineMapping.get(index));
     }
 
     public int getLineNumber() {
         if (isEndReached()) {
             throw new IllegalStateException("End already reached");
         }
-        return debugInformation.lineMapping.get(index).get(2);
+        return lineMapping.get(index).get(2);
     }
 
     public void next() {
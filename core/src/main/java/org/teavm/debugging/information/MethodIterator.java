@@ -15,32 +15,35 @@
  */
 package org.teavm.debugging.information;
 
+import org.teavm.common.RecordArray;
 import org.teavm.model.MethodDescriptor;
 
 public class MethodIterator {
     private DebugInformation debugInformation;
+    private RecordArray methodMapping;
     private int index;
 
     MethodIterator(DebugInformation debugInformation) {
         this.debugInformation = debugInformation;
+        methodMapping = debugInformation.getMethodMapping();
     }
 
     public boolean isEndReached() {
-        return index < debugInformation.methodMapping.size();
+        return index < methodMapping.size();
     }
 
     public GeneratedLocation getLocation() {
         if (isEndReached()) {
             throw new IllegalStateException("End already reached");
         }
-        return DebugInformation.key(debugInformation.methodMapping.get(index));
+        return DebugInformation.key(methodMapping.get(index));
     }
 
     public int getMethodId() {
         if (isEndReached()) {
             throw new IllegalStateException("End already reached");
         }
-        return debugInformation.methodMapping.get(index).get(2);
+        return methodMapping.get(index).get(2);
     }
 
     public MethodDescriptor getMethod() {
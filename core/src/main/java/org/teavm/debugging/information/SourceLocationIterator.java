@@ -19,27 +19,38 @@ import org.teavm.common.RecordArray;
 
 public class SourceLocationIterator {
     private DebugInformation debugInformation;
+    private RecordArray fileMapping;
+    private RecordArray lineMapping;
     private int lineIndex;
     private int fileIndex;
     private GeneratedLocation location;
     private int fileId = -1;
     private int line = -1;
+    private boolean endReached;
 
     SourceLocationIterator(DebugInformation debugInformation) {
         this.debugInformation = debugInformation;
-        if (!isEndReached()) {
+        fileMapping = debugInformation.getFileMapping();
+        lineMapping = debugInformation.getLineMapping();
+        if (hasMoreRecords()) {
             read();
+        } else {
+            endReached = true;
         }
     }
 
     public boolean isEndReached() {
-        return fileIndex >= debugInformation.fileMapping.size() && lineIndex >= debugInformation.lineMapping.size();
+        return endReached;
+    }
+
+    private boolean hasMoreRecords() {
+        return fileIndex < fileMapping.size() || lineIndex < lineMapping.size();
     }
 
     private void read() {
-        if (fileIndex < debugInformation.fileMapping.size() && lineIndex < debugInformation.lineMapping.size()) {
-            RecordArray.Record fileRecord = debugInformation.fileMapping.get(fileIndex);
-            RecordArray.Record lineRecord = debugInformation.lineMapping.get(lineIndex);
+        if (fileIndex < fileMapping.size() && lineIndex < lineMapping.size()) {
+            RecordArray.Record fileRecord = fileMapping.get(fileIndex);
+            RecordArray.Record lineRecord = lineMapping.get(lineIndex);
             GeneratedLocation fileLoc = DebugInformation.key(fileRecord);
             GeneratedLocation lineLoc = DebugInformation.key(lineRecord);
             int cmp = fileLoc.compareTo(lineLoc);
@@ -51,9 +62,9 @@ public class SourceLocationIterator {
                 nextFileRecord();
                 nextLineRecord();
             }
-        } else if (fileIndex < debugInformation.fileMapping.size()) {
+        } else if (fileIndex < fileMapping.size()) {
             nextFileRecord();
-        } else if (lineIndex < debugInformation.lineMapping.size()) {
+        } else if (lineIndex < lineMapping.size()) {
             nextLineRecord();
         } else {
             throw new IllegalStateException("End already reached");
@@ -61,13 +72,13 @@ public class SourceLocationIterator {
     }
 
     private void nextFileRecord() {
-        RecordArray.Record record = debugInformation.fileMapping.get(fileIndex++);
+        RecordArray.Record record = fileMapping.get(fileIndex++);
         location = DebugInformation.key(record);
         fileId = record.get(2);
     }
 
     private void nextLineRecord() {
-        RecordArray.Record record = debugInformation.lineMapping.get(lineIndex++);
+        RecordArray.Record record = lineMapping.get(lineIndex++);
         location = DebugInformation.key(record);
         line = record.get(2);
     }
@@ -76,7 +87,11 @@ public class SourceLocationIterator {
         if (isEndReached()) {
             throw new IllegalStateException("End already reached");
         }
-        read();
+        if (hasMoreRecords()) {
+            read();
+        } else {
+            endReached = true;
+        }
     }
 
     public GeneratedLocation getLocation() {
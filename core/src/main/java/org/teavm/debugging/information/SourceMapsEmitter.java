@@ -0,0 +1,137 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.debugging.information;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import org.teavm.backend.javascript.codegen.LocationProvider;
+
+/**
+ * <p>Writes source maps while code is being generated, without building {@link DebugInformation}.
+ * Only the last emitted location is kept in memory, so memory consumption does not depend on the size
+ * of generated code. Call {@link #complete()} after code generation to finish source maps.</p>
+ *
+ * <p>Generated code is expected to be written sequentially. Locations emitted before the previous
+ * one are ignored.</p>
+ */
+public class SourceMapsEmitter extends DummyDebugInformationEmitter {
+    private SourceMapsWriter writer;
+    private LocationProvider locationProvider;
+    private List<String> fileNames = new ArrayList<>();
+    private Map<String, Integer> fileNameIndexes = new HashMap<>();
+    private String currentFileName;
+    private int currentLine;
+    private boolean hasPending;
+    private int pendingLine;
+    private int pendingColumn;
+    private int pendingFile;
+    private int pendingSourceLine;
+    private boolean hasWritten;
+    private int writtenFile;
+    private int writtenSourceLine;
+    private IOException error;
+
+    public SourceMapsEmitter(Writer output, String generatedFile, String sourceRoot) {
+        writer = new SourceMapsWriter(output);
+        try {
+            writer.writeHeader(generatedFile, sourceRoot);
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    @Override
+    public void setLocationProvider(LocationProvider locationProvider) {
+        this.locationProvider = locationProvider;
+    }
+
+    @Override
+    public void emitLocation(String fileName, int line) {
+        if (Objects.equals(currentFileName, fileName) && currentLine == line) {
+            return;
+        }
+        currentFileName = fileName;
+        currentLine = line;
+
+        int generatedLine = locationProvider.getLine();
+        int generatedColumn = locationProvider.getColumn();
+        if (hasPending) {
+            if (generatedLine == pendingLine && generatedColumn == pendingColumn) {
+                pendingFile = getFileIndex(fileName);
+                pendingSourceLine = line - 1;
+                return;
+            }
+            if (generatedLine < pendingLine || generatedLine == pendingLine && generatedColumn < pendingColumn) {
+                return;
+            }
+            flushPending();
+        }
+        hasPending = true;
+        pendingLine = generatedLine;
+        pendingColumn = generatedColumn;
+        pendingFile = getFileIndex(fileName);
+        pendingSourceLine = line - 1;
+    }
+
+    private int getFileIndex(String fileName) {
+        if (fileName == null) {
+            return -1;
+        }
+        return fileNameIndexes.computeIfAbsent(fileName, name -> {
+            fileNames.add(name);
+            return fileNames.size() - 1;
+        });
+    }
+
+    private void flushPending() {
+        if (error != null) {
+            return;
+        }
+        if (hasWritten && pendingFile == writtenFile && pendingSourceLine == writtenSourceLine) {
+            return;
+        }
+        hasWritten = true;
+        writtenFile = pendingFile;
+        writtenSourceLine = pendingSourceLine;
+        try {
+            writer.writeSegment(new GeneratedLocation(pendingLine, pendingColumn), pendingFile, pendingSourceLine);
+        } catch (IOException e) {
+            error = e;
+        }
+    }
+
+    /**
+     * Writes remaining mappings and list of source files.
+     *
+     * @throws IOException if an error occurred while writing source maps, either now or during code
+     * generation.
+     */
+    public void complete() throws IOException {
+        if (hasPending) {
+            flushPending();
+            hasPending = false;
+        }
+        if (error != null) {
+            throw error;
+        }
+        writer.writeFooter(fileNames);
+    }
+}
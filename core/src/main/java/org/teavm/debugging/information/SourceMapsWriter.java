@@ -17,6 +17,8 @@ package org.teavm.debugging.information;
 
 import java.io.IOException;
 import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
 
 class SourceMapsWriter {
     private static final String BASE64_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
@@ -32,37 +34,49 @@ class SourceMapsWriter {
     }
 
     public void write(String generatedFile, String sourceRoot, DebugInformation debugInfo) throws IOException {
+        writeHeader(generatedFile, sourceRoot);
+        for (SourceLocationIterator iter = debugInfo.iterateOverSourceLocations(); !iter.isEndReached(); iter.next()) {
+            writeSegment(iter.getLocation(), iter.getFileNameId(), iter.getLine() - 1);
+        }
+        writeFooter(Arrays.asList(debugInfo.fileNames));
+    }
+
+    /**
+     * Starts source map and its <code>mappings</code> property. Names of source files are not needed
+     * at this point, so mappings can be written as soon as code is generated.
+     */
+    void writeHeader(String generatedFile, String sourceRoot) throws IOException {
         output.write("{\"version\":3");
         output.write(",\"file\":\"");
         writeEscapedString(generatedFile);
         output.write("\"");
         output.write(",\"sourceRoot\":\"");
         writeEscapedString(sourceRoot);
+        output.write("\"");
+        output.write(",\"mappings\":\"");
+        first = true;
+        lastLine = 0;
+        lastColumn = 0;
+        lastSourceFile = 0;
+        lastSourceLine = 0;
+    }
+
+    void writeFooter(List<String> fileNames) throws IOException {
         output.write("\"");
         output.write(",\"sources\":[");
-        for (int i = 0; i < debugInfo.fileNames.length; ++i) {
+        for (int i = 0; i < fileNames.size(); ++i) {
             if (i > 0) {
                 output.write(',');
             }
             output.write("\"");
-            writeEscapedString(debugInfo.fileNames[i]);
+            writeEscapedString(fileNames.get(i));
             output.write("\"");
         }
         output.write("]");
-        output.write(",\"names\":[]");
-        output.write(",\"mappings\":\"");
-        first = true;
-        lastLine = 0;
-        lastColumn = 0;
-        lastSourceFile = 0;
-        lastSourceLine = 0;
-        for (SourceLocationIterator iter = debugInfo.iterateOverSourceLocations(); !iter.isEndReached(); iter.next()) {
-            writeSegment(iter.getLocation(), iter.getFileNameId(), iter.getLine() - 1);
-        }
-        output.write("\"}");
+        output.write(",\"names\":[]}");
     }
 
-    private void writeSegment(GeneratedLocation loc, int sourceFile, int sourceLine) throws IOException {
+    void writeSegment(GeneratedLocation loc, int sourceFile, int sourceLine) throws IOException {
         while (loc.getLine() > lastLine) {
             output.write(';');
             ++lastLine;
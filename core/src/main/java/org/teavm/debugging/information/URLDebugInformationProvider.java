@@ -15,8 +15,10 @@
  */
 package org.teavm.debugging.information;
 
+import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
+import java.net.URISyntaxException;
 import java.net.URL;
 
 public class URLDebugInformationProvider implements DebugInformationProvider {
@@ -30,10 +32,13 @@ public class URLDebugInformationProvider implements DebugInformationProvider {
     public DebugInformation getDebugInformation(String script) {
         try {
             URL url = new URL(baseURL + script + ".teavmdbg");
+            if (url.getProtocol().equals("file")) {
+                return DebugInformation.read(new File(url.toURI()));
+            }
             try (InputStream input = url.openStream()) {
                 return DebugInformation.read(input);
             }
-        } catch (IOException e) {
+        } catch (IOException | URISyntaxException e) {
             return null;
         }
     }
@@ -29,6 +29,9 @@ public final class Allocator {
         RuntimeObject object = GC.alloc(tag.size);
         fillZero(object.toAddress(), tag.size);
         object.classReference = tag.toAddress().toInt() >> 3;
+        if (GCStatistics.isEnabled()) {
+            GCStatistics.onAllocation(tag, tag.size);
+        }
         return object.toAddress();
     }
 
@@ -43,6 +46,9 @@ public final class Allocator {
         RuntimeArray array = result.toStructure();
         array.classReference = tag.toAddress().toInt() >> 3;
         array.size = size;
+        if (GCStatistics.isEnabled()) {
+            GCStatistics.onAllocation(tag, sizeInBytes);
+        }
 
         return result;
     }
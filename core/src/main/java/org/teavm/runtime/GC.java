@@ -36,7 +36,7 @@ public final class GC {
 
     static native int gcStorageSize();
 
-    private static native Address heapAddress();
+    static native Address heapAddress();
 
     private static native Region regionsAddress();
 
@@ -87,7 +87,11 @@ public final class GC {
         if (getAvailableChunkIfPossible(size)) {
             return;
         }
-        collectGarbage(size);
+        collect(false);
+        if (getAvailableChunkIfPossible(size)) {
+            return;
+        }
+        collect(true);
         getAvailableChunkIfPossible(size);
     }
 
@@ -114,10 +118,24 @@ public final class GC {
     }
 
     public static boolean collectGarbage(int size) {
+        collect(false);
+        return true;
+    }
+
+    private static void collect(boolean clearSoftReferences) {
+        if (GCStatistics.isEnabled()) {
+            GCStatistics.onCollectionStart();
+        }
         mark();
+        if (!clearSoftReferences) {
+            ReferenceHolder.retainSoftReferents();
+        }
+        ReferenceHolder.processUnmarked();
         sweep();
         updateFreeMemory();
-        return true;
+        if (GCStatistics.isEnabled()) {
+            GCStatistics.onCollectionEnd();
+        }
     }
 
     private static void mark() {
@@ -146,7 +164,7 @@ public final class GC {
         }
     }
 
-    private static void mark(RuntimeObject object) {
+    static void mark(RuntimeObject object) {
         if (object == null || isMarked(object)) {
             return;
         }
@@ -278,6 +296,10 @@ public final class GC {
             }
         }
 
+        if (GCStatistics.isEnabled()) {
+            GCStatistics.onSweep(reclaimedSpace, maxFreeChunk);
+        }
+
         currentChunkPointer = gcStorageAddress().toStructure();
         sortFreeChunks(0, freeChunks - 1);
         currentChunk = currentChunkPointer.value;
@@ -335,7 +357,7 @@ public final class GC {
         return Structure.add(FreeChunkHolder.class, currentChunkPointer, index);
     }
 
-    private static int objectSize(FreeChunk object) {
+    static int objectSize(FreeChunk object) {
         if (object.classReference == 0) {
             return object.size;
         } else {
@@ -356,7 +378,7 @@ public final class GC {
         }
     }
 
-    private static boolean isMarked(RuntimeObject object) {
+    static boolean isMarked(RuntimeObject object) {
         return (object.classReference & RuntimeObject.GC_MARKED) != 0;
     }
 
@@ -0,0 +1,283 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import org.teavm.interop.Address;
+import org.teavm.interop.DelegateTo;
+import org.teavm.interop.Import;
+import org.teavm.interop.PlatformMarker;
+import org.teavm.interop.PlatformMarkers;
+import org.teavm.interop.StaticInit;
+import org.teavm.interop.Unmanaged;
+
+/**
+ * <p>Allocation and garbage collection statistics of WebAssembly and C targets.</p>
+ *
+ * <p>Statistics are only collected when the application is built with
+ * {@link PlatformMarkers#GC_STATISTICS} platform tag (see <code>setGCStatisticsCollected</code> method
+ * of the corresponding target). Otherwise calls to the hooks in {@link Allocator} and {@link GC} are
+ * eliminated at compile time, along with this class.</p>
+ */
+@StaticInit
+public final class GCStatistics {
+    public static final int HISTOGRAM_SIZE = 32;
+    private static final int CLASS_TABLE_SIZE = 4096;
+
+    private static int[] classes;
+    private static long[] allocationCounts;
+    private static long[] allocatedBytes;
+    private static long[] liveObjectCounts;
+    private static long[] liveBytes;
+    private static int classCount;
+    private static long untrackedAllocationCount;
+    private static int collectionCount;
+    private static double collectionStartTime;
+    private static double totalPauseTime;
+    private static double maxPauseTime;
+    private static long lastReclaimedSpace;
+    private static long lastMaxFreeChunk;
+    private static int[] reclaimedSpaceHistogram;
+
+    private GCStatistics() {
+    }
+
+    static {
+        int[] classTable = new int[CLASS_TABLE_SIZE];
+        long[] allocationCountTable = new long[CLASS_TABLE_SIZE];
+        long[] allocatedBytesTable = new long[CLASS_TABLE_SIZE];
+        liveObjectCounts = new long[CLASS_TABLE_SIZE];
+        liveBytes = new long[CLASS_TABLE_SIZE];
+        reclaimedSpaceHistogram = new int[HISTOGRAM_SIZE];
+        allocationCounts = allocationCountTable;
+        allocatedBytes = allocatedBytesTable;
+        classes = classTable;
+    }
+
+    @PlatformMarker(PlatformMarkers.GC_STATISTICS)
+    public static boolean isEnabled() {
+        return false;
+    }
+
+    @Unmanaged
+    static void onAllocation(RuntimeClass cls, int size) {
+        if (classes == null) {
+            return;
+        }
+        int index = classIndex(cls);
+        if (index < 0) {
+            untrackedAllocationCount++;
+            return;
+        }
+        allocationCounts[index]++;
+        allocatedBytes[index] += size;
+    }
+
+    @Unmanaged
+    static void onCollectionStart() {
+        collectionStartTime = currentTime();
+    }
+
+    @Unmanaged
+    static void onSweep(long reclaimedSpace, long maxFreeChunk) {
+        lastReclaimedSpace = reclaimedSpace;
+        lastMaxFreeChunk = maxFreeChunk;
+        if (reclaimedSpaceHistogram != null) {
+            int bucket = 0;
+            while (bucket < HISTOGRAM_SIZE - 1 && reclaimedSpace >= 2L << bucket) {
+                bucket++;
+            }
+            reclaimedSpaceHistogram[bucket]++;
+        }
+    }
+
+    @Unmanaged
+    static void onCollectionEnd() {
+        double pauseTime = currentTime() - collectionStartTime;
+        collectionCount++;
+        totalPauseTime += pauseTime;
+        if (maxPauseTime < pauseTime) {
+            maxPauseTime = pauseTime;
+        }
+    }
+
+    /**
+     * Finds index of a class in the table, inserting it if necessary.
+     *
+     * @return index of the class, or <code>-1</code> if the table is full.
+     */
+    @Unmanaged
+    private static int classIndex(RuntimeClass cls) {
+        int key = cls.toAddress().toInt() >>> 3;
+        int mask = CLASS_TABLE_SIZE - 1;
+        int index = (key * 0x9E3779B9) >>> 20 & mask;
+        for (int i = 0; i < CLASS_TABLE_SIZE; ++i) {
+            int existing = classes[index];
+            if (existing == key) {
+                return index;
+            }
+            if (existing == 0) {
+                classes[index] = key;
+                classCount++;
+                return index;
+            }
+            index = (index + 1) & mask;
+        }
+        return -1;
+    }
+
+    @Unmanaged
+    private static double currentTime() {
+        return isC() ? currentTimeMillisC() : currentTimeMillisWasm();
+    }
+
+    @PlatformMarker(PlatformMarkers.C)
+    private static boolean isC() {
+        return false;
+    }
+
+    @Import(name = "currentTimeMillis", module = "runtime")
+    private static native double currentTimeMillisWasm();
+
+    @Import(name = "currentTimeMillis")
+    private static native long currentTimeMillisC();
+
+    /**
+     * Collects garbage and counts remaining objects of each class. The result is available via
+     * {@link #getLiveObjectCount(int)} and {@link #getLiveBytes(int)}.
+     */
+    public static void takeHeapSnapshot() {
+        GC.collectGarbage(0);
+        countLiveObjects();
+    }
+
+    @Unmanaged
+    private static void countLiveObjects() {
+        for (int i = 0; i < CLASS_TABLE_SIZE; ++i) {
+            liveObjectCounts[i] = 0;
+            liveBytes[i] = 0;
+        }
+        FreeChunk object = GC.heapAddress().toStructure();
+        Address limit = GC.heapAddress().add(GC.availableBytes());
+        while (object.toAddress().isLessThan(limit)) {
+            int size = GC.objectSize(object);
+            if (object.classReference != 0) {
+                int index = classIndex(RuntimeClass.getClass(object.toAddress().toStructure()));
+                if (index >= 0) {
+                    liveObjectCounts[index]++;
+                    liveBytes[index] += size;
+                }
+            }
+            object = object.toAddress().add(size).toStructure();
+        }
+    }
+
+    public static void reset() {
+        for (int i = 0; i < CLASS_TABLE_SIZE; ++i) {
+            allocationCounts[i] = 0;
+            allocatedBytes[i] = 0;
+        }
+        for (int i = 0; i < HISTOGRAM_SIZE; ++i) {
+            reclaimedSpaceHistogram[i] = 0;
+        }
+        untrackedAllocationCount = 0;
+        collectionCount = 0;
+        totalPauseTime = 0;
+        maxPauseTime = 0;
+    }
+
+    /**
+     * Gets size of the class table. Indexes passed to {@link #getTrackedClass(int)} and similar methods
+     * range from <code>0</code> to this value, exclusive. Some of the indexes don't correspond to any class.
+     */
+    public static int getClassTableSize() {
+        return CLASS_TABLE_SIZE;
+    }
+
+    public static int getTrackedClassCount() {
+        return classCount;
+    }
+
+    /**
+     * Gets class at the given index of the class table, or <code>null</code> if there is no class at the index.
+     */
+    @DelegateTo("getTrackedClassLowLevel")
+    public static Class<?> getTrackedClass(int index) {
+        return null;
+    }
+
+    @Unmanaged
+    private static RuntimeClass getTrackedClassLowLevel(int index) {
+        int key = classes[index];
+        return key != 0 ? Address.fromInt(key << 3).toStructure() : null;
+    }
+
+    public static long getAllocationCount(int index) {
+        return allocationCounts[index];
+    }
+
+    public static long getAllocatedBytes(int index) {
+        return allocatedBytes[index];
+    }
+
+    public static long getLiveObjectCount(int index) {
+        return liveObjectCounts[index];
+    }
+
+    public static long getLiveBytes(int index) {
+        return liveBytes[index];
+    }
+
+    /**
+     * Gets number of allocations that were not attributed to any class, since the class table was full.
+     */
+    public static long getUntrackedAllocationCount() {
+        return untrackedAllocationCount;
+    }
+
+    public static int getCollectionCount() {
+        return collectionCount;
+    }
+
+    /**
+     * Gets total time spent in garbage collection, in milliseconds.
+     */
+    public static double getTotalPauseTime() {
+        return totalPauseTime;
+    }
+
+    public static double getMaxPauseTime() {
+        return maxPauseTime;
+    }
+
+    /**
+     * Gets total size of free chunks after the last collection.
+     */
+    public static long getLastReclaimedSpace() {
+        return lastReclaimedSpace;
+    }
+
+    public static long getLastMaxFreeChunk() {
+        return lastMaxFreeChunk;
+    }
+
+    /**
+     * Gets number of collections after which total size of free chunks was in range
+     * <code>[2<sup>bucket</sup>, 2<sup>bucket + 1</sup>)</code>.
+     */
+    public static int getReclaimedSpaceFrequency(int bucket) {
+        return reclaimedSpaceHistogram[bucket];
+    }
+}
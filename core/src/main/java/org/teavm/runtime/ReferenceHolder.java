@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.runtime;
+
+import org.teavm.interop.Address;
+import org.teavm.interop.DelegateTo;
+import org.teavm.interop.Unmanaged;
+
+/**
+ * <p>Referent of <code>java.lang.ref.Reference</code> in WebAssembly and C targets.</p>
+ *
+ * <p>Referent is stored in a field that GC does not trace. All holders are linked into a list, which is not
+ * traced as well. After marking, GC clears referents that were not marked and moves holders that
+ * should be enqueued to the pending list. Referents of soft references are retained, unless GC failed
+ * to free enough memory without clearing them.</p>
+ */
+public final class ReferenceHolder {
+    static RuntimeObject first;
+    private static ReferenceHolder firstPending;
+
+    RuntimeObject referent;
+    RuntimeObject next;
+    boolean soft;
+    boolean queued;
+    private Object owner;
+    private ReferenceHolder nextPending;
+
+    public ReferenceHolder(Object owner, Object referent, boolean soft, boolean queued) {
+        this.owner = owner;
+        this.soft = soft;
+        this.queued = queued;
+        this.referent = Address.ofObject(referent).toStructure();
+        next = first;
+        first = Address.ofObject(this).toStructure();
+    }
+
+    @DelegateTo("getReferentLowLevel")
+    public Object getReferent() {
+        return null;
+    }
+
+    @Unmanaged
+    private RuntimeObject getReferentLowLevel() {
+        return referent;
+    }
+
+    public void clear() {
+        referent = null;
+    }
+
+    public Object getOwner() {
+        return owner;
+    }
+
+    /**
+     * Takes all holders which referents were cleared by GC and which should be enqueued.
+     * Holders are linked via {@link #getNextPending()}.
+     */
+    public static ReferenceHolder takePending() {
+        ReferenceHolder result = firstPending;
+        firstPending = null;
+        return result;
+    }
+
+    public ReferenceHolder getNextPending() {
+        return nextPending;
+    }
+
+    /**
+     * Marks referents of reachable soft references. Marking a referent can make other holders reachable,
+     * including the ones visited earlier, so passes are repeated until nothing new gets marked.
+     */
+    @Unmanaged
+    static void retainSoftReferents() {
+        boolean marked;
+        do {
+            marked = false;
+            for (RuntimeObject object = first; object != null;) {
+                ReferenceHolder holder = fromRuntimeObject(object);
+                if (holder.soft && holder.referent != null && GC.isMarked(object)
+                        && !GC.isMarked(holder.referent)) {
+                    GC.mark(holder.referent);
+                    marked = true;
+                }
+                object = holder.next;
+            }
+        } while (marked);
+    }
+
+    @Unmanaged
+    static void processUnmarked() {
+        ReferenceHolder previous = null;
+        for (RuntimeObject object = first; object != null;) {
+            ReferenceHolder holder = fromRuntimeObject(object);
+            RuntimeObject next = holder.next;
+            if (!GC.isMarked(object)) {
+                if (previous == null) {
+                    first = next;
+                } else {
+                    previous.next = next;
+                }
+            } else {
+                if (holder.referent != null && !GC.isMarked(holder.referent)) {
+                    holder.referent = null;
+                    if (holder.queued) {
+                        holder.nextPending = firstPending;
+                        firstPending = holder;
+                    }
+                }
+                previous = holder;
+            }
+            object = next;
+        }
+    }
+
+    @DelegateTo("fromRuntimeObjectLowLevel")
+    @Unmanaged
+    private static ReferenceHolder fromRuntimeObject(RuntimeObject object) {
+        return null;
+    }
+
+    @Unmanaged
+    private static RuntimeObject fromRuntimeObjectLowLevel(RuntimeObject object) {
+        return object;
+    }
+}
@@ -14,7 +14,9 @@
  *  limitations under the License.
  */
 "use strict";
-var $rt_global = this;
+var $rt_global = typeof globalThis !== 'undefined' ? globalThis
+        : typeof self !== 'undefined' ? self
+        : this;
 var $rt_lastObjectId = 1;
 function $rt_nextId() {
     var current = $rt_lastObjectId;
@@ -473,6 +475,54 @@ function $rt_metadata(data) {
         cls.$array = null;
     }
 }
+var $rt_runQueue = [];
+var $rt_runQueueScheduled = false;
+var $rt_runQueueChannel = null;
+var $rt_runQueueTimeBudget = 12;
+function $rt_postpone(f) {
+    $rt_runQueue.push(f);
+    if (!$rt_runQueueScheduled) {
+        $rt_runQueueScheduled = true;
+        $rt_scheduleRunQueue();
+    }
+}
+function $rt_scheduleRunQueue() {
+    if (typeof setImmediate === 'function') {
+        setImmediate($rt_flushRunQueue);
+        return;
+    }
+    if ($rt_runQueueChannel === null && typeof MessageChannel !== 'undefined') {
+        $rt_runQueueChannel = new MessageChannel();
+        $rt_runQueueChannel.port1.onmessage = $rt_flushRunQueue;
+    }
+    if ($rt_runQueueChannel !== null) {
+        $rt_runQueueChannel.port2.postMessage(0);
+    } else {
+        setTimeout($rt_flushRunQueue, 0);
+    }
+}
+function $rt_flushRunQueue() {
+    var queue = $rt_runQueue;
+    var count = queue.length;
+    var start = Date.now();
+    var i = 0;
+    try {
+        while (i < count) {
+            var f = queue[i];
+            queue[i++] = null;
+            f();
+            if (Date.now() - start >= $rt_runQueueTimeBudget) {
+                break;
+            }
+        }
+    } finally {
+        $rt_runQueue = queue.slice(i);
+        $rt_runQueueScheduled = $rt_runQueue.length > 0;
+        if ($rt_runQueueScheduled) {
+            $rt_scheduleRunQueue();
+        }
+    }
+}
 function $rt_threadStarter(f) {
     return function() {
         var args = Array.prototype.slice.apply(arguments);
@@ -494,14 +544,18 @@ function $rt_mainStarter(f) {
     };
 }
 var $rt_stringPool_instance;
+var $rt_stringPool_source;
 function $rt_stringPool(strings) {
+    $rt_stringPool_source = strings;
     $rt_stringPool_instance = new Array(strings.length);
-    for (var i = 0; i < strings.length; ++i) {
-        $rt_stringPool_instance[i] = $rt_intern($rt_str(strings[i]));
-    }
 }
 function $rt_s(index) {
-    return $rt_stringPool_instance[index];
+    var result = $rt_stringPool_instance[index];
+    if (result === undefined) {
+        result = $rt_intern($rt_str($rt_stringPool_source[index]));
+        $rt_stringPool_instance[index] = result;
+    }
+    return result;
 }
 function TeaVMThread(runner) {
     this.status = 3;
@@ -512,9 +566,7 @@ function TeaVMThread(runner) {
     this.completeCallback = null;
 }
 TeaVMThread.prototype.push = function() {
-    for (var i = 0; i < arguments.length; ++i) {
-        this.stack.push(arguments[i]);
-    }
+    Array.prototype.push.apply(this.stack, arguments);
     return this;
 };
 TeaVMThread.prototype.s = TeaVMThread.prototype.push;
@@ -576,12 +628,12 @@ TeaVMThread.prototype.run = function() {
     }
 };
 function $rt_suspending() {
-    var thread = $rt_nativeThread();
-    return thread != null && thread.isSuspending();
+    var thread = $rt_currentNativeThread;
+    return thread !== null && thread.status === 1;
 }
 function $rt_resuming() {
-    var thread = $rt_nativeThread();
-    return thread != null && thread.isResuming();
+    var thread = $rt_currentNativeThread;
+    return thread !== null && thread.status === 2;
 }
 function $rt_suspend(callback) {
     return $rt_nativeThread().suspend(callback);
@@ -0,0 +1,75 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.backend.javascript.rendering;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.io.StringWriter;
+import org.junit.Test;
+
+public class RuntimeRendererTest {
+    @Test
+    public void unreferencedFunctionsStripped() throws IOException {
+        RuntimeRenderer renderer = RuntimeRenderer.load(RuntimeRendererTest.class.getClassLoader());
+        renderer.addRoots("function $a() { return $rt_compare(1, 2); }");
+
+        String result = render(renderer);
+        assertTrue(result.contains("\"use strict\";"));
+        assertTrue(result.contains("function $rt_compare("));
+        assertFalse(result.contains("function $dbg_class("));
+        assertFalse(result.contains("function Long_mul("));
+        assertFalse(result.contains("function TeaVMThread("));
+    }
+
+    @Test
+    public void transitiveDependenciesRendered() throws IOException {
+        RuntimeRenderer renderer = RuntimeRenderer.load(RuntimeRendererTest.class.getClassLoader());
+        renderer.addRoots("var x = Long_div(a, b);");
+
+        assertTrue(renderer.isReachable("Long_divRem"));
+        assertTrue(renderer.isReachable("Long_MAX_NORMAL"));
+        String result = render(renderer);
+        assertTrue(result.contains("Long.prototype.toString"));
+        assertTrue(result.contains("var Long_MAX_NORMAL"));
+    }
+
+    @Test
+    public void conditionalAssignmentsRendered() throws IOException {
+        RuntimeRenderer renderer = RuntimeRenderer.load(RuntimeRendererTest.class.getClassLoader());
+        renderer.addRoots("var x = $rt_createIntArray(3);");
+
+        String result = render(renderer);
+        assertTrue(result.contains("var $rt_createIntArray;"));
+        assertTrue(result.contains("if (typeof 'ArrayBuffer' !== 'undefined') {"));
+        assertTrue(result.contains("function $rt_intcls("));
+        assertFalse(renderer.isReachable("TeaVMThread"));
+    }
+
+    @Test
+    public void propertyNamesIgnored() throws IOException {
+        RuntimeRenderer renderer = RuntimeRenderer.load(RuntimeRendererTest.class.getClassLoader());
+        renderer.addRoots("obj.Long_mul = 2;");
+
+        assertFalse(renderer.isReachable("Long_mul"));
+    }
+
+    private static String render(RuntimeRenderer renderer) throws IOException {
+        StringWriter writer = new StringWriter();
+        renderer.render(writer);
+        return writer.toString();
+    }
+}
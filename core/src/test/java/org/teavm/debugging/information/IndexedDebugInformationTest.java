@@ -0,0 +1,304 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.debugging.information;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.fail;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import org.junit.Test;
+import org.teavm.backend.javascript.codegen.LocationProvider;
+import org.teavm.common.RecordArray;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.MethodReference;
+import org.teavm.model.ValueType;
+
+public class IndexedDebugInformationTest {
+    private static final MethodDescriptor RUN = new MethodDescriptor("run", ValueType.VOID);
+    private static final MethodDescriptor COMPUTE = new MethodDescriptor("compute", ValueType.INTEGER,
+            ValueType.INTEGER);
+
+    @Test
+    public void readsFromStream() throws IOException {
+        DebugInformation expected = createDebugInformation();
+        DebugInformation actual = DebugInformation.read(new ByteArrayInputStream(writeIndexed(expected)));
+        assertSame(expected, actual);
+    }
+
+    @Test
+    public void readsFromFile() throws IOException {
+        DebugInformation expected = createDebugInformation();
+        File file = File.createTempFile("teavm", ".teavmdbg");
+        try {
+            Files.write(file.toPath(), writeIndexed(expected));
+            DebugInformation actual = DebugInformation.read(file);
+            assertSame(expected, actual);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void badMagicRejected() throws IOException {
+        byte[] data = writeIndexed(createDebugInformation());
+        data[1] = 'X';
+        try {
+            new IndexedDebugInformationReader(ByteBuffer.wrap(data)).read();
+            fail("Debug information with wrong signature should not be read");
+        } catch (IOException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void badVersionRejected() throws IOException {
+        byte[] data = writeIndexed(createDebugInformation());
+        data[IndexedDebugInformationReader.MAGIC.length] = IndexedDebugInformationReader.VERSION + 1;
+        try {
+            DebugInformation.read(new ByteArrayInputStream(data));
+            fail("Debug information of unsupported version should not be read");
+        } catch (IOException e) {
+            // ok
+        }
+    }
+
+    @Test
+    public void truncatedFileRejected() throws IOException {
+        byte[] data = writeIndexed(createDebugInformation());
+        assertCorrupted(Arrays.copyOf(data, data.length / 2));
+        assertCorrupted(Arrays.copyOf(data, IndexedDebugInformationReader.headerSize(3)));
+    }
+
+    @Test
+    public void badSectionCountRejected() throws IOException {
+        byte[] data = writeIndexed(createDebugInformation());
+        int position = IndexedDebugInformationReader.MAGIC.length + 1;
+        ByteBuffer.wrap(data).putInt(position, -1);
+        assertCorrupted(data);
+        ByteBuffer.wrap(data).putInt(position, Integer.MAX_VALUE);
+        assertCorrupted(data);
+        ByteBuffer.wrap(data).putInt(position, data.length);
+        assertCorrupted(data);
+    }
+
+    @Test
+    public void badSectionEntryRejected() throws IOException {
+        byte[] original = writeIndexed(createDebugInformation());
+        int entry = IndexedDebugInformationReader.headerSize(1);
+
+        byte[] data = original.clone();
+        ByteBuffer.wrap(data).putInt(entry, -1);
+        assertCorrupted(data);
+
+        data = original.clone();
+        ByteBuffer.wrap(data).putInt(entry, data.length);
+        assertCorrupted(data);
+
+        data = original.clone();
+        ByteBuffer.wrap(data).putInt(entry + 4, -1);
+        assertCorrupted(data);
+
+        data = original.clone();
+        ByteBuffer.wrap(data).putInt(entry + 4, Integer.MAX_VALUE);
+        assertCorrupted(data);
+    }
+
+    private static void assertCorrupted(byte[] data) {
+        try {
+            DebugInformation.read(new ByteArrayInputStream(data));
+            fail("Corrupted debug information should not be read");
+        } catch (IOException e) {
+            // ok
+        }
+    }
+
+    private static byte[] writeIndexed(DebugInformation debugInformation) throws IOException {
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        debugInformation.writeIndexed(output);
+        return output.toByteArray();
+    }
+
+    private static DebugInformation createDebugInformation() {
+        MutableLocationProvider location = new MutableLocationProvider();
+        DebugInformationBuilder builder = new DebugInformationBuilder();
+        builder.setLocationProvider(location);
+
+        builder.addClass("foo.Base", null);
+        builder.addField("count", "$count");
+        builder.addClass("foo.Derived", "foo.Base");
+        builder.addField("name", "$name");
+
+        location.set(0, 0);
+        builder.emitClass("foo.Base");
+        builder.emitMethod(RUN);
+        builder.emitLocation("foo/Base.java", 10);
+        builder.emitStatementStart();
+        builder.emitVariable(new String[] { "this" }, "$this");
+        location.set(0, 20);
+        builder.emitLocation("foo/Base.java", 11);
+        builder.emitStatementStart();
+        builder.emitCallSite().setVirtualMethod(new MethodReference("foo.Derived", COMPUTE));
+        builder.emitVariable(new String[] { "a", "b" }, "$tmp");
+        location.set(1, 0);
+        builder.emitLocation("foo/Base.java", 12);
+        builder.emitCallSite().setStaticMethod(new MethodReference("foo.Derived", RUN));
+        location.set(2, 0);
+        builder.emitClass("foo.Derived");
+        builder.emitMethod(COMPUTE);
+        builder.emitLocation("foo/Derived.java", 5);
+        builder.emitStatementStart();
+        builder.emitVariable(new String[] { "x" }, "$x");
+        location.set(2, 30);
+        builder.emitLocation("foo/Derived.java", 6);
+        builder.emitCallSite();
+        location.set(3, 0);
+        builder.emitMethod(RUN);
+        builder.emitLocation("foo/Derived.java", 20);
+        location.set(4, 0);
+        builder.emitClass(null);
+        builder.emitMethod(null);
+        builder.emitLocation(null, -1);
+
+        builder.addSuccessors(new SourceLocation("foo/Base.java", 10), new SourceLocation[] {
+                new SourceLocation("foo/Base.java", 11), new SourceLocation("foo/Derived.java", 5) });
+        builder.addSuccessors(new SourceLocation("foo/Base.java", 11), new SourceLocation[] {
+                new SourceLocation("foo/Base.java", 12), null });
+        builder.addSuccessors(new SourceLocation("foo/Derived.java", 5), new SourceLocation[] {
+                new SourceLocation("foo/Derived.java", 6) });
+
+        return builder.getDebugInformation();
+    }
+
+    private static void assertSame(DebugInformation expected, DebugInformation actual) {
+        assertArrayEquals(expected.getFilesNames(), actual.getFilesNames());
+        assertArrayEquals(expected.getClassNames(), actual.getClassNames());
+        assertArrayEquals(expected.getMethods(), actual.getMethods());
+        assertArrayEquals(expected.getVariableNames(), actual.getVariableNames());
+        assertArrayEquals(expected.getExactMethods(), actual.getExactMethods());
+
+        assertRecordsEqual("file mapping", expected.getFileMapping(), actual.getFileMapping());
+        assertRecordsEqual("line mapping", expected.getLineMapping(), actual.getLineMapping());
+        assertRecordsEqual("class mapping", expected.getClassMapping(), actual.getClassMapping());
+        assertRecordsEqual("method mapping", expected.getMethodMapping(), actual.getMethodMapping());
+        assertRecordsEqual("statement start mapping", expected.getStatementStartMapping(),
+                actual.getStatementStartMapping());
+        assertRecordsEqual("call site mapping", expected.getCallSiteMapping(), actual.getCallSiteMapping());
+        for (int i = 0; i < expected.getVariableNames().length; ++i) {
+            assertRecordsEqual("variable mapping " + i, expected.getVariableMapping(i),
+                    actual.getVariableMapping(i));
+        }
+        for (int i = 0; i < expected.getFilesNames().length; ++i) {
+            assertRecordsEqual("CFG " + i, expected.getControlFlowGraph(i), actual.getControlFlowGraph(i));
+            assertRecordsEqual("file description " + i, expected.getFileDescription(i),
+                    actual.getFileDescription(i));
+        }
+
+        for (int line = 0; line <= 4; ++line) {
+            for (int column = 0; column <= 40; column += 5) {
+                String at = line + ":" + column;
+                assertEquals(at, String.valueOf(expected.getSourceLocation(line, column)),
+                        String.valueOf(actual.getSourceLocation(line, column)));
+                assertEquals(at, expected.getMethodAt(line, column), actual.getMethodAt(line, column));
+                for (String variable : expected.getVariableNames()) {
+                    assertArrayEquals(at, expected.getVariableMeaningAt(line, column, variable),
+                            actual.getVariableMeaningAt(line, column, variable));
+                }
+                assertEquals(at, describe(expected.getCallSite(line, column)),
+                        describe(actual.getCallSite(line, column)));
+            }
+        }
+
+        for (String fileName : expected.getFilesNames()) {
+            for (int line = 0; line <= 20; ++line) {
+                SourceLocation location = new SourceLocation(fileName, line);
+                String at = fileName + ":" + line;
+                assertEquals(at, Arrays.toString(expected.getFollowingLines(location)),
+                        Arrays.toString(actual.getFollowingLines(location)));
+                assertEquals(at, new ArrayList<>(expected.getGeneratedLocations(location)),
+                        new ArrayList<>(actual.getGeneratedLocations(location)));
+            }
+        }
+        for (MethodReference method : expected.getExactMethods()) {
+            assertArrayEquals(method.toString(), expected.getMethodEntrances(method),
+                    actual.getMethodEntrances(method));
+        }
+        assertEquals(expected.getStatementStartLocations(), actual.getStatementStartLocations());
+
+        assertEquals("name", actual.getFieldMeaning("foo.Derived", "$name"));
+        assertEquals("count", actual.getFieldMeaning("foo.Derived", "$count"));
+        assertNull(actual.getFieldMeaning("foo.Base", "$name"));
+    }
+
+    private static void assertRecordsEqual(String message, RecordArray expected, RecordArray actual) {
+        assertEquals(message, describe(expected), describe(actual));
+    }
+
+    private static String describe(RecordArray array) {
+        if (array == null) {
+            return "null";
+        }
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < array.size(); ++i) {
+            RecordArray.Record record = array.get(i);
+            sb.append('[');
+            for (int j = 0; j < record.size(); ++j) {
+                sb.append(' ').append(record.get(j));
+            }
+            for (int j = 0; j < record.numArrays(); ++j) {
+                sb.append(' ').append(Arrays.toString(record.getArray(j)));
+            }
+            sb.append(" ]");
+        }
+        return sb.toString();
+    }
+
+    private static String describe(DebuggerCallSite callSite) {
+        if (callSite instanceof DebuggerStaticCallSite) {
+            return "static " + ((DebuggerStaticCallSite) callSite).getMethod();
+        } else if (callSite instanceof DebuggerVirtualCallSite) {
+            return "virtual " + ((DebuggerVirtualCallSite) callSite).getMethod();
+        }
+        return String.valueOf(callSite);
+    }
+
+    static class MutableLocationProvider implements LocationProvider {
+        private int line;
+        private int column;
+
+        void set(int line, int column) {
+            this.line = line;
+            this.column = column;
+        }
+
+        @Override
+        public int getLine() {
+            return line;
+        }
+
+        @Override
+        public int getColumn() {
+            return column;
+        }
+    }
+}
@@ -0,0 +1,188 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.debugging.information;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import org.junit.Test;
+import org.teavm.backend.javascript.codegen.LocationProvider;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.ValueType;
+
+public class SourceMapsEmitterTest {
+    private static final String BASE64_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    private MutableLocationProvider location = new MutableLocationProvider();
+    private DebugInformationBuilder builder = new DebugInformationBuilder();
+    private StringWriter streamedOutput = new StringWriter();
+    private SourceMapsEmitter emitter = new SourceMapsEmitter(streamedOutput, "classes.js", "src");
+
+    public SourceMapsEmitterTest() {
+        builder.setLocationProvider(location);
+        emitter.setLocationProvider(location);
+    }
+
+    @Test
+    public void matchesSourceMapsOfDebugInformation() throws IOException {
+        location.set(0, 0);
+        emitMethod("foo.A", "run");
+        emitLocation("foo/A.java", 10);
+        location.set(0, 15);
+        emitLocation("foo/A.java", 10);
+        location.set(0, 30);
+        emitLocation("foo/A.java", 11);
+        emitLocation("foo/A.java", 12);
+        location.set(0, 70);
+        emitLocation("foo/A.java", 13);
+        location.set(1, 4);
+        emitMethod("foo.B", "run");
+        emitLocation("foo/B.java", 13);
+        location.set(1, 20);
+        emitLocation("foo/A.java", 13);
+        location.set(1, 40);
+        emitLocation(null, -1);
+        location.set(3, 0);
+        emitMethod("foo.B", "compute");
+        emitLocation("foo/B.java", 40);
+        location.set(3, 8);
+        emitLocation("foo/B.java", 41);
+        location.set(4, 2);
+        emitLocation("foo/B.java", 41);
+        location.set(5, 0);
+        emitMethod("foo.A", "run");
+        emitLocation("foo/A.java", 2);
+        location.set(6, 0);
+        emitLocation(null, -1);
+
+        emitter.complete();
+        StringWriter expectedOutput = new StringWriter();
+        builder.getDebugInformation().writeAsSourceMaps(expectedOutput, "src", "classes.js");
+
+        String expected = expectedOutput.toString();
+        String actual = streamedOutput.toString();
+        List<String> mappings = decodeMappings(expected);
+        assertFalse(mappings.isEmpty());
+        assertEquals(mappings, decodeMappings(actual));
+        assertEquals(sources(expected), sources(actual));
+        assertEquals(Arrays.asList("foo/A.java", "foo/B.java"), sources(actual));
+    }
+
+    @Test
+    public void emptySourceMaps() throws IOException {
+        emitter.complete();
+        StringWriter expectedOutput = new StringWriter();
+        builder.getDebugInformation().writeAsSourceMaps(expectedOutput, "src", "classes.js");
+
+        assertEquals(expectedOutput.toString(), streamedOutput.toString());
+    }
+
+    private void emitMethod(String className, String methodName) {
+        builder.emitClass(className);
+        builder.emitMethod(new MethodDescriptor(methodName, ValueType.VOID));
+        emitter.emitClass(className);
+        emitter.emitMethod(new MethodDescriptor(methodName, ValueType.VOID));
+    }
+
+    private void emitLocation(String fileName, int line) {
+        builder.emitLocation(fileName, line);
+        emitter.emitLocation(fileName, line);
+    }
+
+    private static String property(String sourceMaps, String name, char end) {
+        String prefix = "\"" + name + "\":";
+        int start = sourceMaps.indexOf(prefix) + prefix.length() + 1;
+        return sourceMaps.substring(start, sourceMaps.indexOf(end, start));
+    }
+
+    private static List<String> sources(String sourceMaps) {
+        String sources = property(sourceMaps, "sources", ']');
+        if (sources.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return Arrays.asList(sources.substring(1, sources.length() - 1).split("\",\""));
+    }
+
+    /**
+     * Decodes mappings to absolute positions and resolves indexes of source files to their names.
+     */
+    private static List<String> decodeMappings(String sourceMaps) {
+        List<String> sources = sources(sourceMaps);
+        List<String> result = new ArrayList<>();
+        int sourceFile = 0;
+        int sourceLine = 0;
+        int line = 0;
+        for (String lineMappings : property(sourceMaps, "mappings", '"').split(";", -1)) {
+            int column = 0;
+            if (!lineMappings.isEmpty()) {
+                for (String segment : lineMappings.split(",")) {
+                    int[] fields = decodeVLQ(segment);
+                    column += fields[0];
+                    String mapping = line + ":" + column;
+                    if (fields.length > 1) {
+                        sourceFile += fields[1];
+                        sourceLine += fields[2];
+                        mapping += " -> " + sources.get(sourceFile) + ":" + sourceLine;
+                    }
+                    result.add(mapping);
+                }
+            }
+            ++line;
+        }
+        return result;
+    }
+
+    private static int[] decodeVLQ(String segment) {
+        List<Integer> values = new ArrayList<>();
+        int value = 0;
+        int shift = 0;
+        for (int i = 0; i < segment.length(); ++i) {
+            int digit = BASE64_CHARS.indexOf(segment.charAt(i));
+            value |= (digit & 0x1F) << shift;
+            shift += 5;
+            if ((digit & 0x20) == 0) {
+                values.add((value & 1) != 0 ? -(value >>> 1) : value >>> 1);
+                value = 0;
+                shift = 0;
+            }
+        }
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    static class MutableLocationProvider implements LocationProvider {
+        private int line;
+        private int column;
+
+        void set(int line, int column) {
+            this.line = line;
+            this.column = column;
+        }
+
+        @Override
+        public int getLine() {
+            return line;
+        }
+
+        @Override
+        public int getColumn() {
+            return column;
+        }
+    }
+}
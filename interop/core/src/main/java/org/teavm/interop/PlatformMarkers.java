@@ -23,4 +23,5 @@ public final class PlatformMarkers {
     public static final String WEBASSEMBLY = "webassembly";
     public static final String C = "c";
     public static final String LOW_LEVEL = "low_level";
+    public static final String GC_STATISTICS = "gc_statistics";
 }
@@ -16,6 +16,7 @@
 package org.teavm.jso.typedarrays;
 
 import org.teavm.jso.JSBody;
+import org.teavm.jso.JSByRef;
 import org.teavm.jso.JSIndexer;
 
 public abstract class Float64Array extends ArrayBufferView {
@@ -33,4 +34,19 @@ public abstract class Float64Array extends ArrayBufferView {
 
     @JSBody(params = { "buffer", "offset", "length" }, script = "return new Float64Array(buffer, offset, length);")
     public static native Float64Array create(ArrayBuffer buffer, int offset, int length);
+
+    /**
+     * Returns typed array that shares its storage with the given Java array, so that changes made
+     * through either of them are visible to the other.
+     */
+    @JSBody(params = "array", script = "return array;")
+    public static native Float64Array fromJavaArray(@JSByRef double[] array);
+
+    /**
+     * Returns Java array that shares its storage with the given typed array. Unlike casts or array
+     * conversion made by JSO, no data gets copied.
+     */
+    @JSBody(params = "array", script = "return array;")
+    @JSByRef
+    public static native double[] toJavaArray(Float64Array array);
 }
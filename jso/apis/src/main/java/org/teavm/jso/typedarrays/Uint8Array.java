@@ -16,6 +16,7 @@
 package org.teavm.jso.typedarrays;
 
 import org.teavm.jso.JSBody;
+import org.teavm.jso.JSByRef;
 import org.teavm.jso.JSIndexer;
 
 public abstract class Uint8Array extends ArrayBufferView {
@@ -33,4 +34,12 @@ public abstract class Uint8Array extends ArrayBufferView {
 
     @JSBody(params = { "buffer", "offset", "length" }, script = "return new Uint8Array(buffer, offset, length);")
     public static native Uint8Array create(ArrayBuffer buffer, int offset, int length);
+
+    /**
+     * Returns view of the given Java array, so that changes made through either of them are visible
+     * to the other. Values are reinterpreted as unsigned bytes.
+     */
+    @JSBody(params = "array", script = "return new Uint8Array(array.buffer, array.byteOffset, "
+            + "array.length);")
+    public static native Uint8Array fromJavaArray(@JSByRef byte[] array);
 }
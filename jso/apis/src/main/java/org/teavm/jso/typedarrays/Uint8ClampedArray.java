@@ -16,6 +16,7 @@
 package org.teavm.jso.typedarrays;
 
 import org.teavm.jso.JSBody;
+import org.teavm.jso.JSByRef;
 import org.teavm.jso.JSIndexer;
 
 public abstract class Uint8ClampedArray extends ArrayBufferView {
@@ -34,4 +35,12 @@ public abstract class Uint8ClampedArray extends ArrayBufferView {
     @JSBody(params = { "buffer", "offset", "length" }, script = "return new "
             + "Uint8ClampedArray(buffer, offset, length);")
     public static native Uint8ClampedArray create(ArrayBuffer buffer, int offset, int length);
+
+    /**
+     * Returns view of the given Java array, so that changes made through either of them are visible
+     * to the other. Values are reinterpreted as unsigned bytes.
+     */
+    @JSBody(params = "array", script = "return new Uint8ClampedArray(array.buffer, array.byteOffset, "
+            + "array.length);")
+    public static native Uint8ClampedArray fromJavaArray(@JSByRef byte[] array);
 }
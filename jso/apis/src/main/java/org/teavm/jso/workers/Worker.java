@@ -16,6 +16,7 @@
 package org.teavm.jso.workers;
 
 import org.teavm.jso.JSBody;
+import org.teavm.jso.JSByRef;
 import org.teavm.jso.JSObject;
 import org.teavm.jso.JSProperty;
 import org.teavm.jso.dom.events.EventListener;
@@ -30,5 +31,7 @@ public abstract class Worker implements AbstractWorker {
 
     public abstract void postMessage(JSObject message);
 
+    public abstract void postMessage(JSObject message, @JSByRef JSObject[] transfer);
+
     public abstract void terminate();
 }
@@ -24,8 +24,14 @@ import java.lang.annotation.Target;
  * <p>Marks parameters of JavaScript methods that should be passed by reference.
  * This annotation is only applicable to parameters of array type. More specifically:
  * to: byte[], short[], char[], int[], float[], double[] or T[], where T is JSObject.</p>
+ *
+ * <p>When applied to a JavaScript method, marks that its result should be returned by reference,
+ * i.e. Java array becomes a wrapper around JavaScript typed array without copying. Only byte[], short[],
+ * char[], int[], float[] and double[] are supported, and the method must return
+ * <code>Int8Array</code>, <code>Int16Array</code>, <code>Uint16Array</code>, <code>Int32Array</code>,
+ * <code>Float32Array</code> or <code>Float64Array</code> correspondingly.</p>
  */
 @Retention(RetentionPolicy.RUNTIME)
-@Target(ElementType.PARAMETER)
+@Target({ ElementType.PARAMETER, ElementType.METHOD })
 public @interface JSByRef {
 }
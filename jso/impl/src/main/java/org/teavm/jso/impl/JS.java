@@ -35,6 +35,30 @@ final class JS {
     @InjectedBy(JSNativeGenerator.class)
     public static native JSObject arrayData(Object array);
 
+    @GeneratedBy(JSNativeGenerator.class)
+    @PluggableDependency(JSNativeGenerator.class)
+    public static native byte[] dataToByteArray(JSObject data);
+
+    @GeneratedBy(JSNativeGenerator.class)
+    @PluggableDependency(JSNativeGenerator.class)
+    public static native short[] dataToShortArray(JSObject data);
+
+    @GeneratedBy(JSNativeGenerator.class)
+    @PluggableDependency(JSNativeGenerator.class)
+    public static native char[] dataToCharArray(JSObject data);
+
+    @GeneratedBy(JSNativeGenerator.class)
+    @PluggableDependency(JSNativeGenerator.class)
+    public static native int[] dataToIntArray(JSObject data);
+
+    @GeneratedBy(JSNativeGenerator.class)
+    @PluggableDependency(JSNativeGenerator.class)
+    public static native float[] dataToFloatArray(JSObject data);
+
+    @GeneratedBy(JSNativeGenerator.class)
+    @PluggableDependency(JSNativeGenerator.class)
+    public static native double[] dataToDoubleArray(JSObject data);
+
     @InjectedBy(JSNativeGenerator.class)
     public static native JSObject wrap(byte value);
 
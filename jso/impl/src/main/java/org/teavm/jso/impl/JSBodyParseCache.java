@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.jso.impl;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import org.mozilla.javascript.CompilerEnvirons;
+import org.mozilla.javascript.Context;
+import org.mozilla.javascript.ErrorReporter;
+import org.mozilla.javascript.EvaluatorException;
+import org.mozilla.javascript.ast.AstNode;
+import org.mozilla.javascript.ast.AstRoot;
+import org.mozilla.javascript.ast.FunctionNode;
+
+/**
+ * <p>Parses bodies of {@link org.teavm.jso.JSBody} scripts and keeps them keyed by script text, so that
+ * a script is parsed once per JVM rather than once per build. This pays off in development server
+ * and incremental builds, where the same libraries are compiled over and over again, and for
+ * short scripts like <code>return this.length;</code> that are repeated across many bindings.</p>
+ *
+ * <p>Only scripts that parsed without errors and warnings are kept, so diagnostics are still reported on
+ * every build. Scripts that call Java methods are never kept, since {@link JavaInvocationProcessor}
+ * rewrites their AST in place. All other users of cached AST must treat it as read-only.</p>
+ */
+final class JSBodyParseCache {
+    private static final int MAX_SIZE = 65536;
+    private static final Map<String, AstNode> cache = new ConcurrentHashMap<>();
+
+    private JSBodyParseCache() {
+    }
+
+    /**
+     * Parses given scripts in parallel and puts successfully parsed ones into cache.
+     */
+    static void prefetch(Collection<String> scripts) {
+        List<String> missing = scripts.stream()
+                .filter(script -> isCacheable(script) && !cache.containsKey(script))
+                .distinct()
+                .collect(Collectors.toList());
+        if (missing.size() > 1) {
+            missing.parallelStream().forEach(script -> parse(script, null));
+        }
+    }
+
+    /**
+     * Parses a script, taking it from cache when possible.
+     *
+     * @param script text of the script.
+     * @param errorReporter receives errors and warnings, may be <code>null</code>.
+     * @return body of the function that wraps the script.
+     */
+    static AstNode parse(String script, ErrorReporter errorReporter) {
+        AstNode body = cache.get(script);
+        if (body != null) {
+            return body;
+        }
+
+        TrackingErrorReporter trackingReporter = new TrackingErrorReporter(errorReporter);
+        CompilerEnvirons env = new CompilerEnvirons();
+        env.setRecoverFromErrors(true);
+        env.setLanguageVersion(Context.VERSION_1_8);
+        env.setIdeMode(true);
+        JSParser parser = new JSParser(env, trackingReporter);
+        AstRoot rootNode;
+        try {
+            rootNode = parser.parse(new StringReader("function(){" + script + "}"), null, 0);
+        } catch (IOException e) {
+            throw new RuntimeException("IO Error occurred", e);
+        }
+        body = ((FunctionNode) rootNode.getFirstChild()).getBody();
+
+        if (trackingReporter.clean && isCacheable(script)) {
+            if (cache.size() >= MAX_SIZE) {
+                cache.clear();
+            }
+            cache.put(script, body);
+        }
+        return body;
+    }
+
+    private static boolean isCacheable(String script) {
+        return !script.contains("javaMethods");
+    }
+
+    static class TrackingErrorReporter implements ErrorReporter {
+        private ErrorReporter delegate;
+        boolean clean = true;
+
+        TrackingErrorReporter(ErrorReporter delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public void warning(String message, String sourceName, int line, String lineSource, int lineOffset) {
+            clean = false;
+            if (delegate != null) {
+                delegate.warning(message, sourceName, line, lineSource, lineOffset);
+            }
+        }
+
+        @Override
+        public void error(String message, String sourceName, int line, String lineSource, int lineOffset) {
+            clean = false;
+            if (delegate != null) {
+                delegate.error(message, sourceName, line, lineSource, lineOffset);
+            }
+        }
+
+        @Override
+        public EvaluatorException runtimeError(String message, String sourceName, int line, String lineSource,
+                int lineOffset) {
+            return delegate != null
+                    ? delegate.runtimeError(message, sourceName, line, lineSource, lineOffset)
+                    : null;
+        }
+    }
+}
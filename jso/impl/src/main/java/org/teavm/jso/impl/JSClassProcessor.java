@@ -15,8 +15,6 @@
  */
 package org.teavm.jso.impl;
 
-import java.io.IOException;
-import java.io.StringReader;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -25,11 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
-import org.mozilla.javascript.CompilerEnvirons;
-import org.mozilla.javascript.Context;
 import org.mozilla.javascript.ast.AstNode;
-import org.mozilla.javascript.ast.AstRoot;
-import org.mozilla.javascript.ast.FunctionNode;
 import org.teavm.cache.NoCache;
 import org.teavm.diagnostics.Diagnostics;
 import org.teavm.interop.Sync;
@@ -313,7 +307,7 @@ class JSClassProcessor {
 
     private boolean processJSBodyInvocation(MethodReader method, CallLocation callLocation, InvokeInstruction invoke,
             MethodHolder methodToProcess) {
-        boolean[] byRefParams = new boolean[method.parameterCount()];
+        boolean[] byRefParams = new boolean[method.parameterCount() + 1];
         validateSignature(method, callLocation, byRefParams);
         if (invoke.getInstance() != null) {
             if (!typeHelper.isSupportedType(ValueType.object(method.getOwnerName()))) {
@@ -347,7 +341,8 @@ class JSClassProcessor {
         }
         replacement.add(newInvoke);
         if (result != null) {
-            result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType());
+            result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType(),
+                    byRefParams[method.parameterCount()]);
             copyVar(result, invoke.getReceiver(), invoke.getLocation());
         }
 
@@ -445,6 +440,16 @@ class JSClassProcessor {
             }
         }
 
+        if (method.getAnnotations().get(JSByRef.class.getName()) != null) {
+            if (!typeHelper.isSupportedByRefResultType(method.getResultType())) {
+                diagnostics.error(callLocation, "Method {{m0}} is not a proper native JavaScript method "
+                        + "declaration: it is declared as JSByRef, but its return type is incompatible",
+                        method.getReference());
+                return false;
+            }
+            byRefParams[parameterTypes.length] = true;
+        }
+
         return true;
     }
 
@@ -482,7 +487,8 @@ class JSClassProcessor {
         }
         replacement.add(newInvoke);
         if (result != null) {
-            result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType());
+            result = marshaller.unwrapReturnValue(callLocation, result, method.getResultType(),
+                    byRefParams[method.parameterCount()]);
             copyVar(result, invoke.getReceiver(), invoke.getLocation());
         }
 
@@ -548,18 +554,7 @@ class JSClassProcessor {
         // Parse JS script
         TeaVMErrorReporter errorReporter = new TeaVMErrorReporter(diagnostics,
                 new CallLocation(methodToProcess.getReference()));
-        CompilerEnvirons env = new CompilerEnvirons();
-        env.setRecoverFromErrors(true);
-        env.setLanguageVersion(Context.VERSION_1_8);
-        env.setIdeMode(true);
-        JSParser parser = new JSParser(env, errorReporter);
-        AstRoot rootNode;
-        try {
-            rootNode = parser.parse(new StringReader("function(){" + script + "}"), null, 0);
-        } catch (IOException e) {
-            throw new RuntimeException("IO Error occurred", e);
-        }
-        AstNode body = ((FunctionNode) rootNode.getFirstChild()).getBody();
+        AstNode body = JSBodyParseCache.parse(script, errorReporter);
 
         repository.methodMap.put(methodToProcess.getReference(), proxyMethod);
         if (errorReporter.hasErrors()) {
@@ -578,6 +573,17 @@ class JSClassProcessor {
         }
     }
 
+    void prefetchJSBodies(ClassHolder cls) {
+        List<String> scripts = new ArrayList<>();
+        for (MethodHolder method : cls.getMethods()) {
+            AnnotationReader bodyAnnot = method.getAnnotations().get(JSBody.class.getName());
+            if (bodyAnnot != null && !repository.processedMethods.contains(method.getReference())) {
+                scripts.add(bodyAnnot.getValue("script").getString());
+            }
+        }
+        JSBodyParseCache.prefetch(scripts);
+    }
+
     void createJSMethods(ClassHolder cls) {
         for (MethodHolder method : cls.getMethods().toArray(new MethodHolder[0])) {
             MethodReference methodRef = method.getReference();
@@ -47,6 +47,39 @@ public class JSNativeGenerator implements Injector, DependencyPlugin, Generator
             case "functionAsObject":
                 writeFunctionAsObject(context, writer);
                 break;
+            default:
+                if (methodRef.getName().startsWith("dataTo")) {
+                    writeDataToArray(context, writer, methodRef);
+                }
+                break;
+        }
+    }
+
+    private void writeDataToArray(GeneratorContext context, SourceWriter writer, MethodReference methodRef)
+            throws IOException {
+        ValueType itemType = ((ValueType.Array) methodRef.getReturnType()).getItemType();
+        String data = context.getParameterName(1);
+        writer.append("return ").append(data).ws().append("!==").ws().append("null").ws().append("?").ws()
+                .append("$rt_wrapArray($rt_").append(primitiveClassName(itemType)).append("cls(),").ws()
+                .append(data).append(")").ws().append(":").ws().append("null;").softNewLine();
+    }
+
+    private static String primitiveClassName(ValueType type) {
+        switch (((ValueType.Primitive) type).getKind()) {
+            case BYTE:
+                return "byte";
+            case SHORT:
+                return "short";
+            case CHARACTER:
+                return "char";
+            case INTEGER:
+                return "int";
+            case FLOAT:
+                return "float";
+            case DOUBLE:
+                return "double";
+            default:
+                throw new IllegalArgumentException("Unsupported type: " + type);
         }
     }
 
@@ -195,6 +228,11 @@ public class JSNativeGenerator implements Injector, DependencyPlugin, Generator
             case "unwrapString":
                 method.getResult().propagate(agent.getType("java.lang.String"));
                 break;
+            default:
+                if (method.getReference().getName().startsWith("dataTo")) {
+                    method.getResult().propagate(agent.getType(method.getReference().getReturnType().toString()));
+                }
+                break;
         }
     }
 
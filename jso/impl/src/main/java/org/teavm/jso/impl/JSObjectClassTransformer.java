@@ -67,6 +67,7 @@ class JSObjectClassTransformer implements ClassHolderTransformer {
             typeHelper = new JSTypeHelper(innerSource);
             processor = new JSClassProcessor(innerSource, typeHelper, repository, diagnostics);
         }
+        processor.prefetchJSBodies(cls);
         processor.processClass(cls);
         if (typeHelper.isJavaScriptClass(cls.getName())) {
             processor.processMemberMethods(cls);
@@ -97,6 +97,14 @@ class JSTypeHelper {
         }
     }
 
+    public boolean isSupportedByRefResultType(ValueType type) {
+        if (!(type instanceof ValueType.Array)) {
+            return false;
+        }
+        ValueType itemType = ((ValueType.Array) type).getItemType();
+        return itemType instanceof ValueType.Primitive && isSupportedByRefType(type);
+    }
+
     public boolean isSupportedByRefType(ValueType type) {
         if (!(type instanceof ValueType.Array)) {
             return false;
@@ -218,6 +218,13 @@ class JSValueMarshaller {
     }
 
     Variable unwrapReturnValue(CallLocation location, Variable var, ValueType type) {
+        return unwrapReturnValue(location, var, type, false);
+    }
+
+    Variable unwrapReturnValue(CallLocation location, Variable var, ValueType type, boolean byRef) {
+        if (byRef) {
+            return unwrapByRef(location, var, type);
+        }
         if (type instanceof ValueType.Object) {
             String className = ((ValueType.Object) type).getClassName();
             ClassReader cls = classSource.get(className);
@@ -228,6 +235,35 @@ class JSValueMarshaller {
         return unwrap(location, var, type);
     }
 
+    private Variable unwrapByRef(CallLocation location, Variable var, ValueType type) {
+        ValueType itemType = ((ValueType.Array) type).getItemType();
+        String methodName;
+        switch (((ValueType.Primitive) itemType).getKind()) {
+            case BYTE:
+                methodName = "dataToByteArray";
+                break;
+            case SHORT:
+                methodName = "dataToShortArray";
+                break;
+            case CHARACTER:
+                methodName = "dataToCharArray";
+                break;
+            case INTEGER:
+                methodName = "dataToIntArray";
+                break;
+            case FLOAT:
+                methodName = "dataToFloatArray";
+                break;
+            case DOUBLE:
+                methodName = "dataToDoubleArray";
+                break;
+            default:
+                diagnostics.error(location, "Unsupported type: {{t0}}", type);
+                return var;
+        }
+        return unwrap(var, methodName, ValueType.parse(JSObject.class), type, location.getSourceLocation());
+    }
+
     Variable unwrap(CallLocation location, Variable var, ValueType type) {
         if (type instanceof ValueType.Primitive) {
             switch (((ValueType.Primitive) type).getKind()) {
@@ -174,9 +174,9 @@ public final class Platform {
         runnable.run();
     }
 
-    public static void postpone(PlatformRunnable runnable) {
-        schedule(runnable, 0);
-    }
+    @GeneratedBy(PlatformGenerator.class)
+    @PluggableDependency(PlatformGenerator.class)
+    public static native void postpone(PlatformRunnable runnable);
 
     @GeneratedBy(PlatformGenerator.class)
     @PluggableDependency(PlatformGenerator.class)
@@ -41,7 +41,8 @@ public class PlatformGenerator implements Generator, Injector, DependencyPlugin
                 method.getVariable(1).connect(method.getResult());
                 break;
             case "startThread":
-            case "schedule": {
+            case "schedule":
+            case "postpone": {
                 MethodDependency launchMethod = agent.linkMethod(new MethodReference(Platform.class,
                         "launchThread", PlatformRunnable.class, void.class), null);
                 method.getVariable(1).connect(launchMethod.getVariable(1));
@@ -92,6 +93,9 @@ public class PlatformGenerator implements Generator, Injector, DependencyPlugin
             case "schedule":
                 generateSchedule(context, writer, true);
                 break;
+            case "postpone":
+                generatePostpone(context, writer);
+                break;
             case "getEnumConstants":
                 generateEnumConstants(context, writer);
                 break;
@@ -177,6 +181,15 @@ public class PlatformGenerator implements Generator, Injector, DependencyPlugin
                 .append(");").softNewLine();
     }
 
+    private void generatePostpone(GeneratorContext context, SourceWriter writer) throws IOException {
+        MethodReference launchRef = new MethodReference(Platform.class, "launchThread",
+                PlatformRunnable.class, void.class);
+        String runnable = context.getParameterName(1);
+        writer.append("$rt_postpone(function()").ws().append("{").indent().softNewLine();
+        writer.appendMethodBody(launchRef).append("(").append(runnable).append(");").softNewLine();
+        writer.outdent().append("});").softNewLine();
+    }
+
     private void generateEnumConstants(GeneratorContext context, SourceWriter writer) throws IOException {
         writer.append("var c").ws().append("=").ws().append("'$$enumConstants$$';").softNewLine();
         for (String clsName : context.getClassSource().getClassNames()) {
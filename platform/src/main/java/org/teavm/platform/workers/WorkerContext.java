@@ -0,0 +1,49 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.platform.workers;
+
+import org.teavm.jso.JSObject;
+import org.teavm.jso.core.JSArray;
+
+/**
+ * State of a single request processed by a worker. Worker runs every request in its own thread, and
+ * a task may suspend, letting other requests run meanwhile, so everything a task wants to tell about its
+ * result goes through its own context rather than through static state.
+ *
+ * @see WorkerTask#run(JSObject, WorkerContext)
+ */
+public final class WorkerContext {
+    private JSArray<JSObject> transfers = JSArray.create();
+
+    WorkerContext() {
+    }
+
+    /**
+     * Specifies that given object (usually an <code>ArrayBuffer</code>) should be transferred to the page
+     * rather than copied. Has no effect after the task has returned.
+     */
+    public void transferResult(JSObject transferable) {
+        if (transfers != null) {
+            transfers.push(transferable);
+        }
+    }
+
+    JSArray<JSObject> close() {
+        JSArray<JSObject> result = transfers;
+        transfers = null;
+        return result;
+    }
+}
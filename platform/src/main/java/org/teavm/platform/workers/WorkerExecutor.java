@@ -0,0 +1,257 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.platform.workers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Future;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.core.JSArray;
+import org.teavm.jso.dom.events.EventListener;
+import org.teavm.jso.dom.events.MessageEvent;
+import org.teavm.jso.workers.Worker;
+
+/**
+ * <p>Runs {@link WorkerTask tasks} in a pool of web workers, so that CPU-bound work uses more than one
+ * core. Workers run the same compiled program as the page. The program is expected to register
+ * its tasks and then to call {@link #serve()} when it runs in a worker:</p>
+ *
+ * <pre>
+ * public static void main(String[] args) {
+ *     WorkerExecutor.register("sum", (argument, context) -&gt; ...);
+ *     if (WorkerExecutor.isWorker()) {
+ *         WorkerExecutor.serve();
+ *         return;
+ *     }
+ *     WorkerExecutor executor = new WorkerExecutor(4, "teavm/runtime.js", "teavm/classes.js");
+ *     Future&lt;JSObject&gt; result = executor.submit("sum", argument);
+ *     ...
+ * }
+ * </pre>
+ *
+ * <p>Since Java objects can't be shared between workers, tasks are identified by name and exchange
+ * JavaScript values only. Typed arrays can be moved instead of copied by listing their buffers as
+ * transferables, see {@link #submit(String, JSObject, JSObject...)} and
+ * {@link WorkerContext#transferResult(JSObject)}.
+ * A transferred buffer becomes unusable on the sending side, so never transfer buffers that back Java
+ * arrays.</p>
+ */
+public class WorkerExecutor {
+    private static final Map<String, WorkerTask> tasks = new HashMap<>();
+    private static final Responder POST_MESSAGE = new Responder() {
+        @Override
+        public void respond(int id, JSObject result, JSArray<JSObject> transfers) {
+            postResult(id, result, transfers);
+        }
+
+        @Override
+        public void respondWithError(int id, String error) {
+            postError(id, error);
+        }
+    };
+    private Worker[] workers;
+    private int[] workerLoad;
+    private Map<Integer, WorkerFuture> pendingFutures = new HashMap<>();
+    private Map<Integer, Integer> pendingWorkers = new HashMap<>();
+    private int nextId;
+
+    /**
+     * Creates pool of workers.
+     *
+     * @param size number of workers.
+     * @param scripts URLs of scripts that constitute the compiled program, in order of loading. Relative URLs
+     * are resolved against the current page. Program must be started by global <code>main</code> function.
+     */
+    public WorkerExecutor(int size, String... scripts) {
+        this(createWorkers(size, createBootstrapUrl(scripts)));
+    }
+
+    WorkerExecutor(Worker[] workers) {
+        this.workers = workers;
+        workerLoad = new int[workers.length];
+        for (Worker worker : workers) {
+            worker.onMessage(event -> receive(event.getData()));
+        }
+    }
+
+    private static Worker[] createWorkers(int size, String url) {
+        Worker[] workers = new Worker[size];
+        for (int i = 0; i < size; ++i) {
+            workers[i] = Worker.create(url);
+        }
+        return workers;
+    }
+
+    /**
+     * Returns number of logical processors reported by browser, which is a reasonable size of a pool.
+     */
+    @JSBody(script = "return navigator.hardwareConcurrency || 1;")
+    public static native int getAvailableProcessors();
+
+    @JSBody(script = "return typeof WorkerGlobalScope !== 'undefined' && self instanceof WorkerGlobalScope;")
+    public static native boolean isWorker();
+
+    public static void register(String name, WorkerTask task) {
+        tasks.put(name, task);
+    }
+
+    /**
+     * Starts processing tasks sent by {@link WorkerExecutor} from the page. Must be called from a worker.
+     */
+    public static void serve() {
+        listen(event -> new Thread(() -> process(event.getData(), POST_MESSAGE)).start());
+    }
+
+    /**
+     * Sends a task to the least loaded worker.
+     *
+     * @param task name of the task, as passed to {@link #register(String, WorkerTask)}.
+     * @param argument argument of the task.
+     * @param transfer objects that should be transferred to the worker rather than copied.
+     * @return future that completes with the result of the task.
+     */
+    public Future<JSObject> submit(String task, JSObject argument, JSObject... transfer) {
+        if (workers == null) {
+            throw new IllegalStateException("Executor is shut down");
+        }
+        int workerIndex = 0;
+        for (int i = 1; i < workers.length; ++i) {
+            if (workerLoad[i] < workerLoad[workerIndex]) {
+                workerIndex = i;
+            }
+        }
+
+        int id = nextId++;
+        WorkerFuture future = new WorkerFuture(this, id);
+        pendingFutures.put(id, future);
+        pendingWorkers.put(id, workerIndex);
+        workerLoad[workerIndex]++;
+        workers[workerIndex].postMessage(createRequest(id, task, argument), transfer);
+        return future;
+    }
+
+    /**
+     * Terminates all workers. Futures of tasks that are still running get cancelled.
+     */
+    public void shutdown() {
+        if (workers != null) {
+            for (Worker worker : workers) {
+                worker.terminate();
+            }
+            workers = null;
+        }
+        List<WorkerFuture> futures = new ArrayList<>(pendingFutures.values());
+        pendingFutures.clear();
+        pendingWorkers.clear();
+        Arrays.fill(workerLoad, 0);
+        for (WorkerFuture future : futures) {
+            future.abort();
+        }
+    }
+
+    void cancel(int id) {
+        pendingFutures.remove(id);
+        Integer workerIndex = pendingWorkers.remove(id);
+        if (workerIndex != null) {
+            workerLoad[workerIndex]--;
+        }
+    }
+
+    private void receive(JSObject response) {
+        int id = getId(response);
+        WorkerFuture future = pendingFutures.get(id);
+        if (future == null) {
+            return;
+        }
+        cancel(id);
+        String error = getError(response);
+        if (error != null) {
+            future.fail(error);
+        } else {
+            future.complete(getResult(response));
+        }
+    }
+
+    static void process(JSObject request, Responder responder) {
+        int id = getId(request);
+        String name = getTaskName(request);
+        WorkerTask task = tasks.get(name);
+        if (task == null) {
+            responder.respondWithError(id, "Task not registered: " + name);
+            return;
+        }
+
+        WorkerContext context = new WorkerContext();
+        JSObject result;
+        JSArray<JSObject> transfers;
+        try {
+            result = task.run(getArgument(request), context);
+        } catch (Throwable e) {
+            responder.respondWithError(id, e.getClass().getName() + ": " + e.getMessage());
+            return;
+        } finally {
+            transfers = context.close();
+        }
+        responder.respond(id, result, transfers);
+    }
+
+    interface Responder {
+        void respond(int id, JSObject result, JSArray<JSObject> transfers);
+
+        void respondWithError(int id, String error);
+    }
+
+    @JSBody(params = "scripts", script = ""
+            + "var urls = [];"
+            + "for (var i = 0; i < scripts.length; ++i) {"
+                + "urls.push(JSON.stringify(new URL(scripts[i], location.href).href));"
+            + "}"
+            + "var code = 'importScripts(' + urls.join(', ') + ');\\nmain([]);';"
+            + "return URL.createObjectURL(new Blob([code], { type: 'application/javascript' }));")
+    private static native String createBootstrapUrl(String[] scripts);
+
+    @JSBody(params = "listener", script = "self.onmessage = listener;")
+    private static native void listen(EventListener<MessageEvent> listener);
+
+    @JSBody(params = { "id", "task", "argument" }, script = "return { id: id, task: task, argument: argument };")
+    static native JSObject createRequest(int id, String task, JSObject argument);
+
+    @JSBody(params = { "id", "result", "transfers" }, script = "self.postMessage({ id: id, result: result }, "
+            + "transfers);")
+    private static native void postResult(int id, JSObject result, JSArray<JSObject> transfers);
+
+    @JSBody(params = { "id", "error" }, script = "self.postMessage({ id: id, error: error });")
+    private static native void postError(int id, String error);
+
+    @JSBody(params = "message", script = "return message.id;")
+    private static native int getId(JSObject message);
+
+    @JSBody(params = "message", script = "return message.task;")
+    private static native String getTaskName(JSObject message);
+
+    @JSBody(params = "message", script = "return message.argument;")
+    private static native JSObject getArgument(JSObject message);
+
+    @JSBody(params = "message", script = "return message.result;")
+    private static native JSObject getResult(JSObject message);
+
+    @JSBody(params = "message", script = "return message.error || null;")
+    private static native String getError(JSObject message);
+}
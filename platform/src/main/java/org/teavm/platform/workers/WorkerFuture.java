@@ -0,0 +1,166 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.platform.workers;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.teavm.interop.Async;
+import org.teavm.jso.JSObject;
+import org.teavm.platform.Platform;
+import org.teavm.platform.PlatformRunnable;
+import org.teavm.platform.async.AsyncCallback;
+
+class WorkerFuture implements Future<JSObject> {
+    private WorkerExecutor executor;
+    private int id;
+    private boolean done;
+    private boolean cancelled;
+    private JSObject result;
+    private String error;
+    private List<Waiter> waiters = new ArrayList<>();
+
+    WorkerFuture(WorkerExecutor executor, int id) {
+        this.executor = executor;
+        this.id = id;
+    }
+
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+        if (done) {
+            return false;
+        }
+        executor.cancel(id);
+        cancelled = true;
+        finish();
+        return true;
+    }
+
+    @Override
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    @Override
+    public boolean isDone() {
+        return done;
+    }
+
+    @Override
+    public JSObject get() throws InterruptedException, ExecutionException {
+        if (!done) {
+            await(-1);
+        }
+        return getResult();
+    }
+
+    @Override
+    public JSObject get(long timeout, TimeUnit unit) throws InterruptedException, ExecutionException,
+            TimeoutException {
+        if (!done) {
+            long millis = unit.toMillis(timeout);
+            if (millis <= 0) {
+                throw new TimeoutException();
+            }
+            await(millis < Integer.MAX_VALUE ? (int) millis : Integer.MAX_VALUE);
+            if (!done) {
+                throw new TimeoutException();
+            }
+        }
+        return getResult();
+    }
+
+    private JSObject getResult() throws ExecutionException {
+        if (cancelled) {
+            throw new CancellationException();
+        }
+        if (error != null) {
+            throw new ExecutionException(new RuntimeException(error));
+        }
+        return result;
+    }
+
+    void abort() {
+        if (!done) {
+            cancelled = true;
+            finish();
+        }
+    }
+
+    void complete(JSObject result) {
+        this.result = result;
+        finish();
+    }
+
+    void fail(String error) {
+        this.error = error;
+        finish();
+    }
+
+    private void finish() {
+        done = true;
+        List<Waiter> waitersToResume = waiters;
+        waiters = new ArrayList<>();
+        for (Waiter waiter : waitersToResume) {
+            waiter.resume();
+        }
+    }
+
+    @Async
+    private native Boolean await(int timeout);
+
+    private void await(int timeout, AsyncCallback<Boolean> callback) {
+        Waiter waiter = new Waiter(callback);
+        waiters.add(waiter);
+        if (timeout >= 0) {
+            waiter.scheduleId = Platform.schedule(waiter, timeout);
+        }
+    }
+
+    class Waiter implements PlatformRunnable {
+        private AsyncCallback<Boolean> callback;
+        private boolean resumed;
+        int scheduleId = -1;
+
+        Waiter(AsyncCallback<Boolean> callback) {
+            this.callback = callback;
+        }
+
+        void resume() {
+            if (scheduleId >= 0) {
+                Platform.killSchedule(scheduleId);
+            }
+            complete();
+        }
+
+        @Override
+        public void run() {
+            waiters.remove(this);
+            complete();
+        }
+
+        private void complete() {
+            if (!resumed) {
+                resumed = true;
+                callback.complete(Boolean.TRUE);
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.platform.workers;
+
+import org.teavm.jso.JSObject;
+
+/**
+ * Task that runs in a web worker. Both argument and result are passed between the page and the worker
+ * using structured cloning, so they must be plain JavaScript values (numbers, strings, arrays, plain objects,
+ * typed arrays and so forth), not Java objects.
+ *
+ * @see WorkerExecutor#register(String, WorkerTask)
+ */
+public interface WorkerTask {
+    /**
+     * Runs the task.
+     *
+     * @param argument argument passed to {@link WorkerExecutor#submit(String, JSObject, JSObject...)}.
+     * @param context context of this particular run, see {@link WorkerContext#transferResult(JSObject)}.
+     */
+    JSObject run(JSObject argument, WorkerContext context) throws Exception;
+}
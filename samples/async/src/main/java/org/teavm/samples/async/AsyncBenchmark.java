@@ -0,0 +1,94 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.async;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Measures cost of calls along async paths, i.e. calls of methods that may suspend, both when
+ * they actually suspend and when they do not, and throughput of passing values between threads.
+ */
+public final class AsyncBenchmark {
+    private static final int CALL_ITERATIONS = 1000000;
+    private static final int SUSPEND_ITERATIONS = 200;
+    private static final int DEPTH = 20;
+    private static final int HANDOFF_ITERATIONS = 20000;
+    private static int counter;
+
+    private AsyncBenchmark() {
+    }
+
+    public static void main(String[] args) throws InterruptedException {
+        for (int i = 0; i < 3; ++i) {
+            long start = System.currentTimeMillis();
+            for (int j = 0; j < CALL_ITERATIONS; ++j) {
+                maybeSuspend(j, false);
+            }
+            report("Calls of async methods without suspension", CALL_ITERATIONS, start);
+
+            start = System.currentTimeMillis();
+            for (int j = 0; j < SUSPEND_ITERATIONS; ++j) {
+                deepCall(DEPTH, j);
+            }
+            report("Suspensions at depth " + DEPTH, SUSPEND_ITERATIONS, start);
+
+            start = System.currentTimeMillis();
+            handoff(HANDOFF_ITERATIONS);
+            report("Handoffs between producer and consumer", HANDOFF_ITERATIONS, start);
+        }
+        System.out.println("Counter: " + counter);
+    }
+
+    private static void deepCall(int depth, int value) throws InterruptedException {
+        int local = value * 31 + depth;
+        if (depth == 0) {
+            maybeSuspend(local, true);
+        } else {
+            deepCall(depth - 1, value);
+        }
+        counter += local;
+    }
+
+    private static void maybeSuspend(int value, boolean suspend) throws InterruptedException {
+        if (suspend) {
+            Thread.yield();
+        }
+        counter += value & 1;
+    }
+
+    private static void handoff(int count) throws InterruptedException {
+        BlockingQueue<Integer> queue = new ArrayBlockingQueue<>(1);
+        Thread producer = new Thread(() -> {
+            try {
+                for (int i = 0; i < count; ++i) {
+                    queue.put(i);
+                }
+            } catch (InterruptedException e) {
+                // Benchmark is over
+            }
+        });
+        producer.start();
+        for (int i = 0; i < count; ++i) {
+            counter += queue.take() & 1;
+        }
+    }
+
+    private static void report(String name, int iterations, long start) {
+        long time = System.currentTimeMillis() - start;
+        System.out.println(name + ": " + iterations + " iterations in " + time + " ms");
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.benchmark.teavm;
+
+import java.math.BigInteger;
+import java.util.Random;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.browser.Performance;
+import org.teavm.jso.browser.Window;
+import org.teavm.jso.dom.html.HTMLDocument;
+import org.teavm.jso.dom.html.HTMLElement;
+
+/**
+ * <p>Measures {@link BigInteger} multiplication, division and modular exponentiation on operands
+ * of different sizes. Small operands use the schoolbook algorithms, large ones go through Karatsuba,
+ * Toom-Cook and Burnikel-Ziegler. Browser's native <code>BigInt</code> is measured on the same operands
+ * as a reference, when available.</p>
+ *
+ * <p>Like in JMH, several warm-up iterations are followed by measured ones, average time per iteration is
+ * reported.</p>
+ */
+public final class BigIntegerBenchmark {
+    private static final int[] SIZES = { 1024, 8192, 32768, 131072 };
+    private static final int WARMUP_ITERATIONS = 3;
+    private static final int MEASUREMENT_ITERATIONS = 10;
+    private static HTMLDocument document = Window.current().getDocument();
+    private static HTMLElement resultTableBody = document.getElementById("result-table-body");
+    private static int checksum;
+
+    private BigIntegerBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        for (int bits : SIZES) {
+            BigInteger a = new BigInteger(bits, random).setBit(bits - 1);
+            BigInteger b = new BigInteger(bits, random).setBit(bits - 1);
+            BigInteger product = a.multiply(b);
+            BigInteger divisor = new BigInteger(bits / 2, random).setBit(bits / 2 - 1);
+            boolean nativeAvailable = isBigIntSupported();
+            JSObject nativeA = nativeAvailable ? toBigInt(a.toString(16)) : null;
+            JSObject nativeB = nativeAvailable ? toBigInt(b.toString(16)) : null;
+            JSObject nativeProduct = nativeAvailable ? toBigInt(product.toString(16)) : null;
+            JSObject nativeDivisor = nativeAvailable ? toBigInt(divisor.toString(16)) : null;
+
+            benchmark("Multiply", bits, () -> a.multiply(b).bitLength(),
+                    nativeAvailable ? () -> multiplyNative(nativeA, nativeB) : null);
+            benchmark("Divide", bits, () -> product.divide(divisor).bitLength(),
+                    nativeAvailable ? () -> divideNative(nativeProduct, nativeDivisor) : null);
+        }
+
+        BigInteger modulus = new BigInteger(2048, random).setBit(2047).setBit(0);
+        BigInteger base = new BigInteger(2047, random);
+        BigInteger exponent = new BigInteger(2048, random);
+        benchmark("Modular exponentiation", 2048, () -> base.modPow(exponent, modulus).bitLength(), null);
+
+        System.out.println("Checksum: " + checksum);
+    }
+
+    private static void benchmark(String name, int bits, Workload workload, Workload nativeWorkload) {
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            checksum += workload.run();
+            if (nativeWorkload != null) {
+                checksum += nativeWorkload.run();
+            }
+        }
+
+        double start = Performance.now();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            checksum += workload.run();
+        }
+        double time = (Performance.now() - start) / MEASUREMENT_ITERATIONS;
+
+        String nativeTime = "n/a";
+        if (nativeWorkload != null) {
+            start = Performance.now();
+            for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+                checksum += nativeWorkload.run();
+            }
+            nativeTime = format((Performance.now() - start) / MEASUREMENT_ITERATIONS);
+        }
+
+        report(name, bits, format(time), nativeTime);
+    }
+
+    interface Workload {
+        int run();
+    }
+
+    @JSBody(script = "return typeof BigInt === 'function';")
+    private static native boolean isBigIntSupported();
+
+    @JSBody(params = "hex", script = "return BigInt('0x' + hex);")
+    private static native JSObject toBigInt(String hex);
+
+    @JSBody(params = { "a", "b" }, script = "return (a * b).toString(16).length;")
+    private static native int multiplyNative(JSObject a, JSObject b);
+
+    @JSBody(params = { "a", "b" }, script = "return (a / b).toString(16).length;")
+    private static native int divideNative(JSObject a, JSObject b);
+
+    private static void report(String name, int bits, String time, String nativeTime) {
+        HTMLElement row = document.createElement("tr");
+        resultTableBody.appendChild(row);
+        appendCell(row, name);
+        appendCell(row, String.valueOf(bits));
+        appendCell(row, time);
+        appendCell(row, nativeTime);
+        System.out.println(name + " (" + bits + " bits): BigInteger " + time + " ms/op, BigInt " + nativeTime
+                + " ms/op");
+    }
+
+    private static void appendCell(HTMLElement row, String text) {
+        HTMLElement cell = document.createElement("td");
+        cell.appendChild(document.createTextNode(text));
+        row.appendChild(cell);
+    }
+
+    private static String format(double time) {
+        return String.valueOf(Math.round(time * 100) / 100.0);
+    }
+}
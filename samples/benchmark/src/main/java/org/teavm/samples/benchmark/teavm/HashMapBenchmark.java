@@ -0,0 +1,263 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.benchmark.teavm;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.browser.Performance;
+import org.teavm.jso.browser.Window;
+import org.teavm.jso.dom.html.HTMLDocument;
+import org.teavm.jso.dom.html.HTMLElement;
+
+/**
+ * Compares open-addressing <code>HashMap</code> with a chained hash table laid out the way <code>HashMap</code>
+ * used to be, one node object per mapping. Throughput is measured in JMH fashion: several warm-up iterations
+ * are followed by measured ones, average time per iteration is reported. Memory per entry is taken from
+ * <code>performance.memory</code>, which only some browsers provide.
+ */
+public final class HashMapBenchmark {
+    private static final int SIZE = 100000;
+    private static final int MAPS_FOR_MEMORY = 10;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 20;
+    private static HTMLDocument document = Window.current().getDocument();
+    private static HTMLElement resultTableBody = document.getElementById("result-table-body");
+    private static int checksum;
+
+    private HashMapBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        Integer[] intKeys = new Integer[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            intKeys[i] = random.nextInt();
+        }
+        benchmark("Random Integer keys", intKeys);
+
+        Integer[] sequentialKeys = new Integer[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            sequentialKeys[i] = i;
+        }
+        benchmark("Sequential Integer keys", sequentialKeys);
+
+        String[] stringKeys = new String[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            stringKeys[i] = "key" + random.nextInt();
+        }
+        benchmark("String keys", stringKeys);
+
+        measureMemory(intKeys);
+
+        System.out.println("Checksum: " + checksum);
+    }
+
+    private static void benchmark(String name, Object[] keys) {
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            runOpenAddressing(keys);
+            runChained(keys);
+        }
+
+        double start = Performance.now();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            runOpenAddressing(keys);
+        }
+        double openAddressingTime = (Performance.now() - start) / MEASUREMENT_ITERATIONS;
+
+        start = Performance.now();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            runChained(keys);
+        }
+        double chainedTime = (Performance.now() - start) / MEASUREMENT_ITERATIONS;
+
+        report(name + ", ms/op", format(openAddressingTime), format(chainedTime));
+    }
+
+    private static void runOpenAddressing(Object[] keys) {
+        Map<Object, Object> map = new HashMap<>();
+        for (int i = 0; i < keys.length; ++i) {
+            map.put(keys[i], keys[i]);
+        }
+        for (int i = 0; i < keys.length; ++i) {
+            if (map.get(keys[i]) != null) {
+                checksum++;
+            }
+        }
+        for (Iterator<Object> iter = map.values().iterator(); iter.hasNext();) {
+            checksum += iter.next().hashCode();
+        }
+        for (int i = 0; i < keys.length; i += 2) {
+            map.remove(keys[i]);
+        }
+        checksum += map.size();
+    }
+
+    private static void runChained(Object[] keys) {
+        ChainedHashMap map = new ChainedHashMap();
+        for (int i = 0; i < keys.length; ++i) {
+            map.put(keys[i], keys[i]);
+        }
+        for (int i = 0; i < keys.length; ++i) {
+            if (map.get(keys[i]) != null) {
+                checksum++;
+            }
+        }
+        for (Node node : map.table) {
+            for (; node != null; node = node.next) {
+                checksum += node.value.hashCode();
+            }
+        }
+        for (int i = 0; i < keys.length; i += 2) {
+            map.remove(keys[i]);
+        }
+        checksum += map.size;
+    }
+
+    private static void measureMemory(Object[] keys) {
+        if (usedHeapSize() < 0) {
+            report("Memory per entry, bytes", "n/a", "n/a");
+            return;
+        }
+
+        Object[] maps = new Object[MAPS_FOR_MEMORY];
+        double before = usedHeapSize();
+        for (int i = 0; i < maps.length; ++i) {
+            Map<Object, Object> map = new HashMap<>();
+            for (Object key : keys) {
+                map.put(key, key);
+            }
+            maps[i] = map;
+        }
+        double openAddressingSize = (usedHeapSize() - before) / (maps.length * keys.length);
+        checksum += maps.length;
+
+        maps = new Object[MAPS_FOR_MEMORY];
+        before = usedHeapSize();
+        for (int i = 0; i < maps.length; ++i) {
+            ChainedHashMap map = new ChainedHashMap();
+            for (Object key : keys) {
+                map.put(key, key);
+            }
+            maps[i] = map;
+        }
+        double chainedSize = (usedHeapSize() - before) / (maps.length * keys.length);
+        checksum += maps.length;
+
+        report("Memory per entry, bytes", format(openAddressingSize), format(chainedSize));
+    }
+
+    @JSBody(script = "return window.performance && performance.memory ? performance.memory.usedJSHeapSize : -1;")
+    private static native double usedHeapSize();
+
+    private static void report(String name, String openAddressing, String chained) {
+        HTMLElement row = document.createElement("tr");
+        resultTableBody.appendChild(row);
+        appendCell(row, name);
+        appendCell(row, openAddressing);
+        appendCell(row, chained);
+        System.out.println(name + ": open addressing " + openAddressing + ", chained " + chained);
+    }
+
+    private static void appendCell(HTMLElement row, String text) {
+        HTMLElement cell = document.createElement("td");
+        cell.appendChild(document.createTextNode(text));
+        row.appendChild(cell);
+    }
+
+    private static String format(double value) {
+        return String.valueOf(Math.round(value * 100) / 100.0);
+    }
+
+    static class ChainedHashMap {
+        Node[] table = new Node[16];
+        int size;
+
+        Object get(Object key) {
+            int hash = key.hashCode();
+            for (Node node = table[hash & (table.length - 1)]; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    return node.value;
+                }
+            }
+            return null;
+        }
+
+        void put(Object key, Object value) {
+            int hash = key.hashCode();
+            int index = hash & (table.length - 1);
+            for (Node node = table[index]; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    node.value = value;
+                    return;
+                }
+            }
+            table[index] = new Node(key, value, hash, table[index]);
+            if (++size > table.length * 3 / 4) {
+                resize();
+            }
+        }
+
+        void remove(Object key) {
+            int hash = key.hashCode();
+            int index = hash & (table.length - 1);
+            Node previous = null;
+            for (Node node = table[index]; node != null; node = node.next) {
+                if (node.hash == hash && node.key.equals(key)) {
+                    if (previous == null) {
+                        table[index] = node.next;
+                    } else {
+                        previous.next = node.next;
+                    }
+                    --size;
+                    return;
+                }
+                previous = node;
+            }
+        }
+
+        private void resize() {
+            Node[] newTable = new Node[table.length * 2];
+            for (Node node : table) {
+                while (node != null) {
+                    Node next = node.next;
+                    int index = node.hash & (newTable.length - 1);
+                    node.next = newTable[index];
+                    newTable[index] = node;
+                    node = next;
+                }
+            }
+            table = newTable;
+        }
+    }
+
+    static class Node {
+        final Object key;
+        Object value;
+        final int hash;
+        Node next;
+
+        Node(Object key, Object value, int hash, Node next) {
+            this.key = key;
+            this.value = value;
+            this.hash = hash;
+            this.next = next;
+        }
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.benchmark.teavm;
+
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.teavm.jso.browser.Performance;
+import org.teavm.jso.browser.Window;
+import org.teavm.jso.dom.html.HTMLDocument;
+import org.teavm.jso.dom.html.HTMLElement;
+
+/**
+ * <p>Compares regular expressions that take the fast path (native <code>RegExp</code> on JavaScript, DFA on other
+ * targets) with the interpreter. The interpreter is measured by compiling the same patterns with
+ * {@link Pattern#COMMENTS}, which the fast path does not support. Patterns contain neither whitespace
+ * nor <code>#</code>, so the flag does not change their meaning.</p>
+ *
+ * <p>Like in JMH, several warm-up iterations are followed by measured ones, average time per iteration is
+ * reported.</p>
+ */
+public final class RegexBenchmark {
+    private static final int LINE_COUNT = 5000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 20;
+    private static final String[] WORDS = { "alpha", "beta", "gamma", "delta", "user", "mail", "teavm", "regex" };
+    private static final String[] LEVELS = { "INFO", "WARN", "ERROR", "DEBUG" };
+    private static HTMLDocument document = Window.current().getDocument();
+    private static HTMLElement resultTableBody = document.getElementById("result-table-body");
+    private static int checksum;
+
+    private RegexBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+        String[] logLines = new String[LINE_COUNT];
+        String[] tokens = new String[LINE_COUNT];
+        StringBuilder text = new StringBuilder();
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < LINE_COUNT; ++i) {
+            logLines[i] = "2018-0" + (1 + random.nextInt(9)) + "-1" + random.nextInt(10) + " 1" + random.nextInt(10)
+                    + ":" + (10 + random.nextInt(50)) + ":" + (10 + random.nextInt(50)) + " ["
+                    + LEVELS[random.nextInt(LEVELS.length)] + "] " + sentence(random);
+            tokens[i] = random.nextBoolean()
+                    ? word(random) + "." + word(random) + "@" + word(random) + ".com"
+                    : word(random) + " " + random.nextInt(1000);
+            text.append(sentence(random)).append(' ').append(tokens[i]).append(".\n");
+            csv.append(word(random)).append(random.nextBoolean() ? " , " : ",").append(random.nextInt(100));
+            csv.append(',');
+        }
+
+        benchmark("Parse log lines", "(\\d{4}-\\d\\d-\\d\\d)\\x20(\\d\\d:\\d\\d:\\d\\d)\\x20\\[(\\w+)\\]\\x20(.*)",
+                pattern -> {
+                    int result = 0;
+                    for (String line : logLines) {
+                        Matcher matcher = pattern.matcher(line);
+                        if (matcher.matches()) {
+                            result += matcher.group(3).length();
+                        }
+                    }
+                    return result;
+                });
+        benchmark("Validate e-mails", "[a-z0-9._]+@[a-z0-9]+\\.[a-z]{2,4}", pattern -> {
+            int result = 0;
+            for (String token : tokens) {
+                if (pattern.matcher(token).matches()) {
+                    result++;
+                }
+            }
+            return result;
+        });
+        String textString = text.toString();
+        benchmark("Find e-mails in text", "\\w+\\.\\w+@\\w+\\.com", pattern -> {
+            Matcher matcher = pattern.matcher(textString);
+            int result = 0;
+            while (matcher.find()) {
+                result += matcher.end() - matcher.start();
+            }
+            return result;
+        });
+        String csvString = csv.toString();
+        benchmark("Split", "\\s*,\\s*", pattern -> pattern.split(csvString).length);
+        benchmark("Replace all", "\\d+", pattern -> pattern.matcher(textString)
+                .replaceAll("#").length());
+
+        System.out.println("Checksum: " + checksum);
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    private static String sentence(Random random) {
+        StringBuilder sb = new StringBuilder(word(random));
+        int length = 3 + random.nextInt(8);
+        for (int i = 0; i < length; ++i) {
+            sb.append(' ').append(word(random));
+        }
+        return sb.toString();
+    }
+
+    private static void benchmark(String name, String regex, Workload workload) {
+        Pattern fastPattern = Pattern.compile(regex);
+        Pattern interpretedPattern = Pattern.compile(regex, Pattern.COMMENTS);
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            checksum += workload.run(fastPattern);
+            checksum += workload.run(interpretedPattern);
+        }
+
+        double start = Performance.now();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            checksum += workload.run(fastPattern);
+        }
+        double fastTime = (Performance.now() - start) / MEASUREMENT_ITERATIONS;
+
+        start = Performance.now();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            checksum += workload.run(interpretedPattern);
+        }
+        double interpretedTime = (Performance.now() - start) / MEASUREMENT_ITERATIONS;
+
+        report(name, fastTime, interpretedTime);
+    }
+
+    interface Workload {
+        int run(Pattern pattern);
+    }
+
+    private static void report(String name, double fastTime, double interpretedTime) {
+        HTMLElement row = document.createElement("tr");
+        resultTableBody.appendChild(row);
+        appendCell(row, name);
+        appendCell(row, format(fastTime));
+        appendCell(row, format(interpretedTime));
+        System.out.println(name + ": fast path " + format(fastTime) + " ms/op, interpreter "
+                + format(interpretedTime) + " ms/op");
+    }
+
+    private static void appendCell(HTMLElement row, String text) {
+        HTMLElement cell = document.createElement("td");
+        cell.appendChild(document.createTextNode(text));
+        row.appendChild(cell);
+    }
+
+    private static String format(double time) {
+        return String.valueOf(Math.round(time * 100) / 100.0);
+    }
+}
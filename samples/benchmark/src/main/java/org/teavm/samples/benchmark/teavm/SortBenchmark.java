@@ -0,0 +1,193 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.benchmark.teavm;
+
+import java.util.Arrays;
+import java.util.Random;
+import org.teavm.jso.browser.Performance;
+import org.teavm.jso.browser.Window;
+import org.teavm.jso.dom.html.HTMLDocument;
+import org.teavm.jso.dom.html.HTMLElement;
+
+/**
+ * Compares <code>Arrays.sort</code> for primitive arrays with bottom-up merge sort (which it used to be),
+ * in JMH fashion: several warm-up iterations are followed by measured ones, average time per sort is reported.
+ */
+public final class SortBenchmark {
+    private static final int SIZE = 200000;
+    private static final int WARMUP_ITERATIONS = 5;
+    private static final int MEASUREMENT_ITERATIONS = 20;
+    private static HTMLDocument document = Window.current().getDocument();
+    private static HTMLElement resultTableBody = document.getElementById("result-table-body");
+    private static int checksum;
+
+    private SortBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        Random random = new Random(42);
+
+        int[] randomInts = new int[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            randomInts[i] = random.nextInt();
+        }
+        benchmark("Random int[]", randomInts);
+
+        int[] fewDistinctInts = new int[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            fewDistinctInts[i] = random.nextInt(16);
+        }
+        benchmark("int[] with 16 distinct values", fewDistinctInts);
+
+        int[] sortedInts = randomInts.clone();
+        Arrays.sort(sortedInts);
+        benchmark("Sorted int[]", sortedInts);
+
+        double[] randomDoubles = new double[SIZE];
+        for (int i = 0; i < SIZE; ++i) {
+            randomDoubles[i] = random.nextDouble();
+        }
+        benchmark("Random double[]", randomDoubles);
+
+        System.out.println("Checksum: " + checksum);
+    }
+
+    private static void benchmark(String name, int[] data) {
+        int[] work = new int[data.length];
+        int[] buffer = new int[data.length];
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            System.arraycopy(data, 0, work, 0, data.length);
+            Arrays.sort(work);
+            System.arraycopy(data, 0, work, 0, data.length);
+            mergeSort(work, buffer);
+        }
+
+        double start = Performance.now();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            System.arraycopy(data, 0, work, 0, data.length);
+            Arrays.sort(work);
+            checksum += work[i];
+        }
+        double quicksortTime = (Performance.now() - start) / MEASUREMENT_ITERATIONS;
+
+        start = Performance.now();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            System.arraycopy(data, 0, work, 0, data.length);
+            checksum += mergeSort(work, buffer)[i];
+        }
+        double mergeSortTime = (Performance.now() - start) / MEASUREMENT_ITERATIONS;
+
+        report(name, quicksortTime, mergeSortTime);
+    }
+
+    private static void benchmark(String name, double[] data) {
+        double[] work = new double[data.length];
+        double[] buffer = new double[data.length];
+        for (int i = 0; i < WARMUP_ITERATIONS; ++i) {
+            System.arraycopy(data, 0, work, 0, data.length);
+            Arrays.sort(work);
+            System.arraycopy(data, 0, work, 0, data.length);
+            mergeSort(work, buffer);
+        }
+
+        double start = Performance.now();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            System.arraycopy(data, 0, work, 0, data.length);
+            Arrays.sort(work);
+            checksum += (int) (work[i] * 1000);
+        }
+        double quicksortTime = (Performance.now() - start) / MEASUREMENT_ITERATIONS;
+
+        start = Performance.now();
+        for (int i = 0; i < MEASUREMENT_ITERATIONS; ++i) {
+            System.arraycopy(data, 0, work, 0, data.length);
+            checksum += (int) (mergeSort(work, buffer)[i] * 1000);
+        }
+        double mergeSortTime = (Performance.now() - start) / MEASUREMENT_ITERATIONS;
+
+        report(name, quicksortTime, mergeSortTime);
+    }
+
+    private static int[] mergeSort(int[] a, int[] b) {
+        for (int chunkSize = 1; chunkSize < a.length; chunkSize *= 2) {
+            for (int from = 0; from < a.length; from += chunkSize * 2) {
+                int split = Math.min(a.length, from + chunkSize);
+                int to = Math.min(a.length, from + chunkSize * 2);
+                int i = from;
+                int j = split;
+                int index = from;
+                while (i < split && j < to) {
+                    b[index++] = a[i] <= a[j] ? a[i++] : a[j++];
+                }
+                while (i < split) {
+                    b[index++] = a[i++];
+                }
+                while (j < to) {
+                    b[index++] = a[j++];
+                }
+            }
+            int[] tmp = a;
+            a = b;
+            b = tmp;
+        }
+        return a;
+    }
+
+    private static double[] mergeSort(double[] a, double[] b) {
+        for (int chunkSize = 1; chunkSize < a.length; chunkSize *= 2) {
+            for (int from = 0; from < a.length; from += chunkSize * 2) {
+                int split = Math.min(a.length, from + chunkSize);
+                int to = Math.min(a.length, from + chunkSize * 2);
+                int i = from;
+                int j = split;
+                int index = from;
+                while (i < split && j < to) {
+                    b[index++] = a[i] <= a[j] ? a[i++] : a[j++];
+                }
+                while (i < split) {
+                    b[index++] = a[i++];
+                }
+                while (j < to) {
+                    b[index++] = a[j++];
+                }
+            }
+            double[] tmp = a;
+            a = b;
+            b = tmp;
+        }
+        return a;
+    }
+
+    private static void report(String name, double quicksortTime, double mergeSortTime) {
+        HTMLElement row = document.createElement("tr");
+        resultTableBody.appendChild(row);
+        appendCell(row, name);
+        appendCell(row, format(quicksortTime));
+        appendCell(row, format(mergeSortTime));
+        System.out.println(name + ": Arrays.sort " + format(quicksortTime) + " ms/op, merge sort "
+                + format(mergeSortTime) + " ms/op");
+    }
+
+    private static void appendCell(HTMLElement row, String text) {
+        HTMLElement cell = document.createElement("td");
+        cell.appendChild(document.createTextNode(text));
+        row.appendChild(cell);
+    }
+
+    private static String format(double time) {
+        return String.valueOf(Math.round(time * 100) / 100.0);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.samples.benchmark.teavm;
+
+import org.teavm.jso.browser.Performance;
+import org.teavm.jso.browser.Window;
+import org.teavm.jso.dom.html.HTMLDocument;
+import org.teavm.jso.dom.html.HTMLElement;
+import org.teavm.jso.dom.xml.Text;
+
+/**
+ * Measures cost of passing strings between Java and JavaScript, i.e. what DOM-heavy applications do
+ * most of the time.
+ */
+public final class StringInteropBenchmark {
+    private static final int ITERATIONS = 100000;
+    private static HTMLDocument document = Window.current().getDocument();
+    private static HTMLElement resultTableBody = document.getElementById("result-table-body");
+
+    private StringInteropBenchmark() {
+    }
+
+    public static void main(String[] args) {
+        for (int i = 0; i < 5; ++i) {
+            runAll();
+        }
+    }
+
+    private static void runAll() {
+        HTMLElement element = document.createElement("div");
+        Text text = document.createTextNode("");
+        element.appendChild(text);
+
+        double start = Performance.now();
+        int length = 0;
+        for (int i = 0; i < ITERATIONS; ++i) {
+            element.setAttribute("data-index", "item-" + i);
+            length += element.getAttribute("data-index").length();
+        }
+        report("Fresh strings to and from attributes", start, length);
+
+        start = Performance.now();
+        length = 0;
+        String[] labels = new String[64];
+        for (int i = 0; i < labels.length; ++i) {
+            labels[i] = "Label number " + i;
+        }
+        for (int i = 0; i < ITERATIONS; ++i) {
+            text.setNodeValue(labels[i % labels.length]);
+            length += labels[i % labels.length].length();
+        }
+        report("Same strings to text node", start, length);
+
+        start = Performance.now();
+        length = 0;
+        element.setAttribute("class", "first second third");
+        for (int i = 0; i < ITERATIONS; ++i) {
+            String className = element.getAttribute("class");
+            if (className.equals("first second third")) {
+                element.setAttribute("title", className);
+                ++length;
+            }
+        }
+        report("Strings passed back to JavaScript", start, length);
+    }
+
+    private static void report(String name, double start, int checksum) {
+        double time = Performance.now() - start;
+        HTMLElement row = document.createElement("tr");
+        resultTableBody.appendChild(row);
+        HTMLElement nameCell = document.createElement("td");
+        nameCell.appendChild(document.createTextNode(name));
+        row.appendChild(nameCell);
+        HTMLElement timeCell = document.createElement("td");
+        timeCell.appendChild(document.createTextNode(String.valueOf(Math.round(time))));
+        row.appendChild(timeCell);
+        System.out.println(name + ": " + Math.round(time) + " ms (" + checksum + ")");
+    }
+}
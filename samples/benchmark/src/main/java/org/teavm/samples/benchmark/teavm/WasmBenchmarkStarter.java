@@ -58,6 +58,7 @@ public final class WasmBenchmarkStarter {
 
     private static void render() {
         WasmCanvas.save();
+        WasmCanvas.flush();
         setupCanvas();
         for (Body body = scene.getWorld().getBodyList(); body != null; body = body.getNext()) {
             Vec2 center = body.getPosition();
@@ -87,6 +88,7 @@ public final class WasmBenchmarkStarter {
             WasmCanvas.restore();
         }
         WasmCanvas.restore();
+        WasmCanvas.flush();
     }
 
     @Import(module = "benchmark", name = "setupCanvas")
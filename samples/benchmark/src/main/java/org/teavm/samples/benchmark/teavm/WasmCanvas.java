@@ -15,42 +15,102 @@
  */
 package org.teavm.samples.benchmark.teavm;
 
+import org.teavm.interop.Address;
 import org.teavm.interop.Import;
 import org.teavm.interop.StaticInit;
 
+/**
+ * Canvas drawing commands for WebAssembly. Instead of calling JavaScript for each command, commands are
+ * written to a buffer in linear memory and executed by a single call to JavaScript when {@link #flush()}
+ * is called or when the buffer fills up. Callers must flush before any other call to JavaScript that
+ * depends on the state of canvas.
+ */
 @StaticInit
 public final class WasmCanvas {
+    private static final int SAVE = 0;
+    private static final int RESTORE = 1;
+    private static final int TRANSLATE = 2;
+    private static final int ROTATE = 3;
+    private static final int BEGIN_PATH = 4;
+    private static final int CLOSE_PATH = 5;
+    private static final int STROKE = 6;
+    private static final int ARC = 7;
+    private static final int MOVE_TO = 8;
+    private static final int LINE_TO = 9;
+    private static final double[] commands = new double[4096];
+    private static int size;
+
     private WasmCanvas() {
     }
 
-    @Import(module = "canvas", name = "save")
-    public static native void save();
+    public static void save() {
+        command(SAVE, 0);
+    }
 
-    @Import(module = "canvas", name = "restore")
-    public static native void restore();
+    public static void restore() {
+        command(RESTORE, 0);
+    }
 
-    @Import(module = "canvas", name = "translate")
-    public static native void translate(double x, double y);
+    public static void translate(double x, double y) {
+        command(TRANSLATE, 2);
+        commands[size++] = x;
+        commands[size++] = y;
+    }
 
-    @Import(module = "canvas", name = "rotate")
-    public static native void rotate(double angle);
+    public static void rotate(double angle) {
+        command(ROTATE, 1);
+        commands[size++] = angle;
+    }
 
-    @Import(module = "canvas", name = "beginPath")
-    public static native void beginPath();
+    public static void beginPath() {
+        command(BEGIN_PATH, 0);
+    }
 
-    @Import(module = "canvas", name = "closePath")
-    public static native void closePath();
+    public static void closePath() {
+        command(CLOSE_PATH, 0);
+    }
 
-    @Import(module = "canvas", name = "stroke")
-    public static native void stroke();
+    public static void stroke() {
+        command(STROKE, 0);
+    }
 
-    @Import(module = "canvas", name = "arc")
-    public static native void arc(double cx, double cy, double radius, double startAngle, double endAngle,
-            boolean counterClockwise);
+    public static void arc(double cx, double cy, double radius, double startAngle, double endAngle,
+            boolean counterClockwise) {
+        command(ARC, 6);
+        commands[size++] = cx;
+        commands[size++] = cy;
+        commands[size++] = radius;
+        commands[size++] = startAngle;
+        commands[size++] = endAngle;
+        commands[size++] = counterClockwise ? 1 : 0;
+    }
+
+    public static void moveTo(double x, double y) {
+        command(MOVE_TO, 2);
+        commands[size++] = x;
+        commands[size++] = y;
+    }
+
+    public static void lineTo(double x, double y) {
+        command(LINE_TO, 2);
+        commands[size++] = x;
+        commands[size++] = y;
+    }
+
+    public static void flush() {
+        if (size > 0) {
+            execute(Address.ofData(commands), size);
+            size = 0;
+        }
+    }
 
-    @Import(module = "canvas", name = "moveTo")
-    public static native void moveTo(double x, double y);
+    private static void command(int command, int argumentCount) {
+        if (size + argumentCount + 1 > commands.length) {
+            flush();
+        }
+        commands[size++] = command;
+    }
 
-    @Import(module = "canvas", name = "lineTo")
-    public static native void lineTo(double x, double y);
+    @Import(module = "canvas", name = "execute")
+    private static native void execute(Address commands, int size);
 }
@@ -47,6 +47,49 @@ var Benchmark = function() {
         }
     }
 
+    function executeCanvasCommands(canvas, memory, address, size) {
+        // Array data is not necessarily aligned to 8 bytes, so Float64Array can't be used here
+        var commands = new DataView(memory.buffer, address, size * 8);
+        var index = 0;
+        function next() {
+            return commands.getFloat64(index++ * 8, true);
+        }
+        while (index < size) {
+            switch (next()) {
+                case 0:
+                    canvas.save();
+                    break;
+                case 1:
+                    canvas.restore();
+                    break;
+                case 2:
+                    canvas.translate(next(), next());
+                    break;
+                case 3:
+                    canvas.rotate(next());
+                    break;
+                case 4:
+                    canvas.beginPath();
+                    break;
+                case 5:
+                    canvas.closePath();
+                    break;
+                case 6:
+                    canvas.stroke();
+                    break;
+                case 7:
+                    canvas.arc(next(), next(), next(), next(), next(), next() !== 0);
+                    break;
+                case 8:
+                    canvas.moveTo(next(), next());
+                    break;
+                case 9:
+                    canvas.lineTo(next(), next());
+                    break;
+            }
+        }
+    }
+
     function load(benchmark, callback) {
         var xhr = new XMLHttpRequest();
         xhr.responseType = "arraybuffer";
@@ -91,35 +134,8 @@ var Benchmark = function() {
                     }
                 },
                 canvas: {
-                    save: function() {
-                        canvas.save();
-                    },
-                    restore: function() {
-                        canvas.restore();
-                    },
-                    beginPath: function() {
-                        canvas.beginPath();
-                    },
-                    closePath: function() {
-                        canvas.closePath();
-                    },
-                    stroke: function() {
-                        canvas.stroke();
-                    },
-                    moveTo: function(x, y) {
-                        canvas.moveTo(x, y);
-                    },
-                    lineTo: function(x, y) {
-                        canvas.lineTo(x, y);
-                    },
-                    translate: function(x, y) {
-                        canvas.translate(x, y);
-                    },
-                    rotate: function(angle) {
-                        canvas.rotate(angle);
-                    },
-                    arc: function(cx, cy, radius, startAngle, endAngle, counterClockwise) {
-                        canvas.arc(cx, cy, radius, startAngle, endAngle, counterClockwise);
+                    execute: function(address, size) {
+                        executeCanvasCommands(canvas, benchmark.instance.exports.memory, address, size);
                     }
                 },
                 math: Math,
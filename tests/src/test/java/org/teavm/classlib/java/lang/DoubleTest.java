@@ -17,6 +17,7 @@ package org.teavm.classlib.java.lang;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.teavm.junit.TeaVMTestRunner;
@@ -50,6 +51,31 @@ public class DoubleTest {
         assertEquals(0, Double.parseDouble("00000.0000"), 1E-12);
     }
 
+    @Test
+    public void parsedExactly() {
+        assertEquals(0.1 + 0.2, Double.parseDouble("0.30000000000000004"), 0);
+        assertEquals(Double.MIN_VALUE, Double.parseDouble("4.9E-324"), 0);
+        assertEquals(Double.MAX_VALUE, Double.parseDouble("1.7976931348623157E308"), 0);
+        assertEquals(9007199254740992.0, Double.parseDouble("9007199254740993"), 0);
+        assertEquals(9007199254740996.0, Double.parseDouble("9007199254740995"), 0);
+        assertEquals(Double.MIN_VALUE, Double.parseDouble("2.4703282292062328E-324"), 0);
+        assertEquals(0x1.0p-1022, Double.parseDouble("2.2250738585072014E-308"), 0);
+        assertEquals(Double.POSITIVE_INFINITY, Double.parseDouble("1.8E308"), 0);
+        assertEquals(0.1, Double.parseDouble("0.1000000000000000055511151231257827021181583404541015625"), 0);
+    }
+
+    @Test
+    public void malformedNotParsed() {
+        for (String string : new String[] { "", "-", ".", "1e", "1e+", "1x", "e5" }) {
+            try {
+                Double.parseDouble(string);
+                fail("Exception expected parsing " + string);
+            } catch (NumberFormatException e) {
+                // ok
+            }
+        }
+    }
+
     @Test
     public void longBitsExtracted() {
         assertEquals(0x41E23456789ABCDEL, Double.doubleToLongBits(0x1.23456789ABCDEP+31));
@@ -318,6 +318,24 @@ public class StringBuilderTest {
         assertEquals("0.023", sb.toString());
     }
 
+    @Test
+    public void shortestDoubleAppended() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(0.1 + 0.2).append(' ').append(Double.MIN_VALUE).append(' ').append(Double.MAX_VALUE)
+                .append(' ').append(1E7).append(' ').append(9999999.0).append(' ').append(0.001)
+                .append(' ').append(-0.0);
+        assertEquals("0.30000000000000004 4.9E-324 1.7976931348623157E308 1.0E7 9999999.0 0.001 -0.0",
+                sb.toString());
+    }
+
+    @Test
+    public void shortestFloatAppended() {
+        StringBuilder sb = new StringBuilder();
+        sb.append(0.1f + 0.2f).append(' ').append(Float.MIN_VALUE).append(' ').append(Float.MAX_VALUE)
+                .append(' ').append(1.0E10f).append(' ').append(-0.0f);
+        assertEquals("0.3 1.4E-45 3.4028235E38 1.0E10 -0.0", sb.toString());
+    }
+
     @Test
     public void appendsCodePoint() {
         StringBuilder sb = new StringBuilder();
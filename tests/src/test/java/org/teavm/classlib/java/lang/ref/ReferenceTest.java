@@ -0,0 +1,126 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.lang.ref;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.classlib.PlatformDetector;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class ReferenceTest {
+    @Test
+    public void referentReturned() {
+        Object referent = new Object();
+        WeakReference<Object> weak = new WeakReference<>(referent);
+        SoftReference<Object> soft = new SoftReference<>(referent);
+        assertSame(referent, weak.get());
+        assertSame(referent, soft.get());
+    }
+
+    @Test
+    public void clearRemovesReferent() {
+        Object referent = new Object();
+        WeakReference<Object> weak = new WeakReference<>(referent, new ReferenceQueue<>());
+        weak.clear();
+        assertNull(weak.get());
+        assertFalse(weak.isEnqueued());
+    }
+
+    @Test
+    public void enqueuedExplicitly() {
+        ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        Object firstReferent = new Object();
+        Object secondReferent = new Object();
+        WeakReference<Object> first = new WeakReference<>(firstReferent, queue);
+        WeakReference<Object> second = new WeakReference<>(secondReferent, queue);
+        assertNull(queue.poll());
+
+        assertTrue(second.enqueue());
+        assertTrue(first.enqueue());
+        assertFalse(first.enqueue());
+        assertTrue(first.isEnqueued());
+
+        Reference<?> polled = queue.poll();
+        Reference<?> otherPolled = queue.poll();
+        assertTrue(polled == first && otherPolled == second || polled == second && otherPolled == first);
+        assertFalse(first.isEnqueued());
+        assertFalse(second.isEnqueued());
+        assertNull(queue.poll());
+        assertFalse(second.enqueue());
+
+        // Keep referents reachable, otherwise GC may clear and enqueue references before the assertions
+        assertNotNull(firstReferent);
+        assertNotNull(secondReferent);
+    }
+
+    @Test
+    public void referenceWithoutQueueNotEnqueued() {
+        WeakReference<Object> weak = new WeakReference<>(new Object());
+        assertFalse(weak.enqueue());
+        assertFalse(weak.isEnqueued());
+    }
+
+    @Test
+    @SkipJVM
+    public void weaklyReachableReferentCollected() {
+        if (!PlatformDetector.isLowLevel()) {
+            // JavaScript engines don't collect garbage on request
+            return;
+        }
+        ReferenceQueue<Object> queue = new ReferenceQueue<>();
+        WeakReference<Object> weak = createWeakReference(queue);
+        System.gc();
+        assertNull(weak.get());
+        assertSame(weak, queue.poll());
+        assertNull(queue.poll());
+    }
+
+    @Test
+    @SkipJVM
+    public void softReferentReachableThroughSoftReferenceRetained() {
+        if (!PlatformDetector.isLowLevel()) {
+            return;
+        }
+        SoftReference<Object[]> outer = createSoftReferenceChain();
+        System.gc();
+        Object[] box = outer.get();
+        assertNotNull(box);
+        assertNotNull(((SoftReference<?>) box[0]).get());
+    }
+
+    private static WeakReference<Object> createWeakReference(ReferenceQueue<Object> queue) {
+        return new WeakReference<>(new Object(), queue);
+    }
+
+    private static SoftReference<Object[]> createSoftReferenceChain() {
+        // Inner reference is created later, so GC visits it before the outer one that makes it reachable
+        Object[] box = new Object[1];
+        SoftReference<Object[]> outer = new SoftReference<>(box);
+        box[0] = new SoftReference<>(new Object());
+        return outer;
+    }
+}
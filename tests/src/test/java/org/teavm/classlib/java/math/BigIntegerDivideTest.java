@@ -40,6 +40,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import java.math.BigInteger;
+import java.util.Random;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.teavm.junit.TeaVMTestRunner;
@@ -717,4 +718,47 @@ public class BigIntegerDivideTest {
         }
         assertEquals("incorrect sign", 1, result.signum());
     }
+
+    /**
+     * Division of numbers long enough for Burnikel-Ziegler algorithm.
+     */
+    @Test
+    public void testLargeNumbers() {
+        Random random = new Random(42);
+        int[][] sizes = { { 5000, 2600 }, { 12000, 3000 }, { 40000, 20000 }, { 60000, 9000 } };
+        for (int[] size : sizes) {
+            BigInteger quotient = new BigInteger(size[0] - size[1], random);
+            BigInteger divisor = new BigInteger(size[1], random).setBit(size[1] - 1);
+            checkLargeDivision(quotient, divisor, new BigInteger(size[1] - 1, random));
+            checkLargeDivision(quotient, divisor, divisor.subtract(BigInteger.ONE));
+        }
+    }
+
+    /**
+     * Division by 2^n - 1, which makes quotient digit estimations as inaccurate as possible.
+     */
+    @Test
+    public void testLargeAllOnesDivisor() {
+        Random random = new Random(42);
+        BigInteger divisor = BigInteger.ONE.shiftLeft(8000).subtract(BigInteger.ONE);
+        checkLargeDivision(BigInteger.ONE.shiftLeft(9000).subtract(BigInteger.ONE), divisor,
+                divisor.subtract(BigInteger.ONE));
+        checkLargeDivision(new BigInteger(20000, random), divisor, new BigInteger(7999, random));
+    }
+
+    private static void checkLargeDivision(BigInteger quotient, BigInteger divisor, BigInteger remainder) {
+        BigInteger dividend = quotient.multiply(divisor).add(remainder);
+        BigInteger[] result = dividend.divideAndRemainder(divisor);
+        assertEquals(quotient, result[0]);
+        assertEquals(remainder, result[1]);
+        assertEquals(quotient, dividend.divide(divisor));
+        assertEquals(remainder, dividend.remainder(divisor));
+
+        result = dividend.negate().divideAndRemainder(divisor);
+        assertEquals(quotient.negate(), result[0]);
+        assertEquals(remainder.negate(), result[1]);
+        assertEquals(quotient.negate(), dividend.divide(divisor.negate()));
+        assertEquals(remainder.negate(), dividend.negate().remainder(divisor.negate()));
+        assertEquals(divisor.subtract(remainder).mod(divisor), dividend.negate().mod(divisor));
+    }
 }
@@ -40,6 +40,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 import static org.junit.Assert.fail;
 import java.math.BigInteger;
+import java.util.Random;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.teavm.junit.TeaVMTestRunner;
@@ -422,4 +423,49 @@ public class BigIntegerMultiplyTest {
         }
         assertEquals("incorrect sign", 1, result.signum());
     }
+
+    /**
+     * Multiplication of numbers long enough for Karatsuba and Toom-Cook algorithms,
+     * checked against the sum of products of short pieces.
+     */
+    @Test
+    public void testLargeNumbers() {
+        Random random = new Random(42);
+        int[][] sizes = { { 3000, 3000 }, { 9000, 2500 }, { 20000, 20000 }, { 30000, 12000 } };
+        for (int[] size : sizes) {
+            BigInteger a = new BigInteger(size[0], random);
+            BigInteger b = new BigInteger(size[1], random).negate();
+            assertEquals(multiplyByPieces(a, b), a.multiply(b));
+            assertEquals(multiplyByPieces(b, b), b.multiply(b));
+        }
+    }
+
+    /**
+     * Square of 2^n - 1 computed by Toom-Cook algorithm.
+     */
+    @Test
+    public void testLargeAllOnes() {
+        int n = 25000;
+        BigInteger a = BigInteger.ONE.shiftLeft(n).subtract(BigInteger.ONE);
+        BigInteger expected = BigInteger.ONE.shiftLeft(2 * n).subtract(BigInteger.ONE.shiftLeft(n + 1))
+                .add(BigInteger.ONE);
+        assertEquals(expected, a.multiply(a));
+        assertEquals(expected, a.pow(2));
+    }
+
+    private static BigInteger multiplyByPieces(BigInteger a, BigInteger b) {
+        int pieceBits = 1024;
+        BigInteger mask = BigInteger.ONE.shiftLeft(pieceBits).subtract(BigInteger.ONE);
+        BigInteger absA = a.abs();
+        BigInteger absB = b.abs();
+        BigInteger result = BigInteger.ZERO;
+        for (int i = 0; i < absA.bitLength(); i += pieceBits) {
+            BigInteger pieceA = absA.shiftRight(i).and(mask);
+            for (int j = 0; j < absB.bitLength(); j += pieceBits) {
+                BigInteger pieceB = absB.shiftRight(j).and(mask);
+                result = result.add(pieceA.multiply(pieceB).shiftLeft(i + j));
+            }
+        }
+        return a.signum() * b.signum() < 0 ? result.negate() : result;
+    }
 }
@@ -22,6 +22,8 @@ import static org.junit.Assert.fail;
 import java.nio.BufferOverflowException;
 import java.nio.BufferUnderflowException;
 import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
 import java.nio.InvalidMarkException;
 import java.nio.ReadOnlyBufferException;
 import org.junit.Test;
@@ -623,4 +625,54 @@ public class ByteBufferTest {
             // expected
         }
     }
+
+    @Test
+    public void getsLittleEndianValues() {
+        byte[] array = {0x23, 0x24, 0x25, 0x26, 0x27, 0x28, 0x29, 0x30};
+        ByteBuffer buffer = ByteBuffer.wrap(array).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(buffer.getShort(0), is((short) 0x2423));
+        assertThat(buffer.getInt(0), is(0x26252423));
+        assertThat(buffer.getLong(0), is(0x3029282726252423L));
+        assertThat(buffer.position(), is(0));
+        buffer.putLong(0, 0xAABBCCDDEEFF0011L);
+        assertThat(buffer.get(0), is((byte) 0x11));
+        assertThat(buffer.get(7), is((byte) 0xAA));
+    }
+
+    @Test
+    public void putsFloatingPointValues() {
+        ByteBuffer buffer = ByteBuffer.allocate(16);
+        buffer.putDouble(3.5);
+        buffer.putFloat(-2.25f);
+        assertThat(buffer.position(), is(12));
+        assertThat(buffer.getLong(0), is(Double.doubleToLongBits(3.5)));
+        assertThat(buffer.getInt(8), is(Float.floatToIntBits(-2.25f)));
+        buffer.flip();
+        assertThat(buffer.getDouble(), is(3.5));
+        assertThat(buffer.getFloat(), is(-2.25f));
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putDouble(0, 1.0);
+        assertThat(buffer.get(7), is((byte) 0x3F));
+        assertThat(buffer.getDouble(0), is(1.0));
+        try {
+            buffer.getDouble(9);
+            fail("Exception expected");
+        } catch (IndexOutOfBoundsException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void directBufferViewsShareContent() {
+        ByteBuffer buffer = ByteBuffer.allocateDirect(16).order(ByteOrder.LITTLE_ENDIAN);
+        IntBuffer ints = buffer.asIntBuffer();
+        assertThat(ints.order(), is(ByteOrder.LITTLE_ENDIAN));
+        ints.put(1, 0x01020304);
+        assertThat(buffer.get(4), is((byte) 0x04));
+        assertThat(buffer.get(7), is((byte) 0x01));
+        buffer.putInt(8, 0x55667788);
+        assertThat(ints.get(2), is(0x55667788));
+        assertThat(buffer.asFloatBuffer().order(), is(ByteOrder.LITTLE_ENDIAN));
+        assertThat(buffer.order(ByteOrder.BIG_ENDIAN).asCharBuffer().order(), is(ByteOrder.BIG_ENDIAN));
+    }
 }
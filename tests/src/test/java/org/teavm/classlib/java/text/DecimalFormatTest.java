@@ -87,6 +87,16 @@ public class DecimalFormatTest {
         assertEquals("-{", format.getNegativePrefix());
     }
 
+    @Test
+    public void formatsWithSamePatternAreIndependent() {
+        DecimalFormat first = createFormat("#,##0.00");
+        DecimalFormat second = createFormat("#,##0.00");
+        first.setPositivePrefix("$");
+        assertEquals("$123,456.70", first.format(123456.7));
+        assertEquals("123,456.70", second.format(123456.7));
+        assertEquals("123,456.70", createFormat("#,##0.00").format(123456.7));
+    }
+
     @Test
     public void parsesFractionalPattern() {
         DecimalFormat format = createFormat("#.");
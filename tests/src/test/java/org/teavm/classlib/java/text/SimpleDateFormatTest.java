@@ -16,6 +16,7 @@
 package org.teavm.classlib.java.text;
 
 import static org.junit.Assert.assertEquals;
+import java.text.DateFormatSymbols;
 import java.text.ParseException;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
@@ -146,6 +147,24 @@ public class SimpleDateFormatTest {
         assertEquals(1403602429000L, getTimeWithoutZoneOffset(format.parse("June, 24 2014 09:33:49")));
     }
 
+    @Test
+    public void formatsWithSamePatternAreIndependent() {
+        SimpleDateFormat first = new SimpleDateFormat("MMMM, dd yyyy", Locale.ENGLISH);
+        SimpleDateFormat second = new SimpleDateFormat("MMMM, dd yyyy", Locale.ENGLISH);
+        DateFormatSymbols symbols = new DateFormatSymbols(Locale.ENGLISH);
+        String[] months = symbols.getMonths();
+        months[5] = "Juin";
+        symbols.setMonths(months);
+        first.setDateFormatSymbols(symbols);
+
+        long day = 24 * 3600 * 1000;
+        assertEquals("Juin, 24 2014", first.format(getDateWithZoneOffset(1403602429504L)));
+        assertEquals("June, 24 2014", second.format(getDateWithZoneOffset(1403602429504L)));
+        assertEquals("June, 25 2014", second.format(getDateWithZoneOffset(1403602429504L + day)));
+        assertEquals("June, 24 2014", new SimpleDateFormat("MMMM, dd yyyy", Locale.ENGLISH)
+                .format(getDateWithZoneOffset(1403602429504L)));
+    }
+
     private Date getDateWithZoneOffset(long milliseconds) {
         Calendar calendar = new GregorianCalendar(Locale.ENGLISH);
         calendar.setTimeZone(TimeZone.getTimeZone("GMT"));
@@ -15,9 +15,12 @@
  */
 package org.teavm.classlib.java.util;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Random;
 import java.util.stream.Collectors;
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -37,6 +40,95 @@ public class ArraysTest {
         assertEquals(Integer.valueOf(7), array[5]);
     }
 
+    @Test
+    public void primitiveArraySorted() {
+        Random random = new Random(23);
+        for (int size : new int[] { 0, 1, 2, 30, 47, 100, 1000, 10000 }) {
+            for (int bound : new int[] { 1000000, 5 }) {
+                int[] array = new int[size];
+                for (int i = 0; i < size; ++i) {
+                    array[i] = random.nextInt(bound);
+                }
+                Arrays.sort(array);
+                for (int i = 1; i < size; ++i) {
+                    assertTrue(array[i - 1] <= array[i]);
+                }
+            }
+        }
+
+        // Few distinct values between two pivots make the central part of the partition too large,
+        // which is handled separately. Values at positions of samples make pivots 1 and 3.
+        int[] array = new int[10000];
+        for (int i = 0; i < array.length; ++i) {
+            array[i] = 1 + random.nextInt(3);
+        }
+        int seventh = (array.length >> 3) + (array.length >> 6) + 1;
+        int middle = (array.length - 1) >>> 1;
+        for (int i = -2; i <= 2; ++i) {
+            array[middle + i * seventh] = 2 + i;
+        }
+        int[] counts = new int[5];
+        for (int value : array) {
+            counts[value]++;
+        }
+        Arrays.sort(array);
+        int index = 0;
+        for (int value = 0; value < counts.length; ++value) {
+            for (int i = 0; i < counts[value]; ++i) {
+                assertEquals(value, array[index++]);
+            }
+        }
+
+        long[] descending = new long[500];
+        for (int i = 0; i < descending.length; ++i) {
+            descending[i] = descending.length - i;
+        }
+        Arrays.sort(descending);
+        for (int i = 0; i < descending.length; ++i) {
+            assertEquals(i + 1, descending[i]);
+        }
+    }
+
+    @Test
+    public void primitiveArrayRangeSorted() {
+        int[] array = { 9, 8, 7, 6, 5, 4, 3, 2, 1 };
+        Arrays.sort(array, 2, 6);
+        assertArrayEquals(new int[] { 9, 8, 4, 5, 6, 7, 3, 2, 1 }, array);
+    }
+
+    @Test
+    public void floatingPointArraySorted() {
+        double[] array = new double[200];
+        for (int i = 0; i < array.length; ++i) {
+            switch (i % 5) {
+                case 0:
+                    array[i] = Double.NaN;
+                    break;
+                case 1:
+                    array[i] = -0.0;
+                    break;
+                case 2:
+                    array[i] = 0.0;
+                    break;
+                default:
+                    array[i] = (i * 31 % 17) - 8;
+                    break;
+            }
+        }
+        Arrays.sort(array);
+        for (int i = 1; i < array.length; ++i) {
+            assertTrue(Double.compare(array[i - 1], array[i]) <= 0);
+        }
+        assertTrue(Double.isNaN(array[array.length - 1]));
+
+        float[] floats = { 0.0f, Float.NaN, -0.0f, -1.0f };
+        Arrays.parallelSort(floats);
+        assertEquals(-1.0f, floats[0], 0);
+        assertEquals(Float.floatToIntBits(-0.0f), Float.floatToIntBits(floats[1]));
+        assertEquals(Float.floatToIntBits(0.0f), Float.floatToIntBits(floats[2]));
+        assertTrue(Float.isNaN(floats[3]));
+    }
+
     @Test
     public void binarySearchWorks() {
         Integer[] array = { 2, 4, 6, 8, 10, 12, 14, 16 };
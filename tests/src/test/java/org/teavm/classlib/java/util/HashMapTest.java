@@ -0,0 +1,163 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.ArrayList;
+import java.util.ConcurrentModificationException;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class HashMapTest {
+    @Test
+    public void putsAndRemovesCollidingKeys() {
+        Map<Key, Integer> map = new HashMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            map.put(new Key(i), i);
+        }
+        assertEquals(1000, map.size());
+        for (int i = 0; i < 1000; i += 3) {
+            assertEquals(i, map.remove(new Key(i)).intValue());
+        }
+        for (int i = 0; i < 1000; ++i) {
+            if (i % 3 == 0) {
+                assertFalse(map.containsKey(new Key(i)));
+            } else {
+                assertEquals(i, map.get(new Key(i)).intValue());
+            }
+        }
+        assertEquals(666, map.size());
+    }
+
+    @Test
+    public void nullKeyAndValues() {
+        Map<String, String> map = new HashMap<>();
+        map.put(null, "a");
+        map.put("b", null);
+        assertEquals("a", map.get(null));
+        assertTrue(map.containsKey(null));
+        assertTrue(map.containsKey("b"));
+        assertTrue(map.containsValue(null));
+        assertNull(map.get("c"));
+        assertEquals("a", map.remove(null));
+        assertFalse(map.containsKey(null));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    public void iteratorRemovalVisitsEveryEntryOnce() {
+        Map<Key, Integer> map = new HashMap<>();
+        for (int i = 0; i < 500; ++i) {
+            map.put(new Key(i), i);
+        }
+        Set<Key> visited = new HashSet<>();
+        for (Iterator<Key> iter = map.keySet().iterator(); iter.hasNext();) {
+            Key key = iter.next();
+            assertTrue(visited.add(key));
+            if (key.value % 2 == 0) {
+                iter.remove();
+            }
+        }
+        assertEquals(500, visited.size());
+        assertEquals(250, map.size());
+        for (int i = 1; i < 500; i += 2) {
+            assertEquals(i, map.get(new Key(i)).intValue());
+        }
+    }
+
+    @Test
+    public void entriesSurviveRemovalOfOtherEntries() {
+        Map<Key, Integer> map = new HashMap<>();
+        for (int i = 0; i < 100; ++i) {
+            map.put(new Key(i), i);
+        }
+        List<Map.Entry<Key, Integer>> entries = new ArrayList<>(map.entrySet());
+        for (int i = 0; i < 100; i += 2) {
+            map.remove(new Key(i));
+        }
+        for (Map.Entry<Key, Integer> entry : entries) {
+            assertEquals(entry.getKey().value, entry.getValue().intValue());
+            if (entry.getKey().value % 2 != 0) {
+                entry.setValue(-1);
+            }
+        }
+        for (Integer value : map.values()) {
+            assertEquals(-1, value.intValue());
+        }
+    }
+
+    @Test
+    public void iteratorIsFailFast() {
+        Map<Integer, Integer> map = new HashMap<>();
+        for (int i = 0; i < 10; ++i) {
+            map.put(i, i);
+        }
+        try {
+            for (Integer key : map.keySet()) {
+                map.put(key + 100, key);
+            }
+            fail("Iterator should have thrown ConcurrentModificationException");
+        } catch (ConcurrentModificationException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void cloneIsIndependent() {
+        HashMap<Integer, Integer> map = new HashMap<>();
+        for (int i = 0; i < 50; ++i) {
+            map.put(i, i);
+        }
+        @SuppressWarnings("unchecked")
+        Map<Integer, Integer> copy = (Map<Integer, Integer>) map.clone();
+        map.remove(3);
+        copy.put(100, 100);
+        assertEquals(49, map.size());
+        assertEquals(51, copy.size());
+        assertTrue(copy.containsKey(3));
+        assertFalse(map.containsKey(100));
+    }
+
+    static final class Key {
+        final int value;
+
+        Key(int value) {
+            this.value = value;
+        }
+
+        @Override
+        public int hashCode() {
+            return value % 7;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && ((Key) obj).value == value;
+        }
+    }
+}
@@ -42,6 +42,7 @@ import java.util.AbstractMap;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.ConcurrentModificationException;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.Map;
@@ -548,4 +549,63 @@ public class LinkedHashMapTest {
         }
         assertTrue("Entries left to iterate on", !it2.hasNext());
     }
+
+    @Test
+    public void orderKeptAcrossGrowthAndRemoval() {
+        LinkedHashMap<Integer, Integer> map = new LinkedHashMap<>(2);
+        for (int i = 999; i >= 0; --i) {
+            map.put(i * 16, i);
+        }
+        for (Iterator<Integer> iter = map.keySet().iterator(); iter.hasNext();) {
+            if (iter.next() % 3 == 0) {
+                iter.remove();
+            }
+        }
+        int expected = 999;
+        for (Integer key : map.keySet()) {
+            while ((expected * 16) % 3 == 0) {
+                --expected;
+            }
+            assertEquals(expected * 16, key.intValue());
+            --expected;
+        }
+        assertEquals(666, map.size());
+    }
+
+    @Test
+    public void evictsEldestInAccessOrder() {
+        Map<Integer, String> cache = new LinkedHashMap<Integer, String>(4, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Entry<Integer, String> eldest) {
+                return size() > 3;
+            }
+        };
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        cache.get(1);
+        cache.put(4, "d");
+        assertEquals(Arrays.asList(3, 1, 4), new ArrayList<>(cache.keySet()));
+        cache.put(3, "e");
+        assertEquals(Arrays.asList(1, 4, 3), new ArrayList<>(cache.keySet()));
+    }
+
+    @Test
+    public void accessDuringIterationDetected() {
+        LinkedHashMap<Integer, String> map = new LinkedHashMap<>(16, 0.75f, true);
+        for (int i = 0; i < 5; ++i) {
+            map.put(i, String.valueOf(i));
+        }
+        try {
+            for (Integer key : map.keySet()) {
+                map.get(key);
+            }
+            fail("ConcurrentModificationException expected");
+        } catch (ConcurrentModificationException e) {
+            // ok
+        }
+
+        map.get(4);
+        assertEquals(Arrays.asList(1, 2, 3, 0, 4), new ArrayList<>(map.keySet()));
+    }
 }
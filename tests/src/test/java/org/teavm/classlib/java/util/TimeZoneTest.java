@@ -35,6 +35,8 @@ package org.teavm.classlib.java.util;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Date;
 import java.util.GregorianCalendar;
@@ -122,4 +124,18 @@ public class TimeZoneTest {
         date = new GregorianCalendar(1999, 8, 1).getTime();
         assertEquals(-240 * 60_000, tz.getOffset(date.getTime()));
     }
+
+    @Test
+    public void aliasResolved() {
+        assertTrue(Arrays.asList(TimeZone.getAvailableIDs()).contains("US/Pacific"));
+        TimeZone alias = TimeZone.getTimeZone("US/Pacific");
+        TimeZone target = TimeZone.getTimeZone("America/Los_Angeles");
+        assertEquals("US/Pacific", alias.getID());
+        assertEquals(-8 * ONE_HOUR, alias.getRawOffset());
+        long winter = new GregorianCalendar(2006, Calendar.JANUARY, 15).getTimeInMillis();
+        long summer = new GregorianCalendar(2006, Calendar.JULY, 15).getTimeInMillis();
+        assertEquals(target.getOffset(winter), alias.getOffset(winter));
+        assertEquals(target.getOffset(summer), alias.getOffset(summer));
+        assertEquals(-7 * ONE_HOUR, alias.getOffset(summer));
+    }
 }
@@ -0,0 +1,259 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class CompletableFutureTest {
+    @Test
+    public void dependentsRunOnCompletion() throws Exception {
+        List<Integer> log = new ArrayList<>();
+        CompletableFuture<Integer> source = new CompletableFuture<>();
+        CompletableFuture<Integer> doubled = source.thenApply(x -> x * 2);
+        doubled.thenAccept(log::add);
+        CompletableFuture<Integer> other = new CompletableFuture<>();
+        CompletableFuture<Integer> sum = doubled.thenCombine(other, Integer::sum);
+        assertFalse(doubled.isDone());
+
+        source.complete(5);
+        assertEquals(10, doubled.get().intValue());
+        assertEquals(Arrays.asList(10), log);
+        assertFalse(sum.isDone());
+
+        other.complete(1);
+        assertEquals(11, sum.join().intValue());
+        assertEquals("v3", CompletableFuture.completedFuture(3)
+                .thenCompose(x -> CompletableFuture.completedFuture("v" + x)).join());
+    }
+
+    @Test
+    public void exceptionsPropagate() throws InterruptedException {
+        CompletableFuture<Integer> source = new CompletableFuture<>();
+        CompletableFuture<Integer> dependent = source.thenApply(x -> x + 1);
+        CompletableFuture<Integer> recovered = dependent.exceptionally(e -> e.getCause() instanceof
+                IllegalStateException ? 42 : 0);
+        CompletableFuture<String> handled = dependent.handle((v, e) -> v + "/" + (e != null));
+        source.completeExceptionally(new IllegalStateException());
+
+        assertEquals(42, recovered.join().intValue());
+        assertEquals("null/true", handled.join());
+        assertTrue(dependent.isCompletedExceptionally());
+        try {
+            dependent.get();
+            fail("Exception expected");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        try {
+            dependent.join();
+            fail("Exception expected");
+        } catch (CompletionException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+    }
+
+    @Test
+    public void cancelled() {
+        CompletableFuture<Integer> future = new CompletableFuture<>();
+        CompletableFuture<Integer> dependent = future.thenApply(x -> x);
+        assertTrue(future.cancel(true));
+        assertTrue(future.isCancelled());
+        assertFalse(future.complete(1));
+        assertTrue(dependent.isCompletedExceptionally());
+        try {
+            future.join();
+            fail("Exception expected");
+        } catch (CancellationException e) {
+            // Expected
+        }
+    }
+
+    @Test
+    public void combinesMany() {
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        CompletableFuture<Integer> second = new CompletableFuture<>();
+        CompletableFuture<Void> all = CompletableFuture.allOf(first, second);
+        CompletableFuture<Object> any = CompletableFuture.anyOf(first, second);
+
+        second.complete(2);
+        assertEquals(2, any.join());
+        assertFalse(all.isDone());
+        first.complete(1);
+        assertTrue(all.isDone());
+    }
+
+    @Test
+    public void waitsForAsyncResult() throws Exception {
+        CompletableFuture<String> future = CompletableFuture.supplyAsync(() -> {
+            try {
+                Thread.sleep(100);
+            } catch (InterruptedException e) {
+                // Do nothing
+            }
+            return "done";
+        });
+        CompletableFuture<String> dependent = future.thenApplyAsync(String::toUpperCase);
+        assertEquals("DONE", dependent.get());
+        assertEquals("done", future.getNow("none"));
+    }
+
+    @Test
+    public void timesOut() throws Exception {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        long start = System.currentTimeMillis();
+        try {
+            future.get(100, TimeUnit.MILLISECONDS);
+            fail("Timeout expected");
+        } catch (TimeoutException e) {
+            // Expected
+        }
+        assertTrue(System.currentTimeMillis() - start >= 50);
+    }
+
+    @Test
+    public void timedOutWaitsLeaveNoDependents() throws Exception {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        for (int i = 0; i < 5; ++i) {
+            try {
+                future.get(1, TimeUnit.MILLISECONDS);
+                fail("Timeout expected");
+            } catch (TimeoutException e) {
+                // Expected
+            }
+        }
+        assertEquals(0, future.getNumberOfDependents());
+        future.complete("done");
+        assertEquals("done", future.get(1, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    public void longChainCompletes() {
+        CompletableFuture<Integer> first = new CompletableFuture<>();
+        CompletableFuture<Integer> last = first;
+        for (int i = 0; i < 100000; ++i) {
+            last = last.thenApply(x -> x + 1);
+        }
+        first.complete(0);
+        assertEquals(100000, last.join().intValue());
+    }
+
+    @Test
+    public void executorServiceRunsTasks() throws Exception {
+        ExecutorService executor = new ForkJoinPool();
+        Future<Integer> future = executor.submit(() -> 6 * 7);
+        assertEquals(42, future.get().intValue());
+
+        List<Future<Integer>> futures = executor.invokeAll(Arrays.asList(() -> 1, () -> 2, () -> 3));
+        int sum = 0;
+        for (Future<Integer> f : futures) {
+            sum += f.get();
+        }
+        assertEquals(6, sum);
+
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(1, TimeUnit.SECONDS));
+        assertTrue(executor.isTerminated());
+    }
+
+    @Test
+    public void forkJoinTaskComputes() {
+        assertEquals(610, ForkJoinPool.commonPool().invoke(new Fibonacci(15)).intValue());
+
+        RuntimeException exception = new UnsupportedOperationException();
+        RecursiveTask<Integer> failing = new RecursiveTask<Integer>() {
+            @Override
+            protected Integer compute() {
+                throw exception;
+            }
+        };
+        try {
+            failing.invoke();
+            fail("Exception expected");
+        } catch (UnsupportedOperationException e) {
+            // Expected
+        }
+        assertTrue(failing.isCompletedAbnormally());
+        assertSame(exception, failing.getException());
+
+        IOException checkedException = new IOException();
+        RecursiveTask<Integer> failingChecked = new RecursiveTask<Integer>() {
+            @Override
+            protected Integer compute() {
+                return CompletableFutureTest.<RuntimeException>throwUnchecked(checkedException);
+            }
+        };
+        try {
+            failingChecked.invoke();
+            fail("Exception expected");
+        } catch (Exception e) {
+            assertSame(checkedException, e);
+        }
+
+        RecursiveTask<Integer> completedWithChecked = new Fibonacci(1);
+        completedWithChecked.completeExceptionally(checkedException);
+        try {
+            completedWithChecked.join();
+            fail("Exception expected");
+        } catch (RuntimeException e) {
+            assertSame(checkedException, e.getCause());
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <E extends Throwable> Integer throwUnchecked(Throwable e) throws E {
+        throw (E) e;
+    }
+
+    static class Fibonacci extends RecursiveTask<Integer> {
+        private final int n;
+
+        Fibonacci(int n) {
+            this.n = n;
+        }
+
+        @Override
+        protected Integer compute() {
+            if (n < 2) {
+                return n;
+            }
+            Fibonacci first = new Fibonacci(n - 1);
+            first.fork();
+            return new Fibonacci(n - 2).compute() + first.join();
+        }
+    }
+}
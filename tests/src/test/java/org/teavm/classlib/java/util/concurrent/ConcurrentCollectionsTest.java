@@ -0,0 +1,139 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class ConcurrentCollectionsTest {
+    @Test
+    public void linkedQueue() {
+        ConcurrentLinkedQueue<Integer> queue = new ConcurrentLinkedQueue<>();
+        for (int i = 0; i < 5; ++i) {
+            queue.offer(i);
+        }
+        Iterator<Integer> iter = queue.iterator();
+        iter.next();
+        iter.next();
+        iter.remove();
+        assertEquals(0, queue.poll().intValue());
+        assertTrue(queue.remove(3));
+        assertEquals("[2, 4]", queue.toString());
+        assertEquals(2, queue.size());
+    }
+
+    @Test
+    public void linkedDeque() {
+        ConcurrentLinkedDeque<Integer> deque = new ConcurrentLinkedDeque<>();
+        for (int i = 0; i < 10; ++i) {
+            deque.addLast(i);
+        }
+        deque.addFirst(-1);
+        Iterator<Integer> iter = deque.iterator();
+        iter.next();
+        assertEquals(-1, deque.pollFirst().intValue());
+        assertEquals(0, deque.pollFirst().intValue());
+        assertTrue(deque.removeLastOccurrence(9));
+
+        StringBuilder sb = new StringBuilder();
+        while (iter.hasNext()) {
+            sb.append(iter.next());
+        }
+        assertTrue(sb.toString().endsWith("12345678"));
+        assertEquals(8, deque.peekLast().intValue());
+        assertEquals(8, deque.size());
+
+        sb.setLength(0);
+        for (Iterator<Integer> descending = deque.descendingIterator(); descending.hasNext();) {
+            sb.append(descending.next());
+        }
+        assertEquals("87654321", sb.toString());
+    }
+
+    @Test
+    public void copyOnWriteList() {
+        CopyOnWriteArrayList<Integer> list = new CopyOnWriteArrayList<>(Arrays.asList(1, 2, 3));
+        for (Integer value : list) {
+            list.remove(value);
+            list.add(value * 10);
+        }
+        assertEquals(Arrays.asList(10, 20, 30), list);
+
+        assertFalse(list.addIfAbsent(10));
+        assertTrue(list.addIfAbsent(40));
+        assertEquals(1, list.addAllAbsent(Arrays.asList(10, 50, 50)));
+        assertEquals(Arrays.asList(10, 20, 30, 40, 50), list);
+
+        list.subList(1, 3).clear();
+        assertEquals(Arrays.asList(10, 40, 50), list);
+    }
+
+    @Test
+    public void skipListMap() {
+        ConcurrentSkipListMap<Integer, String> map = new ConcurrentSkipListMap<>();
+        for (int i = 0; i < 20; i += 2) {
+            map.put(i, "v" + i);
+        }
+        assertEquals(0, map.firstKey().intValue());
+        assertEquals(18, map.lastKey().intValue());
+        assertEquals(6, map.ceilingKey(5).intValue());
+        assertEquals(4, map.lowerKey(6).intValue());
+        assertNull(map.higherKey(18));
+
+        NavigableMap<Integer, String> sub = map.subMap(4, true, 10, false);
+        assertEquals("{4=v4, 6=v6, 8=v8}", sub.toString());
+        assertEquals("{8=v8, 6=v6, 4=v4}", sub.descendingMap().toString());
+        assertEquals("[18, 16, 14, 12]", map.descendingMap().headMap(10).keySet().toString());
+
+        sub.remove(6);
+        assertFalse(map.containsKey(6));
+        assertEquals(9, map.size());
+        assertEquals(0, map.pollFirstEntry().getKey().intValue());
+    }
+
+    @Test
+    public void skipListMapIteratorIsWeaklyConsistent() {
+        ConcurrentSkipListMap<Integer, Integer> map = new ConcurrentSkipListMap<>();
+        for (int i = 0; i < 10; ++i) {
+            map.put(i, i);
+        }
+        Set<Integer> visited = new HashSet<>();
+        for (Iterator<Integer> iter = map.keySet().iterator(); iter.hasNext();) {
+            int key = iter.next();
+            visited.add(key);
+            map.put(key - 100, 0);
+            map.remove(key + 5);
+        }
+        assertTrue(visited.containsAll(Arrays.asList(0, 1, 2, 3, 4)));
+        assertFalse(visited.contains(7));
+        assertFalse(visited.contains(-100));
+    }
+}
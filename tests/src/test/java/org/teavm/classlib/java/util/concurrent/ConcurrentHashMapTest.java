@@ -0,0 +1,120 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.concurrent;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class ConcurrentHashMapTest {
+    @Test
+    public void putsAndRemoves() {
+        ConcurrentHashMap<String, Integer> map = new ConcurrentHashMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            map.put("key" + i, i);
+        }
+        assertEquals(1000, map.size());
+        assertEquals(500, map.get("key500").intValue());
+        assertNull(map.get("key1000"));
+
+        for (int i = 0; i < 1000; i += 2) {
+            map.remove("key" + i);
+        }
+        assertEquals(500, map.size());
+        assertFalse(map.containsKey("key0"));
+        assertTrue(map.containsKey("key1"));
+        assertTrue(map.containsValue(999));
+    }
+
+    @Test
+    public void atomicOperations() {
+        ConcurrentHashMap<String, Integer> map = new ConcurrentHashMap<>();
+        assertNull(map.putIfAbsent("a", 1));
+        assertEquals(1, map.putIfAbsent("a", 2).intValue());
+        assertFalse(map.replace("a", 2, 3));
+        assertTrue(map.replace("a", 1, 3));
+        assertFalse(map.remove("a", 1));
+        assertTrue(map.remove("a", 3));
+        assertTrue(map.isEmpty());
+
+        for (int i = 0; i < 100; ++i) {
+            map.computeIfAbsent("k" + i % 10, k -> 0);
+            map.merge("k" + i % 10, 1, Integer::sum);
+        }
+        assertEquals(10, map.size());
+        assertEquals(10, map.get("k3").intValue());
+        map.compute("k3", (k, v) -> null);
+        assertFalse(map.containsKey("k3"));
+        assertEquals(5, map.getOrDefault("k3", 5).intValue());
+    }
+
+    @Test
+    public void bulkOperations() {
+        ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+        for (int i = 1; i <= 100; ++i) {
+            map.put(i, i * 2);
+        }
+        assertEquals(5050, map.reduceKeys(1, Integer::sum).intValue());
+        assertEquals(10100, map.reduceValues(1, Integer::sum).intValue());
+        assertEquals(50, map.search(1, (k, v) -> v == 100 ? k : null).intValue());
+        assertNull(map.searchValues(1, v -> v > 1000 ? v : null));
+        assertEquals(100L, map.mappingCount());
+
+        int[] sum = new int[1];
+        map.forEach(1, (k, v) -> sum[0] += k);
+        assertEquals(5050, sum[0]);
+    }
+
+    @Test
+    public void iteratorsAreWeaklyConsistent() {
+        ConcurrentHashMap<Integer, Integer> map = new ConcurrentHashMap<>();
+        for (int i = 0; i < 10; ++i) {
+            map.put(i, i);
+        }
+        Set<Integer> seen = new HashSet<>();
+        for (Iterator<Map.Entry<Integer, Integer>> iter = map.entrySet().iterator(); iter.hasNext();) {
+            Map.Entry<Integer, Integer> entry = iter.next();
+            seen.add(entry.getKey());
+            map.remove(entry.getKey());
+            map.put(entry.getKey() + 100, 0);
+        }
+        assertTrue(seen.size() >= 10);
+        assertEquals(10, map.size());
+    }
+
+    @Test
+    public void keySetView() {
+        Set<String> set = ConcurrentHashMap.newKeySet();
+        assertTrue(set.add("a"));
+        assertFalse(set.add("a"));
+        assertTrue(set.contains("a"));
+
+        ConcurrentHashMap<String, Boolean> map = new ConcurrentHashMap<>();
+        ConcurrentHashMap.KeySetView<String, Boolean> keys = map.keySet(true);
+        keys.add("b");
+        assertTrue(map.get("b"));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.classlib.java.util.regex;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class RegexEngineTest {
+    @Test
+    public void findsLeftmostFirstMatch() {
+        assertEquals("[0,1][2,3]", findAll("a|ab", "a ab"));
+        assertEquals("[0,2][3,5]", findAll("ab|a", "ab ab"));
+        assertEquals("[0,3]", findAll("a+?b|a+", "aab"));
+        assertEquals("[1,3]", findAll("x*.", "\nxc"));
+        assertEquals("[0,1][1,2][2,3]", findAll("[ab]*?a*?.", "aba"));
+    }
+
+    @Test
+    public void findsEmptyMatches() {
+        assertEquals("[0,0][1,1][2,2]", findAll("", "ab"));
+        assertEquals("[0,0][1,2][2,2]", findAll("b*", "ab"));
+    }
+
+    @Test
+    public void reportsGroups() {
+        Matcher matcher = Pattern.compile("(\\d+)-(\\w+)?").matcher("x 12-ab 3- y");
+        assertTrue(matcher.find());
+        assertEquals("12-ab", matcher.group());
+        assertEquals("12", matcher.group(1));
+        assertEquals("ab", matcher.group(2));
+        assertTrue(matcher.find());
+        assertEquals(8, matcher.start());
+        assertEquals("3", matcher.group(1));
+        assertNull(matcher.group(2));
+        assertFalse(matcher.find());
+
+        matcher = Pattern.compile("(?:(a)|b)+").matcher("ab");
+        assertTrue(matcher.matches());
+        assertEquals("a", matcher.group(1));
+    }
+
+    @Test
+    public void matchesWholeInput() {
+        Pattern pattern = Pattern.compile("a|ab");
+        assertTrue(pattern.matcher("ab").matches());
+        assertTrue(pattern.matcher("ab").lookingAt());
+        assertFalse(pattern.matcher("abc").matches());
+        assertFalse(pattern.matcher("ba").lookingAt());
+        assertTrue(Pattern.matches("[a-z0-9._]+@[a-z0-9]+\\.[a-z]{2,4}", "john.doe@example.com"));
+        assertFalse(Pattern.matches("[a-z0-9._]+@[a-z0-9]+\\.[a-z]{2,4}", "john.doe@example.comcom"));
+    }
+
+    @Test
+    public void anchors() {
+        assertEquals("[0,2]", findAll("^ab", "abab"));
+        Matcher matcher = Pattern.compile("^a").matcher("aa");
+        assertFalse(matcher.find(1));
+
+        assertEquals("[2,3]", findAll("c$", "abc"));
+        assertEquals("[2,3]", findAll("c$", "abc\n"));
+        assertEquals("[2,3]", findAll("c$", "abc\r\n"));
+        assertEquals("", findAll("c$", "abc\n\n"));
+        assertFalse(Pattern.matches("c$", "c\n"));
+        assertTrue(Pattern.compile("c$").matcher("c\n").lookingAt());
+    }
+
+    @Test
+    public void dotAndLineTerminators() {
+        assertEquals("[0,1][2,3]", findAll(".", "a\nb"));
+        assertEquals("[0,1][2,3]", findAll(".", "a\u2028b"));
+        assertEquals("[0,1][2,3]", findAll(".+", "a\u0085b"));
+        assertEquals("[0,1][3,4]", findAll(".+", "a\r\nb"));
+        assertEquals("[0,1][1,2][2,3]", findAll(Pattern.compile(".", Pattern.DOTALL), "a\nb"));
+        assertEquals("[0,1][1,2][2,3]", findAll(Pattern.compile(".", Pattern.UNIX_LINES), "a\rb"));
+    }
+
+    @Test
+    public void characterClasses() {
+        assertEquals("[1,3][6,7]", findAll("[^\\sa-c]+", "a12 b\tx"));
+        assertEquals("[0,2][3,4]", findAll("[\\w&&]+|\\d", "a_ 1"));
+        assertEquals("[1,2]", findAll("[\\-\\]]", "a]"));
+        assertEquals("[0,1]", findAll("\\x41|\\u0042\\t", "AB"));
+    }
+
+    @Test
+    public void literalPatterns() {
+        assertEquals("[1,4]", findAll(Pattern.compile("a.b", Pattern.LITERAL), "xa.bx"));
+        assertEquals("[1,4]", findAll(Pattern.quote("a+b"), "xa+bx"));
+        assertEquals("[0,5]", findAll("\\Qa\\Eb{2}\\Q.*\\E", "abb.*"));
+    }
+
+    @Test
+    public void hitEndAfterFastPath() {
+        Matcher matcher = Pattern.compile("ab+").matcher("xab");
+        assertFalse(matcher.find(3));
+        assertTrue(matcher.hitEnd());
+
+        matcher = Pattern.compile("ab").matcher("abx");
+        assertTrue(matcher.find());
+        assertFalse(matcher.hitEnd());
+        assertEquals("ab", matcher.group());
+    }
+
+    @Test
+    public void regionUsesWholeMatcherSemantics() {
+        Matcher matcher = Pattern.compile("b+").matcher("abbba");
+        matcher.region(2, 4);
+        assertTrue(matcher.matches());
+        assertEquals(2, matcher.start());
+        matcher.reset();
+        assertTrue(matcher.find());
+        assertEquals(1, matcher.start());
+        assertEquals(4, matcher.end());
+    }
+
+    @Test
+    public void supplementaryCharacters() {
+        assertEquals("[0,2][2,3]", findAll(".", "\uD83D\uDE00a"));
+        assertTrue(Pattern.matches("a.b", "a\uD83D\uDE00b"));
+    }
+
+    @Test
+    public void usePatternSwitchesEngine() {
+        Matcher matcher = Pattern.compile("a+").matcher("aab");
+        assertTrue(matcher.lookingAt());
+        matcher.usePattern(Pattern.compile("(a)(b)"));
+        matcher.reset();
+        assertTrue(matcher.find());
+        assertEquals(1, matcher.start());
+        assertEquals("b", matcher.group(2));
+    }
+
+    @Test
+    public void manyStates() {
+        StringBuilder sb = new StringBuilder();
+        int seed = 1;
+        for (int i = 0; i < 5000; ++i) {
+            seed = seed * 1103515245 + 12345;
+            sb.append((seed >>> 16 & 1) == 0 ? 'a' : 'b');
+        }
+        int lastStart = sb.lastIndexOf("a", sb.length() - 13);
+        Matcher matcher = Pattern.compile("[ab]*a[ab]{12}").matcher(sb);
+        assertTrue(matcher.find());
+        assertEquals(0, matcher.start());
+        assertEquals(lastStart + 13, matcher.end());
+        assertFalse(matcher.find());
+    }
+
+    @Test
+    public void replaceAndSplit() {
+        assertEquals("x#y#z", "x12y3z".replaceAll("\\d+", "#"));
+        assertEquals("x[12]y[3]z", "x12y3z".replaceAll("(\\d+)", "[$1]"));
+        String[] parts = "a , b,c ,d".split("\\s*,\\s*");
+        assertEquals(4, parts.length);
+        assertEquals("d", parts[3]);
+    }
+
+    private static String findAll(String regex, String input) {
+        return findAll(Pattern.compile(regex), input);
+    }
+
+    private static String findAll(Pattern pattern, String input) {
+        Matcher matcher = pattern.matcher(input);
+        StringBuilder sb = new StringBuilder();
+        while (matcher.find()) {
+            sb.append('[').append(matcher.start()).append(',').append(matcher.end()).append(']');
+        }
+        return sb.toString();
+    }
+}
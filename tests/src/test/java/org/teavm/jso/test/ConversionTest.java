@@ -25,6 +25,7 @@ import org.teavm.jso.JSByRef;
 import org.teavm.jso.JSObject;
 import org.teavm.jso.JSProperty;
 import org.teavm.jso.core.JSString;
+import org.teavm.jso.typedarrays.Int32Array;
 import org.teavm.junit.SkipJVM;
 import org.teavm.junit.TeaVMTestRunner;
 
@@ -158,6 +159,21 @@ public class ConversionTest {
         assertEquals(44, array[1]);
     }
 
+    @Test
+    public void returnsArrayByRef() {
+        int[] array = createIntArrayByRef(3);
+        assertEquals(3, array.length);
+        assertEquals(2, array[2]);
+
+        array[1] = 23;
+        assertEquals(23, getSecondElement(array));
+
+        Int32Array typedArray = Int32Array.fromJavaArray(array);
+        typedArray.set(0, 42);
+        assertEquals(42, array[0]);
+        assertEquals(array.length, Int32Array.toJavaArray(typedArray).length);
+    }
+
     @JSBody(params = { "a", "b", "c", "d", "e", "f", "g", "h" }, script = ""
             + "return '' + a + ':' + b + ':' + c + ':' + d + ':' + e + ':' + f.toFixed(1) + ':'"
                     + "+ g.toFixed(1) + ':' + h;")
@@ -323,6 +339,18 @@ public class ConversionTest {
             + "}")
     private static native void mutateByRef(@JSByRef int[] array);
 
+    @JSBody(params = "size", script = ""
+            + "var array = new Int32Array(size);"
+            + "for (var i = 0; i < size; ++i) {"
+                + "array[i] = i;"
+            + "}"
+            + "return array;")
+    @JSByRef
+    private static native int[] createIntArrayByRef(int size);
+
+    @JSBody(params = "array", script = "return array[1];")
+    private static native int getSecondElement(@JSByRef int[] array);
+
     private interface ByRefMutator extends JSObject {
         void mutate(@JSByRef int[] array);
     }
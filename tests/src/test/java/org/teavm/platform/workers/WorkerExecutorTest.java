@@ -0,0 +1,133 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.platform.workers;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.teavm.jso.JSBody;
+import org.teavm.jso.JSObject;
+import org.teavm.jso.core.JSArray;
+import org.teavm.jso.workers.Worker;
+import org.teavm.junit.SkipJVM;
+import org.teavm.junit.TeaVMTestRunner;
+
+@RunWith(TeaVMTestRunner.class)
+public class WorkerExecutorTest {
+    @Test
+    @SkipJVM
+    public void suspendedTasksKeepOwnTransfers() throws InterruptedException {
+        WorkerExecutor.register("slow", (argument, context) -> {
+            context.transferResult(createBuffer(1));
+            Thread.sleep(100);
+            context.transferResult(createBuffer(2));
+            return argument;
+        });
+        WorkerExecutor.register("fast", (argument, context) -> {
+            context.transferResult(createBuffer(3));
+            return argument;
+        });
+
+        Map<Integer, String> responses = new HashMap<>();
+        WorkerExecutor.Responder responder = new WorkerExecutor.Responder() {
+            @Override
+            public void respond(int id, JSObject result, JSArray<JSObject> transfers) {
+                StringBuilder sb = new StringBuilder();
+                for (int i = 0; i < transfers.getLength(); ++i) {
+                    sb.append(getByteLength(transfers.get(i)));
+                }
+                responses.put(id, sb.toString());
+            }
+
+            @Override
+            public void respondWithError(int id, String error) {
+                responses.put(id, error);
+            }
+        };
+
+        Thread slow = new Thread(() -> WorkerExecutor.process(WorkerExecutor.createRequest(1, "slow", null),
+                responder));
+        Thread fast = new Thread(() -> WorkerExecutor.process(WorkerExecutor.createRequest(2, "fast", null),
+                responder));
+        slow.start();
+        Thread.sleep(20);
+        fast.start();
+        fast.join();
+        assertEquals("3", responses.get(2));
+        assertNull(responses.get(1));
+        slow.join();
+        assertEquals("12", responses.get(1));
+    }
+
+    @Test
+    public void nonPositiveTimeoutDoesNotWait() throws Exception {
+        WorkerFuture future = new WorkerFuture(null, 0);
+        try {
+            future.get(-1, TimeUnit.MILLISECONDS);
+            fail("Timeout expected");
+        } catch (TimeoutException e) {
+            // ok
+        }
+        try {
+            future.get(0, TimeUnit.SECONDS);
+            fail("Timeout expected");
+        } catch (TimeoutException e) {
+            // ok
+        }
+    }
+
+    @Test
+    @SkipJVM
+    public void shutdownCancelsPendingTasks() throws Exception {
+        Worker worker = createIdleWorker();
+        WorkerExecutor executor = new WorkerExecutor(new Worker[] { worker });
+        Future<JSObject> future = executor.submit("task", null);
+        assertFalse(future.isDone());
+
+        executor.shutdown();
+        assertTrue(isTerminated(worker));
+        assertTrue(future.isDone());
+        assertTrue(future.isCancelled());
+        try {
+            future.get();
+            fail("Cancellation expected");
+        } catch (CancellationException e) {
+            // ok
+        }
+    }
+
+    @JSBody(script = "return { postMessage: function() {}, terminate: function() { this.terminated = true; } };")
+    private static native Worker createIdleWorker();
+
+    @JSBody(params = "worker", script = "return !!worker.terminated;")
+    private static native boolean isTerminated(Worker worker);
+
+    @JSBody(params = "size", script = "return new ArrayBuffer(size);")
+    private static native JSObject createBuffer(int size);
+
+    @JSBody(params = "buffer", script = "return buffer.byteLength;")
+    private static native int getByteLength(JSObject buffer);
+}
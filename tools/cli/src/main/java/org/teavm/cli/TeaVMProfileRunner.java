@@ -0,0 +1,153 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.cli;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.OptionBuilder;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+import org.apache.commons.cli.PosixParser;
+import org.teavm.debugging.information.DebugInformation;
+import org.teavm.tooling.profiler.CpuProfile;
+import org.teavm.tooling.profiler.JavaProfile;
+import org.teavm.tooling.profiler.JavaProfileBuilder;
+
+/**
+ * Converts CPU profile recorded by V8 (Chrome, Node.js) into profile with Java frames,
+ * using debug information generated by TeaVM.
+ */
+public final class TeaVMProfileRunner {
+    private static final String DEBUG_INFO_SUFFIX = ".teavmdbg";
+    private static final int DEFAULT_HOTSPOT_COUNT = 30;
+    private static Options options = new Options();
+
+    static {
+        setupOptions();
+    }
+
+    private TeaVMProfileRunner() {
+    }
+
+    @SuppressWarnings("static-access")
+    private static void setupOptions() {
+        options.addOption(OptionBuilder
+                .withArgName("file")
+                .hasArgs()
+                .withDescription("debug information file (like classes.js.teavmdbg) of a script that appears "
+                        + "in profile")
+                .withLongOpt("debug-info")
+                .create('d'));
+        options.addOption(OptionBuilder
+                .withArgName("file")
+                .hasArg()
+                .withDescription("a file where to write stacks in folded format, suitable for flame graph "
+                        + "renderers")
+                .withLongOpt("output")
+                .create('o'));
+        options.addOption(OptionBuilder
+                .withArgName("number")
+                .hasArg()
+                .withDescription("how many hotspots to print (" + DEFAULT_HOTSPOT_COUNT + " by default)")
+                .withLongOpt("top")
+                .create('n'));
+    }
+
+    public static void main(String[] args) {
+        if (args.length == 0) {
+            printUsage();
+            return;
+        }
+        CommandLineParser parser = new PosixParser();
+        CommandLine commandLine;
+        try {
+            commandLine = parser.parse(options, args);
+        } catch (ParseException e) {
+            printUsage();
+            return;
+        }
+        if (commandLine.getArgs().length != 1) {
+            System.err.println("Exactly one profile file expected");
+            printUsage();
+            return;
+        }
+
+        int hotspotCount = DEFAULT_HOTSPOT_COUNT;
+        if (commandLine.hasOption('n')) {
+            try {
+                hotspotCount = Integer.parseInt(commandLine.getOptionValue('n'));
+            } catch (NumberFormatException e) {
+                System.err.println("Wrong number of hotspots specified");
+                printUsage();
+                return;
+            }
+        }
+
+        try {
+            JavaProfileBuilder builder = new JavaProfileBuilder();
+            String[] debugInfoFiles = commandLine.getOptionValues('d');
+            if (debugInfoFiles != null) {
+                for (String fileName : debugInfoFiles) {
+                    File file = new File(fileName);
+                    String scriptName = file.getName();
+                    if (scriptName.endsWith(DEBUG_INFO_SUFFIX)) {
+                        scriptName = scriptName.substring(0, scriptName.length() - DEBUG_INFO_SUFFIX.length());
+                    }
+                    builder.addScript(scriptName, DebugInformation.read(file));
+                }
+            }
+
+            CpuProfile cpuProfile;
+            try (Reader reader = new InputStreamReader(new FileInputStream(commandLine.getArgs()[0]),
+                    StandardCharsets.UTF_8)) {
+                cpuProfile = CpuProfile.read(reader);
+            }
+            JavaProfile profile = builder.build(cpuProfile);
+
+            if (commandLine.hasOption('o')) {
+                try (Writer writer = new OutputStreamWriter(new FileOutputStream(commandLine.getOptionValue('o')),
+                        StandardCharsets.UTF_8)) {
+                    profile.writeFoldedStacks(writer);
+                }
+            }
+
+            PrintWriter writer = new PrintWriter(System.out);
+            profile.writeHotspots(writer, hotspotCount);
+            writer.flush();
+        } catch (IOException e) {
+            System.err.println("Error processing profile: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    private static void printUsage() {
+        HelpFormatter formatter = new HelpFormatter();
+        formatter.printHelp("java " + TeaVMProfileRunner.class.getName() + " [OPTIONS] profile.cpuprofile",
+                options);
+        System.exit(-1);
+    }
+}
@@ -45,6 +45,7 @@ import org.apache.commons.cli.OptionBuilder;
 import org.apache.commons.cli.Options;
 import org.apache.commons.cli.ParseException;
 import org.apache.commons.cli.PosixParser;
+import org.teavm.backend.javascript.JSModuleType;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
 import org.teavm.tooling.RuntimeCopyOperation;
 import org.teavm.tooling.TeaVMTargetType;
@@ -103,6 +104,19 @@ public final class TeaVMRunner {
                 .withDescription("how to attach runtime. Possible values are: separate|merge|none")
                 .withLongOpt("runtime")
                 .create("r"));
+        options.addOption(OptionBuilder
+                .withDescription("copy only those runtime functions that are referenced by generated code")
+                .withLongOpt("strip-runtime")
+                .create());
+        options.addOption(OptionBuilder
+                .withDescription("generate ES2015 module that exports entry points (runtime gets merged)")
+                .withLongOpt("es2015-module")
+                .create());
+        options.addOption(OptionBuilder
+                .withDescription("initialize inherited fields in constructors instead of calling superclass "
+                        + "constructors")
+                .withLongOpt("flat-objects")
+                .create());
         options.addOption(OptionBuilder
                 .withDescription("Generate debug information")
                 .withLongOpt("debug")
@@ -149,6 +163,10 @@ public final class TeaVMRunner {
                 .hasArg()
                 .withDescription("Minimum heap size in bytes (for C and WebAssembly)")
                 .create());
+        options.addOption(OptionBuilder
+                .withLongOpt("gc-stats")
+                .withDescription("Collect allocation and garbage collection statistics (for C and WebAssembly)")
+                .create());
     }
 
     private TeaVMRunner(CommandLine commandLine) {
@@ -247,6 +265,15 @@ public final class TeaVMRunner {
                     printUsage();
             }
         }
+        if (commandLine.hasOption("strip-runtime")) {
+            tool.setRuntimeStripped(true);
+        }
+        if (commandLine.hasOption("es2015-module")) {
+            tool.setModuleType(JSModuleType.ES2015);
+        }
+        if (commandLine.hasOption("flat-objects")) {
+            tool.setFlatObjectLayout(true);
+        }
     }
 
     private void parseDebugOptions() {
@@ -340,6 +367,7 @@ public final class TeaVMRunner {
             }
             tool.setMinHeapSize(size);
         }
+        tool.setGCStatisticsCollected(commandLine.hasOption("gc-stats"));
     }
 
     private void setUp() {
@@ -17,6 +17,7 @@ package org.teavm.tooling;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
@@ -32,10 +33,13 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
 import org.teavm.backend.c.CTarget;
+import org.teavm.backend.javascript.JSModuleType;
 import org.teavm.backend.javascript.JavaScriptTarget;
 import org.teavm.backend.javascript.rendering.RenderingManager;
+import org.teavm.backend.javascript.rendering.RuntimeRenderer;
 import org.teavm.backend.wasm.WasmTarget;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
 import org.teavm.cache.DiskCachedClassHolderSource;
@@ -44,6 +48,7 @@ import org.teavm.cache.DiskRegularMethodNodeCache;
 import org.teavm.cache.FileSymbolTable;
 import org.teavm.debugging.information.DebugInformation;
 import org.teavm.debugging.information.DebugInformationBuilder;
+import org.teavm.debugging.information.SourceMapsEmitter;
 import org.teavm.dependency.DependencyInfo;
 import org.teavm.diagnostics.ProblemProvider;
 import org.teavm.model.ClassHolderSource;
@@ -74,6 +79,9 @@ public class TeaVMTool implements BaseTeaVMTool {
     private boolean minifying = true;
     private String mainClass;
     private RuntimeCopyOperation runtime = RuntimeCopyOperation.SEPARATE;
+    private boolean runtimeStripped;
+    private JSModuleType moduleType = JSModuleType.NONE;
+    private boolean flatObjectLayout;
     private Properties properties = new Properties();
     private boolean debugInformationGenerated;
     private boolean sourceMapsFileGenerated;
@@ -101,6 +109,7 @@ public class TeaVMTool implements BaseTeaVMTool {
     private CTarget cTarget;
     private Set<File> generatedFiles = new HashSet<>();
     private int minHeapSize = 32 * (1 << 20);
+    private boolean gcStatisticsCollected;
 
     public File getTargetDirectory() {
         return targetDirectory;
@@ -153,6 +162,50 @@ public class TeaVMTool implements BaseTeaVMTool {
         this.runtime = runtime;
     }
 
+    public boolean isRuntimeStripped() {
+        return runtimeStripped;
+    }
+
+    /**
+     * Specifies whether TeaVM should copy only those functions of <code>runtime.js</code> that are
+     * actually referenced by generated code. Note that when runtime is merged into generated file
+     * and either debug information or source maps are generated, the whole runtime is copied,
+     * since stripping it would break source locations.
+     *
+     * @param runtimeStripped whether runtime should be stripped.
+     */
+    public void setRuntimeStripped(boolean runtimeStripped) {
+        this.runtimeStripped = runtimeStripped;
+    }
+
+    public JSModuleType getModuleType() {
+        return moduleType;
+    }
+
+    /**
+     * Specifies what kind of module generated JavaScript represents. ES2015 modules always get
+     * runtime merged into them, unless runtime copying is turned off.
+     *
+     * @param moduleType module type.
+     */
+    public void setModuleType(JSModuleType moduleType) {
+        this.moduleType = moduleType;
+    }
+
+    public boolean isFlatObjectLayout() {
+        return flatObjectLayout;
+    }
+
+    /**
+     * Specifies whether constructors of generated JavaScript classes should initialize inherited fields
+     * themselves instead of calling constructors of superclasses.
+     *
+     * @param flatObjectLayout whether constructors should be flattened.
+     */
+    public void setFlatObjectLayout(boolean flatObjectLayout) {
+        this.flatObjectLayout = flatObjectLayout;
+    }
+
     public boolean isDebugInformationGenerated() {
         return debugInformationGenerated;
     }
@@ -231,6 +284,14 @@ public class TeaVMTool implements BaseTeaVMTool {
         this.minHeapSize = minHeapSize;
     }
 
+    public boolean isGCStatisticsCollected() {
+        return gcStatisticsCollected;
+    }
+
+    public void setGCStatisticsCollected(boolean gcStatisticsCollected) {
+        this.gcStatisticsCollected = gcStatisticsCollected;
+    }
+
     public ClassLoader getClassLoader() {
         return classLoader;
     }
@@ -324,9 +385,10 @@ public class TeaVMTool implements BaseTeaVMTool {
     private TeaVMTarget prepareJavaScriptTarget() {
         javaScriptTarget = new JavaScriptTarget();
         javaScriptTarget.setMinifying(minifying);
+        javaScriptTarget.setModuleType(moduleType);
+        javaScriptTarget.setFlatObjectLayout(flatObjectLayout);
 
-        debugEmitter = debugInformationGenerated || sourceMapsFileGenerated
-                ? new DebugInformationBuilder() : null;
+        debugEmitter = debugInformationGenerated ? new DebugInformationBuilder() : null;
         javaScriptTarget.setDebugEmitter(debugEmitter);
 
         if (incremental) {
@@ -343,12 +405,14 @@ public class TeaVMTool implements BaseTeaVMTool {
         webAssemblyTarget.setWastEmitted(debugInformationGenerated);
         webAssemblyTarget.setVersion(wasmVersion);
         webAssemblyTarget.setMinHeapSize(minHeapSize);
+        webAssemblyTarget.setGCStatisticsCollected(gcStatisticsCollected);
         return webAssemblyTarget;
     }
 
     private CTarget prepareCTarget() {
         cTarget = new CTarget();
         cTarget.setMinHeapSize(minHeapSize);
+        cTarget.setGCStatisticsCollected(gcStatisticsCollected);
         return cTarget;
     }
 
@@ -407,12 +471,16 @@ public class TeaVMTool implements BaseTeaVMTool {
             }
             targetDirectory.mkdirs();
 
-            if (runtime == RuntimeCopyOperation.MERGED) {
+            if (getEffectiveRuntime() == RuntimeCopyOperation.MERGED && !isMergedRuntimeStripped()) {
                 javaScriptTarget.add(runtimeInjector);
             }
             BuildTarget buildTarget = new DirectoryBuildTarget(targetDirectory);
             String outputName = getResolvedTargetFileName();
-            vm.build(buildTarget, outputName);
+            if (isSourceMapsStreamed()) {
+                buildWithSourceMaps(buildTarget, outputName);
+            } else {
+                vm.build(buildTarget, outputName);
+            }
             if (vm.wasCancelled()) {
                 log.info("Build cancelled");
                 cancelled = true;
@@ -439,6 +507,9 @@ public class TeaVMTool implements BaseTeaVMTool {
                         additionalJavaScriptOutput(writer);
                     }
                 }
+                if (runtimeStripped) {
+                    writeStrippedRuntime(outputFile);
+                }
             }
 
             if (incremental) {
@@ -458,6 +529,20 @@ public class TeaVMTool implements BaseTeaVMTool {
         }
     }
 
+    private boolean isSourceMapsStreamed() {
+        return targetType == TeaVMTargetType.JAVASCRIPT && sourceMapsFileGenerated && !debugInformationGenerated;
+    }
+
+    private void buildWithSourceMaps(BuildTarget buildTarget, String outputName) throws IOException {
+        OutputStream output = buildTarget.createResource(outputName + ".map");
+        try (Writer sourceMapsOut = new BufferedWriter(new OutputStreamWriter(output, "UTF-8"))) {
+            SourceMapsEmitter sourceMapsEmitter = new SourceMapsEmitter(sourceMapsOut, outputName, "src");
+            javaScriptTarget.setDebugEmitter(sourceMapsEmitter);
+            vm.build(buildTarget, outputName);
+            sourceMapsEmitter.complete();
+        }
+    }
+
     private String getResolvedTargetFileName() {
         if (targetFileName.isEmpty()) {
             switch (targetType) {
@@ -484,19 +569,21 @@ public class TeaVMTool implements BaseTeaVMTool {
             DebugInformation debugInfo = debugEmitter.getDebugInformation();
             File debugSymbolFile = new File(targetDirectory, getResolvedTargetFileName() + ".teavmdbg");
             try (OutputStream debugInfoOut = new BufferedOutputStream(new FileOutputStream(debugSymbolFile))) {
-                debugInfo.write(debugInfoOut);
+                debugInfo.writeIndexed(debugInfoOut);
             }
             generatedFiles.add(debugSymbolFile);
             log.info("Debug information successfully written");
         }
         if (sourceMapsFileGenerated) {
-            assert debugEmitter != null;
-            DebugInformation debugInfo = debugEmitter.getDebugInformation();
             String sourceMapsFileName = getResolvedTargetFileName() + ".map";
             writer.append("\n//# sourceMappingURL=").append(sourceMapsFileName);
             File sourceMapsFile = new File(targetDirectory, sourceMapsFileName);
-            try (Writer sourceMapsOut = new OutputStreamWriter(new FileOutputStream(sourceMapsFile), "UTF-8")) {
-                debugInfo.writeAsSourceMaps(sourceMapsOut, "src", getResolvedTargetFileName());
+            if (!isSourceMapsStreamed()) {
+                assert debugEmitter != null;
+                DebugInformation debugInfo = debugEmitter.getDebugInformation();
+                try (Writer sourceMapsOut = new OutputStreamWriter(new FileOutputStream(sourceMapsFile), "UTF-8")) {
+                    debugInfo.writeAsSourceMaps(sourceMapsOut, "src", getResolvedTargetFileName());
+                }
             }
             generatedFiles.add(sourceMapsFile);
             log.info("Source maps successfully written");
@@ -506,9 +593,49 @@ public class TeaVMTool implements BaseTeaVMTool {
             log.info("Source files successfully written");
         }
 
-        if (runtime == RuntimeCopyOperation.SEPARATE) {
-            resourceToFile("org/teavm/backend/javascript/runtime.js", "runtime.js");
+        if (getEffectiveRuntime() == RuntimeCopyOperation.SEPARATE && !runtimeStripped) {
+            resourceToFile(RuntimeRenderer.RUNTIME_RESOURCE, "runtime.js");
+        }
+    }
+
+    private RuntimeCopyOperation getEffectiveRuntime() {
+        if (runtime == RuntimeCopyOperation.SEPARATE && targetType == TeaVMTargetType.JAVASCRIPT
+                && moduleType == JSModuleType.ES2015) {
+            return RuntimeCopyOperation.MERGED;
+        }
+        return runtime;
+    }
+
+    private boolean isMergedRuntimeStripped() {
+        return runtimeStripped && !debugInformationGenerated && !sourceMapsFileGenerated;
+    }
+
+    private void writeStrippedRuntime(File outputFile) throws IOException {
+        RuntimeCopyOperation runtime = getEffectiveRuntime();
+        if (runtime == RuntimeCopyOperation.NONE
+                || (runtime == RuntimeCopyOperation.MERGED && !isMergedRuntimeStripped())) {
+            return;
+        }
+
+        String code = FileUtils.readFileToString(outputFile, "UTF-8");
+        RuntimeRenderer runtimeRenderer = RuntimeRenderer.load(TeaVMTool.class.getClassLoader());
+        runtimeRenderer.addRoots(code);
+        if (debugInformationGenerated) {
+            runtimeRenderer.addRootsWithPrefix("$dbg_");
+        }
+
+        File runtimeFile = runtime == RuntimeCopyOperation.SEPARATE
+                ? new File(targetDirectory, "runtime.js")
+                : outputFile;
+        try (Writer writer = new OutputStreamWriter(new BufferedOutputStream(new FileOutputStream(runtimeFile)),
+                "UTF-8")) {
+            runtimeRenderer.render(writer);
+            if (runtime == RuntimeCopyOperation.MERGED) {
+                writer.write(code);
+            }
         }
+        generatedFiles.add(runtimeFile);
+        log.info("Stripped runtime successfully written");
     }
 
     private void printStats() {
@@ -541,7 +668,7 @@ public class TeaVMTool implements BaseTeaVMTool {
         @Override
         public void begin(RenderingManager manager, BuildTarget buildTarget) throws IOException {
             StringWriter writer = new StringWriter();
-            resourceToWriter("org/teavm/backend/javascript/runtime.js", writer);
+            resourceToWriter(RuntimeRenderer.RUNTIME_RESOURCE, writer);
             writer.close();
             manager.getWriter().append(writer.toString()).newLine();
         }
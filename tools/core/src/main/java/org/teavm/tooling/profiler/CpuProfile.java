@@ -0,0 +1,168 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.profiler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * <p>Call tree of a sampling profile in format produced by V8 (<code>.cpuprofile</code> files saved by
+ * Chrome DevTools, Node.js <code>--cpu-prof</code> option or <code>Profiler.stop</code> command
+ * of remote debugging protocol).</p>
+ *
+ * <p>Both the flat format (<code>nodes</code> array with children given by ids) and the legacy
+ * nested format (<code>head</code> node) are supported. When the profile contains <code>samples</code>,
+ * hit counts are recomputed from them.</p>
+ */
+public class CpuProfile {
+    private Map<Integer, CpuProfileNode> nodes = new LinkedHashMap<>();
+    private CpuProfileNode root;
+    private int lastSyntheticId;
+
+    private CpuProfile() {
+    }
+
+    public CpuProfileNode getRoot() {
+        return root;
+    }
+
+    public Collection<CpuProfileNode> getNodes() {
+        return Collections.unmodifiableCollection(nodes.values());
+    }
+
+    public CpuProfileNode getNode(int id) {
+        return nodes.get(id);
+    }
+
+    public static CpuProfile read(Reader input) throws IOException {
+        JsonNode json = new ObjectMapper().readTree(input);
+        if (json == null || !json.isObject()) {
+            throw new IOException("Profile must be a JSON object");
+        }
+
+        CpuProfile profile = new CpuProfile();
+        Map<Integer, int[]> childIds = new LinkedHashMap<>();
+        JsonNode nodesJson = json.get("nodes");
+        if (nodesJson != null) {
+            for (JsonNode nodeJson : nodesJson) {
+                profile.readNode(nodeJson, childIds);
+            }
+        }
+        JsonNode headJson = json.get("head");
+        if (headJson != null) {
+            profile.root = profile.readNode(headJson, childIds);
+        }
+
+        for (Map.Entry<Integer, int[]> entry : childIds.entrySet()) {
+            CpuProfileNode node = profile.nodes.get(entry.getKey());
+            for (int childId : entry.getValue()) {
+                CpuProfileNode child = profile.nodes.get(childId);
+                if (child == null) {
+                    throw new IOException("Node " + node.id + " refers to unknown child " + childId);
+                }
+                child.parent = node;
+                node.children.add(child);
+            }
+        }
+
+        if (profile.root == null) {
+            for (CpuProfileNode node : profile.nodes.values()) {
+                if (node.parent == null) {
+                    profile.root = node;
+                    break;
+                }
+            }
+            if (profile.root == null) {
+                throw new IOException("Profile does not contain root node");
+            }
+        }
+
+        JsonNode samplesJson = json.get("samples");
+        if (samplesJson != null && samplesJson.size() > 0) {
+            for (CpuProfileNode node : profile.nodes.values()) {
+                node.hitCount = 0;
+            }
+            for (JsonNode sample : samplesJson) {
+                CpuProfileNode node = profile.nodes.get(sample.asInt());
+                if (node != null) {
+                    node.hitCount++;
+                }
+            }
+        }
+
+        return profile;
+    }
+
+    private CpuProfileNode readNode(JsonNode json, Map<Integer, int[]> childIds) throws IOException {
+        if (!json.isObject()) {
+            throw new IOException("Profile node must be a JSON object");
+        }
+        CpuProfileNode node = new CpuProfileNode();
+        node.id = json.has("id") ? json.get("id").asInt() : --lastSyntheticId;
+        node.hitCount = json.path("hitCount").asLong();
+        readCallFrame(json, node);
+        JsonNode callFrame = json.get("callFrame");
+        if (callFrame != null) {
+            readCallFrame(callFrame, node);
+        }
+
+        List<CpuProfileNode> nestedChildren = new ArrayList<>();
+        JsonNode children = json.get("children");
+        if (children != null && children.size() > 0) {
+            if (children.get(0).isObject()) {
+                for (JsonNode child : children) {
+                    nestedChildren.add(readNode(child, childIds));
+                }
+            } else {
+                int[] ids = new int[children.size()];
+                for (int i = 0; i < ids.length; ++i) {
+                    ids[i] = children.get(i).asInt();
+                }
+                childIds.put(node.id, ids);
+            }
+        }
+
+        for (CpuProfileNode child : nestedChildren) {
+            child.parent = node;
+            node.children.add(child);
+        }
+        nodes.put(node.id, node);
+        return node;
+    }
+
+    private static void readCallFrame(JsonNode json, CpuProfileNode node) {
+        if (json.has("functionName")) {
+            node.functionName = json.get("functionName").asText();
+        }
+        if (json.has("url")) {
+            node.url = json.get("url").asText();
+        }
+        if (json.has("lineNumber")) {
+            node.lineNumber = json.get("lineNumber").asInt();
+        }
+        if (json.has("columnNumber")) {
+            node.columnNumber = json.get("columnNumber").asInt();
+        }
+    }
+}
@@ -0,0 +1,73 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.profiler;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+public class CpuProfileNode {
+    int id;
+    String functionName = "";
+    String url = "";
+    int lineNumber = -1;
+    int columnNumber = -1;
+    long hitCount;
+    CpuProfileNode parent;
+    final List<CpuProfileNode> children = new ArrayList<>();
+    private List<CpuProfileNode> readonlyChildren = Collections.unmodifiableList(children);
+
+    public int getId() {
+        return id;
+    }
+
+    public String getFunctionName() {
+        return functionName;
+    }
+
+    public String getUrl() {
+        return url;
+    }
+
+    /**
+     * Gets zero-based line of function start in generated script, or <code>-1</code> if unknown.
+     */
+    public int getLineNumber() {
+        return lineNumber;
+    }
+
+    /**
+     * Gets zero-based column of function start in generated script, or <code>-1</code> if unknown.
+     */
+    public int getColumnNumber() {
+        return columnNumber;
+    }
+
+    /**
+     * Gets number of samples taken while this function was on top of the stack.
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public CpuProfileNode getParent() {
+        return parent;
+    }
+
+    public List<CpuProfileNode> getChildren() {
+        return readonlyChildren;
+    }
+}
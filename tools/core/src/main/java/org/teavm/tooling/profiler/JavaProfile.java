@@ -0,0 +1,112 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.profiler;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Profile with stacks consisting of Java frames, as produced by {@link JavaProfileBuilder}.
+ * Stacks are ordered from the outermost frame to the innermost one.
+ */
+public class JavaProfile {
+    private Map<List<ProfileFrame>, Long> stacks = new LinkedHashMap<>();
+    private long totalSamples;
+
+    void add(List<ProfileFrame> stack, long samples) {
+        stacks.merge(stack, samples, Long::sum);
+        totalSamples += samples;
+    }
+
+    public Map<List<ProfileFrame>, Long> getStacks() {
+        return Collections.unmodifiableMap(stacks);
+    }
+
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+
+    public List<ProfileHotspot> getHotspots() {
+        Map<ProfileFrame, ProfileHotspot> hotspots = new HashMap<>();
+        Set<ProfileFrame> visited = new HashSet<>();
+        for (Map.Entry<List<ProfileFrame>, Long> entry : stacks.entrySet()) {
+            List<ProfileFrame> stack = entry.getKey();
+            long samples = entry.getValue();
+            if (stack.isEmpty()) {
+                continue;
+            }
+            visited.clear();
+            for (ProfileFrame frame : stack) {
+                if (visited.add(frame)) {
+                    hotspots.computeIfAbsent(frame, ProfileHotspot::new).totalSamples += samples;
+                }
+            }
+            hotspots.get(stack.get(stack.size() - 1)).selfSamples += samples;
+        }
+
+        List<ProfileHotspot> result = new ArrayList<>(hotspots.values());
+        result.sort(Comparator.comparingLong(ProfileHotspot::getSelfSamples).reversed()
+                .thenComparing(Comparator.comparingLong(ProfileHotspot::getTotalSamples).reversed())
+                .thenComparing(hotspot -> hotspot.getFrame().getLabel()));
+        return result;
+    }
+
+    /**
+     * Writes stacks in the "folded" format, i.e. one stack per line, frames separated by semicolon and
+     * followed by number of samples. This format is accepted by <code>flamegraph.pl</code>,
+     * speedscope and similar flame graph renderers.
+     */
+    public void writeFoldedStacks(Writer writer) throws IOException {
+        for (Map.Entry<List<ProfileFrame>, Long> entry : stacks.entrySet()) {
+            List<ProfileFrame> stack = entry.getKey();
+            if (stack.isEmpty()) {
+                continue;
+            }
+            for (int i = 0; i < stack.size(); ++i) {
+                if (i > 0) {
+                    writer.write(';');
+                }
+                writer.write(stack.get(i).getLabel().replace(';', ':'));
+            }
+            writer.write(' ');
+            writer.write(String.valueOf(entry.getValue()));
+            writer.write('\n');
+        }
+    }
+
+    public void writeHotspots(Writer writer, int limit) throws IOException {
+        writer.write("   self%   total%      self     total  frame\n");
+        List<ProfileHotspot> hotspots = getHotspots();
+        for (ProfileHotspot hotspot : hotspots.subList(0, Math.min(limit, hotspots.size()))) {
+            writer.write(String.format("%7.2f%% %7.2f%% %9d %9d  %s\n", percent(hotspot.getSelfSamples()),
+                    percent(hotspot.getTotalSamples()), hotspot.getSelfSamples(), hotspot.getTotalSamples(),
+                    hotspot.getFrame().getLabel()));
+        }
+    }
+
+    private double percent(long samples) {
+        return totalSamples > 0 ? samples * 100.0 / totalSamples : 0;
+    }
+}
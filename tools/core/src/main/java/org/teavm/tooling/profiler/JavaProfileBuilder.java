@@ -0,0 +1,295 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.profiler;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.teavm.debugging.information.DebugInformation;
+import org.teavm.debugging.information.GeneratedLocation;
+import org.teavm.debugging.information.SourceLocation;
+import org.teavm.model.MethodReference;
+
+/**
+ * <p>Converts V8 CPU profile of a TeaVM application into Java-level profile.</p>
+ *
+ * <p>Frames of scripts registered via {@link #addScript(String, DebugInformation)} are resolved to Java methods.
+ * Frames of these scripts that don't correspond to any Java method (runtime helpers like <code>Long_mul</code>
+ * or <code>$rt_compare</code>, and functions that resume threads after suspension) are folded into
+ * the nearest Java caller, so their samples are counted as self time of the caller.
+ * When such frame has no Java caller, it is kept under its own name.
+ * Frames of other scripts and pseudo-frames like <code>(garbage collector)</code> are kept as is.</p>
+ *
+ * <p>WebAssembly frames are named after functions, as reported by the names section. Names of functions that
+ * TeaVM generated for Java methods are decoded to <code>Class.method</code>, other functions
+ * are treated as runtime helpers. Mangled names have no separator between method name and parameter types,
+ * so codes of parameter types remain appended to the method name, like <code>java.lang.Math.maxII</code>
+ * for <code>Math.max(int, int)</code>.</p>
+ */
+public class JavaProfileBuilder {
+    private static final String ROOT_FUNCTION = "(root)";
+    private static final String WASM_URL_PREFIX = "wasm://";
+    private static final String WASM_METHOD_PREFIX = "method$";
+    private static final String WASM_PRIMITIVE_TYPES = "ZBSCILFDV";
+    private Map<String, DebugInformation> scripts = new HashMap<>();
+    private Map<CpuProfileNode, ProfileFrame> frameCache = new HashMap<>();
+    private Map<MethodReference, SourceLocation> methodLocations = new HashMap<>();
+
+    /**
+     * Registers debug information of a generated script.
+     *
+     * @param scriptName name of the script, matched against end of script URL in profile,
+     *                   like <code>classes.js</code>.
+     * @param debugInformation debug information produced along with the script.
+     */
+    public void addScript(String scriptName, DebugInformation debugInformation) {
+        scripts.put(scriptName, debugInformation);
+    }
+
+    public JavaProfile build(CpuProfile profile) {
+        JavaProfile result = new JavaProfile();
+        Deque<PendingNode> queue = new ArrayDeque<>();
+        queue.push(new PendingNode(profile.getRoot(), null));
+        while (!queue.isEmpty()) {
+            PendingNode pending = queue.pop();
+            CpuProfileNode node = pending.node;
+            StackEntry stack = pending.stack;
+
+            if (node.getParent() != null || !node.getFunctionName().equals(ROOT_FUNCTION)) {
+                ProfileFrame frame = resolve(node);
+                if (frame != null) {
+                    stack = new StackEntry(frame, stack);
+                } else if (stack == null || !stack.frame.isJava()) {
+                    stack = new StackEntry(ProfileFrame.forName(nameOf(node)), stack);
+                }
+            }
+
+            if (node.getHitCount() > 0) {
+                result.add(toList(stack), node.getHitCount());
+            }
+            for (CpuProfileNode child : node.getChildren()) {
+                queue.push(new PendingNode(child, stack));
+            }
+        }
+        return result;
+    }
+
+    private static List<ProfileFrame> toList(StackEntry stack) {
+        List<ProfileFrame> list = new ArrayList<>();
+        while (stack != null) {
+            list.add(stack.frame);
+            stack = stack.parent;
+        }
+        Collections.reverse(list);
+        return list;
+    }
+
+    /**
+     * Resolves frame of a profile node, returns <code>null</code> if the frame should be folded into its caller.
+     */
+    private ProfileFrame resolve(CpuProfileNode node) {
+        if (frameCache.containsKey(node)) {
+            return frameCache.get(node);
+        }
+        ProfileFrame frame;
+        DebugInformation debugInformation = findScript(node.getUrl());
+        if (debugInformation != null) {
+            frame = resolveJavaScript(node, debugInformation);
+        } else if (node.getUrl().startsWith(WASM_URL_PREFIX)) {
+            frame = resolveWasm(node);
+        } else {
+            frame = ProfileFrame.forName(nameOf(node));
+        }
+        frameCache.put(node, frame);
+        return frame;
+    }
+
+    private DebugInformation findScript(String url) {
+        int end = url.length();
+        int queryIndex = url.indexOf('?');
+        if (queryIndex >= 0) {
+            end = queryIndex;
+        }
+        int fragmentIndex = url.indexOf('#');
+        if (fragmentIndex >= 0 && fragmentIndex < end) {
+            end = fragmentIndex;
+        }
+        int start = url.lastIndexOf('/', end - 1) + 1;
+        return scripts.get(url.substring(start, end));
+    }
+
+    private ProfileFrame resolveJavaScript(CpuProfileNode node, DebugInformation debugInformation) {
+        if (node.getLineNumber() < 0 || node.getColumnNumber() < 0) {
+            return null;
+        }
+        MethodReference method = debugInformation.getMethodAt(node.getLineNumber(), node.getColumnNumber());
+        if (method == null) {
+            return null;
+        }
+        SourceLocation location = methodLocations.computeIfAbsent(method, m -> {
+            for (GeneratedLocation entrance : debugInformation.getMethodEntrances(m)) {
+                SourceLocation entranceLocation = debugInformation.getSourceLocation(entrance);
+                if (entranceLocation.getFileName() != null) {
+                    return entranceLocation;
+                }
+            }
+            return debugInformation.getSourceLocation(node.getLineNumber(), node.getColumnNumber());
+        });
+        return ProfileFrame.forMethod(method, location);
+    }
+
+    private static ProfileFrame resolveWasm(CpuProfileNode node) {
+        String name = node.getFunctionName();
+        if (name.startsWith("$")) {
+            name = name.substring(1);
+        }
+        if (!name.startsWith(WASM_METHOD_PREFIX)) {
+            return null;
+        }
+
+        int index = WASM_METHOD_PREFIX.length();
+        int lengthEnd = skipDigits(name, index);
+        if (lengthEnd == index) {
+            return ProfileFrame.forJavaName(name);
+        }
+        int length = Integer.parseInt(name.substring(index, lengthEnd));
+        StringBuilder result = new StringBuilder();
+        index = unmangle(name, lengthEnd, length, result);
+        if (index < 0 || index >= name.length() || name.charAt(index) != '_') {
+            return ProfileFrame.forJavaName(name);
+        }
+        result.append('.');
+
+        int nameStart = skipMangledType(name, index + 1);
+        if (nameStart < 0 || unmangle(name, nameStart, Integer.MAX_VALUE, result) < 0) {
+            return ProfileFrame.forJavaName(name);
+        }
+        return ProfileFrame.forJavaName(result.toString());
+    }
+
+    private static int skipMangledType(String name, int index) {
+        if (index >= name.length()) {
+            return -1;
+        }
+        char c = name.charAt(index);
+        if (WASM_PRIMITIVE_TYPES.indexOf(c) >= 0) {
+            return index + 1;
+        }
+        if (c == 'A') {
+            return skipMangledType(name, index + 1);
+        }
+        int lengthEnd = skipDigits(name, index);
+        if (lengthEnd == index || lengthEnd >= name.length() || name.charAt(lengthEnd) != '_') {
+            return -1;
+        }
+        int length = Integer.parseInt(name.substring(index, lengthEnd));
+        return unmangle(name, lengthEnd + 1, length, new StringBuilder());
+    }
+
+    private static int skipDigits(String name, int index) {
+        while (index < name.length() && Character.isDigit(name.charAt(index))) {
+            ++index;
+        }
+        return index;
+    }
+
+    /**
+     * Decodes at most <code>length</code> characters escaped by {@link org.teavm.ast.Mangling}.
+     *
+     * @return index of the first character after decoded ones or <code>-1</code> if the string is malformed.
+     */
+    private static int unmangle(String name, int index, int length, StringBuilder sb) {
+        int count = 0;
+        while (count < length && index < name.length()) {
+            char c = name.charAt(index++);
+            ++count;
+            if (c != '_') {
+                sb.append(c);
+                continue;
+            }
+            if (index >= name.length()) {
+                return -1;
+            }
+            char escape = name.charAt(index++);
+            switch (escape) {
+                case 'g':
+                    sb.append('.');
+                    break;
+                case 'h':
+                    sb.append('<');
+                    break;
+                case 'i':
+                    sb.append('>');
+                    break;
+                case '_':
+                    sb.append('_');
+                    break;
+                default:
+                    if (index + 3 > name.length()) {
+                        return -1;
+                    }
+                    try {
+                        sb.append((char) Integer.parseInt(name.substring(index - 1, index + 3), 16));
+                    } catch (NumberFormatException e) {
+                        return -1;
+                    }
+                    index += 3;
+                    break;
+            }
+        }
+        return count == length || length == Integer.MAX_VALUE ? index : -1;
+    }
+
+    private static String nameOf(CpuProfileNode node) {
+        String name = node.getFunctionName();
+        if (name.isEmpty()) {
+            name = "(anonymous)";
+        }
+        String url = node.getUrl();
+        if (!url.isEmpty() && !url.startsWith(WASM_URL_PREFIX)) {
+            int queryIndex = url.indexOf('?');
+            if (queryIndex >= 0) {
+                url = url.substring(0, queryIndex);
+            }
+            name += " [" + url.substring(url.lastIndexOf('/') + 1) + "]";
+        }
+        return name;
+    }
+
+    static class PendingNode {
+        final CpuProfileNode node;
+        final StackEntry stack;
+
+        PendingNode(CpuProfileNode node, StackEntry stack) {
+            this.node = node;
+            this.stack = stack;
+        }
+    }
+
+    static class StackEntry {
+        final ProfileFrame frame;
+        final StackEntry parent;
+
+        StackEntry(ProfileFrame frame, StackEntry parent) {
+            this.frame = frame;
+            this.parent = parent;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.profiler;
+
+import org.teavm.debugging.information.SourceLocation;
+import org.teavm.model.MethodReference;
+
+/**
+ * Frame of a Java-level profile. It is either a Java method resolved by debug information, or
+ * a frame that could not be resolved, like a function of a third-party script, a browser API or a
+ * pseudo-frame like <code>(garbage collector)</code>.
+ */
+public class ProfileFrame {
+    private MethodReference method;
+    private SourceLocation location;
+    private String label;
+    private boolean java;
+
+    private ProfileFrame(MethodReference method, SourceLocation location, String label, boolean java) {
+        this.method = method;
+        this.location = location;
+        this.label = label;
+        this.java = java;
+    }
+
+    public static ProfileFrame forMethod(MethodReference method, SourceLocation location) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(method.getClassName()).append('.').append(method.getName());
+        if (location != null && location.getFileName() != null) {
+            String fileName = location.getFileName();
+            sb.append('(').append(fileName.substring(fileName.lastIndexOf('/') + 1));
+            if (location.getLine() >= 0) {
+                sb.append(':').append(location.getLine());
+            }
+            sb.append(')');
+        }
+        return new ProfileFrame(method, location, sb.toString(), true);
+    }
+
+    public static ProfileFrame forName(String name) {
+        return new ProfileFrame(null, null, name, false);
+    }
+
+    /**
+     * Creates frame of a Java method that is only known by name, like a WebAssembly function.
+     */
+    public static ProfileFrame forJavaName(String name) {
+        return new ProfileFrame(null, null, name, true);
+    }
+
+    public boolean isJava() {
+        return java;
+    }
+
+    /**
+     * Gets Java method this frame is resolved to, or <code>null</code> if the frame is not a Java one
+     * or the method is only known by name.
+     */
+    public MethodReference getMethod() {
+        return method;
+    }
+
+    /**
+     * Gets location of the first line of the method.
+     */
+    public SourceLocation getLocation() {
+        return location;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (!(obj instanceof ProfileFrame)) {
+            return false;
+        }
+        return label.equals(((ProfileFrame) obj).label);
+    }
+
+    @Override
+    public int hashCode() {
+        return label.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return label;
+    }
+}
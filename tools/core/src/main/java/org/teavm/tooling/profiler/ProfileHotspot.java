@@ -0,0 +1,45 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.profiler;
+
+public class ProfileHotspot {
+    private ProfileFrame frame;
+    long selfSamples;
+    long totalSamples;
+
+    ProfileHotspot(ProfileFrame frame) {
+        this.frame = frame;
+    }
+
+    public ProfileFrame getFrame() {
+        return frame;
+    }
+
+    /**
+     * Gets number of samples taken while the frame was on top of the stack, including time spent in runtime
+     * helpers it called.
+     */
+    public long getSelfSamples() {
+        return selfSamples;
+    }
+
+    /**
+     * Gets number of samples taken while the frame was anywhere on the stack. Recursive calls are counted once.
+     */
+    public long getTotalSamples() {
+        return totalSamples;
+    }
+}
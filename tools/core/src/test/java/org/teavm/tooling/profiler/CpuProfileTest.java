@@ -0,0 +1,95 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.profiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import java.io.IOException;
+import java.io.StringReader;
+import org.junit.Test;
+
+public class CpuProfileTest {
+    @Test
+    public void readsFlatProfile() throws IOException {
+        CpuProfile profile = read("{'nodes':["
+                + "{'id':1,'callFrame':{'functionName':'(root)','url':'','lineNumber':-1,'columnNumber':-1},"
+                + "'hitCount':0,'children':[2,3]},"
+                + "{'id':2,'callFrame':{'functionName':'foo','url':'http://localhost/classes.js',"
+                + "'lineNumber':3,'columnNumber':17},'hitCount':5},"
+                + "{'id':3,'callFrame':{'functionName':'(garbage collector)','url':''},'hitCount':1}"
+                + "],'samples':[2,3,3,2,3]}");
+
+        CpuProfileNode root = profile.getRoot();
+        assertEquals(1, root.getId());
+        assertNull(root.getParent());
+        assertEquals(2, root.getChildren().size());
+        assertEquals(3, profile.getNodes().size());
+
+        CpuProfileNode foo = profile.getNode(2);
+        assertSame(root, foo.getParent());
+        assertEquals("foo", foo.getFunctionName());
+        assertEquals("http://localhost/classes.js", foo.getUrl());
+        assertEquals(3, foo.getLineNumber());
+        assertEquals(17, foo.getColumnNumber());
+        assertEquals("Hit count must be computed from samples", 2, foo.getHitCount());
+
+        CpuProfileNode gc = profile.getNode(3);
+        assertEquals(-1, gc.getLineNumber());
+        assertEquals(-1, gc.getColumnNumber());
+        assertEquals(3, gc.getHitCount());
+    }
+
+    @Test
+    public void readsNestedProfile() throws IOException {
+        CpuProfile profile = read("{'head':{'functionName':'(root)','url':'','lineNumber':0,'columnNumber':0,"
+                + "'hitCount':0,'children':["
+                + "{'functionName':'foo','url':'classes.js','lineNumber':2,'columnNumber':4,'hitCount':3,"
+                + "'children':[{'functionName':'bar','url':'classes.js','lineNumber':5,'columnNumber':6,"
+                + "'hitCount':7}]}]}}");
+
+        CpuProfileNode root = profile.getRoot();
+        assertEquals("(root)", root.getFunctionName());
+        assertEquals(1, root.getChildren().size());
+        assertEquals(3, profile.getNodes().size());
+
+        CpuProfileNode foo = root.getChildren().get(0);
+        assertSame(root, foo.getParent());
+        assertEquals("foo", foo.getFunctionName());
+        assertEquals(3, foo.getHitCount());
+
+        CpuProfileNode bar = foo.getChildren().get(0);
+        assertSame(foo, bar.getParent());
+        assertEquals("bar", bar.getFunctionName());
+        assertEquals(5, bar.getLineNumber());
+        assertEquals(6, bar.getColumnNumber());
+        assertEquals(7, bar.getHitCount());
+    }
+
+    @Test(expected = IOException.class)
+    public void unknownChildRejected() throws IOException {
+        read("{'nodes':[{'id':1,'callFrame':{'functionName':'(root)'},'children':[2]}]}");
+    }
+
+    @Test(expected = IOException.class)
+    public void nonObjectRejected() throws IOException {
+        read("[]");
+    }
+
+    static CpuProfile read(String json) throws IOException {
+        return CpuProfile.read(new StringReader(json.replace('\'', '"')));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+ *  Copyright 2018 Alexey Andreev.
+ *
+ *  Licensed under the Apache License, Version 2.0 (the "License");
+ *  you may not use this file except in compliance with the License.
+ *  You may obtain a copy of the License at
+ *
+ *       http://www.apache.org/licenses/LICENSE-2.0
+ *
+ *  Unless required by applicable law or agreed to in writing, software
+ *  distributed under the License is distributed on an "AS IS" BASIS,
+ *  WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ *  See the License for the specific language governing permissions and
+ *  limitations under the License.
+ */
+package org.teavm.tooling.profiler;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Test;
+import org.teavm.backend.javascript.codegen.LocationProvider;
+import org.teavm.debugging.information.DebugInformation;
+import org.teavm.debugging.information.DebugInformationBuilder;
+import org.teavm.model.MethodDescriptor;
+import org.teavm.model.ValueType;
+
+public class JavaProfileBuilderTest {
+    @Test
+    public void resolvesJavaScriptFrames() throws IOException {
+        JavaProfileBuilder builder = new JavaProfileBuilder();
+        builder.addScript("classes.js", createDebugInformation());
+        JavaProfile profile = builder.build(CpuProfileTest.read("{'nodes':["
+                + node(1, "(root)", "", 0, 2, 3, 6, 7) + ","
+                + node(2, "(garbage collector)", "", 0) + ","
+                + node(3, "A_run", "http://localhost/classes.js?v=1", 60, 4) + ","
+                + node(4, "A_helper", "http://localhost/classes.js?v=1", 110, 5) + ","
+                + node(5, "$rt_compare", "http://localhost/classes.js?v=1", 210) + ","
+                + node(6, "$rt_main", "http://localhost/classes.js?v=1", 220) + ","
+                + node(7, "lib", "http://localhost/lib/other.js", 5)
+                + "],'samples':[2,2,2,2,3,4,4,4,5,5,6,7]}"));
+
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("(garbage collector)", 4L);
+        expected.put("foo.A.run(A.java:10)", 1L);
+        expected.put("foo.A.run(A.java:10);foo.A.helper(A.java:20)", 5L);
+        expected.put("$rt_main [classes.js]", 1L);
+        expected.put("lib [other.js]", 1L);
+        assertEquals(expected, stacks(profile));
+        assertEquals(12, profile.getTotalSamples());
+    }
+
+    @Test
+    public void resolvesWasmFrames() throws IOException {
+        JavaProfile profile = new JavaProfileBuilder().build(CpuProfileTest.read("{'nodes':["
+                + node(1, "(root)", "", 0, 2, 4) + ","
+                + node(2, "$method$11org_gfoo_gBar_VworkI", "wasm://wasm/0001", 0, 3) + ","
+                + node(3, "$teavm_gc_alloc", "wasm://wasm/0001", 0) + ","
+                + node(4, "$method$5a_gb__c_A16_java_glang_gStringdoI", "wasm://wasm/0001", 0)
+                + "],'samples':[2,3,3,4]}"));
+
+        Map<String, Long> expected = new HashMap<>();
+        expected.put("org.foo.Bar.workI", 3L);
+        expected.put("a.b_c.doI", 1L);
+        assertEquals(expected, stacks(profile));
+        for (List<ProfileFrame> stack : profile.getStacks().keySet()) {
+            assertTrue(stack.get(0).isJava());
+        }
+    }
+
+    private static DebugInformation createDebugInformation() {
+        MutableLocationProvider locationProvider = new MutableLocationProvider();
+        DebugInformationBuilder builder = new DebugInformationBuilder();
+        builder.setLocationProvider(locationProvider);
+
+        builder.emitClass("foo.A");
+        builder.emitMethod(new MethodDescriptor("run", ValueType.VOID));
+        builder.emitLocation("foo/A.java", 10);
+        locationProvider.column = 50;
+        builder.emitLocation("foo/A.java", 11);
+        locationProvider.column = 100;
+        builder.emitMethod(new MethodDescriptor("helper", ValueType.VOID));
+        builder.emitLocation("foo/A.java", 20);
+        locationProvider.column = 200;
+        builder.emitClass(null);
+        builder.emitMethod(null);
+        builder.emitLocation(null, -1);
+
+        return builder.getDebugInformation();
+    }
+
+    private static String node(int id, String functionName, String url, int column, int... childIds) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{'id':").append(id).append(",'callFrame':{'functionName':'").append(functionName)
+                .append("','url':'").append(url).append("','lineNumber':0,'columnNumber':").append(column)
+                .append("},'children':[");
+        for (int i = 0; i < childIds.length; ++i) {
+            if (i > 0) {
+                sb.append(',');
+            }
+            sb.append(childIds[i]);
+        }
+        return sb.append("]}").toString();
+    }
+
+    private static Map<String, Long> stacks(JavaProfile profile) {
+        Map<String, Long> result = new HashMap<>();
+        for (Map.Entry<List<ProfileFrame>, Long> entry : profile.getStacks().entrySet()) {
+            List<String> labels = new ArrayList<>();
+            for (ProfileFrame frame : entry.getKey()) {
+                labels.add(frame.getLabel());
+            }
+            result.put(String.join(";", labels), entry.getValue());
+        }
+        return result;
+    }
+
+    static class MutableLocationProvider implements LocationProvider {
+        int column;
+
+        @Override
+        public int getLine() {
+            return 0;
+        }
+
+        @Override
+        public int getColumn() {
+            return column;
+        }
+    }
+}
@@ -24,6 +24,7 @@ import org.apache.maven.plugins.annotations.LifecyclePhase;
 import org.apache.maven.plugins.annotations.Mojo;
 import org.apache.maven.plugins.annotations.Parameter;
 import org.apache.maven.plugins.annotations.ResolutionScope;
+import org.teavm.backend.javascript.JSModuleType;
 import org.teavm.backend.wasm.render.WasmBinaryVersion;
 import org.teavm.tooling.RuntimeCopyOperation;
 import org.teavm.tooling.TeaVMTargetType;
@@ -58,6 +59,15 @@ public class TeaVMCompileMojo extends AbstractTeaVMMojo {
     @Parameter
     protected RuntimeCopyOperation runtime = RuntimeCopyOperation.SEPARATE;
 
+    @Parameter
+    private boolean runtimeStripped;
+
+    @Parameter
+    private JSModuleType moduleType = JSModuleType.NONE;
+
+    @Parameter
+    private boolean flatObjectLayout;
+
     @Parameter
     private TeaVMOptimizationLevel optimizationLevel = TeaVMOptimizationLevel.SIMPLE;
 
@@ -85,6 +95,9 @@ public class TeaVMCompileMojo extends AbstractTeaVMMojo {
         try {
             tool.setMainClass(mainClass);
             tool.setRuntime(runtime);
+            tool.setRuntimeStripped(runtimeStripped);
+            tool.setModuleType(moduleType);
+            tool.setFlatObjectLayout(flatObjectLayout);
             if (!targetFileName.isEmpty()) {
                 tool.setTargetFileName(targetFileName);
             }